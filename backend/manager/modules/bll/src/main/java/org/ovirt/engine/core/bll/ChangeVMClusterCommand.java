@@ -6,6 +6,7 @@ import java.util.Objects;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
+import javax.enterprise.event.Event;
 import javax.inject.Inject;
 
 import org.ovirt.engine.core.bll.context.CommandContext;
@@ -20,6 +21,7 @@ import org.ovirt.engine.core.common.businessentities.VM;
 import org.ovirt.engine.core.common.businessentities.network.Network;
 import org.ovirt.engine.core.common.businessentities.network.VmNic;
 import org.ovirt.engine.core.common.errors.EngineMessage;
+import org.ovirt.engine.core.common.qualifiers.AffinityGroupsChanged;
 import org.ovirt.engine.core.common.scheduling.AffinityGroup;
 import org.ovirt.engine.core.compat.Guid;
 import org.ovirt.engine.core.dao.ClusterDao;
@@ -45,6 +47,9 @@ public class ChangeVMClusterCommand<T extends ChangeVMClusterParameters> extends
     private VmStaticDao vmStaticDao;
     @Inject
     private AffinityGroupDao affinityGroupDao;
+    @Inject
+    @AffinityGroupsChanged
+    private Event<Guid> affinityGroupsChangedEvent;
 
     @Inject
     private NetworkHelper networkHelper;
@@ -161,6 +166,7 @@ public class ChangeVMClusterCommand<T extends ChangeVMClusterParameters> extends
             String groups = allAffinityGroupsByVmId.stream().map(AffinityGroup::getName).collect(Collectors.joining(" "));
             log.info("Due to cluster change, removing VM from associated affinity group(s): {}", groups);
             affinityGroupDao.removeVmFromAffinityGroups(vm.getId());
+            affinityGroupsChangedEvent.fire(originalClusterId);
         }
         setSucceeded(true);
     }
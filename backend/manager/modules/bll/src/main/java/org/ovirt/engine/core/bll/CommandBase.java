@@ -88,7 +88,6 @@ import org.ovirt.engine.core.dal.dbbroker.auditloghandling.AuditLogableImpl;
 import org.ovirt.engine.core.dal.job.ExecutionMessageDirector;
 import org.ovirt.engine.core.dao.BusinessEntitySnapshotDao;
 import org.ovirt.engine.core.dao.EntityDao;
-import org.ovirt.engine.core.dao.PermissionDao;
 import org.ovirt.engine.core.dao.StepDao;
 import org.ovirt.engine.core.utils.CorrelationIdTracker;
 import org.ovirt.engine.core.utils.ReflectionUtils;
@@ -154,7 +153,7 @@ public abstract class CommandBase<T extends ActionParametersBase>
     private BusinessEntitySnapshotDao businessEntitySnapshotDao;
 
     @Inject
-    private PermissionDao permissionDao;
+    private PermissionIndex permissionIndex;
 
     @Inject
     private StepDao stepDao;
@@ -893,8 +892,8 @@ public abstract class CommandBase<T extends ActionParametersBase>
             final ActionGroup actionGroup,
             final Guid object,
             final VdcObjectType type) {
-        // Grant if there is matching permission in the database:
-        final Guid permId = permissionDao.getEntityPermissions(userId, actionGroup, object, type);
+        // Grant if there is matching permission:
+        final Guid permId = permissionIndex.getEntityPermissions(userId, actionGroup, object, type);
         if (permId != null) {
             if (log.isDebugEnabled()) {
                 log.debug("Found permission '{}' for user when running '{}', on '{}' with id '{}'",
@@ -0,0 +1,310 @@
+package org.ovirt.engine.core.bll;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import org.ovirt.engine.core.common.VdcObjectType;
+import org.ovirt.engine.core.common.businessentities.ActionGroup;
+import org.ovirt.engine.core.common.businessentities.Permission;
+import org.ovirt.engine.core.common.businessentities.RoleGroupMap;
+import org.ovirt.engine.core.common.config.Config;
+import org.ovirt.engine.core.common.config.ConfigValues;
+import org.ovirt.engine.core.compat.Guid;
+import org.ovirt.engine.core.compat.TransactionScopeOption;
+import org.ovirt.engine.core.dao.PermissionDao;
+import org.ovirt.engine.core.dao.RoleGroupMapDao;
+import org.ovirt.engine.core.dao.cache.PermissionChangeTracker;
+import org.ovirt.engine.core.utils.transaction.TransactionSupport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Answers the permission checks of the commands from an in memory copy of the permissions and of the action groups of
+ * the roles, instead of calling the <code>get_entity_permissions</code> database function for each of them.
+ *
+ * The groups of a user are resolved the way <code>getUserAndGroupsById</code> resolves them, they are the groups of
+ * all the sessions of the user that are known to the engine. They are read once for each user and kept along with the
+ * permissions.
+ *
+ * When {@link PermissionChangeTracker} reports changes, only the permissions of the users and groups and the groups
+ * of the users they affect are read again. The checks made in a transaction with uncommitted changes are passed to
+ * the database, the copy is read outside of the transaction and doesn't show them.
+ *
+ * The containment of the objects that <code>fn_get_entity_parents</code> walks isn't kept in memory, as it changes
+ * with most of the commands on the objects, so only part of the checks is answered in memory: those where a
+ * permission is granted on the object itself or on the system, and those where no permission with a matching role is
+ * granted to the user at all. The other checks, those that depend on the parents of the object, are passed to the
+ * database.
+ *
+ * The way the checks are answered is set by {@link ConfigValues#PermissionChecksMode}, in the <code>Audit</code> mode
+ * the database answers and the answers that differ from the in memory ones are logged.
+ */
+@Singleton
+public class PermissionIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(PermissionIndex.class);
+
+    /**
+     * The types of objects <code>fn_get_entity_parents</code> returns the system and the object itself as parents of.
+     */
+    private static final Set<VdcObjectType> OBJECT_TYPES_WITH_PARENTS = EnumSet.of(VdcObjectType.System,
+            VdcObjectType.VM,
+            VdcObjectType.VDS,
+            VdcObjectType.VmTemplate,
+            VdcObjectType.VmPool,
+            VdcObjectType.Cluster,
+            VdcObjectType.Storage,
+            VdcObjectType.StoragePool,
+            VdcObjectType.User,
+            VdcObjectType.Role,
+            VdcObjectType.Quota,
+            VdcObjectType.GlusterVolume,
+            VdcObjectType.Disk,
+            VdcObjectType.Network,
+            VdcObjectType.GlusterHook,
+            VdcObjectType.GlusterService,
+            VdcObjectType.VnicProfile,
+            VdcObjectType.MacPool,
+            VdcObjectType.DiskProfile,
+            VdcObjectType.CpuProfile);
+
+    /**
+     * Marks a check the in memory copy found no permission for, as opposed to <code>null</code> returned for a check
+     * it can't answer.
+     */
+    private static final Guid NOT_GRANTED = Guid.Empty;
+
+    enum Mode {
+        Database,
+        InMemory,
+        Audit
+    }
+
+    @Inject
+    private PermissionDao permissionDao;
+
+    @Inject
+    private RoleGroupMapDao roleGroupMapDao;
+
+    @Inject
+    private PermissionChangeTracker permissionChangeTracker;
+
+    private volatile Grants grants;
+
+    /**
+     * Finds a permission granting the given action group on the given object to the given user.
+     *
+     * @param userId
+     *            the id of the user
+     * @param actionGroup
+     *            the action group to check
+     * @param objectId
+     *            the id of the object
+     * @param type
+     *            the type of the object
+     * @return the id of the granting permission, <code>null</code> if there is none
+     */
+    public Guid getEntityPermissions(Guid userId, ActionGroup actionGroup, Guid objectId, VdcObjectType type) {
+        Mode mode = getMode();
+        if (mode == Mode.Database || permissionChangeTracker.hasUncommittedChanges()) {
+            return permissionDao.getEntityPermissions(userId, actionGroup, objectId, type);
+        }
+
+        Grants current = getGrants();
+        Guid inMemory = current.find(getUserAndGroupIds(current, userId), actionGroup, objectId, type);
+        if (mode == Mode.InMemory && inMemory != null) {
+            return NOT_GRANTED.equals(inMemory) ? null : inMemory;
+        }
+
+        Guid fromDatabase = permissionDao.getEntityPermissions(userId, actionGroup, objectId, type);
+        if (mode == Mode.Audit && inMemory != null && NOT_GRANTED.equals(inMemory) != (fromDatabase == null)) {
+            log.warn("Permission check of user '{}' for action group '{}' on {} '{}' differs,"
+                            + " in memory: '{}', database: '{}'",
+                    userId,
+                    actionGroup,
+                    type,
+                    objectId,
+                    NOT_GRANTED.equals(inMemory) ? null : inMemory,
+                    fromDatabase);
+        }
+        return fromDatabase;
+    }
+
+    private Mode getMode() {
+        String mode = Config.getValue(ConfigValues.PermissionChecksMode);
+        try {
+            return Mode.valueOf(mode);
+        } catch (IllegalArgumentException | NullPointerException e) {
+            log.warn("Unknown permission checks mode '{}', the database is used", mode);
+            return Mode.Database;
+        }
+    }
+
+    private Grants getGrants() {
+        long version = permissionChangeTracker.getVersion();
+        Grants current = grants;
+        if (current != null && current.version == version) {
+            return current;
+        }
+        synchronized (this) {
+            Grants previous = grants;
+            if (previous == null || previous.version != version) {
+                grants = TransactionSupport.executeInScope(TransactionScopeOption.Suppress, () -> update(previous));
+            }
+            return grants;
+        }
+    }
+
+    /**
+     * @return the ids the permissions of the given user are looked up by, read from the database the first time the
+     *         user is checked with the given copy
+     */
+    private Set<Guid> getUserAndGroupIds(Grants current, Guid userId) {
+        Set<Guid> ids = current.userAndGroupIdsByUser.get(userId);
+        if (ids == null) {
+            ids = new HashSet<>(TransactionSupport.executeInScope(TransactionScopeOption.Suppress,
+                    () -> permissionDao.getUserAndGroupIds(userId)));
+            current.userAndGroupIdsByUser.put(userId, ids);
+        }
+        return ids;
+    }
+
+    private Grants update(Grants previous) {
+        if (previous == null) {
+            return load();
+        }
+        PermissionChangeTracker.Changes changes = permissionChangeTracker.getChangesSince(previous.version);
+        if (changes.isAllChanged()) {
+            return load();
+        }
+
+        Set<Guid> adElementIds = new HashSet<>(changes.getAdElementIds());
+        if (!changes.getPermissionIds().isEmpty() || !changes.getObjectIds().isEmpty()) {
+            for (List<Permission> permissions : previous.permissionsByAdElement.values()) {
+                for (Permission permission : permissions) {
+                    if (changes.getPermissionIds().contains(permission.getId())
+                            || changes.getObjectIds().contains(permission.getObjectId())) {
+                        adElementIds.add(permission.getAdElementId());
+                    }
+                }
+            }
+        }
+
+        Map<Guid, List<Permission>> permissionsByAdElement = new HashMap<>(previous.permissionsByAdElement);
+        for (Guid adElementId : adElementIds) {
+            List<Permission> permissions = permissionDao.getAllGrantsForAdElement(adElementId);
+            if (permissions.isEmpty()) {
+                permissionsByAdElement.remove(adElementId);
+            } else {
+                permissionsByAdElement.put(adElementId, permissions);
+            }
+        }
+        log.debug("Reloaded the permissions of {} users and groups", adElementIds.size());
+
+        Map<Guid, Set<Guid>> userAndGroupIdsByUser = new ConcurrentHashMap<>();
+        if (!changes.isAllUserGroupsChanged()) {
+            userAndGroupIdsByUser.putAll(previous.userAndGroupIdsByUser);
+            userAndGroupIdsByUser.keySet().removeAll(changes.getUserIdsWithChangedGroups());
+        }
+        return new Grants(changes.getVersion(),
+                permissionsByAdElement,
+                changes.isRolesChanged() ? loadActionGroupsByRole() : previous.actionGroupsByRole,
+                userAndGroupIdsByUser);
+    }
+
+    private Grants load() {
+        // taken before reading, so a change made while reading causes another update
+        long version = permissionChangeTracker.getVersion();
+        Map<Guid, List<Permission>> permissionsByAdElement = new HashMap<>();
+        for (Permission permission : permissionDao.getAllGrants()) {
+            permissionsByAdElement.computeIfAbsent(permission.getAdElementId(), k -> new ArrayList<>())
+                    .add(permission);
+        }
+        log.debug("Loaded {} permissions of {} users and groups",
+                permissionsByAdElement.values().stream().mapToInt(List::size).sum(),
+                permissionsByAdElement.size());
+        return new Grants(version, permissionsByAdElement, loadActionGroupsByRole(), new ConcurrentHashMap<>());
+    }
+
+    private Map<Guid, Set<ActionGroup>> loadActionGroupsByRole() {
+        Map<Guid, Set<ActionGroup>> actionGroupsByRole = new HashMap<>();
+        for (RoleGroupMap roleGroupMap : roleGroupMapDao.getAll()) {
+            actionGroupsByRole.computeIfAbsent(roleGroupMap.getRoleId(), k -> EnumSet.noneOf(ActionGroup.class))
+                    .add(roleGroupMap.getActionGroup());
+        }
+        return actionGroupsByRole;
+    }
+
+    /**
+     * A copy of the permissions, of the action groups of the roles and of the groups of the users checked so far, as of
+     * the given version of the changes.
+     */
+    private static class Grants {
+        private final long version;
+        private final Map<Guid, List<Permission>> permissionsByAdElement;
+        private final Map<Guid, Set<ActionGroup>> actionGroupsByRole;
+        private final Map<Guid, Set<Guid>> userAndGroupIdsByUser;
+
+        private Grants(long version,
+                Map<Guid, List<Permission>> permissionsByAdElement,
+                Map<Guid, Set<ActionGroup>> actionGroupsByRole,
+                Map<Guid, Set<Guid>> userAndGroupIdsByUser) {
+            this.version = version;
+            this.permissionsByAdElement = permissionsByAdElement;
+            this.actionGroupsByRole = actionGroupsByRole;
+            this.userAndGroupIdsByUser = userAndGroupIdsByUser;
+        }
+
+        /**
+         * @return the id of the granting permission, {@link #NOT_GRANTED} if there is none, or <code>null</code> if
+         *         it depends on the parents of the object
+         */
+        private Guid find(Collection<Guid> userAndGroupIds,
+                ActionGroup actionGroup,
+                Guid objectId,
+                VdcObjectType type) {
+            List<Permission> candidates = new ArrayList<>();
+            for (Guid adElementId : userAndGroupIds) {
+                addCandidates(candidates, adElementId, actionGroup);
+            }
+            if (candidates.isEmpty()) {
+                return NOT_GRANTED;
+            }
+            // Every permission is granted on a parent of the bottom object
+            if (type == VdcObjectType.Bottom) {
+                return candidates.get(0).getId();
+            }
+            if (!OBJECT_TYPES_WITH_PARENTS.contains(type)) {
+                return NOT_GRANTED;
+            }
+            for (Permission candidate : candidates) {
+                if (Objects.equals(candidate.getObjectId(), objectId)
+                        || MultiLevelAdministrationHandler.SYSTEM_OBJECT_ID.equals(candidate.getObjectId())) {
+                    return candidate.getId();
+                }
+            }
+            return null;
+        }
+
+        private void addCandidates(List<Permission> candidates, Guid adElementId, ActionGroup actionGroup) {
+            for (Permission permission : permissionsByAdElement.getOrDefault(adElementId, Collections.emptyList())) {
+                Set<ActionGroup> actionGroups = actionGroupsByRole.get(permission.getRoleId());
+                if (actionGroups != null && actionGroups.contains(actionGroup)) {
+                    candidates.add(permission);
+                }
+            }
+        }
+    }
+}
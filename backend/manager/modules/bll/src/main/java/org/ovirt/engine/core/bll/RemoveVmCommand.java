@@ -57,6 +57,7 @@ import org.ovirt.engine.core.common.businessentities.storage.ImageStatus;
 import org.ovirt.engine.core.common.businessentities.storage.LunDisk;
 import org.ovirt.engine.core.common.errors.EngineMessage;
 import org.ovirt.engine.core.common.locks.LockingGroup;
+import org.ovirt.engine.core.common.qualifiers.AffinityGroupsChanged;
 import org.ovirt.engine.core.common.utils.Pair;
 import org.ovirt.engine.core.compat.Guid;
 import org.ovirt.engine.core.dao.DiskImageDao;
@@ -64,7 +65,9 @@ import org.ovirt.engine.core.dao.ImageDao;
 import org.ovirt.engine.core.dao.SnapshotDao;
 import org.ovirt.engine.core.dao.StorageDomainDao;
 import org.ovirt.engine.core.dao.VmIconDao;
+import org.ovirt.engine.core.dao.scheduling.AffinityGroupDao;
 import org.ovirt.engine.core.utils.transaction.TransactionSupport;
+import org.ovirt.engine.core.vdsbroker.monitoring.VmStatisticsWriteBehind;
 
 @DisableInPrepareMode
 @NonTransactiveCommandAttribute(forceCompensation = true)
@@ -73,6 +76,13 @@ public class RemoveVmCommand<T extends RemoveVmParameters> extends VmCommand<T>
     @Inject
     private Event<Guid> vmDeleted;
     @Inject
+    @AffinityGroupsChanged
+    private Event<Guid> affinityGroupsChangedEvent;
+    @Inject
+    private AffinityGroupDao affinityGroupDao;
+    @Inject
+    private VmStatisticsWriteBehind statisticsWriteBehind;
+    @Inject
     private ImageDao imageDao;
     @Inject
     private DiskImageDao diskImageDao;
@@ -140,8 +150,14 @@ public class RemoveVmCommand<T extends RemoveVmParameters> extends VmCommand<T>
 
         removeMemoryVolumes();
 
+        boolean inAffinityGroups = !affinityGroupDao.getAllAffinityGroupsByVmId(getVmId()).isEmpty();
+
         TransactionSupport.executeInNewTransaction(() -> {
             removeVmFromDb();
+            if (inAffinityGroups) {
+                // The removal of the VM removes it from its affinity groups as well
+                affinityGroupsChangedEvent.fire(getVm().getClusterId());
+            }
             if (getParameters().isRemoveDisks()) {
                 for (DiskImage image : diskImages) {
                     getCompensationContext().snapshotEntityStatus(image.getImage(), ImageStatus.ILLEGAL);
@@ -160,6 +176,8 @@ public class RemoveVmCommand<T extends RemoveVmParameters> extends VmCommand<T>
             }
             return null;
         });
+        // The statistics of the VM are gone with it, nothing queued by the monitoring is written anymore
+        statisticsWriteBehind.discard(getVmId());
 
         Collection<DiskImage> unremovedDisks = Collections.emptyList();
         if (getParameters().isRemoveDisks()) {
@@ -2,14 +2,18 @@ package org.ovirt.engine.core.bll;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
 import javax.inject.Inject;
 
 import org.ovirt.engine.core.bll.context.CommandContext;
+import org.ovirt.engine.core.bll.scheduling.SchedulingManager;
 import org.ovirt.engine.core.common.action.ActionParametersBase;
 import org.ovirt.engine.core.common.action.ActionType;
+import org.ovirt.engine.core.common.businessentities.Cluster;
+import org.ovirt.engine.core.common.businessentities.VM;
 import org.ovirt.engine.core.compat.Guid;
 import org.ovirt.engine.core.dao.VmStaticDao;
 
@@ -18,6 +22,9 @@ public class RunVMActionRunner extends SortedMultipleActionsRunnerBase {
     @Inject
     private VmStaticDao vmStaticDao;
 
+    @Inject
+    private SchedulingManager schedulingManager;
+
     public RunVMActionRunner(ActionType actionType, List<ActionParametersBase> parameters, CommandContext commandContext, boolean isInternal) {
         super(actionType, parameters, commandContext, isInternal);
     }
@@ -44,4 +51,56 @@ public class RunVMActionRunner extends SortedMultipleActionsRunnerBase {
 
     }
 
+    /**
+     * Place all the VMs of the same cluster in a single scheduling pass, instead of letting
+     * every command lock the cluster and run the scheduler on its own.
+     */
+    @Override
+    protected void prepareSortedCommands() {
+        Map<Guid, List<RunVmCommand<?>>> commandsByCluster = new LinkedHashMap<>();
+        Map<Guid, Cluster> clusters = new HashMap<>();
+        for (CommandBase<?> command : getCommands()) {
+            if (!(command instanceof RunVmCommand) || !command.getReturnValue().isValid()) {
+                continue;
+            }
+
+            RunVmCommand<?> runVmCommand = (RunVmCommand<?>) command;
+            if (runVmCommand.getCluster() != null && runVmCommand.canBeScheduledInBatch()) {
+                Cluster cluster = runVmCommand.getCluster();
+                clusters.putIfAbsent(cluster.getId(), cluster);
+                commandsByCluster.computeIfAbsent(cluster.getId(), id -> new ArrayList<>()).add(runVmCommand);
+            }
+        }
+
+        for (Map.Entry<Guid, List<RunVmCommand<?>>> entry : commandsByCluster.entrySet()) {
+            List<RunVmCommand<?>> commands = entry.getValue();
+            if (commands.size() < 2) {
+                continue;
+            }
+
+            List<VM> vms = new ArrayList<>(commands.size());
+            commands.forEach(command -> vms.add(command.getVm()));
+            Map<Guid, Guid> placements = schedulingManager.scheduleBatch(clusters.get(entry.getKey()),
+                    vms,
+                    commands.get(0).getCorrelationId());
+
+            for (RunVmCommand<?> command : commands) {
+                Guid vdsId = placements.get(command.getVmId());
+                if (vdsId != null) {
+                    command.setPreScheduledVdsId(vdsId);
+                }
+            }
+        }
+    }
+
+    @Override
+    protected void executeValidatedCommand(CommandBase<?> command) {
+        try {
+            super.executeValidatedCommand(command);
+        } finally {
+            if (command instanceof RunVmCommand) {
+                ((RunVmCommand<?>) command).releaseUnusedPreScheduledVds();
+            }
+        }
+    }
 }
@@ -107,6 +107,7 @@ public class RunVmCommand<T extends RunVmParams> extends RunVmCommandBase<T>
     private Guid cachedActiveIsoDomainId;
     private boolean needsHostDevices = false;
     private InitializationType initializationType;
+    private Guid preScheduledVdsId;
     protected VmPayload vmPayload;
 
     public static final String ISO_PREFIX = "iso://";
@@ -810,16 +811,74 @@ public class RunVmCommand<T extends RunVmParams> extends RunVmCommandBase<T>
         }
     }
 
+    /**
+     * @return true if the first scheduling of this command can be done as part of a batch
+     *         by {@link SchedulingManager#scheduleBatch}
+     */
+    protected boolean canBeScheduledInBatch() {
+        return getFlow() == RunVmFlow.RUN
+                && getRunVdssList().isEmpty()
+                && getVdsWhiteList().isEmpty()
+                && getPredefinedVdsIdListToRunOn().isEmpty();
+    }
+
+    /**
+     * Set the host that was already selected for the VM by a batch scheduling, the pending
+     * resources of the VM are expected to be registered on that host.
+     */
+    protected void setPreScheduledVdsId(Guid vdsId) {
+        preScheduledVdsId = vdsId;
+    }
+
+    /**
+     * Clear the pending resources registered by a batch scheduling if the command did not get
+     * to use the pre-scheduled host.
+     */
+    protected void releaseUnusedPreScheduledVds() {
+        if (preScheduledVdsId != null) {
+            preScheduledVdsId = null;
+            schedulingManager.clearPendingVm(getVm().getStaticData());
+        }
+    }
+
+    /**
+     * Verify that the host selected by the batch scheduling can still run the VM.
+     *
+     * The host was selected before the command got executed, so it may have changed its status or its free
+     * resources in the meantime. The scheduler checks the status and the pending resources of that host only, when
+     * it no longer fits the pending resources of the batch are dropped and the VM is scheduled the regular way.
+     *
+     * @return the pre-scheduled host if it still fits the VM, empty otherwise
+     */
+    protected Optional<Guid> recheckPreScheduledVds() {
+        Guid vdsId = preScheduledVdsId;
+        preScheduledVdsId = null;
+        if (schedulingManager.canRunOnPreScheduledHost(getCluster(), getVm(), vdsId)) {
+            return Optional.of(vdsId);
+        }
+
+        log.info("Host '{}' selected by the batch scheduling can no longer run the VM '{}', scheduling again",
+                vdsId,
+                getVmId());
+        schedulingManager.clearPendingVm(getVm().getStaticData());
+        return Optional.empty();
+    }
+
     protected boolean getVdsToRunOn() {
-        Optional<Guid> vdsToRunOn =
-                schedulingManager.schedule(getCluster(),
-                        getVm(),
-                        getRunVdssList(),
-                        getVdsWhiteList(),
-                        getPredefinedVdsIdListToRunOn(),
-                        new ArrayList<>(),
-                        this,
-                        getCorrelationId());
+        Optional<Guid> vdsToRunOn = Optional.empty();
+        if (preScheduledVdsId != null) {
+            vdsToRunOn = recheckPreScheduledVds();
+        }
+        if (!vdsToRunOn.isPresent()) {
+            vdsToRunOn = schedulingManager.schedule(getCluster(),
+                    getVm(),
+                    getRunVdssList(),
+                    getVdsWhiteList(),
+                    getPredefinedVdsIdListToRunOn(),
+                    new ArrayList<>(),
+                    this,
+                    getCorrelationId());
+        }
         setVdsId(vdsToRunOn.orElse(null));
         if (vdsToRunOn.isPresent()) {
             getRunVdssList().add(vdsToRunOn.get());
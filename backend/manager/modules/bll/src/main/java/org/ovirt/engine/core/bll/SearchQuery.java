@@ -86,9 +86,11 @@ import org.ovirt.engine.core.utils.lock.EngineLock;
 import org.ovirt.engine.core.utils.lock.LockManager;
 
 public class SearchQuery<P extends SearchParameters> extends QueriesCommandBase<P> {
-    private static final Map<String, QueryData> queriesCache = new HashMap<>();
     public static final String LDAP = "LDAP";
 
+    @Inject
+    private SearchQueryCache queriesCache;
+
     @Inject
     private QuotaManager quotaManager;
 
@@ -471,11 +473,16 @@ public class SearchQuery<P extends SearchParameters> extends QueriesCommandBase<
                 throw new RuntimeException(String.format("Illegal max count value for query : %s", getParameters().getMaxCount()));
             }
             String searchText = getParameters().getSearchPattern();
-            // do not cache expressions with '*' since it is translated to specific IDs that might be changed
-            useCache = useCache && !searchText.contains(ASTR);
+            // do not cache expressions with '*' since it is translated to specific IDs that might be changed,
+            // do not cache keyset pages either since every page has a query of its own
+            useCache = useCache && !searchText.contains(ASTR) && getParameters().getSearchAfter() == null;
             if (useCache) {
                 // first lets check the cache of queries.
-                searchKey = String.format("%1$s,%2$s,%3$s", searchText, getParameters().getMaxCount(), getParameters().getCaseSensitive());
+                searchKey = String.format("%1$s,%2$s,%3$s,%4$s",
+                        searchText,
+                        getParameters().getMaxCount(),
+                        getParameters().getCaseSensitive(),
+                        getParameters().getSearchFrom());
                 data = queriesCache.get(searchKey);
                 isExistsValue = data != null;
 
@@ -543,6 +550,7 @@ public class SearchQuery<P extends SearchParameters> extends QueriesCommandBase<
                 searchObj.setMaxCount(Math.min(Integer.MAX_VALUE, getParameters().getMaxCount()));
                 // setting FromSearch value
                 searchObj.setSearchFrom(getParameters().getSearchFrom());
+                searchObj.setSearchAfter(getParameters().getSearchAfter());
                 if (searchObj.getError() != SyntaxError.NO_ERROR) {
                     int startPos = searchObj.getErrorStartPos();
                     int endPos = searchObj.getErrorEndPos();
@@ -578,7 +586,7 @@ public class SearchQuery<P extends SearchParameters> extends QueriesCommandBase<
                 // statically, therefore , in order to reflect changes in the parent tree
                 // we should not rely on the cached query in such case and have to build the
                 // query from scratch.
-                if (!containsStaticInValues(data.getQuery())) {
+                if (useCache && !containsStaticInValues(data.getQuery())) {
                     queriesCache.put(searchKey, data);
                 }
             }
@@ -0,0 +1,117 @@
+package org.ovirt.engine.core.bll;
+
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.inject.Singleton;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.ovirt.engine.core.aaa.QueryData;
+import org.ovirt.engine.core.common.config.Config;
+import org.ovirt.engine.core.common.config.ConfigValues;
+
+/**
+ * Cache of the SQL queries compiled from the search text by {@link SearchQuery}.
+ *
+ * The cache is shared by all the query threads and holds at most {@link ConfigValues#SearchQueryCacheMaxSize} queries,
+ * the least recently used query is dropped when a new one does not fit.
+ */
+@Singleton
+public class SearchQueryCache implements SearchQueryCacheMXBean {
+
+    private final Map<String, QueryData> queries = new LinkedHashMap<>(16, 0.75f, true);
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    private int maxSize;
+
+    private MBeanServer platformMBeanServer;
+    private ObjectName objectName;
+
+    @PostConstruct
+    public void init() {
+        maxSize = Config.<Integer> getValue(ConfigValues.SearchQueryCacheMaxSize);
+        registerInJMX();
+    }
+
+    private void registerInJMX() {
+        try {
+            objectName = new ObjectName("SearchQueryCache:type=" + this.getClass().getName());
+            platformMBeanServer = ManagementFactory.getPlatformMBeanServer();
+            platformMBeanServer.registerMBean(this, objectName);
+        } catch (Exception e) {
+            throw new IllegalStateException("Problem during registration of Monitoring into JMX:" + e);
+        }
+    }
+
+    @PreDestroy
+    public void unregisterFromJMX() {
+        try {
+            platformMBeanServer.unregisterMBean(this.objectName);
+        } catch (Exception e) {
+            throw new IllegalStateException("Problem during unregistration of Monitoring into JMX:" + e);
+        }
+    }
+
+    /**
+     * @return the query compiled for the given search key, or {@code null} if it is not cached
+     */
+    public QueryData get(String searchKey) {
+        QueryData data;
+        synchronized (queries) {
+            data = queries.get(searchKey);
+        }
+        if (data != null) {
+            hits.increment();
+        } else {
+            misses.increment();
+        }
+        return data;
+    }
+
+    public void put(String searchKey, QueryData data) {
+        synchronized (queries) {
+            queries.put(searchKey, data);
+            while (queries.size() > maxSize) {
+                queries.remove(queries.keySet().iterator().next());
+                evictions.increment();
+            }
+        }
+    }
+
+    @Override
+    public int getSize() {
+        synchronized (queries) {
+            return queries.size();
+        }
+    }
+
+    @Override
+    public long getHits() {
+        return hits.sum();
+    }
+
+    @Override
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    @Override
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    @Override
+    public void clear() {
+        synchronized (queries) {
+            queries.clear();
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package org.ovirt.engine.core.bll;
+
+/**
+ * The following interface is used as interface for JMX bean
+ */
+public interface SearchQueryCacheMXBean {
+
+    /**
+     * The following method will return the number of compiled search queries currently kept in the cache
+     */
+    int getSize();
+
+    /**
+     * The following method will return the number of searches which found their query in the cache
+     */
+    long getHits();
+
+    /**
+     * The following method will return the number of searches which had to compile their query
+     */
+    long getMisses();
+
+    /**
+     * The following method will return the number of queries removed from the cache to make space for others
+     */
+    long getEvictions();
+
+    /**
+     * The following method will allow to drop all the cached queries via JMX console
+     */
+    void clear();
+}
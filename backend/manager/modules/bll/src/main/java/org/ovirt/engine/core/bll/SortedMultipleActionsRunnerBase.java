@@ -14,9 +14,16 @@ public abstract class SortedMultipleActionsRunnerBase extends PrevalidatingMulti
 
     protected abstract void sortCommands();
 
+    /**
+     * Called once the commands are sorted, right before they are executed.
+     */
+    protected void prepareSortedCommands() {
+    }
+
     @Override
     protected void runCommands() {
         sortCommands();
+        prepareSortedCommands();
         super.runCommands();
     }
 }
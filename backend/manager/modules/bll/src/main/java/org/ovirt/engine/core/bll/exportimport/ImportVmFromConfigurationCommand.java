@@ -10,6 +10,7 @@ import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 
+import javax.enterprise.event.Event;
 import javax.inject.Inject;
 
 import org.apache.commons.collections.MapUtils;
@@ -38,6 +39,7 @@ import org.ovirt.engine.core.common.businessentities.storage.Disk;
 import org.ovirt.engine.core.common.businessentities.storage.DiskImage;
 import org.ovirt.engine.core.common.businessentities.storage.DiskVmElement;
 import org.ovirt.engine.core.common.businessentities.storage.FullEntityOvfData;
+import org.ovirt.engine.core.common.qualifiers.AffinityGroupsChanged;
 import org.ovirt.engine.core.common.scheduling.AffinityGroup;
 import org.ovirt.engine.core.compat.Guid;
 import org.ovirt.engine.core.dal.dbbroker.auditloghandling.AuditLogDirector;
@@ -82,6 +84,9 @@ public class ImportVmFromConfigurationCommand<T extends ImportVmFromConfParamete
     @Inject
     private AffinityGroupDao affinityGroupDao;
     @Inject
+    @AffinityGroupsChanged
+    private Event<Guid> affinityGroupsChangedEvent;
+    @Inject
     private LabelDao labelDao;
     @Inject
     private RoleDao roleDao;
@@ -287,6 +292,10 @@ public class ImportVmFromConfigurationCommand<T extends ImportVmFromConfParamete
     @Override
     public void addVmToAffinityGroups() {
         cachedAffinityGroups.forEach(affinityGroup -> affinityGroupDao.update(affinityGroup));
+        cachedAffinityGroups.stream()
+                .map(AffinityGroup::getClusterId)
+                .distinct()
+                .forEach(affinityGroupsChangedEvent::fire);
     }
 
     @Override
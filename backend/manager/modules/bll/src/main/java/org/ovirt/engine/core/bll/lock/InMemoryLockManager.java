@@ -3,16 +3,17 @@ package org.ovirt.engine.core.bll.lock;
 import java.lang.management.ManagementFactory;
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
@@ -45,17 +46,31 @@ import org.slf4j.LoggerFactory;
 public class InMemoryLockManager implements LockManager, LockManagerMonitorMXBean {
 
     private static final Pair<Boolean, Set<String>> LOCK_INSERT_SUCCESS_RESULT = new Pair<>(Boolean.TRUE, Collections.<String>emptySet());
+    /** The number of stripes, has to be a power of two **/
+    private static final int STRIPES_COUNT = 64;
     /** A map which is contains all internal representation of locks **/
-    private final Map<String, InternalLockView> locks = new HashMap<>();
-    /** A lock which is used to synchronized acquireLock(), acquireLockWait() and releaseLock() operations **/
-    private final Lock globalLock = new ReentrantLock();
-    /** A condition which is used in order to notify for waiting threads that some lock was released**/
-    private final Condition releasedLock = globalLock.newCondition();
+    private final Map<String, InternalLockView> locks = new ConcurrentHashMap<>();
+    /**
+     * The locks which are used to synchronize acquireLock(), acquireLockWait() and releaseLock() operations, a key is
+     * guarded by the stripe of its hash. Operations on several keys take the stripes in ascending order.
+     **/
+    private final ReentrantLock[] stripes = new ReentrantLock[STRIPES_COUNT];
+    /**
+     * The threads waiting in acquireLockWait() for a key, a release of the key notifies only them. An entry is guarded
+     * by the stripe of its key.
+     **/
+    private final Map<String, KeyWaiters> waiters = new ConcurrentHashMap<>();
 
     private MBeanServer platformMBeanServer;
     private ObjectName objectName = null;
     private static final Logger log = LoggerFactory.getLogger(InMemoryLockManager.class);
 
+    public InMemoryLockManager() {
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
     @PostConstruct
     public void registerInJMX() {
         try {
@@ -79,11 +94,12 @@ public class InMemoryLockManager implements LockManager, LockManagerMonitorMXBea
     @Override
     public Pair<Boolean, Set<String>> acquireLock(EngineLock lock) {
         log.debug("Before acquiring lock '{}'", lock);
-        globalLock.lock();
+        int[] lockStripes = getStripes(getKeys(lock));
+        lockStripes(lockStripes);
         try {
             return acquireLockInternal(lock);
         } finally {
-            globalLock.unlock();
+            unlockStripes(lockStripes);
         }
     }
 
@@ -91,16 +107,26 @@ public class InMemoryLockManager implements LockManager, LockManagerMonitorMXBea
     public void acquireLockWait(EngineLock lock) {
         log.debug("Before acquiring and wait lock '{}'", lock);
         validateLockForAcquireAndWait(lock);
-        globalLock.lock();
+        int[] lockStripes = getStripes(getKeys(lock));
         try {
-            while (!acquireLockInternal(lock).getFirst()) {
-                log.info("Failed to acquire lock and wait lock '{}'", lock);
-                releasedLock.await();
+            while (true) {
+                lockStripes(lockStripes);
+                String blockingKey;
+                try {
+                    if (acquireLockInternal(lock).getFirst()) {
+                        return;
+                    }
+                    log.info("Failed to acquire lock and wait lock '{}'", lock);
+                    blockingKey = findBlockingKey(lock);
+                    // The stripe of the blocking key stays locked, its release can't be missed
+                    lockStripe(blockingKey).lock();
+                } finally {
+                    unlockStripes(lockStripes);
+                }
+                awaitRelease(blockingKey);
             }
         } catch (InterruptedException ignore) {
 
-        } finally {
-            globalLock.unlock();
         }
     }
 
@@ -114,7 +140,9 @@ public class InMemoryLockManager implements LockManager, LockManagerMonitorMXBea
     @Override
     public void releaseLock(EngineLock lock) {
         log.debug("Before releasing a lock '{}'", lock);
-        globalLock.lock();
+        List<String> keys = getKeys(lock);
+        int[] lockStripes = getStripes(keys);
+        lockStripes(lockStripes);
         try {
             if (lock.getSharedLocks() != null) {
                 lock.getSharedLocks().entrySet().stream().forEach(entry ->
@@ -124,21 +152,22 @@ public class InMemoryLockManager implements LockManager, LockManagerMonitorMXBea
                 lock.getExclusiveLocks().entrySet().stream().forEach(entry ->
                     releaseExclusiveLock(buildHashMapKey(entry)));
             }
-            releasedLock.signalAll();
+            keys.forEach(this::signalWaiters);
         } finally {
-            globalLock.unlock();
+            unlockStripes(lockStripes);
         }
     }
 
     @Override
     public void clear() {
         log.warn("Cleaning all in memory locks");
-        globalLock.lock();
+        int[] allStripes = getAllStripes();
+        lockStripes(allStripes);
         try {
             locks.clear();
-            releasedLock.signalAll();
+            waiters.values().forEach(keyWaiters -> keyWaiters.released.signalAll());
         } finally {
-            globalLock.unlock();
+            unlockStripes(allStripes);
         }
     }
 
@@ -147,7 +176,8 @@ public class InMemoryLockManager implements LockManager, LockManagerMonitorMXBea
         log.warn("The following lock is going to be released via external call, lockId '{}', error message can be"
                 + " left for shared lock",
                 lockId);
-        globalLock.lock();
+        Lock stripe = lockStripe(lockId);
+        stripe.lock();
         try {
             InternalLockView lock = locks.get(lockId);
             if (lock == null) {
@@ -159,9 +189,9 @@ public class InMemoryLockManager implements LockManager, LockManagerMonitorMXBea
             } else {
                 releaseSharedLock(lockId, null);
             }
-            releasedLock.signalAll();
+            signalWaiters(lockId);
         } finally {
-            globalLock.unlock();
+            stripe.unlock();
         }
         log.warn("Lock '{}' was released via external call", lockId);
         return true;
@@ -170,15 +200,109 @@ public class InMemoryLockManager implements LockManager, LockManagerMonitorMXBea
     @Override
     public List<String> showAllLocks() {
         log.debug("All in memory locks will be shown");
-        globalLock.lock();
+        int[] allStripes = getAllStripes();
+        lockStripes(allStripes);
         try {
             return locks.entrySet().stream().map(this::createLockDescription).collect(Collectors.toList());
         } finally {
-            globalLock.unlock();
+            unlockStripes(allStripes);
             log.debug("All in memory locks were shown");
         }
     }
 
+    /**
+     * Waits until the given key is released, the stripe of the key has to be locked by the caller and it is unlocked
+     * when the method returns.
+     */
+    private void awaitRelease(String key) throws InterruptedException {
+        Lock stripe = lockStripe(key);
+        KeyWaiters keyWaiters = waiters.computeIfAbsent(key, k -> new KeyWaiters(stripe.newCondition()));
+        keyWaiters.count++;
+        try {
+            keyWaiters.released.await();
+        } finally {
+            if (--keyWaiters.count == 0) {
+                waiters.remove(key);
+            }
+            stripe.unlock();
+        }
+    }
+
+    private void signalWaiters(String key) {
+        KeyWaiters keyWaiters = waiters.get(key);
+        if (keyWaiters != null) {
+            keyWaiters.released.signalAll();
+        }
+    }
+
+    /**
+     * Finds the key which prevents the given lock from being acquired, the stripes of the lock have to be locked
+     */
+    private String findBlockingKey(EngineLock lock) {
+        if (lock.getSharedLocks() != null) {
+            for (Entry<String, Pair<String, String>> entry : lock.getSharedLocks().entrySet()) {
+                String key = buildHashMapKey(entry);
+                InternalLockView internalLockView = locks.get(key);
+                if (internalLockView != null && internalLockView.getExclusive()) {
+                    return key;
+                }
+            }
+        }
+        if (lock.getExclusiveLocks() != null) {
+            for (Entry<String, Pair<String, String>> entry : lock.getExclusiveLocks().entrySet()) {
+                String key = buildHashMapKey(entry);
+                if (locks.containsKey(key)) {
+                    return key;
+                }
+            }
+        }
+        // Not expected as the lock could not be acquired, waits on any of its keys
+        return getKeys(lock).get(0);
+    }
+
+    private List<String> getKeys(EngineLock lock) {
+        List<String> keys = new ArrayList<>();
+        if (lock.getSharedLocks() != null) {
+            lock.getSharedLocks().entrySet().forEach(entry -> keys.add(buildHashMapKey(entry)));
+        }
+        if (lock.getExclusiveLocks() != null) {
+            lock.getExclusiveLocks().entrySet().forEach(entry -> keys.add(buildHashMapKey(entry)));
+        }
+        return keys;
+    }
+
+    private Lock lockStripe(String key) {
+        return stripes[getStripe(key)];
+    }
+
+    private static int getStripe(String key) {
+        int hash = key.hashCode();
+        return (hash ^ (hash >>> 16)) & (STRIPES_COUNT - 1);
+    }
+
+    /**
+     * @return the distinct stripes of the given keys in ascending order
+     */
+    private static int[] getStripes(List<String> keys) {
+        return keys.stream().mapToInt(InMemoryLockManager::getStripe).distinct().sorted().toArray();
+    }
+
+    private static int[] getAllStripes() {
+        return IntStream.range(0, STRIPES_COUNT).toArray();
+    }
+
+    private void lockStripes(int[] lockStripes) {
+        for (int stripe : lockStripes) {
+            stripes[stripe].lock();
+        }
+    }
+
+    private void unlockStripes(int[] lockStripes) {
+        for (int i = lockStripes.length - 1; i >= 0; i--) {
+            stripes[lockStripes[i]].unlock();
+        }
+    }
+
     private String createLockDescription(Entry<String, InternalLockView> e) {
         return "The object id is : " + e.getKey() + ' ' + e.getValue();
     }
@@ -299,12 +423,20 @@ public class InMemoryLockManager implements LockManager, LockManagerMonitorMXBea
 
     @Override
     public LockInfo getLockInfo(String key) {
-        InternalLockView internalLockView = locks.get(key);
-        if (internalLockView == null) {
-            return null;
+        InternalLockView internalLockView;
+        Set<String> messages;
+        Lock stripe = lockStripe(key);
+        stripe.lock();
+        try {
+            internalLockView = locks.get(key);
+            if (internalLockView == null) {
+                return null;
+            }
+            messages = internalLockView.getMessages();
+        } finally {
+            stripe.unlock();
         }
 
-        Set<String> messages = internalLockView.getMessages();
         messages.remove(EngineMessage.ACTION_TYPE_FAILED_OBJECT_LOCKED.name());
         if (messages.isEmpty()) {
             // EngineMessage.ACTION_TYPE_FAILED_OBJECT_LOCKED should only be used for
@@ -323,6 +455,21 @@ public class InMemoryLockManager implements LockManager, LockManagerMonitorMXBea
                 .anyMatch(entry -> getLockInfo(buildHashMapKey(entry)) != null);
     }
 
+    /**
+     * The following class represents the threads waiting for a release of a key
+     */
+    private static class KeyWaiters {
+
+        /** A condition of the stripe of the key which is signalled when the key is released **/
+        private final Condition released;
+        /** Number of the waiting threads **/
+        private int count;
+
+        public KeyWaiters(Condition released) {
+            this.released = released;
+        }
+    }
+
     /**
      * The following class represents different locks which are kept inside InMemoryLockManager
      */
@@ -0,0 +1,153 @@
+package org.ovirt.engine.core.bll.network.macpool;
+
+/**
+ * Associative array counting instances of long values, like MAC addresses.
+ *
+ * The values and their counts are kept in two primitive arrays, using open addressing with linear probing, so no
+ * object is created per value.
+ */
+class LongCounter {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final boolean allowDuplicate;
+
+    private long[] keys = new long[INITIAL_CAPACITY];
+
+    /**
+     * number of occurrences of the value in the same slot of {@link #keys}; 0 marks an empty slot.
+     */
+    private int[] counts = new int[INITIAL_CAPACITY];
+
+    private int size;
+
+    /**
+     * number of values having more than one occurrence.
+     */
+    private int duplicates;
+
+    LongCounter(boolean allowDuplicate) {
+        this.allowDuplicate = allowDuplicate;
+    }
+
+    /**
+     * add instance if possible, incrementing number of its occurrences.
+     * @param key instance to add.
+     * @return true if instance was added  && count incremented.
+     */
+    public boolean increase(long key) {
+        return increase(key, allowDuplicate);
+    }
+
+    public boolean increase(long key, boolean allowDuplicate) {
+        int slot = findSlot(key);
+        if (counts[slot] == 0) {
+            keys[slot] = key;
+            counts[slot] = 1;
+            if (++size * 4 > keys.length * 3) {
+                resize(keys.length * 2);
+            }
+            return true;
+        } else if (allowDuplicate) {
+            if (counts[slot]++ == 1) {
+                duplicates++;
+            }
+            return true;
+        } else {
+            return false;
+        }
+    }
+
+    /**
+     * decrements number of its occurrences, removing instance if possible(count reaches zero).
+     *
+     * @param key instance to remove.
+     */
+    public void decrease(long key) {
+        int slot = findSlot(key);
+        if (counts[slot] == 0) {
+            return;
+        }
+
+        int count = --counts[slot];
+        if (count == 1) {
+            duplicates--;
+        } else if (count == 0) {
+            remove(slot);
+        }
+    }
+
+    /**
+     * @param key instance to look for
+     * @return true if there's at least one occurrence of given instance.
+     */
+    public boolean contains(long key) {
+        return counts[findSlot(key)] != 0;
+    }
+
+    /**
+     * @param key instance to look for
+     * @return number of occurrences of given instance. When instance was not added
+     */
+    public int count(long key) {
+        return counts[findSlot(key)];
+    }
+
+    public boolean containsDuplicates() {
+        return duplicates > 0;
+    }
+
+    public boolean containsCounts() {
+        return size > 0;
+    }
+
+    /**
+     * @return the slot of the given value, or the empty slot where it would be added.
+     */
+    private int findSlot(long key) {
+        int mask = keys.length - 1;
+        int slot = hash(key) & mask;
+        while (counts[slot] != 0 && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private static int hash(long key) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32));
+    }
+
+    /**
+     * Empties the given slot and moves back the following values which would not be found otherwise.
+     */
+    private void remove(int slot) {
+        size--;
+        int mask = keys.length - 1;
+        int free = slot;
+        for (int i = (free + 1) & mask; counts[i] != 0; i = (i + 1) & mask) {
+            int home = hash(keys[i]) & mask;
+            boolean homeBetweenFreeAndCurrent = free <= i ? free < home && home <= i : free < home || home <= i;
+            if (!homeBetweenFreeAndCurrent) {
+                keys[free] = keys[i];
+                counts[free] = counts[i];
+                counts[i] = 0;
+                free = i;
+            }
+        }
+    }
+
+    private void resize(int capacity) {
+        long[] oldKeys = keys;
+        int[] oldCounts = counts;
+        keys = new long[capacity];
+        counts = new int[capacity];
+        for (int i = 0; i < oldKeys.length; ++i) {
+            if (oldCounts[i] != 0) {
+                int slot = findSlot(oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                counts[slot] = oldCounts[i];
+            }
+        }
+    }
+}
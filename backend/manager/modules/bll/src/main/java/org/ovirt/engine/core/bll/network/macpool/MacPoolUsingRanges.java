@@ -1,6 +1,7 @@
 package org.ovirt.engine.core.bll.network.macpool;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
@@ -134,26 +135,24 @@ public final class MacPoolUsingRanges implements MacPool {
 
     @Override
     public List<String> addMacs(List<String> macs) {
-        List<String> notAddedMacs = new ArrayList<>(macs.size());
+        log.debug("Allocating custom mac addresses {} from {}.", macs, this);
+        List<String> notAddedMacs = new ArrayList<>();
         for (String mac : macs) {
-            if (!addMac(mac)) {
+            if (!macsStorage.useMac(MacAddressRangeUtils.macToLong(mac))) {
                 notAddedMacs.add(mac);
             }
         }
+        logWhenMacPoolIsEmpty();
 
         return notAddedMacs;
     }
 
-    private void forceAddMac(String mac) {
-        log.debug("Forcibly allocating custom mac address {} from {}", mac, this);
-        macsStorage.useMacNoDuplicityCheck(MacAddressRangeUtils.macToLong(mac));
-        logWhenMacPoolIsEmpty();
-    }
-
     private void forceAddMacs(List<String> macs) {
+        log.debug("Forcibly allocating custom mac addresses {} from {}", macs, this);
         for (String mac : macs) {
-            forceAddMac(mac);
+            macsStorage.useMacNoDuplicityCheck(MacAddressRangeUtils.macToLong(mac));
         }
+        logWhenMacPoolIsEmpty();
     }
 
     @Override
@@ -166,9 +165,12 @@ public final class MacPoolUsingRanges implements MacPool {
     @Override
     public void freeMacs(List<String> macs) {
         log.debug("Releasing mac addresses {} back to {}", macs, this);
+        long[] macAddresses = new long[macs.size()];
+        int i = 0;
         for (String mac : macs) {
-            macsStorage.freeMac(MacAddressRangeUtils.macToLong(mac));
+            macAddresses[i++] = MacAddressRangeUtils.macToLong(mac);
         }
+        macsStorage.freeMacs(macAddresses);
     }
 
     public boolean canAllocateMacAddresses(int numberOfAddresses) {
@@ -178,11 +180,12 @@ public final class MacPoolUsingRanges implements MacPool {
     @Override
     public List<String> allocateMacAddresses(int numberOfAddresses) {
         log.debug("Allocating {} mac addresses from {}.", numberOfAddresses, this);
-        List<Long> macs = macsStorage.allocateAvailableMacs(numberOfAddresses);
+        long[] macs = macsStorage.allocateAvailableMacs(numberOfAddresses);
+        // the strings have a fixed length, so sorting the numbers sorts the strings the same way
+        Arrays.sort(macs);
         List<String> result = MacAddressRangeUtils.macAddressesToStrings(macs);
 
         log.debug("Allocated mac addresses: {} from {}.", result, this);
-        Collections.sort(result);
         logWhenMacPoolIsEmpty();
 
         return result;
@@ -1,7 +1,6 @@
 package org.ovirt.engine.core.bll.network.macpool;
 
 import java.util.ArrayList;
-import java.util.LinkedList;
 import java.util.List;
 
 import org.apache.commons.lang.Validate;
@@ -10,13 +9,18 @@ import org.ovirt.engine.core.common.errors.EngineException;
 
 class MacsStorage {
     private final boolean allowDuplicates;
-    private List<Range> ranges = new LinkedList<>();
-    private ObjectCounter<Long> customMacs;
+    private List<Range> ranges = new ArrayList<>();
+    private LongCounter customMacs;
     private int startIndexForEmptyRangeSearch = 0;
 
+    /**
+     * the range which included the last looked up MAC, MACs handled together are mostly from the same range.
+     */
+    private Range lastIncludingRange;
+
     public MacsStorage(boolean allowDuplicates) {
         this.allowDuplicates = allowDuplicates;
-        customMacs = new ObjectCounter<>(this.allowDuplicates);
+        customMacs = new LongCounter(this.allowDuplicates);
     }
 
     public Range addRange(long rangeStart, long rangeEnd) {
@@ -59,16 +63,22 @@ class MacsStorage {
         }
     }
 
+    public void freeMacs(long[] macs) {
+        for (long mac : macs) {
+            freeMac(mac);
+        }
+    }
+
     public boolean availableMacExist() {
         return getRangeWithAvailableMac() != null;
     }
 
-    public List<Long> allocateAvailableMacs(int numberOfMacs) {
+    public long[] allocateAvailableMacs(int numberOfMacs) {
         if (getAvailableMacsCount() < numberOfMacs) {
             throw new EngineException(EngineError.MAC_POOL_NO_MACS_LEFT);
         }
 
-        final List<Long> result = new ArrayList<>(numberOfMacs);
+        final long[] result = new long[numberOfMacs];
         int remainingMacs = numberOfMacs;
         while (remainingMacs > 0) {
             final Range rangeWithAvailableMac = getRangeWithAvailableMac();
@@ -79,10 +89,10 @@ class MacsStorage {
                     ? availableMacsCount
                     : remainingMacs;
 
-            final List<Long> allocatedMacs = rangeWithAvailableMac.allocateMacs(allocatingMacsCount);
+            final long[] allocatedMacs = rangeWithAvailableMac.allocateMacs(allocatingMacsCount);
 
-            remainingMacs -= allocatedMacs.size();
-            result.addAll(allocatedMacs);
+            System.arraycopy(allocatedMacs, 0, result, numberOfMacs - remainingMacs, allocatedMacs.length);
+            remainingMacs -= allocatedMacs.length;
         }
 
         return result;
@@ -129,15 +139,19 @@ class MacsStorage {
     }
 
     private Range findIncludingRange(long mac) {
+        if (lastIncludingRange != null && lastIncludingRange.contains(mac)) {
+            return lastIncludingRange;
+        }
         for (Range range : ranges) {
             if (range.contains(mac)) {
+                lastIncludingRange = range;
                 return range;
             }
         }
         return null;
     }
 
-    boolean isMacInRange(Long mac) {
+    boolean isMacInRange(long mac) {
         return findIncludingRange(mac) != null;
     }
 
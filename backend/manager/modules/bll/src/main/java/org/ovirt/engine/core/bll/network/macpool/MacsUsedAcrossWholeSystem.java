@@ -1,6 +1,9 @@
 package org.ovirt.engine.core.bll.network.macpool;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -44,6 +47,9 @@ public class MacsUsedAcrossWholeSystem {
      * that differ from the macs of same vnics in the current vm config or the vnic doesn't exist in the current vm
      * config.
      *
+     * The MACs of the vnics of all the vms are read by a single query over the whole pool, only the vms having a
+     * stateless snapshot keep their MACs aside to be compared with the snapshot.
+     *
      * @param macPoolId pool being initialized
      *
      * @return all MACs which should be registered in MAC pool.
@@ -67,11 +73,22 @@ public class MacsUsedAcrossWholeSystem {
         Map<Guid, List<VmNetworkInterface>> snapshottedInterfacesByVmId =
                 statelessSnapshotsOfRunningVMs.collect(Collectors.toMap(VM::getId, VM::getInterfaces));
 
-        List<String> macsToBeAllocated = vmsById.keySet()
-                .stream()
-                .flatMap(vmId -> calculateAllMacsUsedInVmAndItsSnapshot(getVmInterfaces(vmId),
-                        snapshottedInterfacesByVmId.get(vmId)))
-                .collect(Collectors.toList());
+        List<String> macsToBeAllocated = new ArrayList<>();
+        Map<Guid, List<String>> macsOfVmsHavingSnapshot = new HashMap<>();
+        vmNicDao.forEachVmMacByMacPoolId(macPoolId, (vmId, mac) -> {
+            if (mac == null || !vmsById.containsKey(vmId)) {
+                return;
+            }
+            if (snapshottedInterfacesByVmId.containsKey(vmId)) {
+                macsOfVmsHavingSnapshot.computeIfAbsent(vmId, id -> new ArrayList<>()).add(mac);
+            } else {
+                macsToBeAllocated.add(mac);
+            }
+        });
+
+        snapshottedInterfacesByVmId.forEach((vmId, snapshotInterfaces) -> calculateAllMacsUsedInVmAndItsSnapshot(
+                macsOfVmsHavingSnapshot.getOrDefault(vmId, Collections.emptyList()).stream(),
+                macAddressesOfInterfaces(snapshotInterfaces)).forEach(macsToBeAllocated::add));
 
         return macsToBeAllocated;
     }
@@ -126,12 +143,10 @@ public class MacsUsedAcrossWholeSystem {
         return vmNicDao.getAllForVm(vmId);
     }
 
-    private Stream<String> calculateAllMacsUsedInVmAndItsSnapshot(List<? extends VmNic> vmInterfaces,
-            List<? extends VmNic> snapshotInterfaces) {
+    private Stream<String> calculateAllMacsUsedInVmAndItsSnapshot(Stream<String> vmMacs,
+            Stream<String> snapshotMacs) {
 
-        CountMacUsageDifference countMacUsageDifference =
-                new CountMacUsageDifference(macAddressesOfInterfaces(snapshotInterfaces),
-                        macAddressesOfInterfaces(vmInterfaces));
+        CountMacUsageDifference countMacUsageDifference = new CountMacUsageDifference(snapshotMacs, vmMacs);
 
         Stream<String> macsDuplicatedByNumberOfTimesTheyAreUsed = countMacUsageDifference.maxUsage().entrySet()
                 .stream()
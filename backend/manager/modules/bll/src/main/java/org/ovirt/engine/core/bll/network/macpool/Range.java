@@ -1,8 +1,6 @@
 package org.ovirt.engine.core.bll.network.macpool;
 
-import java.util.ArrayList;
 import java.util.BitSet;
-import java.util.List;
 
 import org.apache.commons.lang.Validate;
 
@@ -12,9 +10,9 @@ class Range {
     private final int numberOfMacsInRange;
 
     /**
-     * object counter, which holds number of MACs duplicates.
+     * counter, which holds number of MACs duplicates by their index in the range.
      */
-    private final ObjectCounter<Integer> macDuplicityCount = new ObjectCounter<>(true);
+    private final LongCounter macDuplicityCount = new LongCounter(true);
     private int availableMacsCount;
 
     private BitSet usedMacs;
@@ -106,33 +104,41 @@ class Range {
         return numberOfMacsInRange;
     }
 
-    public List<Long> allocateMacs(int numberOfMacs) {
+    /**
+     * Allocates unused MACs, continuing after the last allocated one. Each run of unused MACs is marked as used at
+     * once, a whole word of the bit set at a time.
+     *
+     * @return the allocated MACs.
+     */
+    public long[] allocateMacs(int numberOfMacs) {
         if (numberOfMacs > getAvailableCount()) {
             throw new IllegalStateException("Insufficient amount of free MACs.");
         }
 
-        List<Long> result = new ArrayList<>(numberOfMacs);
-
-        for (int count = 0; count < numberOfMacs; count++) {
-            final long mac = findUnusedMac();
-
-            // Well duplicates may be allowed, but we're using unallocated mac.
-            use(mac, false);
-            result.add(mac);
+        long[] result = new long[numberOfMacs];
+        int allocated = 0;
+        int searchFrom = startingLocationWhenSearchingForUnusedMac;
+        while (allocated < numberOfMacs) {
+            int runStart = usedMacs.nextClearBit(searchFrom);
+            if (runStart >= numberOfMacsInRange) {
+                searchFrom = 0;
+                continue;
+            }
+
+            int nextUsed = usedMacs.nextSetBit(runStart);
+            int runEnd = Math.min(nextUsed < 0 ? numberOfMacsInRange : nextUsed,
+                    runStart + numberOfMacs - allocated);
+            usedMacs.set(runStart, runEnd);
+            for (int index = runStart; index < runEnd; index++) {
+                result[allocated++] = rangeStart + index;
+            }
+            searchFrom = runEnd;
         }
 
-        return result;
-    }
+        availableMacsCount -= numberOfMacs;
+        startingLocationWhenSearchingForUnusedMac = searchFrom % numberOfMacsInRange;
 
-    private long findUnusedMac() {
-        int index = usedMacs.nextClearBit(startingLocationWhenSearchingForUnusedMac);
-        boolean notFound = index == numberOfMacsInRange;
-        if (notFound) {
-            index = usedMacs.nextClearBit(0);
-        }
-        startingLocationWhenSearchingForUnusedMac = (index + 1) % numberOfMacsInRange;
-
-        return rangeStart + index;
+        return result;
     }
 
 }
@@ -0,0 +1,33 @@
+package org.ovirt.engine.core.bll.network.vm;
+
+import java.util.Collections;
+
+import javax.inject.Inject;
+
+import org.ovirt.engine.core.bll.QueriesCommandBase;
+import org.ovirt.engine.core.bll.context.EngineContext;
+import org.ovirt.engine.core.common.queries.IdsQueryParameters;
+import org.ovirt.engine.core.dao.network.VmNetworkInterfaceDao;
+
+/**
+ * Returns the interfaces of several VMs by a single DAO call, sorted by the VM and the MAC address.
+ */
+public class GetVmInterfacesByVmIdsQuery<P extends IdsQueryParameters> extends QueriesCommandBase<P> {
+    @Inject
+    private VmNetworkInterfaceDao vmNetworkInterfaceDao;
+
+    public GetVmInterfacesByVmIdsQuery(P parameters, EngineContext engineContext) {
+        super(parameters, engineContext);
+    }
+
+    @Override
+    protected void executeQueryCommand() {
+        if (getParameters().getIds() == null || getParameters().getIds().isEmpty()) {
+            getQueryReturnValue().setReturnValue(Collections.emptyList());
+            return;
+        }
+        getQueryReturnValue().setReturnValue(vmNetworkInterfaceDao.getAllForVms(getParameters().getIds(),
+                getUserID(),
+                getParameters().isFiltered()));
+    }
+}
@@ -5,9 +5,11 @@ import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
 
 import javax.annotation.PostConstruct;
 import javax.enterprise.concurrent.ManagedScheduledExecutorService;
@@ -39,12 +41,28 @@ import org.ovirt.engine.core.utils.threadpool.ThreadPools;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * Keeps the quotas used by the commands with their usage, which is tracked incrementally by the commands consuming and
+ * releasing them, and reloaded from the database once it is older than
+ * {@link ConfigValues#QuotaCacheReconcileIntervalInMinutes}.
+ *
+ * A quota is changed only while holding the lock of its stripe, so commands consuming different quotas do not wait for
+ * each other.
+ */
 @Singleton
 public class QuotaManager implements BackendService {
-    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private static final int QUOTA_LOCK_STRIPES = 64;
+
     private final Logger log = LoggerFactory.getLogger(QuotaManager.class);
-    private Map<Guid, Map<Guid, Quota>> storagePoolQuotaMap = new HashMap<>();
-    private Map<Guid, Guid> storagePoolDefaultQuotaIdMap = new HashMap<>();
+    private final Map<Guid, Map<Guid, Quota>> storagePoolQuotaMap = new ConcurrentHashMap<>();
+    private final Map<Guid, Guid> storagePoolDefaultQuotaIdMap = new ConcurrentHashMap<>();
+
+    /**
+     * The time each cached quota was loaded from the database
+     */
+    private final Map<Guid, Long> quotaLoadTimeMap = new ConcurrentHashMap<>();
+
+    private final ReentrantLock[] quotaLocks = new ReentrantLock[QUOTA_LOCK_STRIPES];
 
     private final List<Integer> nonCountableQutoaVmStatusesList = new ArrayList<>();
 
@@ -63,6 +81,9 @@ public class QuotaManager implements BackendService {
 
     // constructor is exposed only for Java test. //TODO remove it when arquillian test used.
     protected QuotaManager() {
+        for (int i = 0; i < quotaLocks.length; ++i) {
+            quotaLocks[i] = new ReentrantLock();
+        }
     }
 
     @PostConstruct
@@ -83,19 +104,22 @@ public class QuotaManager implements BackendService {
     }
 
     public void removeQuotaFromCache(Guid storagePoolId, List<Guid> quotaList) {
-        lock.writeLock().lock();
-        try {
-            if (!storagePoolQuotaMap.containsKey(storagePoolId)) {
-                return;
+        Map<Guid, Quota> map = storagePoolQuotaMap.get(storagePoolId);
+        if (map == null) {
+            return;
+        }
+        for (Guid quotaId : quotaList) {
+            if (quotaId == null) {
+                continue;
             }
-            synchronized (storagePoolQuotaMap.get(storagePoolId)) {
-                Map<Guid, Quota> map = storagePoolQuotaMap.get(storagePoolId);
-                for (Guid quotaId : quotaList) {
-                    map.remove(quotaId);
-                }
+            ReentrantLock quotaLock = getQuotaLock(quotaId);
+            quotaLock.lock();
+            try {
+                map.remove(quotaId);
+                quotaLoadTimeMap.remove(quotaId);
+            } finally {
+                quotaLock.unlock();
             }
-        } finally {
-            lock.writeLock().unlock();
         }
     }
 
@@ -104,36 +128,27 @@ public class QuotaManager implements BackendService {
     }
 
     public void removeStoragePoolFromCache(Guid storagePoolId) {
-        lock.writeLock().lock();
-        try {
-            storagePoolQuotaMap.remove(storagePoolId);
-            storagePoolDefaultQuotaIdMap.remove(storagePoolId);
-        } finally {
-            lock.writeLock().unlock();
+        Map<Guid, Quota> map = storagePoolQuotaMap.remove(storagePoolId);
+        if (map != null) {
+            quotaLoadTimeMap.keySet().removeAll(map.keySet());
         }
+        storagePoolDefaultQuotaIdMap.remove(storagePoolId);
     }
 
     private void addStoragePoolToCache(Guid storagePoolId) {
-        if (storagePoolQuotaMap.containsKey(storagePoolId)) {
-            return;
+        storagePoolQuotaMap.computeIfAbsent(storagePoolId, id -> new ConcurrentHashMap<>());
+        if (!storagePoolDefaultQuotaIdMap.containsKey(storagePoolId)) {
+            Quota defaultQuota = getQuotaDao().getDefaultQuotaForStoragePool(storagePoolId);
+            storagePoolDefaultQuotaIdMap.putIfAbsent(storagePoolId, defaultQuota.getId());
         }
-
-        storagePoolQuotaMap.put(storagePoolId, new HashMap<>());
-        Quota defaultQuota = getQuotaDao().getDefaultQuotaForStoragePool(storagePoolId);
-        storagePoolDefaultQuotaIdMap.put(storagePoolId, defaultQuota.getId());
     }
 
-    private void addStoragePoolToCacheWithLock(Guid storagePoolId) {
-        if (storagePoolQuotaMap.containsKey(storagePoolId)) {
-            return;
-        }
+    private ReentrantLock getQuotaLock(Guid quotaId) {
+        return quotaLocks[getQuotaLockStripe(quotaId)];
+    }
 
-        lock.writeLock().lock();
-        try {
-            addStoragePoolToCache(storagePoolId);
-        } finally {
-            lock.writeLock().unlock();
-        }
+    private int getQuotaLockStripe(Guid quotaId) {
+        return Math.floorMod(quotaId.hashCode(), QUOTA_LOCK_STRIPES);
     }
 
     /**
@@ -203,50 +218,89 @@ public class QuotaManager implements BackendService {
             throw new InvalidQuotaParametersException("Null storage pool passed to QuotaManager");
         }
 
-        addStoragePoolToCacheWithLock(storagePool.getId());
+        addStoragePoolToCache(storagePool.getId());
 
-        QuotaManagerAuditLogger auditLogger = new QuotaManagerAuditLogger(command, auditLogDirector);
+        if (command.getStoragePool().getQuotaEnforcementType() == QuotaEnforcementTypeEnum.DISABLED) {
+            return true;
+        }
 
-        lock.readLock().lock();
-        try {
-            if (command.getStoragePool().getQuotaEnforcementType() != QuotaEnforcementTypeEnum.DISABLED) {
-                synchronized (storagePoolQuotaMap.get(storagePool.getId())) {
-                    return consumeQuotaParameters(params, command, auditLogger);
-                }
+        // Use default quota if the id is empty
+        for (QuotaConsumptionParameter param : params) {
+            if (Guid.isNullOrEmpty(param.getQuotaGuid())) {
+                param.setQuotaGuid(storagePoolDefaultQuotaIdMap.get(command.getStoragePoolId()));
             }
-        } finally {
-            lock.readLock().unlock();
         }
 
-        return true;
+        // The stripes are locked in ascending order, so commands consuming the same quotas cannot deadlock
+        int[] stripes = params.stream()
+                .map(QuotaConsumptionParameter::getQuotaGuid)
+                .filter(Objects::nonNull)
+                .mapToInt(this::getQuotaLockStripe)
+                .distinct()
+                .sorted()
+                .toArray();
+        for (int stripe : stripes) {
+            quotaLocks[stripe].lock();
+        }
+        try {
+            return consumeQuotaParameters(params, command, new QuotaManagerAuditLogger(command, auditLogDirector));
+        } finally {
+            for (int i = stripes.length - 1; i >= 0; --i) {
+                quotaLocks[stripes[i]].unlock();
+            }
+        }
     }
 
     /**
-     * Get Quota by Id. If in cache - get from cache. else get from Dao and add to cache.
+     * Get Quota by Id. If in cache and not due to be reconciled - get from cache. else get from Dao and add to cache.
      *
      * @param quotaId - quota id
      * @param storagePoolId - storage pool containing this quota
      * @return - found quota. null if not found.
      */
     private Quota fetchQuotaFromCache(Guid quotaId, Guid storagePoolId) throws InvalidQuotaParametersException {
-        Map<Guid, Quota> quotaMap = storagePoolQuotaMap.get(storagePoolId);
+        Map<Guid, Quota> quotaMap = storagePoolQuotaMap.computeIfAbsent(storagePoolId, id -> new ConcurrentHashMap<>());
 
         Quota quota = quotaMap.get(quotaId);
-        // if quota was not found in cache - look for it in DB
-        if (quota == null) {
-            quota = getQuotaDao().getById(quotaId);
-            if (quota != null) {
-                // cache in quota map
-                if (storagePoolId.equals(quota.getStoragePoolId())) {
-                    quotaMap.put(quotaId, quota);
+        if (quota != null && !isReconciliationDue(quotaId)) {
+            return quota;
+        }
+
+        ReentrantLock quotaLock = getQuotaLock(quotaId);
+        quotaLock.lock();
+        try {
+            // look for the quota in the cache again (it may have been loaded by now)
+            quota = quotaMap.get(quotaId);
+            // if quota was not found in cache or its usage is old - look for it in DB
+            if (quota == null || isReconciliationDue(quotaId)) {
+                long loadTime = System.currentTimeMillis();
+                quota = getQuotaDao().getById(quotaId);
+                if (quota != null) {
+                    // cache in quota map
+                    if (storagePoolId.equals(quota.getStoragePoolId())) {
+                        quotaMap.put(quotaId, quota);
+                        quotaLoadTimeMap.put(quotaId, loadTime);
+                    } else {
+                        throw new InvalidQuotaParametersException(
+                                String.format("Quota %s does not match storage pool %s", quotaId.toString()
+                                        , storagePoolId.toString()));
+                    }
                 } else {
-                    throw new InvalidQuotaParametersException(
-                            String.format("Quota %s does not match storage pool %s", quotaId.toString()
-                                    , storagePoolId.toString()));
+                    quotaMap.remove(quotaId);
+                    quotaLoadTimeMap.remove(quotaId);
                 }
             }
+            return quota;
+        } finally {
+            quotaLock.unlock();
         }
-        return quota;
+    }
+
+    private boolean isReconciliationDue(Guid quotaId) {
+        Long loadTime = quotaLoadTimeMap.get(quotaId);
+        long reconcileInterval =
+                TimeUnit.MINUTES.toMillis(Config.<Integer> getValue(ConfigValues.QuotaCacheReconcileIntervalInMinutes));
+        return loadTime == null || System.currentTimeMillis() - loadTime >= reconcileInterval;
     }
 
     /**
@@ -256,47 +310,15 @@ public class QuotaManager implements BackendService {
      *            quota list
      */
     public void updateUsage(List<Quota> quotaList) {
-        List<Quota> needToCache = new ArrayList<>();
-
         if (quotaList == null) {
             return;
         }
 
-        lock.readLock().lock();
-        try {
-            for (Quota quotaExternal : quotaList) {
-                // look for the quota in the cache
-                Map<Guid, Quota> quotaMap = storagePoolQuotaMap.get(quotaExternal.getStoragePoolId());
-                Quota quota = null;
-                if (quotaMap != null) {
-                    quota = quotaMap.get(quotaExternal.getId());
-                }
-
-                // if quota not in cache look for it in DB and add it to cache
-                if (quota == null) {
-                    needToCache.add(quotaExternal);
-                } else {
-                    copyUsageData(quota, quotaExternal);
-                }
-            }
-        } finally {
-            lock.readLock().unlock();
-        }
-
-        // if some of the quota are not in cache and need to be cached
-        if (!needToCache.isEmpty()) {
-            lock.writeLock().lock();
-            try {
-                for (Quota quotaExternal : needToCache) {
-                    addStoragePoolToCache(quotaExternal.getStoragePoolId());
-
-                    Quota quota = fetchQuotaFromCache(quotaExternal.getId(), quotaExternal.getStoragePoolId());
-                    if (quota != null) {
-                        copyUsageData(quota, quotaExternal);
-                    }
-                }
-            } finally {
-                lock.writeLock().unlock();
+        for (Quota quotaExternal : quotaList) {
+            // look for the quota in the cache, if not in cache look for it in DB and add it to cache
+            Quota quota = fetchQuotaFromCache(quotaExternal.getId(), quotaExternal.getStoragePoolId());
+            if (quota != null) {
+                copyUsageData(quota, quotaExternal);
             }
         }
     }
@@ -348,49 +370,15 @@ public class QuotaManager implements BackendService {
      */
     public Map<Guid, QuotaUsagePerUser> generatePerUserUsageReport(List<Quota> quotaIdsList) {
         Map<Guid, QuotaUsagePerUser> quotaPerUserUsageEntityMap = new HashMap<>();
-        List<Quota> needToCache = new ArrayList<>();
 
         if (quotaIdsList != null) {
-            lock.readLock().lock();
-            try {
-                for (Quota quotaExternal : quotaIdsList) {
-                    // look for the quota in the cache
-                    Map<Guid, Quota> quotaMap = storagePoolQuotaMap.get(quotaExternal.getStoragePoolId());
-                    Quota quota = null;
-                    if (quotaMap != null) {
-                        quota = quotaMap.get(quotaExternal.getId());
-                    }
-
-                    // if quota not in cache look for it in DB and add it to cache
-                    if (quota == null) {
-                        needToCache.add(quotaExternal);
-                    } else {
-                        QuotaUsagePerUser usagePerUser = addQuotaEntry(quota);
-                        if (usagePerUser != null) {
-                            quotaPerUserUsageEntityMap.put(quota.getId(), usagePerUser);
-                        }
-                    }
-                }
-            } finally {
-                lock.readLock().unlock();
-            }
+            for (Quota quotaExternal : quotaIdsList) {
+                // look for the quota in the cache, if not in cache look for it in DB and add it to cache
+                Quota quota = fetchQuotaFromCache(quotaExternal.getId(), quotaExternal.getStoragePoolId());
 
-            if (!needToCache.isEmpty()) {
-                lock.writeLock().lock();
-                try {
-                    for (Quota quotaExternal : needToCache) {
-                        // look for the quota in the cache again (it may have been added by now)
-                        addStoragePoolToCache(quotaExternal.getStoragePoolId());
-
-                        Quota quota = fetchQuotaFromCache(quotaExternal.getId(), quotaExternal.getStoragePoolId());
-
-                        QuotaUsagePerUser usagePerUser = addQuotaEntry(quota);
-                        if (usagePerUser != null) {
-                            quotaPerUserUsageEntityMap.put(quota.getId(), usagePerUser);
-                        }
-                    }
-                } finally {
-                    lock.writeLock().unlock();
+                QuotaUsagePerUser usagePerUser = addQuotaEntry(quota);
+                if (usagePerUser != null) {
+                    quotaPerUserUsageEntityMap.put(quota.getId(), usagePerUser);
                 }
             }
         }
@@ -488,31 +476,26 @@ public class QuotaManager implements BackendService {
         long timeStart = System.currentTimeMillis();
         List<Quota> allQuotaIncludingConsumption = getQuotaDao().getAllQuotaIncludingConsumption();
 
-        if (allQuotaIncludingConsumption.isEmpty()) {
-            return;
-        }
-
-        Map<Guid, Map<Guid, Quota>> newStoragePoolQuotaMap = new HashMap<>();
-        Map<Guid, Guid> newDefaultQuotaIdMap = new HashMap<>();
-
+        // Only the missing quotas are added, the cached ones keep the usage tracked by the commands
+        // until they are reconciled
         for (Quota quota : allQuotaIncludingConsumption) {
-            if (!newStoragePoolQuotaMap.containsKey(quota.getStoragePoolId())) {
-                newStoragePoolQuotaMap.put(quota.getStoragePoolId(), new HashMap<>());
+            Map<Guid, Quota> quotaMap =
+                    storagePoolQuotaMap.computeIfAbsent(quota.getStoragePoolId(), id -> new ConcurrentHashMap<>());
+            ReentrantLock quotaLock = getQuotaLock(quota.getId());
+            quotaLock.lock();
+            try {
+                if (quotaMap.putIfAbsent(quota.getId(), quota) == null) {
+                    quotaLoadTimeMap.put(quota.getId(), timeStart);
+                }
+            } finally {
+                quotaLock.unlock();
             }
-            newStoragePoolQuotaMap.get(quota.getStoragePoolId()).put(quota.getId(), quota);
 
             if (quota.isDefault()) {
-                newDefaultQuotaIdMap.put(quota.getStoragePoolId(), quota.getId());
+                storagePoolDefaultQuotaIdMap.put(quota.getStoragePoolId(), quota.getId());
             }
         }
 
-        lock.writeLock().lock();
-        try {
-            storagePoolQuotaMap = newStoragePoolQuotaMap;
-            storagePoolDefaultQuotaIdMap = newDefaultQuotaIdMap;
-        } finally {
-            lock.writeLock().unlock();
-        }
         long timeEnd = System.currentTimeMillis();
         log.info("Quota Cache updated. ({} msec)", timeEnd-timeStart);
     }
@@ -521,13 +504,8 @@ public class QuotaManager implements BackendService {
         int quotaCount = getQuotaDao().getQuotaCount();
         int cacheCount = 0;
 
-        lock.readLock().lock();
-        try {
-            for(Map<Guid, Quota> quotaMap : storagePoolQuotaMap.values()) {
-                cacheCount += quotaMap.size();
-            }
-        } finally {
-            lock.readLock().unlock();
+        for(Map<Guid, Quota> quotaMap : storagePoolQuotaMap.values()) {
+            cacheCount += quotaMap.size();
         }
 
         return cacheCount < quotaCount * Config.<Integer> getValue(ConfigValues.MinimumPercentageToUpdateQuotaCache)/100;
@@ -545,7 +523,7 @@ public class QuotaManager implements BackendService {
 
     public Guid getDefaultQuotaId(Guid storagePoolId) {
         if (!storagePoolDefaultQuotaIdMap.containsKey(storagePoolId)) {
-            addStoragePoolToCacheWithLock(storagePoolId);
+            addStoragePoolToCache(storagePoolId);
         }
 
         return storagePoolDefaultQuotaIdMap.get(storagePoolId);
@@ -580,8 +558,8 @@ public class QuotaManager implements BackendService {
             }
         }
 
-        // After successful validation, the requests are applied.
-        // This changes only the cached quota objects in the QuotaManager, nothing is written to the DB.
+        // After successful validation, the requests are added to the usage of the cached quota objects
+        // in the QuotaManager, nothing is written to the DB.
         requests.get().forEach(Request::apply);
         return true;
     }
@@ -603,11 +581,6 @@ public class QuotaManager implements BackendService {
         Map<Pair<Guid, Guid>, StorageRequest> storageRequests = new HashMap<>();
 
         for (QuotaConsumptionParameter param: parameters) {
-            // Use default quota if the id is empty
-            if(Guid.isNullOrEmpty(param.getQuotaGuid())) {
-                param.setQuotaGuid(storagePoolDefaultQuotaIdMap.get(command.getStoragePoolId()));
-            }
-
             Quota quota = fetchQuotaFromCache(param.getQuotaGuid(), command.getStoragePoolId());
             if (quota == null) {
                 log.error("The quota id '{}' is not found in backend and DB.", param.getQuotaGuid());
@@ -865,8 +838,8 @@ public class QuotaManager implements BackendService {
 
         @Override
         public void apply() {
-            quotaCluster.setVirtualCpuUsage(coresRequest);
-            quotaCluster.setMemSizeMBUsage(memoryRequestMB);
+            quotaCluster.setVirtualCpuUsage(quotaCluster.getVirtualCpuUsage() + coresRequest);
+            quotaCluster.setMemSizeMBUsage(quotaCluster.getMemSizeMBUsage() + memoryRequestMB);
         }
     }
 
@@ -941,7 +914,7 @@ public class QuotaManager implements BackendService {
 
         @Override
         public void apply() {
-            quotaStorage.setStorageSizeGBUsage(storageRequestGB);
+            quotaStorage.setStorageSizeGBUsage(quotaStorage.getStorageSizeGBUsage() + storageRequestGB);
         }
     }
 }
@@ -12,6 +12,7 @@ import javax.inject.Singleton;
 import org.apache.commons.lang.exception.ExceptionUtils;
 import org.ovirt.engine.core.bll.interfaces.BackendInternal;
 import org.ovirt.engine.core.bll.job.ExecutionHandler;
+import org.ovirt.engine.core.bll.scheduling.arem.AffinityGroupsIndex;
 import org.ovirt.engine.core.bll.scheduling.arem.AffinityRulesEnforcer;
 import org.ovirt.engine.core.common.AuditLogType;
 import org.ovirt.engine.core.common.BackendService;
@@ -32,6 +33,12 @@ import org.slf4j.LoggerFactory;
 @Singleton
 public class AffinityRulesEnforcementManager implements BackendService {
 
+    /**
+     * Number of intervals after which the affinity index is rebuilt from the database,
+     * to bound the effect of a missed placement or affinity group change.
+     */
+    private static final int FULL_RESYNC_INTERVALS = 10;
+
     protected Logger log = LoggerFactory.getLogger(getClass());
 
     @Inject
@@ -41,11 +48,15 @@ public class AffinityRulesEnforcementManager implements BackendService {
     @Inject
     private AffinityRulesEnforcer rulesEnforcer;
     @Inject
+    private AffinityGroupsIndex affinityGroupsIndex;
+    @Inject
     private BackendInternal backend;
     @Inject
     @ThreadPools(ThreadPools.ThreadPoolType.EngineScheduledThreadPool)
     private ManagedScheduledExecutorService executor;
 
+    private int intervalsSinceResync;
+
     @PostConstruct
     protected void wakeup() {
 
@@ -69,16 +80,22 @@ public class AffinityRulesEnforcementManager implements BackendService {
 
     /**
      * refresh method is called each interval of AffinityRulesEnforcementManager. It will try to find a broken affinity rule, choose a VM then, migrate it in order
-     * to fix the breakage.
+     * to fix the breakage. Clusters where no VM of an affinity group changed its host since the last check are skipped.
      */
     public void refresh() {
         try {
             log.debug("Affinity Rules Enforcement Manager interval reached.");
 
+            if (++intervalsSinceResync >= FULL_RESYNC_INTERVALS) {
+                intervalsSinceResync = 0;
+                affinityGroupsIndex.invalidateAll();
+            }
+
             final List<VM> vmCandidates = new ArrayList<>();
             for (Cluster cluster : clusterDao.getWithoutMigratingVms()) {
-                if (!cluster.isInUpgradeMode()) {
-                    final VM candidate = rulesEnforcer.chooseNextVmToMigrate(cluster);
+                if (!cluster.isInUpgradeMode() && affinityGroupsIndex.hasViolations(cluster.getId())) {
+                    final VM candidate = rulesEnforcer.chooseNextVmToMigrate(cluster,
+                            affinityGroupsIndex.getAffinityGroups(cluster.getId()));
                     if (candidate != null) {
                         vmCandidates.add(candidate);
                     }
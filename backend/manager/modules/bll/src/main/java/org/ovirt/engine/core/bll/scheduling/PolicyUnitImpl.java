@@ -126,6 +126,14 @@ public abstract class PolicyUnitImpl {
         return Guid.createGuidFromString(unit.guid());
     }
 
+    /**
+     * @return true if the unit can be evaluated on a pool thread, filters on disjoint parts of the host list
+     */
+    public boolean isHostIndependent() {
+        SchedulingUnit unit = getClass().getAnnotation(SchedulingUnit.class);
+        return unit != null && unit.hostIndependent();
+    }
+
     protected Set<PolicyUnitParameter> getParameters() {
         SchedulingUnit unit = getClass().getAnnotation(SchedulingUnit.class);
         if (unit.parameters().length == 0) {
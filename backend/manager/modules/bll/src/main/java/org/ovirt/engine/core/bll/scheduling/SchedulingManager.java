@@ -8,6 +8,7 @@ import java.util.Comparator;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
@@ -15,7 +16,11 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
@@ -35,6 +40,7 @@ import org.ovirt.engine.core.bll.scheduling.external.BalanceResult;
 import org.ovirt.engine.core.bll.scheduling.external.ExternalSchedulerBroker;
 import org.ovirt.engine.core.bll.scheduling.external.ExternalSchedulerDiscovery;
 import org.ovirt.engine.core.bll.scheduling.external.WeightResultEntry;
+import org.ovirt.engine.core.bll.scheduling.metrics.SchedulingMetrics;
 import org.ovirt.engine.core.bll.scheduling.pending.PendingCpuCores;
 import org.ovirt.engine.core.bll.scheduling.pending.PendingHugePages;
 import org.ovirt.engine.core.bll.scheduling.pending.PendingMemory;
@@ -80,6 +86,8 @@ import org.ovirt.engine.core.dao.scheduling.PolicyUnitDao;
 import org.ovirt.engine.core.di.Injector;
 import org.ovirt.engine.core.utils.threadpool.ThreadPoolUtil;
 import org.ovirt.engine.core.utils.threadpool.ThreadPools;
+import org.ovirt.engine.core.vdsbroker.ClusterHostsSnapshot;
+import org.ovirt.engine.core.vdsbroker.ClusterHostsSnapshotManager;
 import org.ovirt.engine.core.vdsbroker.ResourceManager;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -124,6 +132,12 @@ public class SchedulingManager implements BackendService {
     @Inject
     private VdsNumaNodeDao vdsNumaNodeDao;
     @Inject
+    private ClusterHostsSnapshotManager clusterHostsSnapshotManager;
+    @Inject
+    private SchedulingMetrics schedulingMetrics;
+    @Inject
+    private SlaValidator slaValidator;
+    @Inject
     @ThreadPools(ThreadPools.ThreadPoolType.EngineScheduledThreadPool)
     private ManagedScheduledExecutorService executor;
 
@@ -148,6 +162,11 @@ public class SchedulingManager implements BackendService {
 
     private final Guid defaultSelectorGuid = InternalPolicyUnits.getGuid(RankSelectorPolicyUnit.class);
 
+    /**
+     * Number of tasks a policy unit evaluation is split into, 0 when the parallel evaluation is disabled
+     */
+    private int parallelEvaluationParts;
+
     private PendingResourceManager getPendingResourceManager() {
         return pendingResourceManager;
     }
@@ -167,9 +186,19 @@ public class SchedulingManager implements BackendService {
         loadExternalScheduler();
         enableLoadBalancer();
         enableHaReservationCheck();
+        initializeParallelEvaluation();
         log.info("Initialized Scheduling manager");
     }
 
+    private void initializeParallelEvaluation() {
+        int parts = Config.<Integer>getValue(ConfigValues.SchedulerParallelEvaluationThreads);
+        parallelEvaluationParts = Math.max(0, parts);
+        if (parallelEvaluationParts > 0) {
+            log.info("Policy units will be evaluated in parallel using up to {} engine threads",
+                    parallelEvaluationParts);
+        }
+    }
+
     private void initializePendingResourceManager() {
         pendingResourceManager = new PendingResourceManager(resourceManager);
     }
@@ -331,12 +360,7 @@ public class SchedulingManager implements BackendService {
             log.debug("Scheduling started, correlation Id: {}", correlationId);
             checkAllowOverbooking(cluster);
             lockCluster(cluster.getId());
-            List<VDS> vdsList = vdsDao
-                    .getAllForClusterWithStatus(cluster.getId(), VDSStatus.Up);
-            vdsList = removeBlacklistedHosts(vdsList, hostBlackList);
-            vdsList = keepOnlyWhitelistedHosts(vdsList, hostWhiteList);
-            refreshCachedPendingValues(vdsList);
-            subtractRunningVmResources(cluster, vm, vdsList);
+            List<VDS> vdsList = getCandidateHosts(cluster, vm, hostBlackList, hostWhiteList);
             ClusterPolicy policy = policyMap.get(cluster.getClusterPolicyId());
             Map<String, String> parameters = createClusterPolicyParameters(cluster);
 
@@ -375,6 +399,127 @@ public class SchedulingManager implements BackendService {
         }
     }
 
+    /**
+     * Schedule a batch of VMs in a single pass over the cluster.
+     *
+     * The cluster is locked only once for the whole batch. The VMs are placed in the order of the list, every VM
+     * gets its own copy of the hosts prepared the same way as by a single scheduling, and pending resources of every
+     * placed VM are registered before the next VM is scheduled, so the filters and weights of the following VMs
+     * already take them into account.
+     *
+     * VMs that are currently running are not handled by the batch and have to be scheduled using
+     * {@link #schedule(Cluster, VM, List, List, List, List, RunVmDelayer, String)}.
+     *
+     * @param cluster the cluster all the VMs belong to
+     * @param vms the VMs to place, in the order they should be scheduled
+     * @param correlationId correlation id used for logging
+     * @return [vm id, host id] map with a placement for every VM that could be scheduled
+     */
+    public Map<Guid, Guid> scheduleBatch(Cluster cluster, List<VM> vms, String correlationId) {
+        Map<Guid, Guid> placements = new HashMap<>();
+        if (vms.isEmpty()) {
+            return placements;
+        }
+
+        prepareClusterLock(cluster.getId());
+        try {
+            log.debug("Batch scheduling of {} VMs started, correlation Id: {}", vms.size(), correlationId);
+            checkAllowOverbooking(cluster);
+            lockCluster(cluster.getId());
+            ClusterPolicy policy = policyMap.get(cluster.getClusterPolicyId());
+            Map<String, String> parameters = createClusterPolicyParameters(cluster);
+
+            for (VM vm : vms) {
+                if (!Guid.isNullOrEmpty(vm.getRunOnVds())) {
+                    continue;
+                }
+
+                // Pending resources of the VMs placed so far are part of the refreshed values
+                List<VDS> vdsList =
+                        runFilters(policy.getFilters(),
+                                cluster,
+                                getCandidateHosts(cluster, vm, Collections.emptyList(), Collections.emptyList()),
+                                vm,
+                                parameters,
+                                policy.getFilterPositionMap(),
+                                new ArrayList<>(),
+                                noWaitingVmDelayer,
+                                true,
+                                correlationId);
+
+                if (vdsList.isEmpty()) {
+                    continue;
+                }
+
+                Optional<Guid> bestHost =
+                        selectBestHost(cluster, vm, Collections.emptyList(), vdsList, policy, parameters);
+                if (bestHost.isPresent()) {
+                    Guid bestHostId = bestHost.get();
+                    addPendingResources(vm, bestHostId);
+                    markVfsAsUsedByVm(vm, bestHostId);
+                    placements.put(vm.getId(), bestHostId);
+                }
+            }
+
+            return placements;
+        } catch (InterruptedException e) {
+            log.error("batch scheduling interrupted, correlation Id: {}: {}", correlationId, e.getMessage());
+            log.debug("Exception: ", e);
+            return placements;
+        } finally {
+            releaseCluster(cluster.getId());
+
+            log.debug("Batch scheduling ended, {} of {} VMs placed, correlation Id: {}",
+                    placements.size(),
+                    vms.size(),
+                    correlationId);
+        }
+    }
+
+    /**
+     * Checks that the host the VM was placed on by {@link #scheduleBatch(Cluster, List, String)} can still run it.
+     *
+     * Unlike a scheduling, the check neither locks the cluster nor runs the policy units. It only verifies that the
+     * VM is still pending on the host and that the host is still up and has the CPUs and the memory the VM needs,
+     * counting the resources pending for the other VMs. The pending resources of the VM are left in place, the
+     * caller has to clear them when the host can't run the VM anymore.
+     *
+     * @return true if the VM can still be run on the host
+     */
+    public boolean canRunOnPreScheduledHost(Cluster cluster, VM vm, Guid hostId) {
+        if (!hostId.equals(PendingVM.getScheduledHost(getPendingResourceManager(), vm))) {
+            return false;
+        }
+
+        VDS host = clusterHostsSnapshotManager.getSnapshot(cluster.getId()).getHost(hostId);
+        if (host == null || host.getStatus() != VDSStatus.Up) {
+            return false;
+        }
+
+        Integer cores = SlaValidator.getEffectiveCpuCores(host, cluster.getCountThreadsAsCores());
+        if (cores != null && vm.getNumOfCpus(false) > cores) {
+            return false;
+        }
+
+        // The resources pending for the VM itself are part of the pending resources of the host
+        PendingCpuCores vmCpuCores =
+                getPendingResourceManager().getExactPendingResource(new PendingCpuCores((Guid) null, vm, 0));
+        PendingMemory vmMemory =
+                getPendingResourceManager().getExactPendingResource(new PendingMemory((Guid) null, vm, 0));
+        PendingOvercommitMemory vmOvercommitMemory = getPendingResourceManager()
+                .getExactPendingResource(new PendingOvercommitMemory((Guid) null, vm, 0));
+
+        host.setPendingVcpusCount(PendingCpuCores.collectForHost(getPendingResourceManager(), hostId)
+                - (vmCpuCores == null ? 0 : (int) vmCpuCores.getCoreCount()));
+        host.setPendingVmemSize(PendingOvercommitMemory.collectForHost(getPendingResourceManager(), hostId)
+                - (vmOvercommitMemory == null ? 0 : (int) vmOvercommitMemory.getSizeInMb()));
+        int pendingMemory = PendingMemory.collectForHost(getPendingResourceManager(), hostId)
+                - (vmMemory == null ? 0 : (int) vmMemory.getSizeInMb());
+
+        return slaValidator.hasPhysMemoryToRunVM(host, vm, pendingMemory)
+                && slaValidator.hasOvercommitMemoryToRunVM(host, vm);
+    }
+
     private void addPendingResources(VM vm, Guid hostId) {
         getPendingResourceManager().addPending(new PendingCpuCores(hostId, vm, vm.getNumOfCpus()));
         getPendingResourceManager().addPending(new PendingMemory(hostId, vm, vmOverheadCalculator.getStaticOverheadInMb(vm)));
@@ -438,7 +583,12 @@ public class SchedulingManager implements BackendService {
     }
 
     private void lockCluster(Guid cluster) throws InterruptedException {
-        clusterLockMap.get(cluster).acquire();
+        long waitStart = schedulingMetrics.clusterLockWaitStarted();
+        try {
+            clusterLockMap.get(cluster).acquire();
+        } finally {
+            schedulingMetrics.clusterLockWaitFinished(waitStart);
+        }
     }
 
     private void prepareClusterLock(Guid cluster) {
@@ -589,12 +739,7 @@ public class SchedulingManager implements BackendService {
             List<Guid> vdsBlackList,
             List<Guid> vdsWhiteList,
             List<String> messages) {
-        List<VDS> vdsList = vdsDao
-                .getAllForClusterWithStatus(cluster.getId(), VDSStatus.Up);
-        vdsList = removeBlacklistedHosts(vdsList, vdsBlackList);
-        vdsList = keepOnlyWhitelistedHosts(vdsList, vdsWhiteList);
-        refreshCachedPendingValues(vdsList);
-        subtractRunningVmResources(cluster, vm, vdsList);
+        List<VDS> vdsList = getCandidateHosts(cluster, vm, vdsBlackList, vdsWhiteList);
         ClusterPolicy policy = policyMap.get(cluster.getClusterPolicyId());
         Map<String, String> parameters = createClusterPolicyParameters(cluster);
 
@@ -613,6 +758,30 @@ public class SchedulingManager implements BackendService {
         return vdsList;
     }
 
+    /**
+     * Returns private copies of the hosts the VM can be scheduled to, with the pending resources of the VMs being
+     * scheduled and without the resources of the VM itself if it is running.
+     */
+    private List<VDS> getCandidateHosts(Cluster cluster, VM vm, List<Guid> hostBlackList, List<Guid> hostWhiteList) {
+        List<VDS> vdsList = getUpHostsForCluster(cluster);
+        vdsList = removeBlacklistedHosts(vdsList, hostBlackList);
+        vdsList = keepOnlyWhitelistedHosts(vdsList, hostWhiteList);
+        refreshCachedPendingValues(vdsList);
+        subtractRunningVmResources(cluster, vm, vdsList);
+        return vdsList;
+    }
+
+    /**
+     * Returns private copies of all hosts in the cluster that are Up.
+     *
+     * The hosts are taken from the in-memory cluster snapshot maintained by the host managers.
+     */
+    private List<VDS> getUpHostsForCluster(Cluster cluster) {
+        ClusterHostsSnapshot snapshot = clusterHostsSnapshotManager.getSnapshot(cluster.getId());
+        log.debug("Using hosts snapshot version {} of cluster '{}'", snapshot.getVersion(), cluster.getName());
+        return snapshot.getHostsWithStatus(VDSStatus.Up);
+    }
+
     private Map<String, String> createClusterPolicyParameters(Cluster cluster) {
         Map<String, String> parameters = new HashMap<>();
         if (cluster.getClusterPolicyProperties() != null) {
@@ -728,7 +897,11 @@ public class SchedulingManager implements BackendService {
             }
             filterPolicyUnit.setRunVmDelayer(runVmDelayer);
             List<VDS> currentHostList = new ArrayList<>(hostList);
-            hostList = filterPolicyUnit.filter(cluster, hostList, vm, parameters, result.getDetails());
+            long start = System.nanoTime();
+            hostList = runInternalFilter(filterPolicyUnit, cluster, hostList, vm, parameters, result.getDetails());
+            schedulingMetrics.recordFilter(filterPolicyUnit.getPolicyUnit(),
+                    System.nanoTime() - start,
+                    currentHostList.size() - hostList.size());
             logFilterActions(currentHostList,
                     toIdSet(hostList),
                     EngineMessage.VAR__FILTERTYPE__INTERNAL,
@@ -739,6 +912,85 @@ public class SchedulingManager implements BackendService {
         return hostList;
     }
 
+    /**
+     * Runs a single filter. Filters that decide about every host on its own and do not read the database
+     * are evaluated on parts of the host list in parallel, when enabled. The parts are merged in the original
+     * order, so the result and the per host messages are the same as if the filter ran over the whole list.
+     */
+    private List<VDS> runInternalFilter(PolicyUnitImpl filterPolicyUnit,
+            Cluster cluster,
+            List<VDS> hostList,
+            VM vm,
+            Map<String, String> parameters,
+            PerHostMessages messages) {
+        if (!shouldEvaluateInParallel(hostList) || !filterPolicyUnit.isHostIndependent()) {
+            return filterPolicyUnit.filter(cluster, hostList, vm, parameters, messages);
+        }
+
+        int partSize = (hostList.size() + parallelEvaluationParts - 1) / parallelEvaluationParts;
+        List<Callable<Pair<List<VDS>, PerHostMessages>>> tasks = new ArrayList<>(parallelEvaluationParts);
+        for (int i = 0; i < hostList.size(); i += partSize) {
+            List<VDS> part = new ArrayList<>(hostList.subList(i, Math.min(i + partSize, hostList.size())));
+            tasks.add(() -> {
+                PerHostMessages partMessages = new PerHostMessages();
+                return new Pair<>(filterPolicyUnit.filter(cluster, part, vm, parameters, partMessages),
+                        partMessages);
+            });
+        }
+
+        List<VDS> filteredHosts = new ArrayList<>(hostList.size());
+        for (Pair<List<VDS>, PerHostMessages> partResult : evaluateInParallel(tasks)) {
+            filteredHosts.addAll(partResult.getFirst());
+            partResult.getSecond().getMessages().forEach(messages::addMessages);
+        }
+        return filteredHosts;
+    }
+
+    private boolean shouldEvaluateInParallel(List<VDS> hostList) {
+        return parallelEvaluationParts > 0
+                && hostList.size() >= Config.<Integer>getValue(ConfigValues.SchedulerParallelEvaluationMinHosts);
+    }
+
+    /**
+     * Runs the tasks on the engine thread pool and returns their results in the order of the tasks.
+     *
+     * A task that did not get a pool thread by the time its result is needed, because the pool is busy
+     * or rejected it, is run by the calling thread. The scheduling never waits for a free pool thread.
+     */
+    private <T> List<T> evaluateInParallel(List<Callable<T>> tasks) {
+        List<FutureTask<T>> futures = new ArrayList<>(tasks.size());
+        for (Callable<T> task : tasks) {
+            FutureTask<T> future = new FutureTask<>(task);
+            futures.add(future);
+            try {
+                ThreadPoolUtil.execute(future);
+            } catch (RejectedExecutionException e) {
+                // Run by the calling thread below
+            }
+        }
+
+        List<T> results = new ArrayList<>(futures.size());
+        for (FutureTask<T> future : futures) {
+            // Does nothing when the task was already started by a pool thread
+            future.run();
+            try {
+                results.add(future.get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException(e);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                if (e.getCause() instanceof Error) {
+                    throw (Error) e.getCause();
+                }
+                throw new RuntimeException(e.getCause());
+            }
+        }
+        return results;
+    }
+
     private Set<Guid> toIdSet(List<VDS> hostList) {
         return hostList.stream().map(VDS::getId).collect(Collectors.toSet());
     }
@@ -835,14 +1087,64 @@ public class SchedulingManager implements BackendService {
             VM vm,
             Map<String, String> parameters) {
 
+        if (shouldEvaluateInParallel(hostList)
+                && functions.stream().filter(pair -> pair.getFirst().isHostIndependent()).count() > 1) {
+            runInternalFunctionsInParallel(selector, functions, cluster, hostList, vm, parameters);
+            return;
+        }
+
         for (Pair<PolicyUnitImpl, Integer> pair : functions) {
-            List<Pair<Guid, Integer>> scoreResult = pair.getFirst().score(cluster, hostList, vm, parameters);
+            List<Pair<Guid, Integer>> scoreResult = runInternalFunction(pair.getFirst(), cluster, hostList, vm, parameters);
             for (Pair<Guid, Integer> result : scoreResult) {
                 selector.record(pair.getFirst().getGuid(), result.getFirst(), result.getSecond());
             }
         }
     }
 
+    /**
+     * Weight units may normalize their scores over the whole host list, so every unit gets all the hosts.
+     * The units that do not read the database run concurrently on the engine thread pool, the others run
+     * on the calling thread. The scores are recorded in the policy order afterwards.
+     */
+    private void runInternalFunctionsInParallel(SelectorInstance selector,
+            List<Pair<PolicyUnitImpl, Integer>> functions,
+            Cluster cluster,
+            List<VDS> hostList,
+            VM vm,
+            Map<String, String> parameters) {
+        List<Callable<List<Pair<Guid, Integer>>>> tasks = new ArrayList<>();
+        for (Pair<PolicyUnitImpl, Integer> pair : functions) {
+            PolicyUnitImpl unit = pair.getFirst();
+            if (unit.isHostIndependent()) {
+                tasks.add(() -> runInternalFunction(unit, cluster, new ArrayList<>(hostList), vm, parameters));
+            }
+        }
+        Iterator<List<Pair<Guid, Integer>>> parallelResults = evaluateInParallel(tasks).iterator();
+
+        for (Pair<PolicyUnitImpl, Integer> pair : functions) {
+            PolicyUnitImpl unit = pair.getFirst();
+            List<Pair<Guid, Integer>> scoreResult = unit.isHostIndependent()
+                    ? parallelResults.next()
+                    : runInternalFunction(unit, cluster, hostList, vm, parameters);
+            for (Pair<Guid, Integer> result : scoreResult) {
+                selector.record(unit.getGuid(), result.getFirst(), result.getSecond());
+            }
+        }
+    }
+
+    private List<Pair<Guid, Integer>> runInternalFunction(PolicyUnitImpl unit,
+            Cluster cluster,
+            List<VDS> hostList,
+            VM vm,
+            Map<String, String> parameters) {
+        long start = System.nanoTime();
+        try {
+            return unit.score(cluster, hostList, vm, parameters);
+        } finally {
+            schedulingMetrics.recordScore(unit.getPolicyUnit(), System.nanoTime() - start);
+        }
+    }
+
     private void runExternalFunctions(SelectorInstance selector,
             List<Pair<PolicyUnitImpl, Integer>> functions,
             List<VDS> hostList,
@@ -1061,10 +1363,15 @@ public class SchedulingManager implements BackendService {
     private Optional<BalanceResult> internalRunBalance(PolicyUnitImpl policyUnit,
             Cluster cluster,
             List<VDS> hosts) {
-        return policyUnit.balance(cluster,
-                hosts,
-                cluster.getClusterPolicyProperties(),
-                new ArrayList<>());
+        long start = System.nanoTime();
+        try {
+            return policyUnit.balance(cluster,
+                    hosts,
+                    cluster.getClusterPolicyProperties(),
+                    new ArrayList<>());
+        } finally {
+            schedulingMetrics.recordBalance(policyUnit.getPolicyUnit(), System.nanoTime() - start);
+        }
     }
 
     private Optional<BalanceResult> externalRunBalance(PolicyUnitImpl policyUnit,
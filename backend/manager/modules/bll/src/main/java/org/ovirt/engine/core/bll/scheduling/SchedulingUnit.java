@@ -15,4 +15,11 @@ public @interface SchedulingUnit {
     PolicyUnitType type() default PolicyUnitType.FILTER;
     String description() default "";
     PolicyUnitParameter[] parameters() default {};
+
+    /**
+     * True when the unit decides about every host on its own and does not read the database, so it can
+     * be evaluated on an engine pool thread. A filter gets split over parts of the host list, weight units
+     * run concurrently with each other. The result is the same as for the sequential evaluation.
+     */
+    boolean hostIndependent() default false;
 }
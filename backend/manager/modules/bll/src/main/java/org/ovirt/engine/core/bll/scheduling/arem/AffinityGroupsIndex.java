@@ -0,0 +1,269 @@
+package org.ovirt.engine.core.bll.scheduling.arem;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import javax.enterprise.event.Observes;
+import javax.enterprise.event.TransactionPhase;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import org.ovirt.engine.core.common.businessentities.VM;
+import org.ovirt.engine.core.common.qualifiers.AffinityGroupsChanged;
+import org.ovirt.engine.core.common.qualifiers.VmsPlacementChanged;
+import org.ovirt.engine.core.common.scheduling.AffinityGroup;
+import org.ovirt.engine.core.compat.Guid;
+import org.ovirt.engine.core.dao.VmDao;
+import org.ovirt.engine.core.dao.scheduling.AffinityGroupDao;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Incrementally maintained, per cluster index of the affinity groups and the current placement of their VMs.
+ *
+ * The index is built from the database the first time a cluster is checked and then kept up to date by events:
+ * the VMs monitoring reports the current host of the VMs it saves and the affinity group commands, as well as the
+ * removal of a VM that belongs to an affinity group, report changed clusters. Only the rules that contain a VM
+ * whose host changed are re-evaluated, so a periodic check of a cluster without any change is just a lookup.
+ *
+ * The rules mirror what {@link AffinityRulesEnforcer} acts upon (host affinity of all groups, VM affinity of
+ * enforcing groups with overlapping positive groups merged), but a rule reported as violated only means that the
+ * enforcer has some work to do, the enforcer still makes the final decision.
+ */
+@Singleton
+public class AffinityGroupsIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(AffinityGroupsIndex.class);
+
+    @Inject
+    private AffinityGroupDao affinityGroupDao;
+    @Inject
+    private VmDao vmDao;
+
+    private final Map<Guid, ClusterIndex> clusters = new ConcurrentHashMap<>();
+    private final Map<Guid, ClusterIndex> vmToCluster = new ConcurrentHashMap<>();
+
+    /**
+     * @return true when at least one affinity rule of the cluster may be violated by the current VM placement
+     */
+    public boolean hasViolations(Guid clusterId) {
+        return getClusterIndex(clusterId).updateViolations();
+    }
+
+    /**
+     * @return all the affinity groups of the cluster, as loaded by the index
+     */
+    public List<AffinityGroup> getAffinityGroups(Guid clusterId) {
+        return getClusterIndex(clusterId).groups;
+    }
+
+    /**
+     * Drop the index of the cluster, it is rebuilt from the database when it is needed next time.
+     */
+    public void invalidate(Guid clusterId) {
+        ClusterIndex index = clusters.remove(clusterId);
+        if (index != null) {
+            index.vmRules.keySet().forEach(vmId -> vmToCluster.remove(vmId, index));
+        }
+    }
+
+    /**
+     * Drop the indexes of all the clusters, used to periodically resynchronize with the database.
+     */
+    public void invalidateAll() {
+        new ArrayList<>(clusters.keySet()).forEach(this::invalidate);
+    }
+
+    public void onAffinityGroupsChanged(
+            @Observes(during = TransactionPhase.AFTER_SUCCESS) @AffinityGroupsChanged Guid clusterId) {
+        log.debug("Affinity groups of cluster '{}' changed, dropping the index", clusterId);
+        invalidate(clusterId);
+    }
+
+    public void onVmsPlacementChanged(@Observes @VmsPlacementChanged Map<Guid, Guid> placements) {
+        for (Map.Entry<Guid, Guid> entry : placements.entrySet()) {
+            ClusterIndex index = vmToCluster.get(entry.getKey());
+            if (index != null) {
+                index.updatePlacement(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+    private ClusterIndex getClusterIndex(Guid clusterId) {
+        ClusterIndex index = clusters.get(clusterId);
+        if (index != null) {
+            return index;
+        }
+
+        index = new ClusterIndex(affinityGroupDao.getAllAffinityGroupsByClusterId(clusterId));
+
+        // Register before reading the placement, so no monitoring event is lost in between
+        for (Guid vmId : index.vmRules.keySet()) {
+            vmToCluster.put(vmId, index);
+        }
+        index.initPlacements(vmDao.getVmsByIds(new ArrayList<>(index.vmRules.keySet())));
+
+        ClusterIndex current = clusters.putIfAbsent(clusterId, index);
+        if (current != null) {
+            index.vmRules.keySet().forEach(vmId -> vmToCluster.replace(vmId, current));
+            return current;
+        }
+
+        log.debug("Built affinity index of cluster '{}': {} groups, {} rules, {} VMs",
+                clusterId,
+                index.groups.size(),
+                index.rules.size(),
+                index.vmRules.size());
+        return index;
+    }
+
+    private static class ClusterIndex {
+        private final List<AffinityGroup> groups;
+        private final List<Rule> rules = new ArrayList<>();
+        private final Map<Guid, List<Rule>> vmRules = new HashMap<>();
+        private final Map<Guid, Guid> placements = new HashMap<>();
+        private final Set<Rule> dirtyRules = new HashSet<>();
+        private final Set<Rule> violatedRules = new HashSet<>();
+
+        private ClusterIndex(List<AffinityGroup> groups) {
+            this.groups = Collections.unmodifiableList(new ArrayList<>(groups));
+
+            for (AffinityGroup group : groups) {
+                if (group.isVdsAffinityEnabled() && !group.getVdsIds().isEmpty() && !group.getVmIds().isEmpty()) {
+                    addRule(new HostAffinityRule(group.getVmIds(), group.getVdsIds(), group.isVdsPositive()));
+                }
+            }
+
+            List<AffinityGroup> hardGroups = groups.stream()
+                    .filter(AffinityGroup::isVmAffinityEnabled)
+                    .filter(AffinityGroup::isVmEnforcing)
+                    .collect(Collectors.toList());
+            for (Set<Guid> vmIds : AffinityRulesUtils.getUnifiedPositiveAffinityGroups(hardGroups)) {
+                if (vmIds.size() > 1) {
+                    addRule(new PositiveVmAffinityRule(vmIds));
+                }
+            }
+            for (AffinityGroup group : hardGroups) {
+                if (group.isVmNegative() && group.getVmIds().size() > 1) {
+                    addRule(new NegativeVmAffinityRule(group.getVmIds()));
+                }
+            }
+
+            dirtyRules.addAll(rules);
+        }
+
+        private void addRule(Rule rule) {
+            rules.add(rule);
+            rule.vmIds.forEach(vmId -> vmRules.computeIfAbsent(vmId, id -> new ArrayList<>()).add(rule));
+        }
+
+        private synchronized void initPlacements(List<VM> vms) {
+            for (VM vm : vms) {
+                // The placement reported by the monitoring in the meantime is newer
+                if (!placements.containsKey(vm.getId())) {
+                    placements.put(vm.getId(), vm.getRunOnVds());
+                }
+            }
+        }
+
+        private synchronized void updatePlacement(Guid vmId, Guid hostId) {
+            if (!Objects.equals(placements.put(vmId, hostId), hostId)) {
+                dirtyRules.addAll(vmRules.getOrDefault(vmId, Collections.emptyList()));
+            }
+        }
+
+        private synchronized boolean updateViolations() {
+            for (Rule rule : dirtyRules) {
+                if (rule.isViolated(placements)) {
+                    violatedRules.add(rule);
+                } else {
+                    violatedRules.remove(rule);
+                }
+            }
+            dirtyRules.clear();
+            return !violatedRules.isEmpty();
+        }
+    }
+
+    private abstract static class Rule {
+        protected final Collection<Guid> vmIds;
+
+        protected Rule(Collection<Guid> vmIds) {
+            this.vmIds = new ArrayList<>(vmIds);
+        }
+
+        protected abstract boolean isViolated(Map<Guid, Guid> placements);
+    }
+
+    private static class HostAffinityRule extends Rule {
+        private final Set<Guid> hostIds;
+        private final boolean positive;
+
+        private HostAffinityRule(Collection<Guid> vmIds, Collection<Guid> hostIds, boolean positive) {
+            super(vmIds);
+            this.hostIds = new HashSet<>(hostIds);
+            this.positive = positive;
+        }
+
+        @Override
+        protected boolean isViolated(Map<Guid, Guid> placements) {
+            for (Guid vmId : vmIds) {
+                Guid hostId = placements.get(vmId);
+                if (hostId != null && hostIds.contains(hostId) != positive) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    private static class PositiveVmAffinityRule extends Rule {
+        private PositiveVmAffinityRule(Collection<Guid> vmIds) {
+            super(vmIds);
+        }
+
+        @Override
+        protected boolean isViolated(Map<Guid, Guid> placements) {
+            Guid commonHost = null;
+            for (Guid vmId : vmIds) {
+                Guid hostId = placements.get(vmId);
+                if (hostId == null) {
+                    continue;
+                }
+                if (commonHost == null) {
+                    commonHost = hostId;
+                } else if (!commonHost.equals(hostId)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    private static class NegativeVmAffinityRule extends Rule {
+        private NegativeVmAffinityRule(Collection<Guid> vmIds) {
+            super(vmIds);
+        }
+
+        @Override
+        protected boolean isViolated(Map<Guid, Guid> placements) {
+            Set<Guid> usedHosts = new HashSet<>();
+            for (Guid vmId : vmIds) {
+                Guid hostId = placements.get(vmId);
+                if (hostId != null && !usedHosts.add(hostId)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -58,8 +58,17 @@ public class AffinityRulesEnforcer {
      * @return Valid VM for migration, null otherwise
      */
     public VM chooseNextVmToMigrate(Cluster cluster) {
-        List<AffinityGroup> allAffinityGroups = affinityGroupDao.getAllAffinityGroupsByClusterId(cluster.getId());
+        return chooseNextVmToMigrate(cluster, affinityGroupDao.getAllAffinityGroupsByClusterId(cluster.getId()));
+    }
 
+    /**
+     * Same as {@link #chooseNextVmToMigrate(Cluster)}, but uses already loaded affinity groups.
+     *
+     * @param cluster           current cluster
+     * @param allAffinityGroups all affinity groups of the cluster
+     * @return Valid VM for migration, null otherwise
+     */
+    public VM chooseNextVmToMigrate(Cluster cluster, List<AffinityGroup> allAffinityGroups) {
         Optional<VM> vm = chooseNextVmToMigrateFromVMsToHostsAffinity(cluster, allAffinityGroups);
         if (vm.isPresent()) {
             return vm.get();
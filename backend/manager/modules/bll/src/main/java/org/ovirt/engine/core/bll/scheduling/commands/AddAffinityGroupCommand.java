@@ -42,6 +42,7 @@ public class AddAffinityGroupCommand extends AffinityGroupCRUDCommand {
         affinityGroupDao.save(getAffinityGroup());
         getReturnValue().setActionReturnValue(getAffinityGroup().getId());
         vmStaticDao.incrementDbGenerationForVms(getAffinityGroup().getVmIds());
+        fireAffinityGroupsChanged();
         setSucceeded(true);
     }
 
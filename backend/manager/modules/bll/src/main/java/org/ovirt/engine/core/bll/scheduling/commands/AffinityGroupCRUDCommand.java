@@ -10,6 +10,7 @@ import java.util.Objects;
 import java.util.Set;
 import java.util.stream.Collectors;
 
+import javax.enterprise.event.Event;
 import javax.inject.Inject;
 
 import org.ovirt.engine.core.bll.CommandBase;
@@ -21,6 +22,7 @@ import org.ovirt.engine.core.common.businessentities.VdsStatic;
 import org.ovirt.engine.core.common.businessentities.VmBase;
 import org.ovirt.engine.core.common.businessentities.VmStatic;
 import org.ovirt.engine.core.common.errors.EngineMessage;
+import org.ovirt.engine.core.common.qualifiers.AffinityGroupsChanged;
 import org.ovirt.engine.core.common.scheduling.AffinityGroup;
 import org.ovirt.engine.core.common.scheduling.parameters.AffinityGroupCRUDParameters;
 import org.ovirt.engine.core.compat.Guid;
@@ -43,6 +45,9 @@ public abstract class AffinityGroupCRUDCommand extends CommandBase<AffinityGroup
     private VdsStaticDao vdsStaticDao;
     @Inject
     private AffinityGroupDao affinityGroupDao;
+    @Inject
+    @AffinityGroupsChanged
+    private Event<Guid> affinityGroupsChangedEvent;
 
     AffinityGroup affinityGroup = null;
 
@@ -59,6 +64,13 @@ public abstract class AffinityGroupCRUDCommand extends CommandBase<AffinityGroup
         }
     }
 
+    /**
+     * Notifies the listeners that the affinity groups of the cluster changed, once the transaction is committed.
+     */
+    protected void fireAffinityGroupsChanged() {
+        affinityGroupsChangedEvent.fire(getClusterId());
+    }
+
     protected boolean validateParameters() {
         if (getCluster() == null) {
             return failValidation(EngineMessage.ACTION_TYPE_FAILED_INVALID_CLUSTER_FOR_AFFINITY_GROUP);
@@ -47,6 +47,7 @@ public class EditAffinityGroupCommand extends AffinityGroupCRUDCommand {
                         .getVmIds());
         vmStaticDao.incrementDbGenerationForVms(new ArrayList<>(changedVms));
         affinityGroupDao.update(getParameters().getAffinityGroup());
+        fireAffinityGroupsChanged();
         setSucceeded(true);
     }
 
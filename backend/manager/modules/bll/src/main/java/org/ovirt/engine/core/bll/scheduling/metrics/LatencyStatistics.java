@@ -0,0 +1,71 @@
+package org.ovirt.engine.core.bll.scheduling.metrics;
+
+import java.beans.ConstructorProperties;
+
+/**
+ * Point in time copy of a {@link LatencyHistogram}, all durations are in microseconds.
+ */
+public class LatencyStatistics {
+
+    private final long count;
+    private final long totalMicros;
+    private final long maxMicros;
+    private final long medianMicros;
+    private final long percentile90Micros;
+    private final long percentile99Micros;
+
+    @ConstructorProperties({ "count", "totalMicros", "maxMicros", "medianMicros", "percentile90Micros",
+            "percentile99Micros" })
+    public LatencyStatistics(long count,
+            long totalMicros,
+            long maxMicros,
+            long medianMicros,
+            long percentile90Micros,
+            long percentile99Micros) {
+        this.count = count;
+        this.totalMicros = totalMicros;
+        this.maxMicros = maxMicros;
+        this.medianMicros = medianMicros;
+        this.percentile90Micros = percentile90Micros;
+        this.percentile99Micros = percentile99Micros;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getTotalMicros() {
+        return totalMicros;
+    }
+
+    public long getMeanMicros() {
+        return count == 0 ? 0 : totalMicros / count;
+    }
+
+    public long getMaxMicros() {
+        return maxMicros;
+    }
+
+    public long getMedianMicros() {
+        return medianMicros;
+    }
+
+    public long getPercentile90Micros() {
+        return percentile90Micros;
+    }
+
+    public long getPercentile99Micros() {
+        return percentile99Micros;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("count=%d, mean=%dus, p50=%dus, p90=%dus, p99=%dus, max=%dus",
+                count,
+                getMeanMicros(),
+                medianMicros,
+                percentile90Micros,
+                percentile99Micros,
+                maxMicros);
+    }
+}
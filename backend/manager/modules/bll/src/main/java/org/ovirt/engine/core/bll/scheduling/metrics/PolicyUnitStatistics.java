@@ -0,0 +1,76 @@
+package org.ovirt.engine.core.bll.scheduling.metrics;
+
+import java.beans.ConstructorProperties;
+
+/**
+ * Point in time statistics of a single policy unit, as exposed through {@link SchedulingMetricsMXBean}.
+ */
+public class PolicyUnitStatistics {
+
+    private final String id;
+    private final String name;
+    private final String type;
+    private final LatencyStatistics filter;
+    private final LatencyStatistics score;
+    private final LatencyStatistics balance;
+    private final long rejectedHosts;
+
+    @ConstructorProperties({ "id", "name", "type", "filter", "score", "balance", "rejectedHosts" })
+    public PolicyUnitStatistics(String id,
+            String name,
+            String type,
+            LatencyStatistics filter,
+            LatencyStatistics score,
+            LatencyStatistics balance,
+            long rejectedHosts) {
+        this.id = id;
+        this.name = name;
+        this.type = type;
+        this.filter = filter;
+        this.score = score;
+        this.balance = balance;
+        this.rejectedHosts = rejectedHosts;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public LatencyStatistics getFilter() {
+        return filter;
+    }
+
+    public LatencyStatistics getScore() {
+        return score;
+    }
+
+    public LatencyStatistics getBalance() {
+        return balance;
+    }
+
+    /**
+     * @return number of hosts the unit filtered out
+     */
+    public long getRejectedHosts() {
+        return rejectedHosts;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s (%s) rejected hosts: %d, filter: [%s], score: [%s], balance: [%s]",
+                name,
+                type,
+                rejectedHosts,
+                filter,
+                score,
+                balance);
+    }
+}
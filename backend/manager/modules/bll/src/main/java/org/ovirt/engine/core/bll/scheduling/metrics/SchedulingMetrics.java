@@ -0,0 +1,163 @@
+package org.ovirt.engine.core.bll.scheduling.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.inject.Singleton;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.ovirt.engine.core.common.scheduling.PolicyUnit;
+import org.ovirt.engine.core.compat.Guid;
+
+/**
+ * Collects the timing of the individual policy units and of the cluster scheduling lock,
+ * so it is possible to find out which unit slows down the scheduling without enabling debug logs.
+ *
+ * All the recording methods are lock free and cheap enough to be called on every scheduling run.
+ */
+@Singleton
+public class SchedulingMetrics implements SchedulingMetricsMXBean {
+
+    private final Map<Guid, UnitMetrics> units = new ConcurrentHashMap<>();
+    private final LatencyHistogram clusterLockWait = new LatencyHistogram();
+    private final AtomicInteger clusterLockQueueLength = new AtomicInteger();
+    private final AtomicInteger clusterLockMaxQueueLength = new AtomicInteger();
+
+    private MBeanServer platformMBeanServer;
+    private ObjectName objectName;
+
+    @PostConstruct
+    public void registerInJMX() {
+        try {
+            objectName = new ObjectName("SchedulingManager:type=" + this.getClass().getName());
+            platformMBeanServer = ManagementFactory.getPlatformMBeanServer();
+            platformMBeanServer.registerMBean(this, objectName);
+        } catch (Exception e) {
+            throw new IllegalStateException("Problem during registration of Monitoring into JMX:" + e);
+        }
+    }
+
+    @PreDestroy
+    public void unregisterFromJMX() {
+        try {
+            platformMBeanServer.unregisterMBean(this.objectName);
+        } catch (Exception e) {
+            throw new IllegalStateException("Problem during unregistration of Monitoring into JMX:" + e);
+        }
+    }
+
+    public void recordFilter(PolicyUnit unit, long durationNanos, int rejectedHosts) {
+        UnitMetrics metrics = getUnitMetrics(unit);
+        metrics.filter.record(durationNanos);
+        metrics.rejectedHosts.add(rejectedHosts);
+    }
+
+    public void recordScore(PolicyUnit unit, long durationNanos) {
+        getUnitMetrics(unit).score.record(durationNanos);
+    }
+
+    public void recordBalance(PolicyUnit unit, long durationNanos) {
+        getUnitMetrics(unit).balance.record(durationNanos);
+    }
+
+    /**
+     * Has to be called right before a thread starts waiting for a cluster lock.
+     *
+     * @return the start of the wait, to be passed to {@link #clusterLockWaitFinished(long)}
+     */
+    public long clusterLockWaitStarted() {
+        int queueLength = clusterLockQueueLength.incrementAndGet();
+        clusterLockMaxQueueLength.accumulateAndGet(queueLength, Math::max);
+        return System.nanoTime();
+    }
+
+    /**
+     * Has to be called when the wait for the cluster lock ended, whether the lock was acquired or not.
+     */
+    public void clusterLockWaitFinished(long startNanos) {
+        clusterLockQueueLength.decrementAndGet();
+        clusterLockWait.record(System.nanoTime() - startNanos);
+    }
+
+    @Override
+    public List<PolicyUnitStatistics> getPolicyUnitStatistics() {
+        return units.values().stream()
+                .map(UnitMetrics::getStatistics)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public List<String> showPolicyUnitStatistics() {
+        return getPolicyUnitStatistics().stream()
+                .sorted(Comparator.comparingLong(SchedulingMetrics::getTotalMicros).reversed())
+                .map(PolicyUnitStatistics::toString)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public LatencyStatistics getClusterLockWaitStatistics() {
+        return clusterLockWait.getStatistics();
+    }
+
+    @Override
+    public int getClusterLockQueueLength() {
+        return clusterLockQueueLength.get();
+    }
+
+    @Override
+    public int getClusterLockMaxQueueLength() {
+        return clusterLockMaxQueueLength.get();
+    }
+
+    @Override
+    public void reset() {
+        units.clear();
+        clusterLockWait.reset();
+        clusterLockMaxQueueLength.set(clusterLockQueueLength.get());
+    }
+
+    private static long getTotalMicros(PolicyUnitStatistics statistics) {
+        return statistics.getFilter().getTotalMicros()
+                + statistics.getScore().getTotalMicros()
+                + statistics.getBalance().getTotalMicros();
+    }
+
+    private UnitMetrics getUnitMetrics(PolicyUnit unit) {
+        return units.computeIfAbsent(unit.getId(), id -> new UnitMetrics(unit));
+    }
+
+    private static class UnitMetrics {
+        private final String id;
+        private final String name;
+        private final String type;
+        private final LatencyHistogram filter = new LatencyHistogram();
+        private final LatencyHistogram score = new LatencyHistogram();
+        private final LatencyHistogram balance = new LatencyHistogram();
+        private final LongAdder rejectedHosts = new LongAdder();
+
+        private UnitMetrics(PolicyUnit unit) {
+            id = unit.getId().toString();
+            name = unit.getName();
+            type = String.valueOf(unit.getPolicyUnitType());
+        }
+
+        private PolicyUnitStatistics getStatistics() {
+            return new PolicyUnitStatistics(id,
+                    name,
+                    type,
+                    filter.getStatistics(),
+                    score.getStatistics(),
+                    balance.getStatistics(),
+                    rejectedHosts.sum());
+        }
+    }
+}
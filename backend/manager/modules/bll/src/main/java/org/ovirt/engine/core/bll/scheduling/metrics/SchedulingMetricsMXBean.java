@@ -0,0 +1,40 @@
+package org.ovirt.engine.core.bll.scheduling.metrics;
+
+import java.util.List;
+
+/**
+ * The following interface is used as interface for JMX bean
+ */
+public interface SchedulingMetricsMXBean {
+
+    /**
+     * The following method will return the timing and rejection statistics of all policy units used so far
+     */
+    List<PolicyUnitStatistics> getPolicyUnitStatistics();
+
+    /**
+     * The following method will return the policy unit statistics in a human readable form, slowest units first
+     */
+    List<String> showPolicyUnitStatistics();
+
+    /**
+     * The following method will return the statistics of time spent waiting for the cluster scheduling lock
+     */
+    LatencyStatistics getClusterLockWaitStatistics();
+
+    /**
+     * The following method will return the number of threads currently waiting for a cluster scheduling lock
+     */
+    int getClusterLockQueueLength();
+
+    /**
+     * The following method will return the highest number of threads waiting for a cluster scheduling lock
+     * at the same time since the last reset
+     */
+    int getClusterLockMaxQueueLength();
+
+    /**
+     * The following method will allow to reset all statistics via JMX console
+     */
+    void reset();
+}
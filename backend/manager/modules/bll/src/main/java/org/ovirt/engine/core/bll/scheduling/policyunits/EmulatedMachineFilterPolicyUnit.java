@@ -23,7 +23,8 @@ import org.slf4j.LoggerFactory;
         guid = "58894b5b-d55d-4f85-8f82-5bf217e640b0",
         name = "Emulated-Machine",
         description = "Runs VMs only on hosts with a proper emulated machine support",
-        type = PolicyUnitType.FILTER
+        type = PolicyUnitType.FILTER,
+        hostIndependent = true
 )
 public class EmulatedMachineFilterPolicyUnit extends PolicyUnitImpl {
     private static final Logger log = LoggerFactory.getLogger(EmulatedMachineFilterPolicyUnit.class);
@@ -21,7 +21,8 @@ import org.ovirt.engine.core.compat.Guid;
         type = PolicyUnitType.WEIGHT,
         description =
                 "Gives hosts with higher available memory, lower weight (means that hosts with more available memory are more"
-                        + " likely to be selected)"
+                        + " likely to be selected)",
+        hostIndependent = true
 )
 public class EvenDistributionMemoryWeightPolicyUnit extends PolicyUnitImpl {
 
@@ -26,7 +26,8 @@ import org.ovirt.engine.core.compat.Guid;
         type = PolicyUnitType.WEIGHT,
         parameters = {
                 PolicyUnitParameter.SPM_VM_GRACE
-        }
+        },
+        hostIndependent = true
 )
 public class EvenGuestDistributionWeightPolicyUnit extends PolicyUnitImpl {
     final int spmVmGrace;
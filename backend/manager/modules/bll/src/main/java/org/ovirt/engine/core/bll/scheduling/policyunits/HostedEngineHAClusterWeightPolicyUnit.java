@@ -19,7 +19,8 @@ import org.ovirt.engine.core.compat.Guid;
         guid = "98e92667-6161-41fb-b3fa-34f820ccbc4b",
         name = "HA",
         description = "Weights hosts according to their HA score",
-        type = PolicyUnitType.WEIGHT
+        type = PolicyUnitType.WEIGHT,
+        hostIndependent = true
 )
 public class HostedEngineHAClusterWeightPolicyUnit extends PolicyUnitImpl {
     private static int DEFAULT_WEIGHT = 1;
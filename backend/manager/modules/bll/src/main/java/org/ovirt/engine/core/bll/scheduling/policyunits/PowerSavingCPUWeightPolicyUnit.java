@@ -22,7 +22,8 @@ import org.ovirt.engine.core.compat.Guid;
         type = PolicyUnitType.WEIGHT,
         parameters = {
                 PolicyUnitParameter.HIGH_UTILIZATION
-        }
+        },
+        hostIndependent = true
 )
 public class PowerSavingCPUWeightPolicyUnit extends EvenDistributionCPUWeightPolicyUnit {
 
@@ -26,7 +26,8 @@ import org.ovirt.engine.core.compat.Guid;
         parameters = {
                 PolicyUnitParameter.LOW_MEMORY_LIMIT_FOR_OVER_UTILIZED,
                 PolicyUnitParameter.HIGH_MEMORY_LIMIT_FOR_UNDER_UTILIZED
-        }
+        },
+        hostIndependent = true
 )
 public class PowerSavingMemoryWeightPolicyUnit extends PolicyUnitImpl {
 
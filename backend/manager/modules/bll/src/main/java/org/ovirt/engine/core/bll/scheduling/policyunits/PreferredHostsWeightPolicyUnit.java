@@ -24,7 +24,8 @@ import org.slf4j.LoggerFactory;
         guid = "591cdb81-ba67-45b4-9642-e28f61a97d57",
         name = "PreferredHosts",
         description = "Prioritize preferred hosts during VM startup.",
-        type = PolicyUnitType.WEIGHT
+        type = PolicyUnitType.WEIGHT,
+        hostIndependent = true
 )
 public class PreferredHostsWeightPolicyUnit extends PolicyUnitImpl {
     private static final Logger log = LoggerFactory.getLogger(PreferredHostsWeightPolicyUnit.class);
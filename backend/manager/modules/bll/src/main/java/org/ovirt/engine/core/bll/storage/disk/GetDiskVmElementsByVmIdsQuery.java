@@ -0,0 +1,34 @@
+package org.ovirt.engine.core.bll.storage.disk;
+
+import java.util.Collections;
+
+import javax.inject.Inject;
+
+import org.ovirt.engine.core.bll.QueriesCommandBase;
+import org.ovirt.engine.core.bll.context.EngineContext;
+import org.ovirt.engine.core.common.queries.IdsQueryParameters;
+import org.ovirt.engine.core.dao.DiskVmElementDao;
+
+/**
+ * Returns the disk VM elements of several VMs by a single DAO call.
+ */
+public class GetDiskVmElementsByVmIdsQuery<P extends IdsQueryParameters> extends QueriesCommandBase<P> {
+
+    @Inject
+    private DiskVmElementDao diskVmElementDao;
+
+    public GetDiskVmElementsByVmIdsQuery(P parameters, EngineContext engineContext) {
+        super(parameters, engineContext);
+    }
+
+    @Override
+    protected void executeQueryCommand() {
+        if (getParameters().getIds() == null || getParameters().getIds().isEmpty()) {
+            getQueryReturnValue().setReturnValue(Collections.emptyList());
+            return;
+        }
+        getQueryReturnValue().setReturnValue(diskVmElementDao.getAllForVms(getParameters().getIds(),
+                getUserID(),
+                getParameters().isFiltered()));
+    }
+}
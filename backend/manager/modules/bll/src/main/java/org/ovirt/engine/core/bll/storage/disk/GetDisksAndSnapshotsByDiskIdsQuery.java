@@ -0,0 +1,35 @@
+package org.ovirt.engine.core.bll.storage.disk;
+
+import java.util.Collections;
+
+import javax.inject.Inject;
+
+import org.ovirt.engine.core.bll.context.EngineContext;
+import org.ovirt.engine.core.common.queries.IdsQueryParameters;
+import org.ovirt.engine.core.dao.DiskDao;
+
+/**
+ * Returns the disks with the given ids by a single DAO call, each disk aggregates its snapshots the same way as
+ * {@link GetDiskAndSnapshotsByDiskIdQuery} does for a single disk.
+ */
+public class GetDisksAndSnapshotsByDiskIdsQuery<P extends IdsQueryParameters> extends GetAllDisksWithSnapshotsQuery<P> {
+
+    @Inject
+    private DiskDao diskDao;
+
+    public GetDisksAndSnapshotsByDiskIdsQuery(P parameters, EngineContext engineContext) {
+        super(parameters, engineContext);
+    }
+
+    @Override
+    protected void executeQueryCommand() {
+        if (getParameters().getIds() == null || getParameters().getIds().isEmpty()) {
+            getQueryReturnValue().setReturnValue(Collections.emptyList());
+            return;
+        }
+        getQueryReturnValue().setReturnValue(aggregateDisksSnapshots(
+                diskDao.getAllFromDisksIncludingSnapshotsByDiskIds(getParameters().getIds(),
+                        getUserID(),
+                        getParameters().isFiltered())));
+    }
+}
@@ -41,6 +41,7 @@ import org.ovirt.engine.core.dao.ImageStorageDomainMapDao;
 import org.ovirt.engine.core.dao.SnapshotDao;
 import org.ovirt.engine.core.dao.VmDao;
 import org.ovirt.engine.core.utils.lock.EngineLock;
+import org.ovirt.engine.core.vdsbroker.monitoring.VmStatisticsWriteBehind;
 
 /**
  * Base class for all image handling commands
@@ -61,6 +62,8 @@ public abstract class BaseImagesCommand<T extends ImagesActionsParametersBase> e
     private DiskImageDao diskImageDao;
     @Inject
     private VmDao vmDao;
+    @Inject
+    private VmStatisticsWriteBehind statisticsWriteBehind;
 
     private DiskImage destinationImage;
     private DiskImage image;
@@ -285,6 +288,9 @@ public abstract class BaseImagesCommand<T extends ImagesActionsParametersBase> e
         DiskImageDynamic destinationDiskDynamic = diskImageDynamicDao.get(getDestinationDiskImage().getImageId());
         if (destinationDiskDynamic != null) {
             destinationDiskDynamic.setActualSize(fromIRS.getActualSizeInBytes());
+            // Drop the disk rows queued by the monitoring of the VMs, so they do not override the actual size
+            vmDao.getVmsListForDisk(getDestinationDiskImage().getId(), false)
+                    .forEach(vm -> statisticsWriteBehind.discard(vm.getId()));
             diskImageDynamicDao.update(destinationDiskDynamic);
         }
     }
@@ -81,6 +81,7 @@ import org.ovirt.engine.core.utils.lock.EngineLock;
 import org.ovirt.engine.core.utils.transaction.TransactionSupport;
 import org.ovirt.engine.core.vdsbroker.ResourceManager;
 import org.ovirt.engine.core.vdsbroker.builder.vminfo.VmInfoBuildUtils;
+import org.ovirt.engine.core.vdsbroker.monitoring.VmStatisticsWriteBehind;
 
 @NonTransactiveCommandAttribute(forceCompensation = true)
 public class LiveMigrateDiskCommand<T extends LiveMigrateDiskParameters> extends MoveOrCopyDiskCommand<T>implements SerialChildExecutingCommand {
@@ -117,6 +118,8 @@ public class LiveMigrateDiskCommand<T extends LiveMigrateDiskParameters> extends
     @Inject
     private StorageDomainStaticDao storageDomainStaticDao;
     @Inject
+    private VmStatisticsWriteBehind statisticsWriteBehind;
+    @Inject
     @Typed(SerialChildCommandsExecutionCallback.class)
     private Instance<SerialChildCommandsExecutionCallback> callbackProvider;
 
@@ -441,6 +444,8 @@ public class LiveMigrateDiskCommand<T extends LiveMigrateDiskParameters> extends
     }
 
     private void updateImagesInfo() {
+        // The actual size is written directly, the disk rows of the VM queued by the monitoring must not override it
+        statisticsWriteBehind.discard(getVmId());
         for (DiskImage image : diskImageDao.getAllSnapshotsForImageGroup(getParameters().getImageGroupID())) {
             VDSReturnValue ret = runVdsCommand(
                     VDSCommandType.GetImageInfo,
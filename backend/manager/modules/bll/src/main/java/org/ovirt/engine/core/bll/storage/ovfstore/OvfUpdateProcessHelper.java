@@ -9,6 +9,7 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 import javax.inject.Inject;
@@ -86,7 +87,14 @@ public class OvfUpdateProcessHelper {
     }
 
     protected String generateVmTemplateMetadata(FullEntityOvfData fullEntityOvfData) {
-        return ovfManager.exportTemplate(fullEntityOvfData,
+        return prepareVmTemplateMetadata(fullEntityOvfData).get();
+    }
+
+    /**
+     * Loads what the template metadata depends on, the returned supplier renders it without accessing the db.
+     */
+    protected Supplier<String> prepareVmTemplateMetadata(FullEntityOvfData fullEntityOvfData) {
+        return ovfManager.prepareTemplateExport(fullEntityOvfData,
                 clusterUtils.getCompatibilityVersion(fullEntityOvfData.getVmBase()));
     }
 
@@ -96,15 +104,22 @@ public class OvfUpdateProcessHelper {
     public String buildMetadataDictionaryForTemplate(VmTemplate template,
                                                         Map<Guid, KeyValuePairCompat<String, List<Guid>>> metaDictionary) {
         List<DiskImage> allTemplateImages = template.getDiskList();
+        String templateMeta = generateVmTemplateMetadata(loadTemplateOvfData(template));
+        metaDictionary.put(template.getId(), new KeyValuePairCompat<>(
+                templateMeta, allTemplateImages.stream().map(BaseDisk::getId).collect(Collectors.toList())));
+        return templateMeta;
+    }
+
+    /**
+     * Loads the data needed to generate the ovf of the given template, apart from the template itself
+     */
+    public FullEntityOvfData loadTemplateOvfData(VmTemplate template) {
         Set<DbUser> dbUsers = new HashSet<>(dbUserDao.getAllForTemplate(template.getId()));
         FullEntityOvfData fullEntityOvfData = new FullEntityOvfData(template);
         fullEntityOvfData.setDbUsers(dbUsers);
-        fullEntityOvfData.setDiskImages(allTemplateImages);
+        fullEntityOvfData.setDiskImages(template.getDiskList());
         ovfHelper.populateUserToRoles(fullEntityOvfData, template.getId());
-        String templateMeta = generateVmTemplateMetadata(fullEntityOvfData);
-        metaDictionary.put(template.getId(), new KeyValuePairCompat<>(
-                templateMeta, allTemplateImages.stream().map(BaseDisk::getId).collect(Collectors.toList())));
-        return templateMeta;
+        return fullEntityOvfData;
     }
 
     /**
@@ -152,7 +167,14 @@ public class OvfUpdateProcessHelper {
     }
 
     protected String generateVmMetadata(VM vm, FullEntityOvfData fullEntityOvfData) {
-        return ovfManager.exportVm(vm, fullEntityOvfData, clusterUtils.getCompatibilityVersion(vm));
+        return prepareVmMetadata(vm, fullEntityOvfData).get();
+    }
+
+    /**
+     * Loads what the vm metadata depends on, the returned supplier renders it without accessing the db.
+     */
+    protected Supplier<String> prepareVmMetadata(VM vm, FullEntityOvfData fullEntityOvfData) {
+        return ovfManager.prepareVmExport(vm, fullEntityOvfData, clusterUtils.getCompatibilityVersion(vm));
     }
 
     /**
@@ -1,8 +1,7 @@
 package org.ovirt.engine.core.bll.storage.ovfstore;
 
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
@@ -65,12 +64,17 @@ import org.ovirt.engine.core.dao.VmAndTemplatesGenerationsDao;
 import org.ovirt.engine.core.dao.VmDynamicDao;
 import org.ovirt.engine.core.dao.VmStaticDao;
 import org.ovirt.engine.core.utils.JsonHelper;
-import org.ovirt.engine.core.utils.archivers.tar.InMemoryTar;
+import org.ovirt.engine.core.utils.archivers.tar.SpooledTar;
 import org.ovirt.engine.core.utils.ovf.OvfInfoFileConstants;
 
 @NonTransactiveCommandAttribute
 public class ProcessOvfUpdateForStorageDomainCommand<T extends ProcessOvfUpdateParameters> extends StorageDomainCommandBase<T> implements SerialChildExecutingCommand {
 
+    /**
+     * The maximal size of an OVF_STORE archive kept in memory, larger archives are spooled to a temporary file.
+     */
+    private static final int OVF_STORE_ARCHIVE_MEMORY_THRESHOLD = 1024 * 1024;
+
     @Inject
     private AuditLogDirector auditLogDirector;
 
@@ -220,12 +224,17 @@ public class ProcessOvfUpdateForStorageDomainCommand<T extends ProcessOvfUpdateP
         }
     }
 
-    private byte[] buildOvfInfoFileByteArray(List<Guid> vmAndTemplatesIds) {
-        ByteArrayOutputStream bufferedOutputStream = new ByteArrayOutputStream();
+    /**
+     * Builds the OVF_STORE archive, the OVFs are read from the database in batches and added to the archive one by
+     * one so only a single batch is held in memory. The caller has to close the returned archive.
+     */
+    private SpooledTar buildOvfStoreArchive(List<Guid> vmAndTemplatesIds) {
         Set<Guid> processedIds = new HashSet<>();
 
-        try (InMemoryTar inMemoryTar = new InMemoryTar(bufferedOutputStream)) {
-            inMemoryTar.addTarEntry(generateInfoFileData().getBytes(),
+        SpooledTar archive = new SpooledTar(OVF_STORE_ARCHIVE_MEMORY_THRESHOLD,
+                "ovf-store-" + getParameters().getStorageDomainId());
+        try {
+            archive.addTarEntry(generateInfoFileData().getBytes(),
                     OvfInfoFileConstants.InfoFileName);
             Map<String, Object> metaDataForEntities = generateMetaDataFile(vmAndTemplatesIds);
             int i = 0;
@@ -237,19 +246,21 @@ public class ProcessOvfUpdateForStorageDomainCommand<T extends ProcessOvfUpdateP
 
                 List<Pair<Guid, String>> ovfs = vmAndTemplatesGenerationsDao.loadOvfDataForIds(idsToProcess);
                 if (!ovfs.isEmpty()) {
-                    processedIds.addAll(buildFilesForOvfs(ovfs, inMemoryTar));
+                    processedIds.addAll(buildFilesForOvfs(ovfs, archive));
                 }
             }
 
             List<Pair<Guid, String>> unprocessedOvfData = retrieveUnprocessedUnregisteredOvfData(processedIds, metaDataForEntities);
-            inMemoryTar.addTarEntry(buildJson(metaDataForEntities, true).getBytes(), OvfInfoFileConstants.MetaDataFileName);
-            buildFilesForOvfs(unprocessedOvfData, inMemoryTar);
+            archive.addTarEntry(buildJson(metaDataForEntities, true).getBytes(), OvfInfoFileConstants.MetaDataFileName);
+            buildFilesForOvfs(unprocessedOvfData, archive);
+            archive.finish();
         } catch (Exception e) {
-            throw new RuntimeException(String.format("Exception while building in memory tar of the OVFs of domain %s",
+            archive.close();
+            throw new RuntimeException(String.format("Exception while building the tar of the OVFs of domain %s",
                     getParameters().getStorageDomainId()), e);
         }
 
-        return bufferedOutputStream.toByteArray();
+        return archive;
     }
 
     private List<Pair<Guid, String>> retrieveUnprocessedUnregisteredOvfData(Set<Guid> processedIds,
@@ -282,8 +293,23 @@ public class ProcessOvfUpdateForStorageDomainCommand<T extends ProcessOvfUpdateP
 
         vmAndTemplatesIds.addAll(vmStaticDao.getVmAndTemplatesIdsWithoutAttachedImageDisks(getParameters().getStoragePoolId(), false));
 
-        byte[] bytes = buildOvfInfoFileByteArray(vmAndTemplatesIds);
+        try (SpooledTar archive = buildOvfStoreArchive(vmAndTemplatesIds)) {
+            log.debug("OVF_STORE archive of domain '{}' has {} bytes", getParameters().getStorageDomainId(),
+                    archive.getLength());
+            uploadOvfStoreArchive(archive, vmAndTemplatesIds);
+        }
 
+        if (!failedOvfDisks.isEmpty()) {
+            addCustomValue("DataCenterName", getStoragePool().getName());
+            addCustomValue("StorageDomainName", getStorageDomain().getName());
+            addCustomValue("DisksIds", StringUtils.join(failedOvfDisks, ", "));
+            auditLogDirector.log(this, AuditLogType.UPDATE_FOR_OVF_STORES_FAILED);
+            return false;
+        }
+        return true;
+    }
+
+    private void uploadOvfStoreArchive(SpooledTar archive, List<Guid> vmAndTemplatesIds) {
         Pair<StorageDomainOvfInfo, DiskImage> lastOvfStoreForUpdate = domainOvfStoresInfoForUpdate.getLast();
 
         // means that the last ovf store was never updated, if it was - we don't want to update
@@ -301,7 +327,7 @@ public class ProcessOvfUpdateForStorageDomainCommand<T extends ProcessOvfUpdateP
 
         for (Pair<StorageDomainOvfInfo, DiskImage> pair : domainOvfStoresInfoForUpdate) {
             shouldUpdateLastOvfStore |=
-                    performOvfUpdateForDomain(bytes,
+                    performOvfUpdateForDomain(archive,
                             pair.getFirst(),
                             pair.getSecond(),
                             vmAndTemplatesIds);
@@ -310,20 +336,11 @@ public class ProcessOvfUpdateForStorageDomainCommand<T extends ProcessOvfUpdateP
         // if we successfully updated any ovf store, we can attempt to also update the one we kept for best effort
         // backup (if we did)
         if (shouldUpdateLastOvfStore && lastOvfStoreForUpdate != null) {
-            performOvfUpdateForDomain(bytes,
+            performOvfUpdateForDomain(archive,
                     lastOvfStoreForUpdate.getFirst(),
                     lastOvfStoreForUpdate.getSecond(),
                     vmAndTemplatesIds);
         }
-
-        if (!failedOvfDisks.isEmpty()) {
-            addCustomValue("DataCenterName", getStoragePool().getName());
-            addCustomValue("StorageDomainName", getStorageDomain().getName());
-            addCustomValue("DisksIds", StringUtils.join(failedOvfDisks, ", "));
-            auditLogDirector.log(this, AuditLogType.UPDATE_FOR_OVF_STORES_FAILED);
-            return false;
-        }
-        return true;
     }
 
     @Override
@@ -344,7 +361,7 @@ public class ProcessOvfUpdateForStorageDomainCommand<T extends ProcessOvfUpdateP
         runVdsCommand(VDSCommandType.SetVolumeDescription, vdsCommandParameters);
     }
 
-    private boolean performOvfUpdateForDomain(byte[] ovfData,
+    private boolean performOvfUpdateForDomain(SpooledTar ovfData,
             StorageDomainOvfInfo storageDomainOvfInfo,
             DiskImage ovfDisk,
             List<Guid> vmAndTemplatesIds) {
@@ -364,20 +381,20 @@ public class ProcessOvfUpdateForStorageDomainCommand<T extends ProcessOvfUpdateP
 
             storageDomainOvfInfoDao.update(storageDomainOvfInfo);
 
-            ByteArrayInputStream byteArrayInputStream =
-                    new ByteArrayInputStream(ovfData);
-
-            Long size = Long.valueOf(ovfData.length);
-            UploadStreamParameters uploadStreamParameters =
-                    new UploadStreamParameters(storagePoolId, storageDomainId,
-                            diskId, volumeId, byteArrayInputStream,
-                            size);
-
-            uploadStreamParameters.setParentCommand(getActionType());
-            uploadStreamParameters.setParentParameters(getParameters());
-            uploadStreamParameters.setEndProcedure(EndProcedure.COMMAND_MANAGED);
-            ActionReturnValue actionReturnValue =
-                    runInternalActionWithTasksContext(ActionType.UploadStream, uploadStreamParameters);
+            Long size = ovfData.getLength();
+            ActionReturnValue actionReturnValue;
+            try (InputStream inputStream = ovfData.openInputStream()) {
+                UploadStreamParameters uploadStreamParameters =
+                        new UploadStreamParameters(storagePoolId, storageDomainId,
+                                diskId, volumeId, inputStream,
+                                size);
+
+                uploadStreamParameters.setParentCommand(getActionType());
+                uploadStreamParameters.setParentParameters(getParameters());
+                uploadStreamParameters.setEndProcedure(EndProcedure.COMMAND_MANAGED);
+                actionReturnValue =
+                        runInternalActionWithTasksContext(ActionType.UploadStream, uploadStreamParameters);
+            }
             if (actionReturnValue.getSucceeded()) {
                 storageDomainOvfInfo.setStatus(StorageDomainOvfInfoStatus.UPDATED);
                 storageDomainOvfInfo.setStoredOvfIds(vmAndTemplatesIds);
@@ -387,7 +404,7 @@ public class ProcessOvfUpdateForStorageDomainCommand<T extends ProcessOvfUpdateP
                 storageDomainOvfInfoDao.update(storageDomainOvfInfo);
                 return true;
             }
-        } catch (EngineException e) {
+        } catch (EngineException | IOException e) {
             log.warn("failed to update domain '{}' ovf store disk '{}'", storageDomainId, diskId);
         }
 
@@ -460,11 +477,11 @@ public class ProcessOvfUpdateForStorageDomainCommand<T extends ProcessOvfUpdateP
         }
     }
 
-    protected Set<Guid> buildFilesForOvfs(List<Pair<Guid, String>> ovfs, InMemoryTar inMemoryTar) throws Exception {
+    protected Set<Guid> buildFilesForOvfs(List<Pair<Guid, String>> ovfs, SpooledTar archive) throws IOException {
         Set<Guid> addedOvfIds = new HashSet<>();
         for (Pair<Guid, String> pair : ovfs) {
             if (pair.getSecond() != null) {
-                inMemoryTar.addTarEntry(pair.getSecond().getBytes(), pair.getFirst() + ".ovf");
+                archive.addTarEntry(pair.getSecond().getBytes(), pair.getFirst() + ".ovf");
                 addedOvfIds.add(pair.getFirst());
             }
         }
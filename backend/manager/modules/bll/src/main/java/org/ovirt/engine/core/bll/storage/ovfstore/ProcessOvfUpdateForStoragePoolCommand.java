@@ -9,6 +9,9 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 import javax.inject.Inject;
 
@@ -35,6 +38,7 @@ import org.ovirt.engine.core.common.businessentities.VMStatus;
 import org.ovirt.engine.core.common.businessentities.VmTemplate;
 import org.ovirt.engine.core.common.businessentities.VmTemplateStatus;
 import org.ovirt.engine.core.common.businessentities.aaa.DbUser;
+import org.ovirt.engine.core.common.businessentities.storage.BaseDisk;
 import org.ovirt.engine.core.common.businessentities.storage.DiskImage;
 import org.ovirt.engine.core.common.businessentities.storage.FullEntityOvfData;
 import org.ovirt.engine.core.common.businessentities.storage.ImageStatus;
@@ -59,6 +63,7 @@ import org.ovirt.engine.core.dao.VmDao;
 import org.ovirt.engine.core.dao.VmStaticDao;
 import org.ovirt.engine.core.dao.VmTemplateDao;
 import org.ovirt.engine.core.dao.scheduling.AffinityGroupDao;
+import org.ovirt.engine.core.utils.threadpool.ThreadPoolUtil;
 
 @NonTransactiveCommandAttribute
 @InternalCommandAttribute
@@ -234,7 +239,7 @@ public class ProcessOvfUpdateForStoragePoolCommand <T extends ProcessOvfUpdatePa
      * Creates and returns a map containing valid templates metadata
      */
     protected Map<Guid, KeyValuePairCompat<String, List<Guid>>> populateTemplatesMetadataForOvfUpdate(List<Guid> idsToProcess) {
-        Map<Guid, KeyValuePairCompat<String, List<Guid>>> vmsAndTemplateMetadata = new HashMap<>();
+        List<OvfEntity> ovfEntities = new ArrayList<>();
         List<VmTemplate> templates = vmTemplateDao.getVmTemplatesByIds(idsToProcess);
 
         for (VmTemplate template : templates) {
@@ -246,16 +251,18 @@ public class ProcessOvfUpdateForStoragePoolCommand <T extends ProcessOvfUpdatePa
                     Long currentDbGeneration = vmStaticDao.getDbGeneration(template.getId());
                     // currentDbGeneration can be null in case that the template was deleted during the run of OvfDataUpdater.
                     if (currentDbGeneration != null && template.getDbGeneration() == currentDbGeneration) {
-                        proccessedOvfConfigurationsInfo.add(ovfUpdateProcessHelper.buildMetadataDictionaryForTemplate(template, vmsAndTemplateMetadata));
-                        proccessedIdsInfo.add(template.getId());
-                        proccessedOvfGenerationsInfo.add(template.getDbGeneration());
-                        proccessDisksDomains(template.getDiskList());
+                        FullEntityOvfData fullEntityOvfData = ovfUpdateProcessHelper.loadTemplateOvfData(template);
+                        ovfEntities.add(new OvfEntity(template.getId(),
+                                template.getDbGeneration(),
+                                template.getDiskList(),
+                                template.getDiskList(),
+                                ovfUpdateProcessHelper.prepareVmTemplateMetadata(fullEntityOvfData)));
                     }
                 }
             }
         }
 
-        return vmsAndTemplateMetadata;
+        return generateOvfs(ovfEntities);
     }
 
     protected void updateTemplateDisksFromDb(VmTemplate template) {
@@ -320,8 +327,9 @@ public class ProcessOvfUpdateForStoragePoolCommand <T extends ProcessOvfUpdatePa
      * Create and returns map contains valid vms metadata
      */
     protected Map<Guid, KeyValuePairCompat<String, List<Guid>>> populateVmsMetadataForOvfUpdate(List<Guid> idsToProcess) {
-        Map<Guid, KeyValuePairCompat<String, List<Guid>>> vmsAndTemplateMetadata = new HashMap<>();
+        List<OvfEntity> ovfEntities = new ArrayList<>();
         List<VM> vms = vmDao.getVmsByIds(idsToProcess);
+        Map<Guid, List<Label>> affinityLabelsByVm = getAffinityLabelsByVm(idsToProcess);
         for (VM vm : vms) {
             if (VMStatus.ImageLocked != vm.getStatus()) {
                 updateVmDisksFromDb(vm);
@@ -352,7 +360,7 @@ public class ProcessOvfUpdateForStoragePoolCommand <T extends ProcessOvfUpdatePa
                     }
 
                     List<AffinityGroup> affinityGroups = affinityGroupDao.getAllAffinityGroupsByVmId(vm.getId());
-                    List<Label> affinityLabels = labelDao.getAllByEntityIds(Collections.singletonList(vm.getId()));
+                    List<Label> affinityLabels = affinityLabelsByVm.getOrDefault(vm.getId(), Collections.emptyList());
                     Set<DbUser> dbUsers = new HashSet<>(dbUserDao.getAllForVm(vm.getId()));
                     FullEntityOvfData fullEntityOvfData = new FullEntityOvfData(vm);
                     fullEntityOvfData.setDiskImages(vmImages);
@@ -361,18 +369,82 @@ public class ProcessOvfUpdateForStoragePoolCommand <T extends ProcessOvfUpdatePa
                     fullEntityOvfData.setAffinityLabels(affinityLabels);
                     fullEntityOvfData.setDbUsers(dbUsers);
                     ovfHelper.populateUserToRoles(fullEntityOvfData, vm.getId());
-                    proccessedOvfConfigurationsInfo.add(ovfUpdateProcessHelper.buildMetadataDictionaryForVm(vm,
-                            vmsAndTemplateMetadata,
-                            fullEntityOvfData));
-                    proccessedIdsInfo.add(vm.getId());
-                    proccessedOvfGenerationsInfo.add(vm.getStaticData().getDbGeneration());
-                    proccessDisksDomains(vm.getDiskList());
+                    ovfEntities.add(new OvfEntity(vm.getId(),
+                            vm.getStaticData().getDbGeneration(),
+                            vm.getDiskMap().values(),
+                            vm.getDiskList(),
+                            ovfUpdateProcessHelper.prepareVmMetadata(vm, fullEntityOvfData)));
                 }
             }
         }
+        return generateOvfs(ovfEntities);
+    }
+
+    /**
+     * Loads the affinity labels of all the given vms at once, instead of querying them vm by vm.
+     */
+    private Map<Guid, List<Label>> getAffinityLabelsByVm(List<Guid> vmIds) {
+        Map<Guid, List<Label>> affinityLabelsByVm = new HashMap<>();
+        for (Label label : labelDao.getAllByEntityIds(vmIds)) {
+            for (Guid vmId : label.getVms()) {
+                affinityLabelsByVm.computeIfAbsent(vmId, id -> new ArrayList<>()).add(label);
+            }
+        }
+        return affinityLabelsByVm;
+    }
+
+    /**
+     * Renders the ovfs of the given entities, in parallel if configured so, and records them in the processed info
+     * lists in the order of the entities.
+     *
+     * @return the metadata map to be sent to the SPM
+     */
+    private Map<Guid, KeyValuePairCompat<String, List<Guid>>> generateOvfs(List<OvfEntity> ovfEntities) {
+        List<String> ovfs = renderOvfs(ovfEntities);
+        Map<Guid, KeyValuePairCompat<String, List<Guid>>> vmsAndTemplateMetadata = new HashMap<>();
+        for (int i = 0; i < ovfEntities.size(); ++i) {
+            OvfEntity ovfEntity = ovfEntities.get(i);
+            String ovf = ovfs.get(i);
+            vmsAndTemplateMetadata.put(ovfEntity.id, new KeyValuePairCompat<>(ovf, ovfEntity.diskIds));
+            proccessedOvfConfigurationsInfo.add(ovf);
+            proccessedIdsInfo.add(ovfEntity.id);
+            proccessedOvfGenerationsInfo.add(ovfEntity.dbGeneration);
+            proccessDisksDomains(ovfEntity.disks);
+        }
         return vmsAndTemplateMetadata;
     }
 
+    /**
+     * The entities are split to as many consecutive slices as there are threads, every slice is rendered by a single
+     * task so the number of tasks submitted to the engine thread pool is bounded no matter how large the chunk is.
+     */
+    private List<String> renderOvfs(List<OvfEntity> ovfEntities) {
+        int threads = Math.min(Config.<Integer> getValue(ConfigValues.OvfGenerationThreads), ovfEntities.size());
+        if (threads <= 1) {
+            return renderOvfs(ovfEntities, 0, ovfEntities.size());
+        }
+
+        List<Callable<List<String>>> tasks = new ArrayList<>(threads);
+        int sliceSize = (ovfEntities.size() + threads - 1) / threads;
+        for (int from = 0; from < ovfEntities.size(); from += sliceSize) {
+            int start = from;
+            int end = Math.min(from + sliceSize, ovfEntities.size());
+            tasks.add(() -> renderOvfs(ovfEntities, start, end));
+        }
+
+        List<String> ovfs = new ArrayList<>(ovfEntities.size());
+        ThreadPoolUtil.invokeAll(tasks).forEach(ovfs::addAll);
+        return ovfs;
+    }
+
+    private static List<String> renderOvfs(List<OvfEntity> ovfEntities, int from, int to) {
+        List<String> ovfs = new ArrayList<>(to - from);
+        for (OvfEntity ovfEntity : ovfEntities.subList(from, to)) {
+            ovfs.add(ovfEntity.render());
+        }
+        return ovfs;
+    }
+
     protected void proccessDisksDomains(List<DiskImage> disks) {
         if (disks.isEmpty()) {
             proccessedDomains.addAll(activeDataDomainsIds);
@@ -393,6 +465,34 @@ public class ProcessOvfUpdateForStoragePoolCommand <T extends ProcessOvfUpdatePa
         proccessedOvfConfigurationsInfo = new LinkedList<>();
     }
 
+    /**
+     * A vm/template whose data was loaded from the db and whose ovf is yet to be rendered. The renderer must not access
+     * the db, it is called from the engine thread pool.
+     */
+    private static class OvfEntity {
+        private final Guid id;
+        private final long dbGeneration;
+        private final List<Guid> diskIds;
+        private final List<DiskImage> disks;
+        private final Supplier<String> renderer;
+
+        private OvfEntity(Guid id,
+                long dbGeneration,
+                Collection<? extends BaseDisk> ovfDisks,
+                List<DiskImage> disks,
+                Supplier<String> renderer) {
+            this.id = id;
+            this.dbGeneration = dbGeneration;
+            this.diskIds = ovfDisks.stream().map(BaseDisk::getId).collect(Collectors.toList());
+            this.disks = disks;
+            this.renderer = renderer;
+        }
+
+        private String render() {
+            return renderer.get();
+        }
+    }
+
     @Override
     protected LockProperties applyLockProperties(LockProperties lockProperties) {
         return lockProperties.withScope(LockProperties.Scope.Execution).withWait(true);
@@ -0,0 +1,109 @@
+package org.ovirt.engine.core.bll.tasks;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.ovirt.engine.core.compat.Guid;
+
+/**
+ * Hashed timer wheel keeping the time of the next invocation of the command callbacks.
+ *
+ * The time is divided to ticks and every tick is mapped to a slot of the wheel, a callback is kept in the slot of the
+ * tick it is due at. A callback due more than a turn of the wheel ahead shares the slot with callbacks of the earlier
+ * turns and stays there until its turn comes. Advancing the wheel visits only the slots of the elapsed ticks, so the
+ * cost of a poll depends on the number of callbacks in those slots and not on the number of all the callbacks.
+ *
+ * The callbacks due at the same tick are returned in the order they were scheduled.
+ */
+class CallbackTimerWheel {
+
+    private final long tickInMillis;
+    private final List<Set<Guid>> slots;
+    private final Map<Guid, Long> deadlines = new HashMap<>();
+
+    /**
+     * The last tick whose callbacks were returned, callbacks can't be scheduled to it or before it.
+     */
+    private long lastTick;
+
+    CallbackTimerWheel(int wheelSize, long tickInMillis, long nowInMillis) {
+        this.tickInMillis = tickInMillis;
+        slots = new ArrayList<>(wheelSize);
+        for (int i = 0; i < wheelSize; ++i) {
+            slots.add(new LinkedHashSet<>());
+        }
+        lastTick = toTick(nowInMillis);
+    }
+
+    /**
+     * Schedules the callback of the given command, replacing its previous schedule.
+     *
+     * @param commandId
+     *            the id of the command
+     * @param delayInMillis
+     *            the delay from now, a callback is due at the next tick at the earliest
+     * @param nowInMillis
+     *            the current time
+     */
+    synchronized void schedule(Guid commandId, long delayInMillis, long nowInMillis) {
+        long deadline = Math.max(lastTick + 1, toTick(nowInMillis + delayInMillis));
+        Long previousDeadline = deadlines.put(commandId, deadline);
+        if (previousDeadline != null) {
+            getSlot(previousDeadline).remove(commandId);
+        }
+        getSlot(deadline).add(commandId);
+    }
+
+    synchronized void cancel(Guid commandId) {
+        Long deadline = deadlines.remove(commandId);
+        if (deadline != null) {
+            getSlot(deadline).remove(commandId);
+        }
+    }
+
+    /**
+     * Advances the wheel to the current time and removes the callbacks that became due.
+     *
+     * @return the ids of the commands whose callbacks are due
+     */
+    synchronized List<Guid> advance(long nowInMillis) {
+        long currentTick = toTick(nowInMillis);
+        List<Guid> due = new ArrayList<>();
+        // Visiting a single turn is enough, the ticks of the next turns are mapped to the same slots
+        long lastVisitedTick = Math.min(currentTick, lastTick + slots.size());
+        for (long tick = lastTick + 1; tick <= lastVisitedTick; ++tick) {
+            Iterator<Guid> iterator = getSlot(tick).iterator();
+            while (iterator.hasNext()) {
+                Guid commandId = iterator.next();
+                if (deadlines.get(commandId) <= currentTick) {
+                    iterator.remove();
+                    deadlines.remove(commandId);
+                    due.add(commandId);
+                }
+            }
+        }
+        lastTick = Math.max(lastTick, currentTick);
+        return due;
+    }
+
+    synchronized int size() {
+        return deadlines.size();
+    }
+
+    /**
+     * The time is taken from {@link System#nanoTime()} and may be negative, so the ticks are rounded down and mapped
+     * to the slots by their floor modulo.
+     */
+    private long toTick(long timeInMillis) {
+        return Math.floorDiv(timeInMillis, tickInMillis);
+    }
+
+    private Set<Guid> getSlot(long tick) {
+        return slots.get(Math.floorMod(tick, slots.size()));
+    }
+}
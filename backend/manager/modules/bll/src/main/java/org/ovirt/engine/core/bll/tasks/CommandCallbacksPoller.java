@@ -1,15 +1,19 @@
 package org.ovirt.engine.core.bll.tasks;
 
 import java.util.ArrayList;
-import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Map.Entry;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.annotation.PostConstruct;
+import javax.enterprise.concurrent.ManagedExecutorService;
 import javax.enterprise.concurrent.ManagedScheduledExecutorService;
 import javax.inject.Inject;
 
@@ -35,9 +39,20 @@ public class CommandCallbacksPoller implements BackendService {
     private static final Logger log = LoggerFactory.getLogger(CommandCallbacksPoller.class);
     private long pollingRate;
 
+    /**
+     * Runs the due callbacks, the callbacks of commands sharing a root command are run by a single worker at a time.
+     */
+    @Inject
+    @ThreadPools(ThreadPools.ThreadPoolType.CoCo)
+    private ManagedExecutorService callbacksExecutor;
+
     @Inject
     private CommandsRepository commandsRepository;
 
+    private final Set<Guid> runningRootCommands = ConcurrentHashMap.newKeySet();
+
+    private Semaphore workers;
+
     private ConcurrentMap<Guid, AtomicInteger> callbackInvocationMap = new ConcurrentHashMap<>();
 
     private int repeatEndMethodsOnFailMaxRetries;
@@ -47,6 +62,7 @@ public class CommandCallbacksPoller implements BackendService {
         log.info("Start initializing {}", getClass().getSimpleName());
         pollingRate = Config.<Long>getValue(ConfigValues.AsyncCommandPollingLoopInSeconds);
         repeatEndMethodsOnFailMaxRetries = Config.<Integer>getValue(ConfigValues.RepeatEndMethodsOnFailMaxRetries);
+        workers = new Semaphore(Config.<Integer>getValue(ConfigValues.AsyncCommandCallbacksMaxConcurrency));
         initCommandExecutor();
         executor.scheduleWithFixedDelay(this::invokeCallbackMethods,
                 pollingRate,
@@ -112,78 +128,134 @@ public class CommandCallbacksPoller implements BackendService {
     }
 
     private void invokeCallbackMethodsImpl() {
-        Iterator<Entry<Guid, CallbackTiming>> iterator = commandsRepository.getCallbacksTiming().entrySet().iterator();
-        while (iterator.hasNext()) {
-            Entry<Guid, CallbackTiming> entry = iterator.next();
-
-            Guid cmdId = entry.getKey();
-            CallbackTiming callbackTiming = entry.getValue();
-            CommandEntity commandEntity = commandsRepository.getCommandEntity(cmdId);
-            CorrelationIdTracker.setCorrelationId(commandEntity != null
-                    ? commandEntity.getCommandParameters().getCorrelationId() : null);
-            if (commandEntity != null && updateCommandWaitingForEvent(commandEntity, callbackTiming)) {
-                continue;
-            }
+        Map<Guid, List<Guid>> dueCallbacksByRoot = new LinkedHashMap<>();
+        for (Guid cmdId : commandsRepository.getDueCallbacks()) {
+            dueCallbacksByRoot.computeIfAbsent(getRootCommandId(cmdId), rootId -> new ArrayList<>()).add(cmdId);
+        }
+        dueCallbacksByRoot.forEach(this::dispatchCallbacks);
+        commandsRepository.markExpiredCommandsAsFailure();
+    }
 
-            // Decrement counter; execute if it reaches 0
-            callbackTiming.setRemainingDelay(callbackTiming.getRemainingDelay() - pollingRate);
-            if (callbackTiming.getRemainingDelay() > 0) {
-                continue;
-            }
+    private Guid getRootCommandId(Guid cmdId) {
+        CommandEntity commandEntity = commandsRepository.getCommandEntity(cmdId);
+        return commandEntity == null || Guid.isNullOrEmpty(commandEntity.getRootCommandId())
+                ? cmdId
+                : commandEntity.getRootCommandId();
+    }
 
-            CommandCallback callback = callbackTiming.getCallback();
-            CommandStatus status = commandsRepository.getCommandStatus(cmdId);
-            boolean runCallbackAgain = false;
-            boolean errorInCallback = false;
-            try {
-                switch (status) {
-                    case FAILED:
-                    case SUCCEEDED:
-                        runCallbackAgain = endCallback(cmdId, callback, status);
-                        break;
-                    case ACTIVE:
-                        if (commandEntity != null && commandEntity.isExecuted()) {
-                            callback.doPolling(cmdId, getChildCommandIds(cmdId));
-                        }
-                        break;
-                    case EXECUTION_FAILED:
-                        if (callback.pollOnExecutionFailed()) {
-                            callback.doPolling(cmdId, getChildCommandIds(cmdId));
-                        }
-                        break;
-                    default:
-                        break;
+    /**
+     * Invokes the due callbacks of the commands sharing the given root command by a worker, one after the other. The
+     * callbacks are postponed to the next poll if a worker still runs callbacks of the same root command or if all the
+     * workers are busy.
+     */
+    private void dispatchCallbacks(Guid rootCmdId, List<Guid> cmdIds) {
+        if (!runningRootCommands.add(rootCmdId)) {
+            postponeCallbacks(cmdIds);
+            return;
+        }
+        if (!workers.tryAcquire()) {
+            runningRootCommands.remove(rootCmdId);
+            postponeCallbacks(cmdIds);
+            return;
+        }
+        try {
+            callbacksExecutor.submit(() -> {
+                try {
+                    cmdIds.forEach(this::invokeCallbackMethod);
+                } finally {
+                    CorrelationIdTracker.setCorrelationId(null);
+                    runningRootCommands.remove(rootCmdId);
+                    workers.release();
                 }
-            } catch (Exception ex) {
-                errorInCallback = true;
-                handleError(ex, status, cmdId);
-            } finally {
-                if ((CommandStatus.FAILED == status || (CommandStatus.SUCCEEDED == status && !errorInCallback))
-                        && !runCallbackAgain) {
-                    commandsRepository.updateCallbackNotified(cmdId);
-                    iterator.remove();
-                    CommandEntity cmdEntity = commandsRepository.getCommandEntity(entry.getKey());
-                    if (cmdEntity != null) {
-                        // When a child finishes, its parent's callback should execute shortly thereafter
-                        CallbackTiming rootCmdContainer =
-                                commandsRepository.getCallbackTiming(cmdEntity.getRootCommandId());
-                        if (rootCmdContainer != null) {
-                            rootCmdContainer.setInitialDelay(pollingRate);
-                            rootCmdContainer.setRemainingDelay(pollingRate);
-                        }
+            });
+        } catch (RejectedExecutionException ex) {
+            log.warn("Failed to submit the callbacks of root command '{}', they will be invoked in the next poll",
+                    rootCmdId);
+            runningRootCommands.remove(rootCmdId);
+            workers.release();
+            postponeCallbacks(cmdIds);
+        }
+    }
+
+    private void postponeCallbacks(List<Guid> cmdIds) {
+        cmdIds.forEach(cmdId -> commandsRepository.scheduleCallback(cmdId, 0));
+    }
+
+    private void invokeCallbackMethod(Guid cmdId) {
+        try {
+            invokeCallbackMethodImpl(cmdId);
+        } catch (Throwable t) {
+            log.error("Exception in invokeCallbackMethod for command '{}': {}",
+                    cmdId,
+                    ExceptionUtils.getRootCauseMessage(t));
+            log.debug("Exception", t);
+            commandsRepository.scheduleCallback(cmdId, pollingRate);
+        }
+    }
+
+    private void invokeCallbackMethodImpl(Guid cmdId) {
+        CallbackTiming callbackTiming = commandsRepository.getCallbackTiming(cmdId);
+        if (callbackTiming == null) {
+            return;
+        }
+        CommandEntity commandEntity = commandsRepository.getCommandEntity(cmdId);
+        CorrelationIdTracker.setCorrelationId(commandEntity != null
+                ? commandEntity.getCommandParameters().getCorrelationId() : null);
+        if (commandEntity != null && updateCommandWaitingForEvent(commandEntity, callbackTiming)) {
+            commandsRepository.scheduleCallback(cmdId, pollingRate);
+            return;
+        }
+
+        CommandCallback callback = callbackTiming.getCallback();
+        CommandStatus status = commandsRepository.getCommandStatus(cmdId);
+        boolean runCallbackAgain = false;
+        boolean errorInCallback = false;
+        try {
+            switch (status) {
+                case FAILED:
+                case SUCCEEDED:
+                    runCallbackAgain = endCallback(cmdId, callback, status);
+                    break;
+                case ACTIVE:
+                    if (commandEntity != null && commandEntity.isExecuted()) {
+                        callback.doPolling(cmdId, getChildCommandIds(cmdId));
+                    }
+                    break;
+                case EXECUTION_FAILED:
+                    if (callback.pollOnExecutionFailed()) {
+                        callback.doPolling(cmdId, getChildCommandIds(cmdId));
+                    }
+                    break;
+                default:
+                    break;
+            }
+        } catch (Exception ex) {
+            errorInCallback = true;
+            handleError(ex, status, cmdId);
+        } finally {
+            if ((CommandStatus.FAILED == status || (CommandStatus.SUCCEEDED == status && !errorInCallback))
+                    && !runCallbackAgain) {
+                commandsRepository.updateCallbackNotified(cmdId);
+                commandsRepository.removeFromCallbackMap(cmdId);
+                CommandEntity cmdEntity = commandsRepository.getCommandEntity(cmdId);
+                if (cmdEntity != null) {
+                    // When a child finishes, its parent's callback should execute shortly thereafter
+                    CallbackTiming rootCmdContainer =
+                            commandsRepository.getCallbackTiming(cmdEntity.getRootCommandId());
+                    if (rootCmdContainer != null) {
+                        rootCmdContainer.setInitialDelay(pollingRate);
+                        commandsRepository.scheduleCallback(cmdEntity.getRootCommandId(), pollingRate);
                     }
-                } else if (status != commandsRepository.getCommandStatus(cmdId)) {
-                    callbackTiming.setInitialDelay(pollingRate);
-                    callbackTiming.setRemainingDelay(pollingRate);
-                } else {
-                    long maxDelay = Config.<Long>getValue(ConfigValues.AsyncCommandPollingRateInSeconds);
-                    callbackTiming.setInitialDelay(Math.min(maxDelay, callbackTiming.getInitialDelay() * 2));
-                    callbackTiming.setRemainingDelay(callbackTiming.getInitialDelay());
                 }
+            } else if (status != commandsRepository.getCommandStatus(cmdId)) {
+                callbackTiming.setInitialDelay(pollingRate);
+                commandsRepository.scheduleCallback(cmdId, pollingRate);
+            } else {
+                long maxDelay = Config.<Long>getValue(ConfigValues.AsyncCommandPollingRateInSeconds);
+                callbackTiming.setInitialDelay(Math.min(maxDelay, callbackTiming.getInitialDelay() * 2));
+                commandsRepository.scheduleCallback(cmdId, callbackTiming.getInitialDelay());
             }
         }
-        CorrelationIdTracker.setCorrelationId(null);
-        commandsRepository.markExpiredCommandsAsFailure();
     }
 
     private void handleError(Exception ex, CommandStatus status, Guid cmdId) {
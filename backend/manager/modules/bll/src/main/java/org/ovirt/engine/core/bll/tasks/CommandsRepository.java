@@ -40,7 +40,9 @@ import org.slf4j.LoggerFactory;
 public class CommandsRepository {
 
     private static final Logger log = LoggerFactory.getLogger(CommandsRepository.class);
+    private static final int CALLBACKS_WHEEL_SIZE = 512;
     private final ConcurrentMap<Guid, CallbackTiming> callbacksTiming;
+    private final CallbackTimerWheel callbacksWheel;
     private final CommandsCache commandsCache;
     private final CommandContextsCache contextsCache;
     private final ConcurrentHashMap<Guid, List<Guid>> childHierarchy;
@@ -56,6 +58,7 @@ public class CommandsRepository {
         this.contextsCache = contextsCache;
 
         callbacksTiming = new ConcurrentHashMap<>();
+        callbacksWheel = new CallbackTimerWheel(CALLBACKS_WHEEL_SIZE, TimeUnit.SECONDS.toMillis(1), currentMillis());
         childHierarchy = new ConcurrentHashMap<>();
         subscriptions = new ConcurrentHashMap<>();
         LOCK = new Object();
@@ -110,6 +113,40 @@ public class CommandsRepository {
 
     public void addToCallbackMap(Guid commandId, CallbackTiming callbackTiming) {
         callbacksTiming.put(commandId, callbackTiming);
+        scheduleCallback(commandId, callbackTiming.getInitialDelay());
+    }
+
+    public void removeFromCallbackMap(Guid commandId) {
+        callbacksTiming.remove(commandId);
+        callbacksWheel.cancel(commandId);
+    }
+
+    /**
+     * Schedules the next invocation of the callback of the given command, replacing the previous schedule.
+     *
+     * @param commandId
+     *            the id of the command, nothing is done if the command has no callback in the callback map
+     * @param delayInSeconds
+     *            the delay of the invocation
+     */
+    public void scheduleCallback(Guid commandId, long delayInSeconds) {
+        if (getCallbackTiming(commandId) != null) {
+            callbacksWheel.schedule(commandId, TimeUnit.SECONDS.toMillis(delayInSeconds), currentMillis());
+        }
+    }
+
+    /**
+     * Returns the ids of the commands whose callbacks became due, their callbacks are not scheduled anymore until
+     * {@link #scheduleCallback(Guid, long)} is called for them.
+     */
+    public List<Guid> getDueCallbacks() {
+        return callbacksWheel.advance(currentMillis()).stream()
+                .filter(callbacksTiming::containsKey)
+                .collect(Collectors.toList());
+    }
+
+    private static long currentMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime());
     }
 
     public void persistCommand(CommandEntity cmdEntity, CommandContext cmdContext) {
@@ -268,10 +305,6 @@ public class CommandsRepository {
         return Collections.emptyList();
     }
 
-    public ConcurrentMap<Guid, CallbackTiming> getCallbacksTiming() {
-        return callbacksTiming;
-    }
-
     public void persistCommandAssociatedEntities(Collection<CommandAssociatedEntity> cmdAssociatedEntities) {
         commandsCache.persistCommandAssociatedEntities(cmdAssociatedEntities);
     }
@@ -4,6 +4,7 @@ import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 import javax.inject.Inject;
@@ -60,6 +61,14 @@ public class OvfManager {
     DiskDao diskDao;
 
     public String exportVm(VM vm, FullEntityOvfData fullEntityOvfData, Version version) {
+        return prepareVmExport(vm, fullEntityOvfData, version).get();
+    }
+
+    /**
+     * Loads from the db everything the ovf of the given vm depends on, the returned supplier only builds the xml and
+     * can therefore be called from any thread.
+     */
+    public Supplier<String> prepareVmExport(VM vm, FullEntityOvfData fullEntityOvfData, Version version) {
         updateBootOrderOnDevices(vm.getStaticData(), false);
         final OvfVmWriter vmWriter;
         if (vm.isHostedEngine()) {
@@ -73,7 +82,7 @@ public class OvfManager {
         } else {
             vmWriter = new OvfVmWriter(vm, fullEntityOvfData, version, osRepository, getMemoryDiskForSnapshots(vm));
         }
-        return vmWriter.build().getStringRepresentation();
+        return () -> vmWriter.build().getStringRepresentation();
     }
 
     private Map<Guid, DiskImage> getMemoryDiskForSnapshots(VM vm) {
@@ -82,8 +91,16 @@ public class OvfManager {
     }
 
     public String exportTemplate(FullEntityOvfData fullEntityOvfData, Version version) {
+        return prepareTemplateExport(fullEntityOvfData, version).get();
+    }
+
+    /**
+     * Same as {@link #prepareVmExport(VM, FullEntityOvfData, Version)}, for templates.
+     */
+    public Supplier<String> prepareTemplateExport(FullEntityOvfData fullEntityOvfData, Version version) {
         updateBootOrderOnDevices(fullEntityOvfData.getVmBase(), true);
-        return new OvfTemplateWriter(fullEntityOvfData, version, osRepository).build().getStringRepresentation();
+        OvfTemplateWriter templateWriter = new OvfTemplateWriter(fullEntityOvfData, version, osRepository);
+        return () -> templateWriter.build().getStringRepresentation();
     }
 
     public String exportOva(VM vm, FullEntityOvfData fullEntityOvfData, Version version) {
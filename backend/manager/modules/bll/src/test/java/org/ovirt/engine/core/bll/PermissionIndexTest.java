@@ -0,0 +1,255 @@
+package org.ovirt.engine.core.bll;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Stream;
+
+import javax.transaction.Status;
+import javax.transaction.Synchronization;
+import javax.transaction.Transaction;
+import javax.transaction.TransactionManager;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Answers;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.ovirt.engine.core.common.VdcObjectType;
+import org.ovirt.engine.core.common.businessentities.ActionGroup;
+import org.ovirt.engine.core.common.businessentities.Permission;
+import org.ovirt.engine.core.common.businessentities.RoleGroupMap;
+import org.ovirt.engine.core.common.config.ConfigValues;
+import org.ovirt.engine.core.compat.Guid;
+import org.ovirt.engine.core.dao.PermissionDao;
+import org.ovirt.engine.core.dao.RoleGroupMapDao;
+import org.ovirt.engine.core.dao.cache.PermissionChangeTracker;
+import org.ovirt.engine.core.utils.InjectedMock;
+import org.ovirt.engine.core.utils.InjectorExtension;
+import org.ovirt.engine.core.utils.MockConfigDescriptor;
+import org.ovirt.engine.core.utils.MockConfigExtension;
+import org.ovirt.engine.core.utils.MockedConfig;
+
+@ExtendWith({MockitoExtension.class, InjectorExtension.class, MockConfigExtension.class})
+@MockitoSettings(strictness = Strictness.LENIENT)
+public class PermissionIndexTest {
+
+    private final Guid userId = Guid.newGuid();
+    private final Guid groupId = Guid.newGuid();
+    private final Guid roleId = Guid.newGuid();
+    private final Guid vmId = Guid.newGuid();
+    private final Guid otherVmId = Guid.newGuid();
+
+    @Mock
+    private PermissionDao permissionDao;
+
+    @Mock
+    private RoleGroupMapDao roleGroupMapDao;
+
+    @Spy
+    private PermissionChangeTracker permissionChangeTracker = new PermissionChangeTracker();
+
+    @Mock(answer = Answers.RETURNS_DEEP_STUBS)
+    @InjectedMock
+    public TransactionManager transactionManager;
+
+    @InjectMocks
+    private PermissionIndex permissionIndex;
+
+    public static Stream<MockConfigDescriptor<?>> mockConfiguration() {
+        return Stream.of(MockConfigDescriptor.of(ConfigValues.PermissionChecksMode, "InMemory"));
+    }
+
+    public static Stream<MockConfigDescriptor<?>> auditConfiguration() {
+        return Stream.of(MockConfigDescriptor.of(ConfigValues.PermissionChecksMode, "Audit"));
+    }
+
+    @BeforeEach
+    public void setUp() {
+        when(roleGroupMapDao.getAll()).thenReturn(Collections.singletonList(
+                new RoleGroupMap(ActionGroup.RUN_VM, roleId)));
+        when(permissionDao.getUserAndGroupIds(userId))
+                .thenReturn(Arrays.asList(userId, groupId, MultiLevelAdministrationHandler.EVERYONE_OBJECT_ID));
+    }
+
+    @Test
+    public void permissionOnObjectIsFound() {
+        Permission permission = grant(userId, vmId);
+
+        assertEquals(permission.getId(), check(vmId, ActionGroup.RUN_VM));
+        verify(permissionDao, never()).getEntityPermissions(any(), any(), any(), any());
+    }
+
+    @Test
+    public void permissionOfGroupOnSystemIsFound() {
+        Permission permission = grant(groupId, MultiLevelAdministrationHandler.SYSTEM_OBJECT_ID);
+
+        assertEquals(permission.getId(), check(vmId, ActionGroup.RUN_VM));
+        verify(permissionDao, never()).getEntityPermissions(any(), any(), any(), any());
+    }
+
+    @Test
+    public void permissionOfAnotherActionGroupIsNotFound() {
+        grant(userId, vmId);
+
+        assertNull(check(vmId, ActionGroup.DELETE_VM));
+        verify(permissionDao, never()).getEntityPermissions(any(), any(), any(), any());
+    }
+
+    @Test
+    public void permissionOnPossibleParentIsCheckedInDatabase() {
+        Permission permission = grant(userId, otherVmId);
+        when(permissionDao.getEntityPermissions(userId, ActionGroup.RUN_VM, vmId, VdcObjectType.VM))
+                .thenReturn(permission.getId());
+
+        assertEquals(permission.getId(), check(vmId, ActionGroup.RUN_VM));
+    }
+
+    @Test
+    public void permissionsOfChangedUserAreReloaded() throws Exception {
+        grant(userId, otherVmId);
+        check(vmId, ActionGroup.DELETE_VM);
+        check(vmId, ActionGroup.DELETE_VM);
+        verify(permissionDao, times(1)).getAllGrants();
+
+        Permission permission = new Permission(userId, roleId, vmId, VdcObjectType.VM);
+        when(permissionDao.getAllGrantsForAdElement(userId)).thenReturn(Collections.singletonList(permission));
+        permissionChangeTracker.adElementChanged(userId);
+        commit();
+
+        assertEquals(permission.getId(), check(vmId, ActionGroup.RUN_VM));
+        verify(permissionDao, times(1)).getAllGrants();
+        verify(permissionDao, never()).getAllGrantsForAdElement(groupId);
+    }
+
+    @Test
+    public void permissionsOfUserOfRemovedPermissionAreReloaded() throws Exception {
+        Permission permission = grant(userId, vmId);
+        assertEquals(permission.getId(), check(vmId, ActionGroup.RUN_VM));
+
+        permissionChangeTracker.permissionRemoved(permission.getId());
+        commit();
+
+        assertNull(check(vmId, ActionGroup.RUN_VM));
+        verify(permissionDao).getAllGrantsForAdElement(userId);
+        verify(permissionDao, never()).getEntityPermissions(any(), any(), any(), any());
+    }
+
+    @Test
+    public void permissionsOfUsersOfRemovedObjectAreReloaded() throws Exception {
+        Permission permission = grant(userId, vmId);
+        assertEquals(permission.getId(), check(vmId, ActionGroup.RUN_VM));
+
+        permissionChangeTracker.objectPermissionsRemoved(vmId);
+        commit();
+
+        assertNull(check(vmId, ActionGroup.RUN_VM));
+        verify(permissionDao).getAllGrantsForAdElement(userId);
+    }
+
+    @Test
+    public void checksInTransactionWithUncommittedChangesAreMadeInDatabase() throws Exception {
+        grant(userId, otherVmId);
+        check(vmId, ActionGroup.DELETE_VM);
+        verify(permissionDao, never()).getEntityPermissions(any(), any(), any(), any());
+
+        permissionChangeTracker.adElementChanged(userId);
+        check(vmId, ActionGroup.DELETE_VM);
+        verify(permissionDao).getEntityPermissions(userId, ActionGroup.DELETE_VM, vmId, VdcObjectType.VM);
+
+        commit();
+        check(vmId, ActionGroup.DELETE_VM);
+        verify(permissionDao).getEntityPermissions(userId, ActionGroup.DELETE_VM, vmId, VdcObjectType.VM);
+    }
+
+    @Test
+    @MockedConfig("auditConfiguration")
+    public void auditModeAnswersFromDatabase() {
+        grant(userId, vmId);
+
+        assertNull(check(vmId, ActionGroup.RUN_VM));
+        verify(permissionDao).getEntityPermissions(userId, ActionGroup.RUN_VM, vmId, VdcObjectType.VM);
+    }
+
+    @Test
+    public void permissionOfEveryoneIsFound() {
+        Permission permission = grant(MultiLevelAdministrationHandler.EVERYONE_OBJECT_ID, vmId);
+
+        assertEquals(permission.getId(), check(vmId, ActionGroup.RUN_VM));
+        verify(permissionDao, never()).getEntityPermissions(any(), any(), any(), any());
+    }
+
+    @Test
+    public void groupsOfUserAreReadOnce() {
+        grant(groupId, vmId);
+
+        check(vmId, ActionGroup.RUN_VM);
+        check(otherVmId, ActionGroup.RUN_VM);
+        verify(permissionDao, times(1)).getUserAndGroupIds(userId);
+    }
+
+    @Test
+    public void groupsOfUserWithChangedSessionsAreReloaded() throws Exception {
+        Guid otherGroupId = Guid.newGuid();
+        Permission permission = grant(otherGroupId, vmId);
+        assertNull(check(vmId, ActionGroup.RUN_VM));
+
+        when(permissionDao.getUserAndGroupIds(userId)).thenReturn(Arrays.asList(userId, otherGroupId));
+        permissionChangeTracker.userGroupsChanged(userId);
+        commit();
+
+        assertEquals(permission.getId(), check(vmId, ActionGroup.RUN_VM));
+        verify(permissionDao, times(2)).getUserAndGroupIds(userId);
+        verify(permissionDao, times(1)).getAllGrants();
+    }
+
+    @Test
+    public void groupsOfAllUsersAreReloadedWhenGroupsChange() throws Exception {
+        Permission permission = grant(groupId, vmId);
+        assertEquals(permission.getId(), check(vmId, ActionGroup.RUN_VM));
+
+        when(permissionDao.getUserAndGroupIds(userId)).thenReturn(Collections.singletonList(userId));
+        permissionChangeTracker.allUserGroupsChanged();
+        commit();
+
+        assertNull(check(vmId, ActionGroup.RUN_VM));
+        verify(permissionDao, times(2)).getUserAndGroupIds(userId);
+        verify(permissionDao, never()).getEntityPermissions(any(), any(), any(), any());
+    }
+
+    /**
+     * Completes the transaction the changes were made in.
+     */
+    private void commit() throws Exception {
+        Transaction transaction = transactionManager.getTransaction();
+        ArgumentCaptor<Synchronization> captor = ArgumentCaptor.forClass(Synchronization.class);
+        verify(transaction, atLeastOnce()).registerSynchronization(captor.capture());
+        captor.getAllValues().forEach(synchronization -> synchronization.afterCompletion(Status.STATUS_COMMITTED));
+    }
+
+    private Guid check(Guid objectId, ActionGroup actionGroup) {
+        return permissionIndex.getEntityPermissions(userId, actionGroup, objectId, VdcObjectType.VM);
+    }
+
+    private Permission grant(Guid adElementId, Guid objectId) {
+        Permission permission = new Permission(adElementId, roleId, objectId, VdcObjectType.VM);
+        List<Permission> permissions = Arrays.asList(permission);
+        when(permissionDao.getAllGrants()).thenReturn(permissions);
+        return permission;
+    }
+}
@@ -13,6 +13,7 @@ import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.ovirt.engine.core.common.vdscommands.VDSCommandType.ConnectStorageServer;
@@ -22,6 +23,7 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Stream;
 
@@ -36,6 +38,7 @@ import org.mockito.Mock;
 import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
+import org.ovirt.engine.core.bll.scheduling.SchedulingManager;
 import org.ovirt.engine.core.bll.storage.domain.IsoDomainListSynchronizer;
 import org.ovirt.engine.core.bll.validator.RunVmValidator;
 import org.ovirt.engine.core.common.AuditLogType;
@@ -106,6 +109,9 @@ public class RunVmCommandTest extends BaseCommandTest {
     @Mock
     private StorageServerConnectionDao storageServerConnectionDao;
 
+    @Mock
+    private SchedulingManager schedulingManager;
+
     @Spy
     @InjectMocks
     VmHandler vmHandler;
@@ -631,4 +637,74 @@ public class RunVmCommandTest extends BaseCommandTest {
         assertFalse(connectSucceeded);
 
     }
+
+    @Test
+    public void preScheduledVdsIsCheckedWithoutScheduling() {
+        Guid vdsId = Guid.newGuid();
+        mockVmForScheduling();
+        when(schedulingManager.canRunOnPreScheduledHost(any(), any(), eq(vdsId))).thenReturn(true);
+
+        command.setPreScheduledVdsId(vdsId);
+
+        assertEquals(Optional.of(vdsId), command.recheckPreScheduledVds());
+        verify(schedulingManager, never()).clearPendingVm(any());
+        verify(schedulingManager, never()).schedule(any(), any(), any(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    public void preScheduledVdsThatNoLongerFitsFallsBackToScheduling() {
+        Guid vdsId = Guid.newGuid();
+        mockVmForScheduling();
+        when(schedulingManager.canRunOnPreScheduledHost(any(), any(), eq(vdsId))).thenReturn(false);
+        when(schedulingManager.schedule(any(), any(), any(), any(), any(), any(), any(), any()))
+                .thenReturn(Optional.empty());
+
+        command.setPreScheduledVdsId(vdsId);
+
+        assertFalse(command.getVdsToRunOn());
+        verify(schedulingManager).clearPendingVm(command.getVm().getStaticData());
+        verify(schedulingManager).schedule(any(), any(), any(), eq(Collections.emptyList()), any(), any(),
+                any(), any());
+    }
+
+    @Test
+    public void unusedPreScheduledVdsIsReleased() {
+        mockVmForScheduling();
+        command.setPreScheduledVdsId(Guid.newGuid());
+
+        command.releaseUnusedPreScheduledVds();
+        command.releaseUnusedPreScheduledVds();
+
+        verify(schedulingManager).clearPendingVm(command.getVm().getStaticData());
+    }
+
+    @Test
+    public void usedPreScheduledVdsIsNotReleased() {
+        Guid vdsId = Guid.newGuid();
+        mockVmForScheduling();
+        when(schedulingManager.canRunOnPreScheduledHost(any(), any(), eq(vdsId))).thenReturn(true);
+        command.setPreScheduledVdsId(vdsId);
+        command.recheckPreScheduledVds();
+
+        command.releaseUnusedPreScheduledVds();
+
+        verify(schedulingManager, never()).clearPendingVm(any());
+    }
+
+    @Test
+    public void vdsIsScheduledWhenNothingIsPreScheduled() {
+        mockVmForScheduling();
+        when(schedulingManager.schedule(any(), any(), any(), any(), any(), any(), any(), any()))
+                .thenReturn(Optional.empty());
+
+        assertFalse(command.getVdsToRunOn());
+        verify(schedulingManager, never()).clearPendingVm(any());
+        verify(schedulingManager).schedule(any(), any(), any(), eq(Collections.emptyList()), any(), any(),
+                any(), any());
+    }
+
+    private void mockVmForScheduling() {
+        command.setVm(new VM());
+        command.setCluster(new Cluster());
+    }
 }
@@ -2,11 +2,15 @@ package org.ovirt.engine.core.bll.lock;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -122,4 +126,21 @@ public class InMemoryLockManagerTest {
         lockManager.clear();
         assertTrue(lockManager.showAllLocks().isEmpty());
     }
+
+    @Test
+    public void checkAcquireLockWaitForReleasedKey() throws Exception {
+        assertTrue(lockManager.acquireLock(lockLock1).getFirst());
+        CompletableFuture<Void> waiting = CompletableFuture.runAsync(() -> lockManager.acquireLockWait(failLockLock));
+        assertThrows(TimeoutException.class, () -> waiting.get(100, TimeUnit.MILLISECONDS));
+
+        // A release of another key does not let the waiting thread in
+        assertTrue(lockManager.acquireLock(lockLock2).getFirst());
+        lockManager.releaseLock(lockLock2);
+        assertThrows(TimeoutException.class, () -> waiting.get(100, TimeUnit.MILLISECONDS));
+
+        lockManager.releaseLock(lockLock1);
+        waiting.get(10, TimeUnit.SECONDS);
+        assertFalse(lockManager.acquireLock(lockLock1).getFirst());
+        lockManager.releaseLock(failLockLock);
+    }
 }
@@ -0,0 +1,146 @@
+package org.ovirt.engine.core.bll.network.macpool;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+public class LongCounterTest {
+
+    @Test
+    public void testIncreaseNoDuplicates() {
+        final LongCounter longCounter = new LongCounter(false);
+
+
+        assertThat(longCounter.increase(1), is(true));
+        assertThat(longCounter.containsDuplicates(), is(false));
+        assertThat(longCounter.containsCounts(), is(true));
+        assertThat(longCounter.increase(1), is(false));
+        assertThat(longCounter.containsDuplicates(), is(false));
+        assertThat(longCounter.containsCounts(), is(true));
+        assertThat(longCounter.increase(2), is(true));
+        assertThat(longCounter.containsDuplicates(), is(false));
+        assertThat(longCounter.containsCounts(), is(true));
+        assertThat(longCounter.increase(-3), is(true));
+
+        assertThat(longCounter.contains(0), is(false));
+        assertThat(longCounter.contains(1), is(true));
+        assertThat(longCounter.contains(2), is(true));
+        assertThat(longCounter.contains(-3), is(true));
+        assertThat(longCounter.containsDuplicates(), is(false));
+        assertThat(longCounter.containsCounts(), is(true));
+    }
+
+    @Test
+    public void testIncreaseWithDuplicates() {
+        final LongCounter longCounter = new LongCounter(true);
+
+
+        assertThat(longCounter.increase(1), is(true));
+        assertThat(longCounter.containsDuplicates(), is(false));
+        assertThat(longCounter.containsCounts(), is(true));
+        assertThat(longCounter.increase(1), is(true));
+        assertThat(longCounter.containsDuplicates(), is(true));
+        assertThat(longCounter.containsCounts(), is(true));
+        assertThat(longCounter.increase(2), is(true));
+        assertThat(longCounter.containsDuplicates(), is(true));
+        assertThat(longCounter.containsCounts(), is(true));
+        assertThat(longCounter.increase(-3), is(true));
+
+        assertThat(longCounter.contains(0), is(false));
+        assertThat(longCounter.contains(1), is(true));
+        assertThat(longCounter.contains(2), is(true));
+        assertThat(longCounter.contains(-3), is(true));
+        assertThat(longCounter.containsDuplicates(), is(true));
+        assertThat(longCounter.containsCounts(), is(true));
+    }
+
+    @Test
+    public void testDecreaseNoDuplicates() {
+        final LongCounter longCounter = new LongCounter(false);
+
+        longCounter.increase(1);
+        longCounter.increase(2);
+        assertThat(longCounter.contains(0), is(false));
+        assertThat(longCounter.containsDuplicates(), is(false));
+        assertThat(longCounter.containsCounts(), is(true));
+
+        longCounter.decrease(0);
+        assertThat(longCounter.contains(0), is(false));
+        assertThat(longCounter.containsDuplicates(), is(false));
+        assertThat(longCounter.containsCounts(), is(true));
+        assertThat(longCounter.contains(1), is(true));
+
+        longCounter.decrease(1);
+        assertThat(longCounter.contains(1), is(false));
+        assertThat(longCounter.containsDuplicates(), is(false));
+        assertThat(longCounter.containsCounts(), is(true));
+    }
+
+    @Test
+    public void testDecreaseWithDuplicates() {
+        final LongCounter longCounter = new LongCounter(true);
+
+        assertThat(longCounter.containsDuplicates(), is(false));
+        assertThat(longCounter.containsCounts(), is(false));
+        longCounter.increase(1);
+        assertThat(longCounter.containsDuplicates(), is(false));
+        assertThat(longCounter.containsCounts(), is(true));
+        longCounter.increase(1);
+        assertThat(longCounter.containsDuplicates(), is(true));
+        assertThat(longCounter.containsCounts(), is(true));
+        longCounter.increase(2);
+        assertThat(longCounter.containsDuplicates(), is(true));
+        assertThat(longCounter.containsCounts(), is(true));
+
+        assertThat(longCounter.contains(0), is(false));
+        longCounter.decrease(0);
+        assertThat(longCounter.contains(0), is(false));
+        assertThat(longCounter.containsDuplicates(), is(true));
+        assertThat(longCounter.containsCounts(), is(true));
+
+        assertThat(longCounter.contains(1), is(true));
+        longCounter.decrease(1);
+        assertThat(longCounter.containsDuplicates(), is(false));
+        assertThat(longCounter.containsCounts(), is(true));
+        assertThat(longCounter.contains(1), is(true));
+        longCounter.decrease(1);
+        assertThat(longCounter.contains(1), is(false));
+        assertThat(longCounter.containsDuplicates(), is(false));
+        assertThat(longCounter.containsCounts(), is(true));
+
+        assertThat(longCounter.contains(2), is(true));
+        longCounter.decrease(2);
+        assertThat(longCounter.contains(2), is(false));
+        assertThat(longCounter.containsDuplicates(), is(false));
+        assertThat(longCounter.containsCounts(), is(false));
+
+    }
+
+    @Test
+    public void testManyValues() {
+        final LongCounter longCounter = new LongCounter(true);
+        final int numberOfValues = 1000;
+
+        for (long i = 0; i < numberOfValues; i++) {
+            assertThat(longCounter.increase(i * 17), is(true));
+        }
+        assertThat(longCounter.increase(34), is(true));
+        assertThat(longCounter.count(34), is(2));
+        assertThat(longCounter.containsDuplicates(), is(true));
+
+        for (long i = 0; i < numberOfValues; i += 2) {
+            longCounter.decrease(i * 17);
+        }
+        for (long i = 0; i < numberOfValues; i++) {
+            assertThat(longCounter.count(i * 17), is(i == 2 || i % 2 == 1 ? 1 : 0));
+        }
+        assertThat(longCounter.containsDuplicates(), is(false));
+
+        for (long i = 1; i < numberOfValues; i += 2) {
+            longCounter.decrease(i * 17);
+        }
+        longCounter.decrease(34);
+        assertThat(longCounter.containsCounts(), is(false));
+    }
+}
@@ -1,12 +1,16 @@
 package org.ovirt.engine.core.bll.network.macpool;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.when;
 
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.BiConsumer;
 
 import org.hamcrest.Matchers;
 import org.junit.jupiter.api.Test;
@@ -22,7 +26,6 @@ import org.ovirt.engine.core.common.businessentities.MacPool;
 import org.ovirt.engine.core.common.businessentities.VM;
 import org.ovirt.engine.core.common.businessentities.VMStatus;
 import org.ovirt.engine.core.common.businessentities.network.VmNetworkInterface;
-import org.ovirt.engine.core.common.businessentities.network.VmNic;
 import org.ovirt.engine.core.compat.Guid;
 import org.ovirt.engine.core.dao.ClusterDao;
 import org.ovirt.engine.core.dao.VmDao;
@@ -153,6 +156,8 @@ public class MacsUsedAcrossWholeSystemTest {
     @InjectMocks
     private MacsUsedAcrossWholeSystem underTest;
 
+    private final List<VM> vms = new ArrayList<>();
+
     @Test
     public void testGetMacsForMacPool() {
         MacPool macPool = createMacPool();
@@ -236,6 +241,8 @@ public class MacsUsedAcrossWholeSystemTest {
         mockVmSnapshots(notStatelessVm, Optional.of(snapshot6));
         mockVmSnapshots(vmHavingSnapshotWithDuplicates, Optional.of(snapshot7));
 
+        mockVmMacs(macPool);
+
         //verifying
         List<String> macsForMacPool = underTest.getMacsForMacPool(macPool.getId());
         assertThat(macsForMacPool, Matchers.containsInAnyOrder(
@@ -258,6 +265,15 @@ public class MacsUsedAcrossWholeSystemTest {
         when(snapshotsManager.getVmConfigurationInStatelessSnapshotOfVm(vm1.getId())).thenReturn(snapshot);
     }
 
+    @SuppressWarnings("unchecked")
+    private void mockVmMacs(MacPool macPool) {
+        doAnswer(invocation -> {
+            BiConsumer<Guid, String> consumer = invocation.getArgument(1);
+            vms.forEach(vm -> vm.getInterfaces().forEach(nic -> consumer.accept(vm.getId(), nic.getMacAddress())));
+            return null;
+        }).when(vmNicDao).forEachVmMacByMacPoolId(eq(macPool.getId()), any(BiConsumer.class));
+    }
+
     private void mockClusterVms(Cluster cluster1, VM... vms) {
         when(vmDao.getAllForCluster(cluster1.getId())).thenReturn(Arrays.asList(vms));
     }
@@ -321,7 +337,7 @@ public class MacsUsedAcrossWholeSystemTest {
         vm.setStatus(running ? VMStatus.Up : VMStatus.Down);
         vm.setStateless(stateless);
 
-        when(vmNicDao.<VmNic>getAllForVm(vm.getId())).<VmNic>thenReturn(new ArrayList<>(vm.getInterfaces()));
+        vms.add(vm);
 
         return vm;
     }
@@ -78,13 +78,13 @@ public class RangeTest {
 
     @Test
     public void testFreeMac() {
-        final List<Long> allocatedMacs = rangeOf10Macs.allocateMacs(NUMBER_OF_MACS);
-        assertThat(allocatedMacs.size(), is(NUMBER_OF_MACS));
+        final long[] allocatedMacs = rangeOf10Macs.allocateMacs(NUMBER_OF_MACS);
+        assertThat(allocatedMacs.length, is(NUMBER_OF_MACS));
         assertThat(rangeOf10Macs.getAvailableCount(), is(0));
         assertThat(rangeOf10Macs.containsDuplicates(), is(false));
 
         for(int i = 1; i <= NUMBER_OF_MACS; i++) {
-            rangeOf10Macs.freeMac(allocatedMacs.remove(0));
+            rangeOf10Macs.freeMac(allocatedMacs[i - 1]);
             assertThat(rangeOf10Macs.getAvailableCount(), is(i));
             assertThat(rangeOf10Macs.containsDuplicates(), is(false));
         }
@@ -111,9 +111,9 @@ public class RangeTest {
 
     @Test
     public void testAllocateMac() {
-        assertThat(rangeOf10Macs.allocateMacs(5).size(), is(5));
+        assertThat(rangeOf10Macs.allocateMacs(5).length, is(5));
         assertThat(rangeOf10Macs.getAvailableCount(), is(5));
-        assertThat(rangeOf10Macs.allocateMacs(5).size(), is(5));
+        assertThat(rangeOf10Macs.allocateMacs(5).length, is(5));
         assertThat(rangeOf10Macs.getAvailableCount(), is(0));
         assertThat(rangeOf10Macs.containsDuplicates(), is(false));
     }
@@ -177,7 +177,7 @@ public class RangeTest {
      * @param expectedMac mac, which we expect to be returned from {@code range.allocateMacs(1)}
      */
     private void allocateAndFreeMacAndExpectGivenMac(Range range, long expectedMac) {
-        Long mac = range.allocateMacs(1).get(0);
+        long mac = range.allocateMacs(1)[0];
         assertThat(mac, is(expectedMac));
         range.freeMac(mac);
     }
@@ -0,0 +1,34 @@
+package org.ovirt.engine.core.bll.network.vm;
+
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.ovirt.engine.core.bll.AbstractUserQueryTest;
+import org.ovirt.engine.core.common.queries.IdsQueryParameters;
+import org.ovirt.engine.core.compat.Guid;
+import org.ovirt.engine.core.dao.network.VmNetworkInterfaceDao;
+
+/** A test case for {@link GetVmInterfacesByVmIdsQuery} */
+public class GetVmInterfacesByVmIdsQueryTest
+        extends AbstractUserQueryTest<IdsQueryParameters, GetVmInterfacesByVmIdsQuery<IdsQueryParameters>> {
+    @Mock
+    private VmNetworkInterfaceDao daoMock;
+
+    /** A test that checked that all the parameters are passed properly to the Dao */
+    @Test
+    public void testExectueQuery() {
+        List<Guid> ids = Arrays.asList(Guid.newGuid(), Guid.newGuid());
+
+        IdsQueryParameters params = getQueryParameters();
+        when(params.getIds()).thenReturn(ids);
+
+        getQuery().executeQueryCommand();
+
+        verify(daoMock).getAllForVms(ids, getUser().getId(), getQueryParameters().isFiltered());
+    }
+}
@@ -1,5 +1,6 @@
 package org.ovirt.engine.core.bll.quota;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
@@ -13,6 +14,7 @@ import static org.mockito.Mockito.when;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.stream.Stream;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -33,11 +35,15 @@ import org.ovirt.engine.core.common.businessentities.QuotaCluster;
 import org.ovirt.engine.core.common.businessentities.QuotaEnforcementTypeEnum;
 import org.ovirt.engine.core.common.businessentities.QuotaStorage;
 import org.ovirt.engine.core.common.businessentities.StoragePool;
+import org.ovirt.engine.core.common.config.ConfigValues;
 import org.ovirt.engine.core.compat.Guid;
 import org.ovirt.engine.core.dal.dbbroker.auditloghandling.AuditLogDirector;
 import org.ovirt.engine.core.dao.QuotaDao;
+import org.ovirt.engine.core.utils.MockConfigDescriptor;
+import org.ovirt.engine.core.utils.MockConfigExtension;
+import org.ovirt.engine.core.utils.MockedConfig;
 
-@ExtendWith(MockitoExtension.class)
+@ExtendWith({MockitoExtension.class, MockConfigExtension.class})
 @MockitoSettings(strictness = Strictness.LENIENT)
 public class QuotaManagerTest {
 
@@ -70,6 +76,14 @@ public class QuotaManagerTest {
 
     private Quota quota;
 
+    public static Stream<MockConfigDescriptor<?>> mockConfiguration() {
+        return Stream.of(MockConfigDescriptor.of(ConfigValues.QuotaCacheReconcileIntervalInMinutes, 60));
+    }
+
+    public static Stream<MockConfigDescriptor<?>> reconcileAlwaysConfiguration() {
+        return Stream.of(MockConfigDescriptor.of(ConfigValues.QuotaCacheReconcileIntervalInMinutes, 0));
+    }
+
     @BeforeEach
     public void setUp() {
         storage_pool.setQuotaEnforcementType(QuotaEnforcementTypeEnum.HARD_ENFORCEMENT);
@@ -219,6 +233,51 @@ public class QuotaManagerTest {
         validationMessages.clear();
     }
 
+    @Test
+    public void testConsumedStorageIsAddedToUsage() {
+        quota.setGlobalQuotaStorage(getQuotaStorage(100, 10));
+
+        assertTrue(consumeForStorageQuota(60d));
+        assertEquals(70d, quota.getGlobalQuotaStorage().getStorageSizeGBUsage().doubleValue());
+
+        // 130 GB out of 100 GB is over the grace
+        assertFalse(consumeForStorageQuota(60d));
+        assertNotEmptyValidateMessage();
+        assertEquals(70d, quota.getGlobalQuotaStorage().getStorageSizeGBUsage().doubleValue());
+    }
+
+    @Test
+    public void testReleasedClusterIsSubtractedFromUsage() {
+        quota.setGlobalQuotaCluster(getQuotaCluster(100, 50, 2048, 1024));
+
+        quotaManager.consume(command, Collections.singletonList(new QuotaClusterConsumptionParameter(
+                quota.getId(), QuotaConsumptionParameter.QuotaAction.RELEASE, DESTINATION_GUID, 2, 512)));
+
+        assertEquals(48, quota.getGlobalQuotaCluster().getVirtualCpuUsage().intValue());
+        assertEquals(512, quota.getGlobalQuotaCluster().getMemSizeMBUsage().longValue());
+    }
+
+    @Test
+    public void testCachedQuotaIsNotReconciledBeforeInterval() {
+        quota.setGlobalQuotaStorage(getQuotaStorage(100, 9));
+
+        consumeForStorageQuota(1d);
+        consumeForStorageQuota(1d);
+
+        verify(quotaDao, times(1)).getById(quota.getId());
+    }
+
+    @Test
+    @MockedConfig("reconcileAlwaysConfiguration")
+    public void testCachedQuotaIsReconciledAfterInterval() {
+        quota.setGlobalQuotaStorage(getQuotaStorage(100, 9));
+
+        consumeForStorageQuota(1d);
+        consumeForStorageQuota(1d);
+
+        verify(quotaDao, times(2)).getById(quota.getId());
+    }
+
     @Test
     public void testConsumeClusterQuotaForVCPUGlobalNotExceeded() {
         quota.setGlobalQuotaCluster(getQuotaCluster(100, 18, UNLIMITED_MEM, 0));
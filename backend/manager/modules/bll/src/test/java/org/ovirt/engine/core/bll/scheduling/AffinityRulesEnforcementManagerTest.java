@@ -24,6 +24,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
 import org.ovirt.engine.core.bll.interfaces.BackendInternal;
+import org.ovirt.engine.core.bll.scheduling.arem.AffinityGroupsIndex;
 import org.ovirt.engine.core.bll.scheduling.arem.AffinityRulesEnforcer;
 import org.ovirt.engine.core.common.businessentities.Cluster;
 import org.ovirt.engine.core.common.businessentities.VM;
@@ -56,6 +57,8 @@ public class AffinityRulesEnforcementManagerTest {
     @Mock
     private AffinityRulesEnforcer rulesEnforcer;
     @Mock
+    private AffinityGroupsIndex affinityGroupsIndex;
+    @Mock
     VM vm1;
     @Mock
     VM vm2;
@@ -83,8 +86,9 @@ public class AffinityRulesEnforcementManagerTest {
         cluster2 = createCluster();
         when(clusterDao.getWithoutMigratingVms()).thenReturn(Arrays.asList(cluster1, cluster2));
 
-        when(rulesEnforcer.chooseNextVmToMigrate(eq(cluster1))).thenReturn(vm1);
-        when(rulesEnforcer.chooseNextVmToMigrate(eq(cluster2))).thenReturn(vm2);
+        when(affinityGroupsIndex.hasViolations(any())).thenReturn(true);
+        when(rulesEnforcer.chooseNextVmToMigrate(eq(cluster1), any())).thenReturn(vm1);
+        when(rulesEnforcer.chooseNextVmToMigrate(eq(cluster2), any())).thenReturn(vm2);
 
         arem.wakeup();
     }
@@ -100,7 +104,7 @@ public class AffinityRulesEnforcementManagerTest {
 
     @Test
     public void shouldMigrateOneVmPerCluster() {
-        when(rulesEnforcer.chooseNextVmToMigrate(eq(cluster1))).thenReturn(vm1, mock(VM.class), mock(VM.class));
+        when(rulesEnforcer.chooseNextVmToMigrate(eq(cluster1), any())).thenReturn(vm1, mock(VM.class), mock(VM.class));
         arem.refresh();
         verify(arem, times(1)).migrateVM(eq(vm1));
         verify(arem, times(1)).migrateVM(eq(vm2));
@@ -128,10 +132,19 @@ public class AffinityRulesEnforcementManagerTest {
 
     @Test
     public void shouldNotMigrateVmOnClusterTwoWhenEnforced() {
-        when(rulesEnforcer.chooseNextVmToMigrate(eq(cluster2))).thenReturn(null);
+        when(rulesEnforcer.chooseNextVmToMigrate(eq(cluster2), any())).thenReturn(null);
+        arem.refresh();
+        verify(arem).migrateVM(vm1);
+        verify(arem, times(1)).migrateVM(any());
+    }
+
+    @Test
+    public void shouldNotMigrateVmOnClusterTwoWithoutViolations() {
+        when(affinityGroupsIndex.hasViolations(eq(cluster2.getId()))).thenReturn(false);
         arem.refresh();
         verify(arem).migrateVM(vm1);
         verify(arem, times(1)).migrateVM(any());
+        verify(rulesEnforcer, never()).chooseNextVmToMigrate(eq(cluster2), any());
     }
 
     @Test
@@ -0,0 +1,546 @@
+package org.ovirt.engine.core.bll.scheduling;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.ovirt.engine.core.bll.network.host.VfScheduler;
+import org.ovirt.engine.core.bll.scheduling.external.ExternalSchedulerDiscovery;
+import org.ovirt.engine.core.bll.scheduling.metrics.SchedulingMetrics;
+import org.ovirt.engine.core.bll.scheduling.policyunits.RankSelectorPolicyUnit;
+import org.ovirt.engine.core.bll.scheduling.selector.SelectorInstance;
+import org.ovirt.engine.core.common.businessentities.Cluster;
+import org.ovirt.engine.core.common.businessentities.VDS;
+import org.ovirt.engine.core.common.businessentities.VDSStatus;
+import org.ovirt.engine.core.common.businessentities.VM;
+import org.ovirt.engine.core.common.config.Config;
+import org.ovirt.engine.core.common.config.ConfigCommon;
+import org.ovirt.engine.core.common.config.ConfigValues;
+import org.ovirt.engine.core.common.scheduling.ClusterPolicy;
+import org.ovirt.engine.core.common.scheduling.PerHostMessages;
+import org.ovirt.engine.core.common.scheduling.PolicyUnitType;
+import org.ovirt.engine.core.common.scheduling.VmOverheadCalculator;
+import org.ovirt.engine.core.common.utils.Pair;
+import org.ovirt.engine.core.compat.Guid;
+import org.ovirt.engine.core.dao.scheduling.ClusterPolicyDao;
+import org.ovirt.engine.core.dao.scheduling.PolicyUnitDao;
+import org.ovirt.engine.core.utils.ExecutorServiceExtension;
+import org.ovirt.engine.core.utils.InjectorExtension;
+import org.ovirt.engine.core.utils.MockConfigDescriptor;
+import org.ovirt.engine.core.utils.MockConfigExtension;
+import org.ovirt.engine.core.vdsbroker.ClusterHostsSnapshotManager;
+
+@ExtendWith({
+        MockitoExtension.class,
+        MockConfigExtension.class,
+        InjectorExtension.class,
+        ExecutorServiceExtension.class})
+@MockitoSettings(strictness = Strictness.LENIENT)
+public class SchedulingManagerTest {
+
+    @Spy
+    private ClusterHostsSnapshotManager clusterHostsSnapshotManager = new ClusterHostsSnapshotManager();
+
+    @Mock
+    private ExternalSchedulerDiscovery exSchedulerDiscovery;
+
+    @Mock
+    private PolicyUnitDao policyUnitDao;
+
+    @Mock
+    private ClusterPolicyDao clusterPolicyDao;
+
+    @Mock
+    private SchedulingMetrics schedulingMetrics;
+
+    @Mock
+    private VmOverheadCalculator vmOverheadCalculator;
+
+    @Mock
+    private VfScheduler vfScheduler;
+
+    @Spy
+    private SlaValidator slaValidator = new SlaValidator();
+
+    @InjectMocks
+    private SchedulingManager schedulingManager;
+
+    @InjectMocks
+    private SchedulingManager parallelSchedulingManager;
+
+    private Cluster cluster;
+
+    private List<VDS> hosts;
+
+    public static Stream<MockConfigDescriptor<?>> mockConfiguration() {
+        return Stream.of(
+                MockConfigDescriptor.of(ConfigValues.ExternalSchedulerEnabled, false),
+                MockConfigDescriptor.of(ConfigValues.EnableVdsLoadBalancing, false),
+                MockConfigDescriptor.of(ConfigValues.SchedulerAllowOverBooking, false),
+                MockConfigDescriptor.of(ConfigValues.SchedulerOverBookingThreshold, 10),
+                MockConfigDescriptor.of(ConfigValues.SpeedOptimizationSchedulingThreshold, 10),
+                MockConfigDescriptor.of(ConfigValues.MaxSchedulerWeight, 1000),
+                MockConfigDescriptor.of(ConfigValues.SchedulerParallelEvaluationThreads, 0),
+                MockConfigDescriptor.of(ConfigValues.SchedulerParallelEvaluationMinHosts, 2)
+        );
+    }
+
+    @BeforeEach
+    public void setUp() {
+        when(vmOverheadCalculator.getTotalRequiredMemoryInMb(any())).thenReturn(1024);
+        when(vmOverheadCalculator.getStaticOverheadInMb(any())).thenReturn(64);
+        slaValidator.setVmOverheadCalculator(vmOverheadCalculator);
+
+        schedulingManager.init();
+
+        ClusterPolicy policy = new ClusterPolicy();
+        policy.setId(Guid.newGuid());
+        policy.setName("batch");
+        policy.setFilters(Collections.singletonList(addPolicyUnit(new NoPendingVmFilterPolicyUnit())));
+        schedulingManager.addClusterPolicy(policy);
+
+        cluster = new Cluster();
+        cluster.setId(Guid.newGuid());
+        cluster.setName("cluster");
+        cluster.setClusterPolicyId(policy.getId());
+
+        hosts = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            VDS host = new VDS();
+            host.setId(Guid.newGuid());
+            host.setVdsName("host" + i);
+            host.setClusterId(cluster.getId());
+            host.setStatus(VDSStatus.Up);
+            // Enough memory for a single VM only
+            host.setMaxVdsMemoryOverCommit(100);
+            host.setPhysicalMemMb(2048);
+            host.setMemCommited(0);
+            host.setMemFree(2048L);
+            host.setSwapFree(0L);
+            hosts.add(host);
+            clusterHostsSnapshotManager.publish(host);
+        }
+    }
+
+    @Test
+    public void batchPlacesVmsOnDistinctHosts() {
+        List<VM> vms = createVms(3);
+
+        Map<Guid, Guid> placements = schedulingManager.scheduleBatch(cluster, vms, null);
+
+        assertEquals(3, placements.size());
+        assertEquals(new HashSet<>(ids(vms)), placements.keySet());
+        assertEquals(new HashSet<>(hostIds()), new HashSet<>(placements.values()));
+    }
+
+    @Test
+    public void batchRegistersPendingResourcesOfPlacedVms() {
+        List<VM> vms = createVms(2);
+
+        Map<Guid, Guid> placements = schedulingManager.scheduleBatch(cluster, vms, null);
+
+        // Only the host that was not used by the batch is still free for another VM
+        List<VDS> free = schedulingManager.canSchedule(cluster, createVms(1).get(0),
+                Collections.emptyList(), Collections.emptyList(), new ArrayList<>());
+        assertEquals(1, free.size());
+        assertFalse(placements.containsValue(free.get(0).getId()));
+    }
+
+    @Test
+    public void vmsThatDoNotFitAreLeftForRegularScheduling() {
+        List<VM> vms = createVms(4);
+
+        Map<Guid, Guid> placements = schedulingManager.scheduleBatch(cluster, vms, null);
+
+        assertEquals(3, placements.size());
+        VM unplaced = vms.get(3);
+        assertFalse(placements.containsKey(unplaced.getId()));
+
+        // The regular scheduling of the unplaced VM sees the pending resources of the batch as well
+        List<String> messages = new ArrayList<>();
+        Optional<Guid> host = schedulingManager.schedule(cluster, unplaced, Collections.emptyList(),
+                Collections.emptyList(), Collections.emptyList(), messages, null, null);
+        assertFalse(host.isPresent());
+        assertFalse(messages.isEmpty());
+    }
+
+    @Test
+    public void releasedPreScheduledHostCanBeUsedAgain() {
+        List<VM> vms = createVms(4);
+        Map<Guid, Guid> placements = schedulingManager.scheduleBatch(cluster, vms, null);
+        VM released = vms.get(0);
+
+        // The command of the first VM did not get to run, so its pre-scheduled host is released
+        schedulingManager.clearPendingVm(released.getStaticData());
+
+        Optional<Guid> host = schedulingManager.schedule(cluster, vms.get(3), Collections.emptyList(),
+                Collections.emptyList(), Collections.emptyList(), new ArrayList<>(), null, null);
+        assertTrue(host.isPresent());
+        assertEquals(placements.get(released.getId()), host.get());
+    }
+
+    @Test
+    public void preScheduledHostCanRunTheVm() {
+        VM vm = createVms(1).get(0);
+        Guid preScheduled = schedulingManager.scheduleBatch(cluster, Collections.singletonList(vm), null)
+                .get(vm.getId());
+
+        // The memory pending for the VM itself is not counted against it
+        assertTrue(schedulingManager.canRunOnPreScheduledHost(cluster, vm, preScheduled));
+    }
+
+    @Test
+    public void preScheduledHostThatIsNoLongerUpCanNotRunTheVm() {
+        VM vm = createVms(1).get(0);
+        Guid preScheduled = schedulingManager.scheduleBatch(cluster, Collections.singletonList(vm), null)
+                .get(vm.getId());
+
+        VDS down = getHost(preScheduled);
+        down.setStatus(VDSStatus.NonResponsive);
+        clusterHostsSnapshotManager.publish(down);
+
+        assertFalse(schedulingManager.canRunOnPreScheduledHost(cluster, vm, preScheduled));
+    }
+
+    @Test
+    public void preScheduledHostWithoutEnoughMemoryCanNotRunTheVm() {
+        VM vm = createVms(1).get(0);
+        Guid preScheduled = schedulingManager.scheduleBatch(cluster, Collections.singletonList(vm), null)
+                .get(vm.getId());
+
+        // Another VM started on the host in the meantime
+        VDS loaded = getHost(preScheduled);
+        loaded.setMemCommited(512);
+        clusterHostsSnapshotManager.publish(loaded);
+
+        assertFalse(schedulingManager.canRunOnPreScheduledHost(cluster, vm, preScheduled));
+    }
+
+    @Test
+    public void preScheduledHostWithoutPendingVmCanNotRunTheVm() {
+        VM vm = createVms(1).get(0);
+        Guid preScheduled = schedulingManager.scheduleBatch(cluster, Collections.singletonList(vm), null)
+                .get(vm.getId());
+
+        schedulingManager.clearPendingVm(vm.getStaticData());
+
+        assertFalse(schedulingManager.canRunOnPreScheduledHost(cluster, vm, preScheduled));
+    }
+
+    @Test
+    public void parallelEvaluationGivesTheSameResultAsSequentialEvaluation() {
+        doReturn(4).when(Config.getConfigUtils())
+                .getValue(ConfigValues.SchedulerParallelEvaluationThreads, ConfigCommon.defaultConfigurationVersion);
+        parallelSchedulingManager.init();
+
+        Cluster evaluated = new Cluster();
+        evaluated.setId(Guid.newGuid());
+        evaluated.setName("evaluated");
+        for (int i = 0; i < 20; i++) {
+            VDS host = new VDS();
+            host.setId(Guid.newGuid());
+            host.setVdsName("evaluated" + i);
+            host.setClusterId(evaluated.getId());
+            host.setStatus(VDSStatus.Up);
+            host.setCpuCores(2 + i % 3);
+            host.setPhysicalMemMb(2048 + 1024 * (i % 5));
+            clusterHostsSnapshotManager.publish(host);
+        }
+        VM vm = createVms(1).get(0);
+        vm.setClusterId(evaluated.getId());
+
+        ClusterPolicy policy = new ClusterPolicy();
+        policy.setId(Guid.newGuid());
+        policy.setName("evaluation");
+        policy.setFilters(Arrays.asList(EvenCpuCoresFilterPolicyUnit.GUID,
+                MemoryFilterPolicyUnit.GUID,
+                MostCpuCoresFilterPolicyUnit.GUID));
+        policy.setFunctions(Arrays.asList(new Pair<>(CpuCoresWeightPolicyUnit.GUID, 1),
+                new Pair<>(HostNameWeightPolicyUnit.GUID, 2),
+                new Pair<>(MemoryWeightPolicyUnit.GUID, 3)));
+        policy.setSelector(RecordingSelectorPolicyUnit.GUID);
+        evaluated.setClusterPolicyId(policy.getId());
+
+        List<Object> sequential = evaluate(schedulingManager, policy, evaluated, vm);
+        List<Object> parallel = evaluate(parallelSchedulingManager, policy, evaluated, vm);
+
+        assertEquals(sequential, parallel);
+    }
+
+    /**
+     * @return the messages and hosts of canSchedule, the recorded scores and the host selected by schedule
+     */
+    private List<Object> evaluate(SchedulingManager manager, ClusterPolicy policy, Cluster cluster, VM vm) {
+        RecordingSelectorPolicyUnit selector = new RecordingSelectorPolicyUnit();
+        Stream.of(new EvenCpuCoresFilterPolicyUnit(),
+                new MemoryFilterPolicyUnit(),
+                new MostCpuCoresFilterPolicyUnit(),
+                new CpuCoresWeightPolicyUnit(),
+                new HostNameWeightPolicyUnit(),
+                new MemoryWeightPolicyUnit(),
+                selector).forEach(unit -> manager.getPolicyUnitsMap().put(unit.getGuid(), unit));
+        manager.addClusterPolicy(policy);
+
+        List<String> messages = new ArrayList<>();
+        List<Guid> schedulable = manager.canSchedule(cluster, vm, Collections.emptyList(),
+                Collections.emptyList(), messages)
+                .stream()
+                .map(VDS::getId)
+                .collect(Collectors.toList());
+        Optional<Guid> best = manager.schedule(cluster, vm, Collections.emptyList(),
+                Collections.emptyList(), Collections.emptyList(), new ArrayList<>(), null, null);
+
+        // The scenario has to reach the weight units with several hosts
+        assertTrue(schedulable.size() > 1);
+        assertFalse(selector.getRecords().isEmpty());
+        return Arrays.asList(messages, schedulable, selector.getRecords(), best);
+    }
+
+    private Guid addPolicyUnit(PolicyUnitImpl unit) {
+        schedulingManager.getPolicyUnitsMap().put(unit.getGuid(), unit);
+        return unit.getGuid();
+    }
+
+    private List<VM> createVms(int count) {
+        List<VM> vms = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            VM vm = new VM();
+            vm.setId(Guid.newGuid());
+            vm.setName("vm" + i);
+            vm.setClusterId(cluster.getId());
+            vms.add(vm);
+        }
+        return vms;
+    }
+
+    private List<Guid> ids(List<VM> vms) {
+        return vms.stream().map(VM::getId).collect(Collectors.toList());
+    }
+
+    private VDS getHost(Guid hostId) {
+        return hosts.stream().filter(h -> h.getId().equals(hostId)).findFirst().get();
+    }
+
+    private List<Guid> hostIds() {
+        return hosts.stream().map(VDS::getId).collect(Collectors.toList());
+    }
+
+    /**
+     * Lets every host run a single VM only, a host with pending resources is filtered out.
+     */
+    @SchedulingUnit(guid = "2a3b8a5e-6a0c-4b8e-9a77-3f1a0c6d1e01", name = "NoPendingVm")
+    public static class NoPendingVmFilterPolicyUnit extends PolicyUnitImpl {
+        public NoPendingVmFilterPolicyUnit() {
+            super(null, null);
+        }
+
+        @Override
+        public List<VDS> filter(Cluster cluster, List<VDS> hosts, VM vm, Map<String, String> parameters,
+                PerHostMessages messages) {
+            return hosts.stream()
+                    .filter(host -> host.getPendingVmemSize() == 0)
+                    .collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Keeps hosts with an even number of cores, the other hosts get a detail message.
+     */
+    @SchedulingUnit(guid = EvenCpuCoresFilterPolicyUnit.GUID_STRING, name = "EvenCpuCores", hostIndependent = true)
+    public static class EvenCpuCoresFilterPolicyUnit extends PolicyUnitImpl {
+        static final String GUID_STRING = "2a3b8a5e-6a0c-4b8e-9a77-3f1a0c6d1e02";
+        static final Guid GUID = new Guid(GUID_STRING);
+
+        public EvenCpuCoresFilterPolicyUnit() {
+            super(null, null);
+        }
+
+        @Override
+        public List<VDS> filter(Cluster cluster, List<VDS> hosts, VM vm, Map<String, String> parameters,
+                PerHostMessages messages) {
+            List<VDS> result = new ArrayList<>();
+            for (VDS host : hosts) {
+                if (host.getCpuCores() % 2 == 0) {
+                    result.add(host);
+                } else {
+                    messages.addMessage(host.getId(), "$cpuCores " + host.getCpuCores());
+                }
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Keeps hosts with at least 4 GiB of memory, the other hosts get a detail message.
+     */
+    @SchedulingUnit(guid = MemoryFilterPolicyUnit.GUID_STRING, name = "Memory", hostIndependent = true)
+    public static class MemoryFilterPolicyUnit extends PolicyUnitImpl {
+        static final String GUID_STRING = "2a3b8a5e-6a0c-4b8e-9a77-3f1a0c6d1e03";
+        static final Guid GUID = new Guid(GUID_STRING);
+
+        public MemoryFilterPolicyUnit() {
+            super(null, null);
+        }
+
+        @Override
+        public List<VDS> filter(Cluster cluster, List<VDS> hosts, VM vm, Map<String, String> parameters,
+                PerHostMessages messages) {
+            List<VDS> result = new ArrayList<>();
+            for (VDS host : hosts) {
+                if (host.getPhysicalMemMb() >= 4096) {
+                    result.add(host);
+                } else {
+                    messages.addMessage(host.getId(), "$memory " + host.getPhysicalMemMb());
+                }
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Drops the hosts with the most cores, so it has to see the whole host list.
+     */
+    @SchedulingUnit(guid = MostCpuCoresFilterPolicyUnit.GUID_STRING, name = "MostCpuCores")
+    public static class MostCpuCoresFilterPolicyUnit extends PolicyUnitImpl {
+        static final String GUID_STRING = "2a3b8a5e-6a0c-4b8e-9a77-3f1a0c6d1e04";
+        static final Guid GUID = new Guid(GUID_STRING);
+
+        public MostCpuCoresFilterPolicyUnit() {
+            super(null, null);
+        }
+
+        @Override
+        public List<VDS> filter(Cluster cluster, List<VDS> hosts, VM vm, Map<String, String> parameters,
+                PerHostMessages messages) {
+            int most = hosts.stream().mapToInt(VDS::getCpuCores).max().orElse(0);
+            return hosts.stream().filter(host -> host.getCpuCores() < most).collect(Collectors.toList());
+        }
+    }
+
+    @SchedulingUnit(guid = CpuCoresWeightPolicyUnit.GUID_STRING, name = "CpuCoresWeight",
+            type = PolicyUnitType.WEIGHT, hostIndependent = true)
+    public static class CpuCoresWeightPolicyUnit extends PolicyUnitImpl {
+        static final String GUID_STRING = "2a3b8a5e-6a0c-4b8e-9a77-3f1a0c6d1e05";
+        static final Guid GUID = new Guid(GUID_STRING);
+
+        public CpuCoresWeightPolicyUnit() {
+            super(null, null);
+        }
+
+        @Override
+        public List<Pair<Guid, Integer>> score(Cluster cluster, List<VDS> hosts, VM vm,
+                Map<String, String> parameters) {
+            return hosts.stream()
+                    .map(host -> new Pair<>(host.getId(), host.getCpuCores()))
+                    .collect(Collectors.toList());
+        }
+    }
+
+    @SchedulingUnit(guid = MemoryWeightPolicyUnit.GUID_STRING, name = "MemoryWeight",
+            type = PolicyUnitType.WEIGHT, hostIndependent = true)
+    public static class MemoryWeightPolicyUnit extends PolicyUnitImpl {
+        static final String GUID_STRING = "2a3b8a5e-6a0c-4b8e-9a77-3f1a0c6d1e06";
+        static final Guid GUID = new Guid(GUID_STRING);
+
+        public MemoryWeightPolicyUnit() {
+            super(null, null);
+        }
+
+        @Override
+        public List<Pair<Guid, Integer>> score(Cluster cluster, List<VDS> hosts, VM vm,
+                Map<String, String> parameters) {
+            return hosts.stream()
+                    .map(host -> new Pair<>(host.getId(), 10000 - host.getPhysicalMemMb()))
+                    .collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Ranks the hosts by their names, stands for the units that are evaluated on the calling thread.
+     */
+    @SchedulingUnit(guid = HostNameWeightPolicyUnit.GUID_STRING, name = "HostNameWeight",
+            type = PolicyUnitType.WEIGHT)
+    public static class HostNameWeightPolicyUnit extends PolicyUnitImpl {
+        static final String GUID_STRING = "2a3b8a5e-6a0c-4b8e-9a77-3f1a0c6d1e07";
+        static final Guid GUID = new Guid(GUID_STRING);
+
+        public HostNameWeightPolicyUnit() {
+            super(null, null);
+        }
+
+        @Override
+        public List<Pair<Guid, Integer>> score(Cluster cluster, List<VDS> hosts, VM vm,
+                Map<String, String> parameters) {
+            List<VDS> sorted = new ArrayList<>(hosts);
+            sorted.sort(Comparator.comparing(VDS::getName));
+            return sorted.stream()
+                    .map(host -> new Pair<>(host.getId(), sorted.indexOf(host)))
+                    .collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Selects the host the same way as the default selector and records every score it gets.
+     */
+    @SchedulingUnit(guid = RecordingSelectorPolicyUnit.GUID_STRING, name = "RecordingSelector",
+            type = PolicyUnitType.SELECTOR)
+    public static class RecordingSelectorPolicyUnit extends PolicyUnitImpl {
+        static final String GUID_STRING = "2a3b8a5e-6a0c-4b8e-9a77-3f1a0c6d1e08";
+        static final Guid GUID = new Guid(GUID_STRING);
+
+        private final List<String> records = new ArrayList<>();
+
+        public RecordingSelectorPolicyUnit() {
+            super(null, null);
+        }
+
+        public List<String> getRecords() {
+            return records;
+        }
+
+        @Override
+        public SelectorInstance selector(Map<String, String> parameters) {
+            SelectorInstance selector = new RankSelectorPolicyUnit.Selector();
+            return new SelectorInstance() {
+                @Override
+                public void init(List<Pair<Guid, Integer>> policyUnits, List<Guid> hosts) {
+                    selector.init(policyUnits, hosts);
+                }
+
+                @Override
+                public void record(Guid policyUnit, Guid host, Integer weight) {
+                    records.add(policyUnit + " " + host + " " + weight);
+                    selector.record(policyUnit, host, weight);
+                }
+
+                @Override
+                public Optional<Guid> best() {
+                    return selector.best();
+                }
+            };
+        }
+    }
+}
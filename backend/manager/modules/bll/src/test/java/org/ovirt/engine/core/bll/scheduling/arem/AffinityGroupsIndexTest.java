@@ -0,0 +1,167 @@
+package org.ovirt.engine.core.bll.scheduling.arem;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.ovirt.engine.core.common.businessentities.VM;
+import org.ovirt.engine.core.common.scheduling.AffinityGroup;
+import org.ovirt.engine.core.common.scheduling.EntityAffinityRule;
+import org.ovirt.engine.core.compat.Guid;
+import org.ovirt.engine.core.dao.VmDao;
+import org.ovirt.engine.core.dao.scheduling.AffinityGroupDao;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+public class AffinityGroupsIndexTest {
+
+    @Mock
+    private AffinityGroupDao affinityGroupDao;
+    @Mock
+    private VmDao vmDao;
+
+    @InjectMocks
+    private AffinityGroupsIndex index;
+
+    private final Guid clusterId = Guid.newGuid();
+    private final Guid host1 = Guid.newGuid();
+    private final Guid host2 = Guid.newGuid();
+    private final Guid vm1 = Guid.newGuid();
+    private final Guid vm2 = Guid.newGuid();
+
+    private final List<AffinityGroup> affinityGroups = new ArrayList<>();
+    private final List<VM> vms = new ArrayList<>();
+
+    @BeforeEach
+    public void setup() {
+        when(affinityGroupDao.getAllAffinityGroupsByClusterId(clusterId)).thenReturn(affinityGroups);
+        when(vmDao.getVmsByIds(any())).thenReturn(vms);
+    }
+
+    @Test
+    public void shouldNotReportSatisfiedPositiveAffinity() {
+        affinityGroups.add(createVmAffinityGroup(EntityAffinityRule.POSITIVE, vm1, vm2));
+        vms.add(createVm(vm1, host1));
+        vms.add(createVm(vm2, host1));
+
+        assertThat(index.hasViolations(clusterId)).isFalse();
+    }
+
+    @Test
+    public void shouldReportBrokenPositiveAffinity() {
+        affinityGroups.add(createVmAffinityGroup(EntityAffinityRule.POSITIVE, vm1, vm2));
+        vms.add(createVm(vm1, host1));
+        vms.add(createVm(vm2, host2));
+
+        assertThat(index.hasViolations(clusterId)).isTrue();
+    }
+
+    @Test
+    public void shouldFollowPlacementChanges() {
+        affinityGroups.add(createVmAffinityGroup(EntityAffinityRule.NEGATIVE, vm1, vm2));
+        vms.add(createVm(vm1, host1));
+        vms.add(createVm(vm2, host2));
+        assertThat(index.hasViolations(clusterId)).isFalse();
+
+        index.onVmsPlacementChanged(placement(vm2, host1));
+        assertThat(index.hasViolations(clusterId)).isTrue();
+
+        index.onVmsPlacementChanged(placement(vm2, null));
+        assertThat(index.hasViolations(clusterId)).isFalse();
+
+        verify(affinityGroupDao, times(1)).getAllAffinityGroupsByClusterId(clusterId);
+    }
+
+    @Test
+    public void shouldReportBrokenHostAffinity() {
+        AffinityGroup group = createVmAffinityGroup(EntityAffinityRule.DISABLED, vm1);
+        group.setVdsAffinityRule(EntityAffinityRule.POSITIVE);
+        group.setVdsIds(Collections.singletonList(host1));
+        affinityGroups.add(group);
+        vms.add(createVm(vm1, host1));
+        assertThat(index.hasViolations(clusterId)).isFalse();
+
+        index.onVmsPlacementChanged(placement(vm1, host2));
+        assertThat(index.hasViolations(clusterId)).isTrue();
+    }
+
+    @Test
+    public void shouldIgnoreNonEnforcingVmAffinity() {
+        AffinityGroup group = createVmAffinityGroup(EntityAffinityRule.POSITIVE, vm1, vm2);
+        group.setVmEnforcing(false);
+        affinityGroups.add(group);
+        vms.add(createVm(vm1, host1));
+        vms.add(createVm(vm2, host2));
+
+        assertThat(index.hasViolations(clusterId)).isFalse();
+    }
+
+    @Test
+    public void shouldReloadChangedAffinityGroups() {
+        vms.add(createVm(vm1, host1));
+        vms.add(createVm(vm2, host1));
+        assertThat(index.hasViolations(clusterId)).isFalse();
+
+        affinityGroups.add(createVmAffinityGroup(EntityAffinityRule.NEGATIVE, vm1, vm2));
+        assertThat(index.hasViolations(clusterId)).isFalse();
+
+        index.onAffinityGroupsChanged(clusterId);
+        assertThat(index.hasViolations(clusterId)).isTrue();
+        assertThat(index.getAffinityGroups(clusterId)).hasSize(1);
+    }
+
+    @Test
+    public void shouldReloadClusterOfRemovedVm() {
+        affinityGroups.add(createVmAffinityGroup(EntityAffinityRule.NEGATIVE, vm1, vm2));
+        vms.add(createVm(vm1, host1));
+        vms.add(createVm(vm2, host1));
+        assertThat(index.hasViolations(clusterId)).isTrue();
+
+        affinityGroups.set(0, createVmAffinityGroup(EntityAffinityRule.NEGATIVE, vm1));
+        vms.remove(1);
+        index.onAffinityGroupsChanged(clusterId);
+        assertThat(index.hasViolations(clusterId)).isFalse();
+    }
+
+    private AffinityGroup createVmAffinityGroup(EntityAffinityRule vmAffinityRule, Guid... vmIds) {
+        AffinityGroup group = new AffinityGroup();
+        group.setId(Guid.newGuid());
+        group.setClusterId(clusterId);
+        group.setVmAffinityRule(vmAffinityRule);
+        group.setVmEnforcing(true);
+        group.setVdsAffinityRule(EntityAffinityRule.DISABLED);
+        group.setVmIds(Arrays.asList(vmIds));
+        group.setVdsIds(Collections.emptyList());
+        return group;
+    }
+
+    private VM createVm(Guid vmId, Guid hostId) {
+        VM vm = new VM();
+        vm.setId(vmId);
+        vm.setRunOnVds(hostId);
+        return vm;
+    }
+
+    private Map<Guid, Guid> placement(Guid vmId, Guid hostId) {
+        Map<Guid, Guid> placement = new HashMap<>();
+        placement.put(vmId, hostId);
+        return placement;
+    }
+}
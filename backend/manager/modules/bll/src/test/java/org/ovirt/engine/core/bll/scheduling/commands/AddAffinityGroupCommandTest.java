@@ -7,6 +7,8 @@ import static org.mockito.Mockito.doReturn;
 import java.util.ArrayList;
 import java.util.Collections;
 
+import javax.enterprise.event.Event;
+
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
@@ -36,6 +38,9 @@ public class AddAffinityGroupCommandTest extends BaseCommandTest {
     @Mock
     AffinityGroupDao affinityGroupDao;
 
+    @Mock
+    Event<Guid> affinityGroupsChangedEvent;
+
     @Mock
     VmStaticDao vmStaticDao;
 
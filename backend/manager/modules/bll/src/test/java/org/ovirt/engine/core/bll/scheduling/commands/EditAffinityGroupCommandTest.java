@@ -9,6 +9,8 @@ import static org.mockito.Mockito.verify;
 import java.util.ArrayList;
 import java.util.Collections;
 
+import javax.enterprise.event.Event;
+
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
@@ -37,6 +39,9 @@ public class EditAffinityGroupCommandTest extends BaseCommandTest {
     @Mock
     AffinityGroupDao affinityGroupDao;
 
+    @Mock
+    Event<Guid> affinityGroupsChangedEvent;
+
     @Mock
     VmStaticDao vmStaticDao;
 
@@ -0,0 +1,103 @@
+package org.ovirt.engine.core.bll.scheduling.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.ovirt.engine.core.common.scheduling.PolicyUnit;
+import org.ovirt.engine.core.common.scheduling.PolicyUnitType;
+import org.ovirt.engine.core.compat.Guid;
+
+public class SchedulingMetricsTest {
+
+    private SchedulingMetrics metrics;
+    private PolicyUnit filter;
+    private PolicyUnit weight;
+
+    @BeforeEach
+    public void setUp() {
+        metrics = new SchedulingMetrics();
+        filter = createPolicyUnit("Memory", PolicyUnitType.FILTER);
+        weight = createPolicyUnit("OptimalForCpuEvenDistribution", PolicyUnitType.WEIGHT);
+    }
+
+    @Test
+    public void testFilterTimingAndRejections() {
+        metrics.recordFilter(filter, TimeUnit.MILLISECONDS.toNanos(2), 3);
+        metrics.recordFilter(filter, TimeUnit.MILLISECONDS.toNanos(4), 1);
+
+        PolicyUnitStatistics statistics = getStatistics(filter);
+        assertEquals(4, statistics.getRejectedHosts());
+        assertEquals(2, statistics.getFilter().getCount());
+        assertEquals(6000, statistics.getFilter().getTotalMicros());
+        assertEquals(3000, statistics.getFilter().getMeanMicros());
+        assertEquals(4000, statistics.getFilter().getMaxMicros());
+        assertEquals(0, statistics.getScore().getCount());
+    }
+
+    @Test
+    public void testPercentilesAreBucketBounds() {
+        for (int i = 0; i < 99; i++) {
+            metrics.recordScore(weight, TimeUnit.MICROSECONDS.toNanos(80));
+        }
+        metrics.recordScore(weight, TimeUnit.MILLISECONDS.toNanos(300));
+
+        LatencyStatistics statistics = getStatistics(weight).getScore();
+        assertEquals(100, statistics.getMedianMicros());
+        assertEquals(100, statistics.getPercentile99Micros());
+        assertEquals(300_000, statistics.getMaxMicros());
+    }
+
+    @Test
+    public void testClusterLockQueue() {
+        long first = metrics.clusterLockWaitStarted();
+        long second = metrics.clusterLockWaitStarted();
+        assertEquals(2, metrics.getClusterLockQueueLength());
+
+        metrics.clusterLockWaitFinished(first);
+        metrics.clusterLockWaitFinished(second);
+        assertEquals(0, metrics.getClusterLockQueueLength());
+        assertEquals(2, metrics.getClusterLockMaxQueueLength());
+        assertEquals(2, metrics.getClusterLockWaitStatistics().getCount());
+    }
+
+    @Test
+    public void testReset() {
+        metrics.recordBalance(filter, 1000);
+        metrics.clusterLockWaitFinished(metrics.clusterLockWaitStarted());
+        metrics.reset();
+
+        assertTrue(metrics.getPolicyUnitStatistics().isEmpty());
+        assertEquals(0, metrics.getClusterLockWaitStatistics().getCount());
+        assertEquals(0, metrics.getClusterLockMaxQueueLength());
+    }
+
+    @Test
+    public void testShowSortsSlowestFirst() {
+        metrics.recordFilter(filter, TimeUnit.MILLISECONDS.toNanos(1), 0);
+        metrics.recordScore(weight, TimeUnit.MILLISECONDS.toNanos(10));
+
+        List<String> lines = metrics.showPolicyUnitStatistics();
+        assertEquals(2, lines.size());
+        assertTrue(lines.get(0).startsWith(weight.getName()));
+    }
+
+    private PolicyUnitStatistics getStatistics(PolicyUnit unit) {
+        return metrics.getPolicyUnitStatistics().stream()
+                .filter(statistics -> statistics.getId().equals(unit.getId().toString()))
+                .findFirst()
+                .orElseThrow(IllegalStateException::new);
+    }
+
+    private static PolicyUnit createPolicyUnit(String name, PolicyUnitType type) {
+        PolicyUnit unit = new PolicyUnit();
+        unit.setId(Guid.newGuid());
+        unit.setName(name);
+        unit.setPolicyUnitType(type);
+        return unit;
+    }
+}
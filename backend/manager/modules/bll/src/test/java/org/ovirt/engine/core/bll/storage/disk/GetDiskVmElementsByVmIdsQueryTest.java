@@ -0,0 +1,34 @@
+package org.ovirt.engine.core.bll.storage.disk;
+
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.ovirt.engine.core.bll.AbstractUserQueryTest;
+import org.ovirt.engine.core.common.queries.IdsQueryParameters;
+import org.ovirt.engine.core.compat.Guid;
+import org.ovirt.engine.core.dao.DiskVmElementDao;
+
+/** A test case for {@link GetDiskVmElementsByVmIdsQuery} */
+public class GetDiskVmElementsByVmIdsQueryTest
+        extends AbstractUserQueryTest<IdsQueryParameters, GetDiskVmElementsByVmIdsQuery<IdsQueryParameters>> {
+    @Mock
+    private DiskVmElementDao diskVmElementDao;
+
+    /** A test that checks that all the parameters are passed properly to the Dao */
+    @Test
+    public void testExecuteQuery() {
+        List<Guid> ids = Arrays.asList(Guid.newGuid(), Guid.newGuid());
+
+        IdsQueryParameters params = getQueryParameters();
+        when(params.getIds()).thenReturn(ids);
+
+        getQuery().executeQueryCommand();
+
+        verify(diskVmElementDao).getAllForVms(ids, getUser().getId(), getQueryParameters().isFiltered());
+    }
+}
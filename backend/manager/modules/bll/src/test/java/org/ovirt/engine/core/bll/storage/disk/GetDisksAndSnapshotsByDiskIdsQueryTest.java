@@ -0,0 +1,61 @@
+package org.ovirt.engine.core.bll.storage.disk;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.ovirt.engine.core.common.businessentities.storage.Disk;
+import org.ovirt.engine.core.common.businessentities.storage.DiskImage;
+import org.ovirt.engine.core.common.queries.IdsQueryParameters;
+import org.ovirt.engine.core.compat.Guid;
+import org.ovirt.engine.core.dao.DiskDao;
+
+/**
+ * A test case for {@link GetDisksAndSnapshotsByDiskIdsQuery}.
+ * This test mocks away all the Daos, and just tests the flow of the query itself.
+ */
+public class GetDisksAndSnapshotsByDiskIdsQueryTest extends
+        AbstractGetDisksAndSnapshotsQueryTest<IdsQueryParameters, GetDisksAndSnapshotsByDiskIdsQuery<IdsQueryParameters>> {
+
+    @Mock
+    private DiskDao diskDao;
+
+    @Test
+    public void testQueryAggregatesSnapshotsOfAllDisks() {
+        List<Disk> disks = new ArrayList<>(snapshotsList);
+        Collections.addAll(disks, diskWithSnapshots, diskWithoutSnapshots, ovfImage, cinderDisk, lunDisk);
+        List<Guid> ids = disks.stream().map(Disk::getId).distinct().collect(Collectors.toList());
+        when(params.getIds()).thenReturn(ids);
+        when(diskDao.getAllFromDisksIncludingSnapshotsByDiskIds(ids, getUser().getId(), params.isFiltered()))
+                .thenReturn(disks);
+
+        getQuery().executeQueryCommand();
+
+        Collection<Disk> result = getQuery().getQueryReturnValue().getReturnValue();
+        assertEquals(5, result.size(), "wrong number of disks returned");
+        assertTrue(result.contains(lunDisk), "LUN disk should be returned");
+        DiskImage disk = (DiskImage) result.stream()
+                .filter(d -> d.getId().equals(diskWithSnapshots.getId()))
+                .findFirst()
+                .get();
+        assertEquals(3, disk.getSnapshots().size(), "wrong number of snapshots");
+    }
+
+    @Test
+    public void testQueryWithoutIds() {
+        when(params.getIds()).thenReturn(Collections.emptyList());
+
+        getQuery().executeQueryCommand();
+
+        Collection<Disk> result = getQuery().getQueryReturnValue().getReturnValue();
+        assertTrue(result.isEmpty(), "no disks should be returned");
+    }
+}
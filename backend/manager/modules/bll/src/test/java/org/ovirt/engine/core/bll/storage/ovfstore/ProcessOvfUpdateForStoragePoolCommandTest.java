@@ -19,6 +19,7 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
@@ -66,10 +67,11 @@ import org.ovirt.engine.core.dao.VmDao;
 import org.ovirt.engine.core.dao.VmStaticDao;
 import org.ovirt.engine.core.dao.VmTemplateDao;
 import org.ovirt.engine.core.dao.scheduling.AffinityGroupDao;
+import org.ovirt.engine.core.utils.ExecutorServiceExtension;
 import org.ovirt.engine.core.utils.MockConfigDescriptor;
 import org.ovirt.engine.core.utils.MockConfigExtension;
 
-@ExtendWith(MockConfigExtension.class)
+@ExtendWith({MockConfigExtension.class, ExecutorServiceExtension.class})
 @MockitoSettings(strictness = Strictness.LENIENT)
 public class ProcessOvfUpdateForStoragePoolCommandTest extends BaseCommandTest {
     private static final int ITEMS_COUNT_PER_UPDATE = 100;
@@ -129,7 +131,8 @@ public class ProcessOvfUpdateForStoragePoolCommandTest extends BaseCommandTest {
     public static Stream<MockConfigDescriptor<?>> mockConfiguration() {
         return Stream.of(
             MockConfigDescriptor.of(ConfigValues.StorageDomainOvfStoreCount, 1),
-            MockConfigDescriptor.of(ConfigValues.OvfItemsCountPerUpdate, ITEMS_COUNT_PER_UPDATE)
+            MockConfigDescriptor.of(ConfigValues.OvfItemsCountPerUpdate, ITEMS_COUNT_PER_UPDATE),
+            MockConfigDescriptor.of(ConfigValues.OvfGenerationThreads, 4)
         );
     }
 
@@ -179,13 +182,13 @@ public class ProcessOvfUpdateForStoragePoolCommandTest extends BaseCommandTest {
     private void mockAnswers() {
         doAnswer(invocation -> {
             VM vm = (VM) invocation.getArguments()[0];
-            return vm.getId().toString();
-        }).when(ovfUpdateProcessHelper).generateVmMetadata(any(), any());
+            return (Supplier<String>) () -> vm.getId().toString();
+        }).when(ovfUpdateProcessHelper).prepareVmMetadata(any(), any());
 
         doAnswer(invocation -> {
             VmTemplate template = (VmTemplate) ((FullEntityOvfData) invocation.getArguments()[0]).getVmBase();
-            return template.getId().toString();
-        }).when(ovfUpdateProcessHelper).generateVmTemplateMetadata(any());
+            return (Supplier<String>) () -> template.getId().toString();
+        }).when(ovfUpdateProcessHelper).prepareVmTemplateMetadata(any());
 
         doAnswer(invocation -> {
             List<Guid> neededIds = (List<Guid>) invocation.getArguments()[0];
@@ -397,6 +400,31 @@ public class ProcessOvfUpdateForStoragePoolCommandTest extends BaseCommandTest {
         verifyOvfUpdatedForSupportedPools(Collections.singletonList(pool1.getId()), Collections.emptyMap());
     }
 
+    @Test
+    public void testOvfsRenderedInParallelKeepTheirOrder() {
+        int size = ITEMS_COUNT_PER_UPDATE + 10;
+        List<Guid> vmGuids = generateGuidList(size);
+        addVms(vmGuids, 2, VMStatus.Down, ImageStatus.OK);
+        List<Guid> templatesGuids = generateGuidList(size);
+        addTemplates(templatesGuids, 2, VmTemplateStatus.OK, ImageStatus.OK);
+        List<Guid> renderedIds = new ArrayList<>();
+        doAnswer(invocation -> {
+            List<Guid> ids = (List<Guid>) invocation.getArguments()[0];
+            List<String> configurations = (List<String>) invocation.getArguments()[2];
+            assertEquals(ids.stream().map(Guid::toString).collect(Collectors.toList()), configurations,
+                    "ovf configurations should be persisted with the ids they were generated for");
+            renderedIds.addAll(ids);
+            return null;
+        }).when(vmAndTemplatesGenerationsDao).updateOvfGenerations(any(), any(), any());
+
+        initTestForPool(pool1, vmGuids, templatesGuids, Collections.emptyList());
+        executeCommand();
+
+        List<Guid> expectedIds = new ArrayList<>(vmGuids);
+        expectedIds.addAll(templatesGuids);
+        assertEquals(expectedIds, renderedIds);
+    }
+
     private void executeCommand() {
         command.executeCommand();
         executedOvfUpdatedDomains = command.getReturnValue().getActionReturnValue();
@@ -0,0 +1,101 @@
+package org.ovirt.engine.core.bll.tasks;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.ovirt.engine.core.compat.Guid;
+
+public class CallbackTimerWheelTest {
+
+    private static final int WHEEL_SIZE = 8;
+    private static final long TICK = 1000;
+
+    private final Guid cmd1 = Guid.newGuid();
+    private final Guid cmd2 = Guid.newGuid();
+
+    private CallbackTimerWheel wheel;
+
+    @BeforeEach
+    public void setup() {
+        wheel = new CallbackTimerWheel(WHEEL_SIZE, TICK, 0);
+    }
+
+    @Test
+    public void shouldReturnCallbackWhenDue() {
+        wheel.schedule(cmd1, 3 * TICK, 0);
+
+        assertTrue(wheel.advance(2 * TICK).isEmpty());
+        assertEquals(Arrays.asList(cmd1), wheel.advance(3 * TICK));
+        assertTrue(wheel.advance(4 * TICK).isEmpty());
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    public void shouldReturnCallbackAtNextTickAtTheEarliest() {
+        wheel.advance(5 * TICK);
+        wheel.schedule(cmd1, 0, 5 * TICK);
+
+        assertTrue(wheel.advance(5 * TICK + TICK / 2).isEmpty());
+        assertEquals(Arrays.asList(cmd1), wheel.advance(6 * TICK));
+    }
+
+    @Test
+    public void shouldKeepCallbackDueInLaterTurn() {
+        wheel.schedule(cmd1, (WHEEL_SIZE + 2) * TICK, 0);
+        wheel.schedule(cmd2, 2 * TICK, 0);
+
+        assertEquals(Arrays.asList(cmd2), wheel.advance(2 * TICK));
+        assertTrue(wheel.advance((WHEEL_SIZE + 1) * TICK).isEmpty());
+        assertEquals(Arrays.asList(cmd1), wheel.advance((WHEEL_SIZE + 2) * TICK));
+    }
+
+    @Test
+    public void shouldReturnAllCallbacksDueDuringLongPause() {
+        wheel.schedule(cmd1, 2 * TICK, 0);
+        wheel.schedule(cmd2, (WHEEL_SIZE + 5) * TICK, 0);
+
+        assertEquals(Arrays.asList(cmd1, cmd2), wheel.advance(3 * WHEEL_SIZE * TICK));
+    }
+
+    @Test
+    public void shouldReplacePreviousSchedule() {
+        wheel.schedule(cmd1, 5 * TICK, 0);
+        wheel.schedule(cmd1, TICK, 0);
+
+        assertEquals(Arrays.asList(cmd1), wheel.advance(TICK));
+        assertTrue(wheel.advance(5 * TICK).isEmpty());
+    }
+
+    @Test
+    public void shouldNotReturnCancelledCallback() {
+        wheel.schedule(cmd1, TICK, 0);
+        wheel.cancel(cmd1);
+
+        assertTrue(wheel.advance(TICK).isEmpty());
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    public void shouldReturnCallbacksInScheduleOrder() {
+        wheel.schedule(cmd2, TICK, 0);
+        wheel.schedule(cmd1, TICK, 0);
+
+        assertEquals(Arrays.asList(cmd2, cmd1), wheel.advance(TICK));
+    }
+
+    @Test
+    public void shouldReturnCallbackWhenTimeIsNegative() {
+        long now = -10 * WHEEL_SIZE * TICK - TICK / 2;
+        wheel = new CallbackTimerWheel(WHEEL_SIZE, TICK, now);
+        wheel.schedule(cmd1, 3 * TICK, now);
+        wheel.schedule(cmd2, (WHEEL_SIZE + 1) * TICK, now);
+
+        assertTrue(wheel.advance(now + 2 * TICK).isEmpty());
+        assertEquals(Arrays.asList(cmd1), wheel.advance(now + 3 * TICK));
+        assertEquals(Arrays.asList(cmd2), wheel.advance(now + (WHEEL_SIZE + 1) * TICK));
+    }
+}
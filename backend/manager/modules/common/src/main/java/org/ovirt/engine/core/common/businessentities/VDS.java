@@ -2,6 +2,7 @@ package org.ovirt.engine.core.common.businessentities;
 
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
@@ -73,6 +74,42 @@ public class VDS implements Queryable, BusinessEntityWithStatus<Guid, VDSStatus>
         fenceAgents = new LinkedList<>();
     }
 
+    /**
+     * Copies the host, the collections are copied while their elements are shared.
+     */
+    public VDS(VDS other) {
+        vdsStatic = new VdsStatic(other.vdsStatic);
+        vdsDynamic = new VdsDynamic(other.vdsDynamic);
+        vdsStatistics = new VdsStatistics(other.vdsStatistics);
+        interfaces = other.interfaces == null ? null : new ArrayList<>(other.interfaces);
+        networkNames = other.networkNames == null ? null : new HashSet<>(other.networkNames);
+        activeNic = other.activeNic;
+        balloonEnabled = other.balloonEnabled;
+        countThreadsAsCores = other.countThreadsAsCores;
+        fenceAgents = other.fenceAgents == null ? null : new ArrayList<>(other.fenceAgents);
+        spmStatus = other.spmStatus;
+        clusterCompatibilityVersion = other.clusterCompatibilityVersion;
+        clusterName = other.clusterName;
+        clusterDescription = other.clusterDescription;
+        clusterCpuName = other.clusterCpuName;
+        clusterVirtService = other.clusterVirtService;
+        storagePoolId = other.storagePoolId;
+        storagePoolName = other.storagePoolName;
+        maxVdsMemoryOverCommit = other.maxVdsMemoryOverCommit;
+        privateDomains = other.privateDomains == null ? null : new ArrayList<>(other.privateDomains);
+        clusterGlusterService = other.clusterGlusterService;
+        imagesLastCheck = other.imagesLastCheck;
+        imagesLastDelay = other.imagesLastDelay;
+        cpuName = other.cpuName;
+        vdsSpmId = other.vdsSpmId;
+        maxSchedulingMemory = other.maxSchedulingMemory;
+        hostedEngineHost = other.hostedEngineHost;
+        fencingEnabled = other.fencingEnabled;
+        glusterPeerStatus = other.glusterPeerStatus;
+        localDisksUsage = other.localDisksUsage == null ? null : new HashMap<>(other.localDisksUsage);
+        networkOperationInProgress = other.networkOperationInProgress;
+    }
+
     @Override
     public int hashCode() {
         return Objects.hash(
@@ -2,6 +2,7 @@ package org.ovirt.engine.core.common.businessentities;
 
 import java.math.BigDecimal;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
@@ -235,6 +236,90 @@ public class VdsDynamic implements BusinessEntityWithStatus<Guid, VDSStatus> {
         additionalFeatures = new HashSet<>();
     }
 
+    /**
+     * Copies the dynamic data, the collections are copied while their elements are shared.
+     */
+    public VdsDynamic(VdsDynamic other) {
+        id = other.id;
+        status = other.status;
+        externalStatus = other.externalStatus;
+        cpuCores = other.cpuCores;
+        cpuThreads = other.cpuThreads;
+        cpuModel = other.cpuModel;
+        onlineCpus = other.onlineCpus;
+        cpuSpeedMh = other.cpuSpeedMh;
+        ifTotalSpeed = other.ifTotalSpeed;
+        kvmEnabled = other.kvmEnabled;
+        physicalMemMb = other.physicalMemMb;
+        memCommited = other.memCommited;
+        vmActive = other.vmActive;
+        vmCount = other.vmCount;
+        vmMigrating = other.vmMigrating;
+        incomingMigrations = other.incomingMigrations;
+        outgoingMigrations = other.outgoingMigrations;
+        reservedMem = other.reservedMem;
+        guestOverhead = other.guestOverhead;
+        softwareVersion = other.softwareVersion;
+        versionName = other.versionName;
+        buildName = other.buildName;
+        previousStatus = other.previousStatus;
+        cpuFlags = other.cpuFlags;
+        vmsCoresCount = other.vmsCoresCount;
+        pendingVcpusCount = other.pendingVcpusCount;
+        cpuSockets = other.cpuSockets;
+        netConfigDirty = other.netConfigDirty;
+        supportedClusterLevels = other.supportedClusterLevels;
+        supportedEngines = other.supportedEngines;
+        hostOs = other.hostOs;
+        kvmVersion = other.kvmVersion;
+        libvirtVersion = other.libvirtVersion;
+        spiceVersion = other.spiceVersion;
+        glusterVersion = other.glusterVersion;
+        kernelVersion = other.kernelVersion;
+        librbdVersion = other.librbdVersion;
+        glusterfsCliVersion = other.glusterfsCliVersion;
+        ovsVersion = other.ovsVersion;
+        iScsiInitiatorName = other.iScsiInitiatorName;
+        kdumpStatus = other.kdumpStatus;
+        transparentHugePagesState = other.transparentHugePagesState;
+        HBAs = other.HBAs == null ? null : new HashMap<>(other.HBAs);
+        hooksStr = other.hooksStr;
+        hwManufacturer = other.hwManufacturer;
+        hwProductName = other.hwProductName;
+        hwVersion = other.hwVersion;
+        hwSerialNumber = other.hwSerialNumber;
+        hwUUID = other.hwUUID;
+        hwFamily = other.hwFamily;
+        nonOperationalReason = other.nonOperationalReason;
+        pendingVmemSize = other.pendingVmemSize;
+        rpmVersion = other.rpmVersion;
+        supportedClusterVersionsSet =
+                other.supportedClusterVersionsSet == null ? null : new HashSet<>(other.supportedClusterVersionsSet);
+        supportedEngineVersionsSet =
+                other.supportedEngineVersionsSet == null ? null : new HashSet<>(other.supportedEngineVersionsSet);
+        selinuxEnforceMode = other.selinuxEnforceMode;
+        powerManagementControlledByPolicy = other.powerManagementControlledByPolicy;
+        supportedEmulatedMachines = other.supportedEmulatedMachines;
+        numaNodeList = other.numaNodeList == null ? null : new ArrayList<>(other.numaNodeList);
+        autoNumaBalancing = other.autoNumaBalancing;
+        numaSupport = other.numaSupport;
+        supportedRngSources = other.supportedRngSources == null ? null : new HashSet<>(other.supportedRngSources);
+        maintenanceReason = other.maintenanceReason;
+        updateAvailable = other.updateAvailable;
+        additionalFeatures = other.additionalFeatures == null ? null : new HashSet<>(other.additionalFeatures);
+        hostDevicePassthroughEnabled = other.hostDevicePassthroughEnabled;
+        kernelArgs = other.kernelArgs;
+        prettyName = other.prettyName;
+        hostedEngineConfigured = other.hostedEngineConfigured;
+        inFenceFlow = other.inFenceFlow;
+        kernelFeatures = other.kernelFeatures == null ? null : new HashMap<>(other.kernelFeatures);
+        openstackBindingHostIds =
+                other.openstackBindingHostIds == null ? null : new HashMap<>(other.openstackBindingHostIds);
+        reportedDnsResolverConfiguration = other.reportedDnsResolverConfiguration == null
+                ? null
+                : new DnsResolverConfiguration(other.reportedDnsResolverConfiguration);
+    }
+
     public Integer getCpuCores() {
         return cpuCores;
     }
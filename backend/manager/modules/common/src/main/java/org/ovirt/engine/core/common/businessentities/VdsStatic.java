@@ -1,5 +1,6 @@
 package org.ovirt.engine.core.common.businessentities;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
 
@@ -182,6 +183,44 @@ public class VdsStatic implements BusinessEntity<Guid>, Commented {
         hostProviderId = null;
     }
 
+    /**
+     * Copies the static data, the collections are copied while their elements are shared.
+     */
+    public VdsStatic(VdsStatic other) {
+        id = other.id;
+        name = other.name;
+        comment = other.comment;
+        consoleAddress = other.consoleAddress;
+        uniqueId = other.uniqueId;
+        hostName = other.hostName;
+        port = other.port;
+        sshPort = other.sshPort;
+        sshUsername = other.sshUsername;
+        clusterId = other.clusterId;
+        serverSslEnabled = other.serverSslEnabled;
+        vdsType = other.vdsType;
+        vdsStrength = other.vdsStrength;
+        pmEnabled = other.pmEnabled;
+        fenceProxySources = other.fenceProxySources == null ? null : new ArrayList<>(other.fenceProxySources);
+        pmKdumpDetection = other.pmKdumpDetection;
+        disablePowerManagementPolicy = other.disablePowerManagementPolicy;
+        otpValidity = other.otpValidity;
+        vdsSpmPriority = other.vdsSpmPriority;
+        autoRecoverable = other.autoRecoverable;
+        sshKeyFingerprint = other.sshKeyFingerprint;
+        hostProviderId = other.hostProviderId;
+        openstackNetworkProviderId = other.openstackNetworkProviderId;
+        currentKernelCmdline = other.currentKernelCmdline;
+        kernelCmdlineParsable = other.kernelCmdlineParsable;
+        lastStoredKernelCmdline = other.lastStoredKernelCmdline;
+        kernelCmdlineBlacklistNouveau = other.kernelCmdlineBlacklistNouveau;
+        kernelCmdlineIommu = other.kernelCmdlineIommu;
+        kernelCmdlineKvmNested = other.kernelCmdlineKvmNested;
+        kernelCmdlineUnsafeInterrupts = other.kernelCmdlineUnsafeInterrupts;
+        kernelCmdlinePciRealloc = other.kernelCmdlinePciRealloc;
+        reinstallRequired = other.reinstallRequired;
+    }
+
     public VdsStatic(String hostName, String uniqueId, int port, int sshPort, String sshUsername, Guid clusterId,
             Guid vdsId, String vdsName, boolean serverSslEnabled, VDSType vdsType, Guid hostProviderId) {
         this();
@@ -66,6 +66,39 @@ public class VdsStatistics implements BusinessEntity<Guid> {
         hugePages = new ArrayList<>();
     }
 
+    /**
+     * Copies the statistics, the collections are copied while their elements are shared.
+     */
+    public VdsStatistics(VdsStatistics other) {
+        id = other.id;
+        cpuIdle = other.cpuIdle;
+        cpuLoad = other.cpuLoad;
+        cpuSys = other.cpuSys;
+        cpuUser = other.cpuUser;
+        usageMemPercent = other.usageMemPercent;
+        usageCpuPercent = other.usageCpuPercent;
+        usageNetworkPercent = other.usageNetworkPercent;
+        memAvailable = other.memAvailable;
+        memFree = other.memFree;
+        memShared = other.memShared;
+        swapFree = other.swapFree;
+        swapTotal = other.swapTotal;
+        ksmCpuPercent = other.ksmCpuPercent;
+        ksmPages = other.ksmPages;
+        ksmState = other.ksmState;
+        anonymousHugePages = other.anonymousHugePages;
+        hugePages = other.hugePages == null ? null : new ArrayList<>(other.hugePages);
+        bootTime = other.bootTime;
+        highlyAvailableScore = other.highlyAvailableScore;
+        highlyAvailableIsConfigured = other.highlyAvailableIsConfigured;
+        highlyAvailableIsActive = other.highlyAvailableIsActive;
+        highlyAvailableGlobalMaintenance = other.highlyAvailableGlobalMaintenance;
+        highlyAvailableLocalMaintenance = other.highlyAvailableLocalMaintenance;
+        cpuOverCommitTimeStamp = other.cpuOverCommitTimeStamp;
+        cpuCoreStatistics = other.cpuCoreStatistics == null ? null : new ArrayList<>(other.cpuCoreStatistics);
+        v2vJobs = other.v2vJobs == null ? null : new ArrayList<>(other.v2vJobs);
+    }
+
     @Override
     public int hashCode() {
         return Objects.hash(
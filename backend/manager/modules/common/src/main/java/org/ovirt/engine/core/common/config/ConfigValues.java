@@ -57,6 +57,15 @@ public enum ConfigValues {
 
     @TypeConverterAttribute(Long.class)
     VdsRefreshRate,
+
+    /**
+     * Time in seconds after which the monitoring reads a host again even if it wasn't reported changed, 0 reads it
+     * on every refresh
+     */
+    @Reloadable
+    @TypeConverterAttribute(Integer.class)
+    VdsReloadIntervalInSeconds,
+
     @TypeConverterAttribute(Long.class)
     AsyncTaskPollingRate,
 
@@ -66,6 +75,13 @@ public enum ConfigValues {
     @TypeConverterAttribute(Long.class)
     AsyncCommandPollingRateInSeconds,
 
+    /**
+     * Maximal number of command callbacks invoked concurrently, callbacks of the same root command are always invoked
+     * one after the other.
+     */
+    @TypeConverterAttribute(Integer.class)
+    AsyncCommandCallbacksMaxConcurrency,
+
     /**
      * The rate (in seconds) to refresh the cache that holds the asynchronous tasks' statuses.
      */
@@ -204,6 +220,80 @@ public enum ConfigValues {
     MaxNumOfThreadsPerCpu(ClientAccessLevel.User),
     @TypeConverterAttribute(Integer.class)
     NumberVmRefreshesBeforeSave,
+    /**
+     * Interval in seconds in which the VM statistics of all hosts are written to the database together,
+     * 0 writes them right away with every host poll
+     */
+    @TypeConverterAttribute(Integer.class)
+    VmStatisticsWriteBehindIntervalInSeconds,
+    /**
+     * Maximal interval in seconds between polls of all the VMs of a host while the status events of its VMs flow,
+     * 0 polls all the VMs at the regular interval
+     */
+    @Reloadable
+    @TypeConverterAttribute(Integer.class)
+    VmsPollMaxIntervalWithEventsInSeconds,
+    /**
+     * How the permission checks of the commands are answered: Database, InMemory, which answers from memory the checks
+     * that don't depend on the parents of the object, or Audit, which answers from the database and logs the
+     * differences from the in memory answers
+     */
+    @Reloadable
+    @TypeConverterAttribute(String.class)
+    PermissionChecksMode,
+    /**
+     * Whether the events are written to the audit log by a background writer in batches, instead of by the thread
+     * logging them
+     */
+    @Reloadable
+    @TypeConverterAttribute(Boolean.class)
+    AuditLogAsyncWriteEnabled,
+    /**
+     * Maximal number of events waiting for the background audit log writer
+     */
+    @TypeConverterAttribute(Integer.class)
+    AuditLogAsyncQueueCapacity,
+    /**
+     * Maximal number of events the background audit log writer writes in a single batch
+     */
+    @Reloadable
+    @TypeConverterAttribute(Integer.class)
+    AuditLogAsyncBatchSize,
+    /**
+     * Maximal time in milliseconds an event waits for the background audit log writer to write it
+     */
+    @Reloadable
+    @TypeConverterAttribute(Integer.class)
+    AuditLogAsyncFlushIntervalInMillis,
+    /**
+     * What is done with an event when the queue of the background audit log writer is full: CallerWrites writes it
+     * by the thread logging it, DropNormal drops it if its severity is normal and writes it by the thread otherwise
+     */
+    @Reloadable
+    @TypeConverterAttribute(String.class)
+    AuditLogAsyncQueueFullPolicy,
+    /**
+     * Minutes after which the usage of a cached quota, tracked by the commands consuming and releasing it, is
+     * reloaded from the database the next time the quota is used
+     */
+    @Reloadable
+    @TypeConverterAttribute(Integer.class)
+    QuotaCacheReconcileIntervalInMinutes,
+    /**
+     * Maximal number of entities kept by each of the DAO entity caches
+     */
+    @TypeConverterAttribute(Integer.class)
+    EntityCacheMaxSize,
+    /**
+     * Time in seconds after which an entity cached by a DAO is read again from the database, 0 disables the caches
+     */
+    @TypeConverterAttribute(Integer.class)
+    EntityCacheTimeToLiveInSeconds,
+    /**
+     * Maximal number of SQL queries compiled from search texts kept by the search query cache
+     */
+    @TypeConverterAttribute(Integer.class)
+    SearchQueryCacheMaxSize,
     @TypeConverterAttribute(Integer.class)
     NumberVdsRefreshesBeforeTryToStartUnknownVms,
     @TypeConverterAttribute(Integer.class)
@@ -474,6 +564,14 @@ public enum ConfigValues {
     @TypeConverterAttribute(Integer.class)
     OvfItemsCountPerUpdate,
 
+    /**
+     * Number of threads rendering the OVFs of a chunk of VMs/templates in parallel during the OVF update, 1 renders
+     * them on the updating thread
+     */
+    @Reloadable
+    @TypeConverterAttribute(Integer.class)
+    OvfGenerationThreads,
+
     @TypeConverterAttribute(String.class)
     DefaultWindowsTimeZone(ClientAccessLevel.Admin),
 
@@ -523,6 +621,14 @@ public enum ConfigValues {
     @TypeConverterAttribute(Double.class)
     MaxStorageVdsDelayCheckSec,
 
+    /**
+     * Time in milliseconds during which the domain monitoring reports of the hosts of a pool are gathered to be
+     * processed together, 0 processes every report as it arrives
+     */
+    @Reloadable
+    @TypeConverterAttribute(Long.class)
+    StorageDomainReportsAggregationIntervalInMillis,
+
     @Reloadable
     @TypeConverterAttribute(Integer.class)
     DisableFenceAtStartupInSec,
@@ -1135,6 +1241,19 @@ public enum ConfigValues {
     @TypeConverterAttribute(Integer.class)
     SchedulerOverBookingThreshold(ClientAccessLevel.Admin),
 
+    /**
+     * Maximal number of engine pool threads used to evaluate a filter or the weight policy units in parallel,
+     * 0 disables it
+     */
+    @TypeConverterAttribute(Integer.class)
+    SchedulerParallelEvaluationThreads,
+
+    /**
+     * Minimal number of candidate hosts for the parallel evaluation of policy units to be used
+     */
+    @TypeConverterAttribute(Integer.class)
+    SchedulerParallelEvaluationMinHosts,
+
     @TypeConverterAttribute(Boolean.class)
     GlusterSupportArbiterVolume,
 
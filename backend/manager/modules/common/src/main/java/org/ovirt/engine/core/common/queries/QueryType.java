@@ -106,6 +106,7 @@ public enum QueryType implements Serializable {
 
     // Vm Network
     GetVmInterfacesByVmId(QueryAuthType.User),
+    GetVmInterfacesByVmIds(QueryAuthType.User),
     GetVmGuestAgentInterfacesByVmId(QueryAuthType.User),
     GetVmInterfaceFilterParametersByVmInterfaceId(QueryAuthType.User),
     GetVmInterfaceFilterParameterById(QueryAuthType.User),
@@ -210,6 +211,7 @@ public enum QueryType implements Serializable {
     GetUnregisteredDisk,
     GetDiskByDiskId(QueryAuthType.User),
     GetDiskAndSnapshotsByDiskId(QueryAuthType.User),
+    GetDisksAndSnapshotsByDiskIds(QueryAuthType.User),
     GetDiskSnapshotByImageId,
     GetAncestorImagesByImagesIds(QueryAuthType.User),
     GetImageTransferById(QueryAuthType.User),
@@ -219,6 +221,7 @@ public enum QueryType implements Serializable {
 
     GetDiskVmElementById(QueryAuthType.User),
     GetDiskVmElementsByVmId(QueryAuthType.User),
+    GetDiskVmElementsByVmIds(QueryAuthType.User),
 
     // Users queries
     GetUserVmsByUserIdAndGroups(QueryAuthType.User),
@@ -12,6 +12,7 @@ public class SearchParameters extends QueryParametersBase implements Serializabl
     private SearchType _searchType;
     private int _maxCount;
     private long searchFrom;
+    private String searchAfter;
     private boolean caseSensitive;
 
     public SearchParameters() {
@@ -53,6 +54,19 @@ public class SearchParameters extends QueryParametersBase implements Serializabl
         return searchFrom;
     }
 
+    /**
+     * Sets the primary key of the last entity of the previous page, the search then returns the entities following it
+     * in the order of their primary keys instead of a page given by its number. Unlike a page number, this keeps the
+     * cost of deep pages the same as of the first page. A search pattern with 'sortby' or 'page' is refused then.
+     */
+    public void setSearchAfter(String value) {
+        searchAfter = value;
+    }
+
+    public String getSearchAfter() {
+        return searchAfter;
+    }
+
     public boolean getCaseSensitive() {
         return caseSensitive;
     }
@@ -68,6 +82,7 @@ public class SearchParameters extends QueryParametersBase implements Serializabl
                 .append("searchPattern", getSearchPattern())
                 .append("caseSensitive", getCaseSensitive())
                 .append("from", getSearchFrom())
+                .append("after", getSearchAfter())
                 .append("max", getMaxCount());
     }
 }
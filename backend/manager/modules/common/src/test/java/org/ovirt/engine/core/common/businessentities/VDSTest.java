@@ -1,9 +1,11 @@
 package org.ovirt.engine.core.common.businessentities;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.util.stream.Stream;
 
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.MethodSource;
 import org.ovirt.engine.core.compat.Guid;
@@ -33,4 +35,29 @@ public class VDSTest {
         assertEquals(vds, cloned, "clones not equal");
         assertEquals(vds.hashCode(), cloned.hashCode(), "clones do not have equal hashCodes");
     }
+
+    @ParameterizedTest
+    @MethodSource("vdsCloned")
+    public void vdsCopied(VDS vds) {
+        VDS copy = new VDS(vds);
+        assertEquals(vds, copy, "copies not equal");
+        assertEquals(vds.getDynamicData(), copy.getDynamicData(), "copies have different dynamic data");
+        assertEquals(vds.getStatisticsData(), copy.getStatisticsData(), "copies have different statistics");
+    }
+
+    @Test
+    public void vdsCopyIsIndependent() {
+        VDS vds = new VDS();
+        vds.setPendingVcpusCount(2);
+        vds.setMemAvailable(100L);
+
+        VDS copy = new VDS(vds);
+        copy.setPendingVcpusCount(5);
+        copy.setMemAvailable(50L);
+        copy.getNumaNodeList().add(new VdsNumaNode());
+
+        assertEquals(2, vds.getPendingVcpusCount().intValue());
+        assertEquals(100L, vds.getMemAvailable().longValue());
+        assertTrue(vds.getNumaNodeList().isEmpty());
+    }
 }
@@ -0,0 +1,134 @@
+package org.ovirt.engine.core.dal.dbbroker;
+
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+
+/**
+ * Immutable description of a stored procedure returning a set of rows, compiled once from the database metadata.
+ *
+ * The input parameters are kept in the declaration order, so a call binds its values by position without any further
+ * metadata lookup. The caller may pass only some of the parameters (the rest take their default values in the
+ * database), therefore the query text is generated for each distinct set of passed parameters. The text is stable for
+ * the same set, so the statement cache of the data source can reuse the prepared statement.
+ *
+ * Instances are shared by all the threads, the row mapper is supplied by every call and is never stored.
+ */
+public final class CompiledStoredProcedure {
+
+    /**
+     * Marks a parameter missing in the parameter source, unlike an explicitly passed {@code null}.
+     */
+    private static final Object NOT_PASSED = new Object();
+
+    private final String procedureName;
+    private final List<SqlCallParameter> parameters;
+    private final DbEngineDialect dialect;
+    private final Map<BitSet, String> queries = new ConcurrentHashMap<>();
+
+    private CompiledStoredProcedure(String procedureName, List<SqlCallParameter> parameters, DbEngineDialect dialect) {
+        this.procedureName = procedureName;
+        this.parameters = Collections.unmodifiableList(parameters);
+        this.dialect = dialect;
+    }
+
+    /**
+     * Reads the input parameters of the procedure from the database metadata.
+     */
+    public static CompiledStoredProcedure compile(String procedureName,
+            DatabaseMetaData metaData,
+            DbEngineDialect dialect) throws SQLException {
+        List<SqlCallParameter> parameters = new ArrayList<>();
+        try (ResultSet rs = metaData.getProcedureColumns(null, null, procedureName.toLowerCase(), "%")) {
+            while (rs.next()) {
+                int columnType = rs.getInt("COLUMN_TYPE");
+                // The columns of the returned rows are reported as well, only the arguments are interesting
+                if (columnType != DatabaseMetaData.procedureColumnIn
+                        && columnType != DatabaseMetaData.procedureColumnInOut) {
+                    continue;
+                }
+                parameters.add(new SqlCallParameter(parameters.size() + 1,
+                        rs.getString("COLUMN_NAME"),
+                        rs.getInt("DATA_TYPE")));
+            }
+        }
+        return new CompiledStoredProcedure(procedureName, parameters, dialect);
+    }
+
+    public String getProcedureName() {
+        return procedureName;
+    }
+
+    public List<SqlCallParameter> getParameters() {
+        return parameters;
+    }
+
+    /**
+     * @return the query calling the procedure with the given parameters, the values have to be bound by
+     *         {@link #bind(PreparedStatement, Object[])}
+     */
+    public String getQuery(Object[] values) {
+        BitSet passed = new BitSet(parameters.size());
+        for (int i = 0; i < values.length; ++i) {
+            if (values[i] != NOT_PASSED) {
+                passed.set(i);
+            }
+        }
+        return queries.computeIfAbsent(passed, this::createQuery);
+    }
+
+    /**
+     * Matches the values of the parameter source with the parameters of the procedure.
+     *
+     * @return the values in the order of the parameters, parameters missing in the source are marked as not passed
+     */
+    public Object[] getValues(MapSqlParameterSource parameterSource) {
+        Map<String, Object> sourceValues = parameterSource.getValues();
+        Object[] values = new Object[parameters.size()];
+        for (int i = 0; i < values.length; ++i) {
+            String name = parameters.get(i).getName();
+            Object value = sourceValues.get(name);
+            if (value == null && !sourceValues.containsKey(name)) {
+                value = findIgnoreCase(sourceValues, name);
+            }
+            values[i] = value;
+        }
+        return values;
+    }
+
+    /**
+     * Binds the passed values by position, skipping the parameters that were not passed.
+     */
+    public void bind(PreparedStatement ps, Object[] values) throws SQLException {
+        int index = 1;
+        for (int i = 0; i < values.length; ++i) {
+            if (values[i] != NOT_PASSED) {
+                ps.setObject(index++, values[i], parameters.get(i).getDataType());
+            }
+        }
+    }
+
+    private String createQuery(BitSet passed) {
+        List<String> names = new ArrayList<>(passed.cardinality());
+        passed.stream().forEach(i -> names.add(parameters.get(i).getName()));
+        return dialect.createSqlQueryCommand(procedureName, names);
+    }
+
+    private static Object findIgnoreCase(Map<String, Object> sourceValues, String name) {
+        for (Map.Entry<String, Object> entry : sourceValues.entrySet()) {
+            if (entry.getKey().equalsIgnoreCase(name)) {
+                return entry.getValue();
+            }
+        }
+        return NOT_PASSED;
+    }
+}
@@ -1,5 +1,7 @@
 package org.ovirt.engine.core.dal.dbbroker;
 
+import java.util.List;
+
 import javax.sql.DataSource;
 
 import org.springframework.jdbc.core.JdbcTemplate;
@@ -50,4 +52,12 @@ public interface DbEngineDialect {
      */
     public String createSqlCallCommand(String procSchemaFromDB,
             String procNameFromDB, String params);
+
+    /**
+     * Creates a query calling a function which returns a set of rows, passing the given parameters by name
+     *
+     * @param procedureName the function name
+     * @param parameterNames names of the passed parameters, in the order their values are bound
+     */
+    public String createSqlQueryCommand(String procedureName, List<String> parameterNames);
 }
@@ -7,6 +7,7 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 import javax.sql.DataSource;
 
@@ -199,4 +200,15 @@ public class PostgresDbEngineDialect implements DbEngineDialect {
                 .append(procNameFromDB).append("(").append(params).append(")}");
         return sqlCommand.toString();
     }
+
+    /**
+     * The parameters are passed using the named notation, so the parameters which are not passed get their default
+     * values regardless of their position.
+     */
+    @Override
+    public String createSqlQueryCommand(String procedureName, List<String> parameterNames) {
+        return parameterNames.stream()
+                .map(name -> name + " => ?")
+                .collect(Collectors.joining(", ", "select * from " + procedureName + "(", ")"));
+    }
 }
@@ -12,18 +12,18 @@ import javax.inject.Inject;
 import javax.inject.Singleton;
 
 import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
-import org.springframework.jdbc.core.namedparam.SqlParameterSourceUtils;
 import org.springframework.jdbc.core.simple.SimpleJdbcCall;
 
 @Singleton
 public class SimpleJdbcCallsHandler {
 
-    private static final String RETURN_VALUE_PARAMETER = "RETURN_VALUE";
-
     private final ConcurrentMap<String, SimpleJdbcCall> callsMap = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, CompiledStoredProcedure> compiledProcedures = new ConcurrentHashMap<>();
 
     private final DbEngineDialect dialect;
     private final JdbcTemplate jdbcTemplate;
@@ -98,27 +98,24 @@ public class SimpleJdbcCallsHandler {
         return results.isEmpty() ? null : results.get(0);
     }
 
-    @SuppressWarnings("unchecked")
     public <T> List<T> executeReadList(final String procedureName,
             final RowMapper<T> mapper,
             final MapSqlParameterSource parameterSource) {
-        Map<String, Object> resultsMap = executeImpl(procedureName, parameterSource, createCallForRead(procedureName, mapper, parameterSource), mapper);
-        return (List<T>) resultsMap.get(RETURN_VALUE_PARAMETER);
+        CompiledStoredProcedure procedure = getCompiledProcedure(procedureName);
+        Object[] values = procedure.getValues(parameterSource);
+        return jdbcTemplate.query(procedure.getQuery(values), ps -> procedure.bind(ps, values), mapper);
     }
 
-    private CallCreator createCallForRead(final String procedureName,
-            final RowMapper<?> mapper,
+    /**
+     * Runs a stored procedure returning a set of rows and hands each row to the given handler as it is read, without
+     * collecting the rows into a list.
+     */
+    public void executeReadEach(final String procedureName,
+            final RowCallbackHandler handler,
             final MapSqlParameterSource parameterSource) {
-        return () -> {
-            SimpleJdbcCall call =
-                    (SimpleJdbcCall) dialect.createJdbcCallForQuery(jdbcTemplate).withProcedureName(procedureName);
-            call.returningResultSet(RETURN_VALUE_PARAMETER, mapper);
-            // Pass mapper information (only parameter names) in order to supply all the needed
-            // metadata information for compilation.
-            call.getInParameterNames().addAll(
-                    SqlParameterSourceUtils.extractCaseInsensitiveParameterNames(parameterSource).keySet());
-            return call;
-        };
+        CompiledStoredProcedure procedure = getCompiledProcedure(procedureName);
+        Object[] values = procedure.getValues(parameterSource);
+        jdbcTemplate.query(procedure.getQuery(values), ps -> procedure.bind(ps, values), handler);
     }
 
     CallCreator createCallForModification(final String procedureName) {
@@ -126,12 +123,8 @@ public class SimpleJdbcCallsHandler {
     }
 
     private Map<String, Object> executeImpl(String procedureName,
-                                                MapSqlParameterSource paramsSource, CallCreator callCreatorr) {
-        return executeImpl(procedureName, paramsSource, callCreatorr, null);
-    }
-    private <T> Map<String, Object> executeImpl(String procedureName,
-            MapSqlParameterSource paramsSource, CallCreator callCreator, RowMapper<T> mapper) {
-        SimpleJdbcCall call = getCall(procedureName, callCreator, mapper);
+            MapSqlParameterSource paramsSource, CallCreator callCreator) {
+        SimpleJdbcCall call = getCall(procedureName, callCreator);
         return call.execute(paramsSource);
     }
 
@@ -147,21 +140,37 @@ public class SimpleJdbcCallsHandler {
      * @return simple JDBC call object
      */
     protected SimpleJdbcCall getCall(String procedureName, CallCreator callCreator) {
-        return getCall(procedureName, callCreator, null);
-    }
-
-    protected <T> SimpleJdbcCall getCall(String procedureName, CallCreator callCreator, RowMapper<T> mapper) {
         SimpleJdbcCall call = callsMap.get(procedureName);
         if (call == null) {
             call = callCreator.createCall();
             call.compile();
             callsMap.putIfAbsent(procedureName, call);
-        } else if (mapper != null) {
-            call.returningResultSet(RETURN_VALUE_PARAMETER, mapper);
         }
         return call;
     }
 
+    /**
+     * Gets the compiled form of a procedure returning a set of rows, compiling it from the database metadata if it was
+     * not used yet. As in {@link #getCall(String, CallCreator)}, the first concurrent usages may compile the procedure
+     * more than once, but all of them end up with equal objects.
+     *
+     * @param procedureName
+     *            stored procedure name
+     * @return the compiled procedure, which is immutable and can be used by any number of threads
+     */
+    protected CompiledStoredProcedure getCompiledProcedure(String procedureName) {
+        CompiledStoredProcedure procedure = compiledProcedures.get(procedureName);
+        if (procedure == null) {
+            procedure = jdbcTemplate.execute((ConnectionCallback<CompiledStoredProcedure>) con ->
+                    CompiledStoredProcedure.compile(procedureName, con.getMetaData(), dialect));
+            CompiledStoredProcedure current = compiledProcedures.putIfAbsent(procedureName, procedure);
+            if (current != null) {
+                procedure = current;
+            }
+        }
+        return procedure;
+    }
+
     public DbEngineDialect getDialect() {
         return dialect;
     }
@@ -8,8 +8,7 @@ import javax.inject.Singleton;
 import org.apache.commons.lang.StringUtils;
 import org.ovirt.engine.core.common.AuditLogType;
 import org.ovirt.engine.core.common.businessentities.AuditLog;
-import org.ovirt.engine.core.dao.AuditLogDao;
-import org.ovirt.engine.core.utils.transaction.TransactionSupport;
+import org.ovirt.engine.core.common.config.ConfigValues;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -19,7 +18,7 @@ public class AuditLogDirector {
     private static final int USERNAME_LENGTH = 255;
 
     @Inject
-    private AuditLogDao auditLogDao;
+    private AuditLogWriter auditLogWriter;
 
     public void log(AuditLogable auditLogable, AuditLogType logType) {
         log(auditLogable, logType, "");
@@ -39,22 +38,47 @@ public class AuditLogDirector {
      *            the message to be logged, which overrides the calculated message provided by the given auditLogable
      */
     public void log(AuditLogable auditLogable, AuditLogType logType, String message) {
+        log(auditLogable, logType, message, false);
+    }
+
+    /**
+     * Log an event with the given message, the event is written to the database before returning even if
+     * {@link ConfigValues#AuditLogAsyncWriteEnabled} is set
+     *
+     * @param auditLogable
+     *            the event which contains the data members to log
+     * @param logType
+     *            the log type to be logged
+     * @param message
+     *            the message to be logged, which overrides the calculated message provided by the given auditLogable
+     * @return the written event with its id, or <code>null</code> if it wasn't logged
+     */
+    public AuditLog logSynchronously(AuditLogable auditLogable, AuditLogType logType, String message) {
+        return log(auditLogable, logType, message, true);
+    }
+
+    private AuditLog log(AuditLogable auditLogable, AuditLogType logType, String message, boolean synchronously) {
         if (!logType.shouldBeLogged()) {
-            return;
+            return null;
         }
 
         EventFloodRegulator eventFloodRegulator = new EventFloodRegulator(auditLogable, logType);
-        if (eventFloodRegulator.isLegal()) {
-            AuditLog savedAuditLog = saveToDb(auditLogable, logType, message);
-            if (savedAuditLog == null) {
-                log.warn("Unable to create AuditLog");
-            } else {
-                logMessage(savedAuditLog);
-            }
+        if (!eventFloodRegulator.isLegal()) {
+            return null;
         }
+        AuditLog savedAuditLog = saveToDb(auditLogable, logType, message, synchronously);
+        if (savedAuditLog == null) {
+            log.warn("Unable to create AuditLog");
+        } else {
+            logMessage(savedAuditLog);
+        }
+        return savedAuditLog;
     }
 
-    private AuditLog saveToDb(AuditLogable auditLogable, AuditLogType logType, String loggerString) {
+    private AuditLog saveToDb(AuditLogable auditLogable,
+            AuditLogType logType,
+            String loggerString,
+            boolean synchronously) {
         AuditLog auditLog = create(auditLogable, logType, loggerString);
 
         if (auditLog == null) {
@@ -65,10 +89,11 @@ public class AuditLogDirector {
         // truncate user name
         auditLog.setUserName(StringUtils.abbreviate(auditLog.getUserName(), USERNAME_LENGTH));
 
-        TransactionSupport.executeInNewTransaction(() -> {
-            auditLogDao.save(auditLog);
-            return null;
-        });
+        if (synchronously) {
+            auditLogWriter.save(auditLog);
+        } else {
+            auditLogWriter.write(auditLog);
+        }
         return auditLog;
     }
 
@@ -101,12 +126,12 @@ public class AuditLogDirector {
             return auditLogable.createAuditLog(logType, loggerString);
         }
 
-        final String messageByType = MessageBundler.getMessageOrNull(logType);
-        if (messageByType == null) {
+        final MessageTemplate templateByType = MessageBundler.getTemplateOrNull(logType);
+        if (templateByType == null) {
             return null;
         } else {
             // Application log message from AuditLogMessages
-            String resolvedMessage = MessageResolver.resolveMessage(messageByType, auditLogable);
+            String resolvedMessage = MessageResolver.resolveMessage(templateByType, auditLogable);
             return auditLogable.createAuditLog(logType, resolvedMessage);
         }
     }
@@ -0,0 +1,307 @@
+package org.ovirt.engine.core.dal.dbbroker.auditloghandling;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.ovirt.engine.core.common.AuditLogSeverity;
+import org.ovirt.engine.core.common.businessentities.AuditLog;
+import org.ovirt.engine.core.common.config.Config;
+import org.ovirt.engine.core.common.config.ConfigValues;
+import org.ovirt.engine.core.dao.AuditLogDao;
+import org.ovirt.engine.core.utils.threadpool.ThreadPoolUtil;
+import org.ovirt.engine.core.utils.transaction.TransactionSupport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Writes the events of the {@link AuditLogDirector} to the audit log.
+ *
+ * When {@link ConfigValues#AuditLogAsyncWriteEnabled} is set, the events are put to a bounded queue and a single
+ * background writer inserts them in batches of up to {@link ConfigValues#AuditLogAsyncBatchSize} events, each in its
+ * own transaction. An event waits at most {@link ConfigValues#AuditLogAsyncFlushIntervalInMillis} for its batch to
+ * fill. An event identical to one still waiting in the queue is dropped, and when the queue is full the event is
+ * handled according to {@link ConfigValues#AuditLogAsyncQueueFullPolicy}.
+ *
+ * Alerts are always written right away, they are deduplicated by the database and removed by their type and host
+ * soon after they are raised, so they can't wait in the queue.
+ */
+@Singleton
+public class AuditLogWriter implements AuditLogWriterMXBean {
+
+    private static final Logger log = LoggerFactory.getLogger(AuditLogWriter.class);
+
+    enum QueueFullPolicy {
+        CallerWrites,
+        DropNormal
+    }
+
+    @Inject
+    private AuditLogDao auditLogDao;
+
+    private volatile BlockingQueue<AuditLog> queue;
+    private final Set<List<Object>> queuedKeys = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean writing = new AtomicBoolean();
+
+    private final AtomicLong writtenEvents = new AtomicLong();
+    private final AtomicLong writtenBatches = new AtomicLong();
+    private final AtomicLong coalescedEvents = new AtomicLong();
+    private final AtomicLong droppedEvents = new AtomicLong();
+    private final AtomicLong eventsWrittenByCallers = new AtomicLong();
+    private final AtomicLong failedEvents = new AtomicLong();
+
+    private MBeanServer platformMBeanServer;
+    private ObjectName objectName;
+
+    @PostConstruct
+    public void registerInJMX() {
+        try {
+            objectName = new ObjectName("AuditLogWriter:type=" + this.getClass().getName());
+            platformMBeanServer = ManagementFactory.getPlatformMBeanServer();
+            platformMBeanServer.registerMBean(this, objectName);
+        } catch (Exception e) {
+            throw new IllegalStateException("Problem during registration of Monitoring into JMX:" + e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        writeQueued();
+        try {
+            platformMBeanServer.unregisterMBean(this.objectName);
+        } catch (Exception e) {
+            throw new IllegalStateException("Problem during unregistration of Monitoring into JMX:" + e);
+        }
+    }
+
+    /**
+     * Writes the event right away in a new transaction, its id is set once it is written.
+     */
+    public void save(AuditLog auditLog) {
+        TransactionSupport.executeInNewTransaction(() -> {
+            auditLogDao.save(auditLog);
+            return null;
+        });
+    }
+
+    /**
+     * Writes the event in the background if enabled, or right away otherwise. The id of an event written in the
+     * background is never set.
+     */
+    public void write(AuditLog auditLog) {
+        if (!Config.<Boolean> getValue(ConfigValues.AuditLogAsyncWriteEnabled)
+                || auditLog.getSeverity() == AuditLogSeverity.ALERT) {
+            save(auditLog);
+            return;
+        }
+
+        List<Object> key = getKey(auditLog);
+        if (!queuedKeys.add(key)) {
+            coalescedEvents.incrementAndGet();
+            return;
+        }
+        if (!getQueue().offer(auditLog)) {
+            queuedKeys.remove(key);
+            writeOnQueueFull(auditLog);
+            return;
+        }
+        startWriter();
+    }
+
+    private void writeOnQueueFull(AuditLog auditLog) {
+        if (getQueueFullPolicy() == QueueFullPolicy.DropNormal && auditLog.getSeverity() == AuditLogSeverity.NORMAL) {
+            if (droppedEvents.incrementAndGet() == 1) {
+                log.warn("The audit log queue is full, events of normal severity are dropped");
+            }
+            return;
+        }
+        eventsWrittenByCallers.incrementAndGet();
+        save(auditLog);
+    }
+
+    private QueueFullPolicy getQueueFullPolicy() {
+        String policy = Config.getValue(ConfigValues.AuditLogAsyncQueueFullPolicy);
+        try {
+            return QueueFullPolicy.valueOf(policy);
+        } catch (IllegalArgumentException | NullPointerException e) {
+            return QueueFullPolicy.CallerWrites;
+        }
+    }
+
+    private BlockingQueue<AuditLog> getQueue() {
+        if (queue == null) {
+            synchronized (this) {
+                if (queue == null) {
+                    int capacity = Config.<Integer> getValue(ConfigValues.AuditLogAsyncQueueCapacity);
+                    queue = new LinkedBlockingQueue<>(capacity);
+                }
+            }
+        }
+        return queue;
+    }
+
+    private void startWriter() {
+        if (writing.compareAndSet(false, true)) {
+            try {
+                ThreadPoolUtil.execute(this::writeQueued);
+            } catch (RejectedExecutionException e) {
+                // The events can't wait for a writer that may never come
+                writeQueued();
+            }
+        }
+    }
+
+    /**
+     * Writes the queued events until the queue is empty.
+     */
+    void writeQueued() {
+        if (queue == null) {
+            return;
+        }
+        try {
+            for (List<AuditLog> batch = takeBatch(); !batch.isEmpty(); batch = takeBatch()) {
+                writeBatch(batch);
+            }
+        } finally {
+            writing.set(false);
+        }
+        // An event queued while the writer was stopping would wait for the next one otherwise
+        if (!queue.isEmpty()) {
+            startWriter();
+        }
+    }
+
+    private List<AuditLog> takeBatch() {
+        AuditLog first = queue.poll();
+        if (first == null) {
+            return Collections.emptyList();
+        }
+
+        int batchSize = Config.<Integer> getValue(ConfigValues.AuditLogAsyncBatchSize);
+        int flushInterval = Config.<Integer> getValue(ConfigValues.AuditLogAsyncFlushIntervalInMillis);
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushInterval);
+        List<AuditLog> batch = new ArrayList<>(batchSize);
+        batch.add(first);
+        try {
+            while (batch.size() < batchSize) {
+                queue.drainTo(batch, batchSize - batch.size());
+                long remaining = deadline - System.nanoTime();
+                if (batch.size() >= batchSize || remaining <= 0) {
+                    break;
+                }
+                AuditLog next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                if (next == null) {
+                    break;
+                }
+                batch.add(next);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // Events identical to those taken are written again from now on
+        batch.forEach(auditLog -> queuedKeys.remove(getKey(auditLog)));
+        return batch;
+    }
+
+    private void writeBatch(List<AuditLog> batch) {
+        try {
+            TransactionSupport.executeInNewTransaction(() -> {
+                auditLogDao.saveAllInBatch(batch);
+                return null;
+            });
+            writtenEvents.addAndGet(batch.size());
+            writtenBatches.incrementAndGet();
+        } catch (RuntimeException e) {
+            log.error("Failed to write a batch of {} events to the audit log, writing them one by one: {}",
+                    batch.size(),
+                    e.getMessage());
+            log.debug("Exception", e);
+            batch.forEach(this::writeSingle);
+        }
+    }
+
+    private void writeSingle(AuditLog auditLog) {
+        try {
+            save(auditLog);
+            writtenEvents.incrementAndGet();
+        } catch (RuntimeException e) {
+            failedEvents.incrementAndGet();
+            log.error("Failed to write event '{}' to the audit log: {}", auditLog.getLogType(), e.getMessage());
+            log.debug("Exception", e);
+        }
+    }
+
+    /**
+     * @return the fields telling identical events apart
+     */
+    private static List<Object> getKey(AuditLog auditLog) {
+        return Arrays.asList(auditLog.getLogType(),
+                auditLog.getSeverity(),
+                auditLog.getMessage(),
+                auditLog.getUserId(),
+                auditLog.getVdsId(),
+                auditLog.getVmId(),
+                auditLog.getVmTemplateId(),
+                auditLog.getStoragePoolId(),
+                auditLog.getStorageDomainId(),
+                auditLog.getClusterId(),
+                auditLog.getGlusterVolumeId(),
+                auditLog.getBrickId(),
+                auditLog.getCorrelationId(),
+                auditLog.getJobId(),
+                auditLog.getOrigin(),
+                auditLog.getCustomEventId());
+    }
+
+    @Override
+    public int getQueuedEvents() {
+        return queue == null ? 0 : queue.size();
+    }
+
+    @Override
+    public long getWrittenEvents() {
+        return writtenEvents.get();
+    }
+
+    @Override
+    public long getWrittenBatches() {
+        return writtenBatches.get();
+    }
+
+    @Override
+    public long getCoalescedEvents() {
+        return coalescedEvents.get();
+    }
+
+    @Override
+    public long getDroppedEvents() {
+        return droppedEvents.get();
+    }
+
+    @Override
+    public long getEventsWrittenByCallers() {
+        return eventsWrittenByCallers.get();
+    }
+
+    @Override
+    public long getFailedEvents() {
+        return failedEvents.get();
+    }
+}
@@ -0,0 +1,42 @@
+package org.ovirt.engine.core.dal.dbbroker.auditloghandling;
+
+/**
+ * The following interface is used as interface for JMX bean
+ */
+public interface AuditLogWriterMXBean {
+
+    /**
+     * The following method will return the number of events waiting for the background writer
+     */
+    int getQueuedEvents();
+
+    /**
+     * The following method will return the number of events written by the background writer
+     */
+    long getWrittenEvents();
+
+    /**
+     * The following method will return the number of batches written by the background writer
+     */
+    long getWrittenBatches();
+
+    /**
+     * The following method will return the number of events dropped as identical to an event waiting to be written
+     */
+    long getCoalescedEvents();
+
+    /**
+     * The following method will return the number of events dropped since the queue was full
+     */
+    long getDroppedEvents();
+
+    /**
+     * The following method will return the number of events written by the logging thread since the queue was full
+     */
+    long getEventsWrittenByCallers();
+
+    /**
+     * The following method will return the number of events the background writer failed to write
+     */
+    long getFailedEvents();
+}
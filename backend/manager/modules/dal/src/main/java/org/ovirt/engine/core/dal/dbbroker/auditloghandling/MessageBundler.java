@@ -1,5 +1,7 @@
 package org.ovirt.engine.core.dal.dbbroker.auditloghandling;
 
+import java.util.EnumMap;
+import java.util.Map;
 import java.util.MissingResourceException;
 import java.util.ResourceBundle;
 
@@ -13,6 +15,7 @@ public class MessageBundler {
     private static final Logger log = LoggerFactory.getLogger(MessageBundler.class);
     private static final String RESOURCE_BUNDLE_NAME = "bundles/AuditLogMessages";
     private static final ResourceBundle resourceBundle = getResourceBundle();
+    private static final Map<AuditLogType, MessageTemplate> templates = compileTemplates();
 
     public static ResourceBundle getResourceBundle() {
         try {
@@ -35,4 +38,26 @@ public class MessageBundler {
             return null;
         }
     }
+
+    /**
+     * @return the message of the given type compiled when the class was loaded, or <code>null</code> if the type has
+     *         no message
+     */
+    public static MessageTemplate getTemplateOrNull(AuditLogType logType) {
+        MessageTemplate template = templates.get(logType);
+        if (template == null) {
+            log.error("Key '{}' is not translated in '{}'", logType.name(), RESOURCE_BUNDLE_NAME);
+        }
+        return template;
+    }
+
+    private static Map<AuditLogType, MessageTemplate> compileTemplates() {
+        Map<AuditLogType, MessageTemplate> templates = new EnumMap<>(AuditLogType.class);
+        for (AuditLogType logType : AuditLogType.values()) {
+            if (resourceBundle.containsKey(logType.name())) {
+                templates.put(logType, MessageTemplate.compile(resourceBundle.getString(logType.name())));
+            }
+        }
+        return templates;
+    }
 }
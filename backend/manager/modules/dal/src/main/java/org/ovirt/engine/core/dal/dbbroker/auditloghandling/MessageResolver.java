@@ -1,13 +1,15 @@
 package org.ovirt.engine.core.dal.dbbroker.auditloghandling;
 
+import java.beans.IntrospectionException;
+import java.beans.Introspector;
+import java.beans.PropertyDescriptor;
+import java.lang.reflect.Method;
+import java.util.Collections;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.Map;
-import java.util.Set;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
-import org.ovirt.engine.core.compat.backendcompat.TypeCompat;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
  * The class is responsible to resolve a message which might contain variables into a clear text, where the variables
@@ -16,16 +18,24 @@ import org.ovirt.engine.core.compat.backendcompat.TypeCompat;
  */
 public class MessageResolver {
 
-    /**
-     * A pattern to match for variables within message, i.e. ${<alphanumeric/>...}
-     */
-    private static final Pattern VARIABLE_PATTERN = Pattern.compile("\\$\\{\\w*\\}");
+    private static final Logger log = LoggerFactory.getLogger(MessageResolver.class);
+
     static final String UNKNOWN_VARIABLE_VALUE = "<UNKNOWN>";
     private static final String UNKNOWN_REASON_VALUE =
             " No reason was returned for this operation failure. See logs for further details.";
     private static final String REASON_TOKEN = "reason";
     private static final String OPTIONAL_REASON_TOKEN = "optionalreason";
 
+    /**
+     * The read methods of the properties of each {@link AuditLogable} class, by their lower cased names
+     */
+    private static final ClassValue<Map<String, Method>> READ_METHODS = new ClassValue<Map<String, Method>>() {
+        @Override
+        protected Map<String, Method> computeValue(Class<?> type) {
+            return getReadMethods(type);
+        }
+    };
+
     /**
      * Resolves a message which contains place holders by replacing them with the value from the map.
      *
@@ -36,70 +46,78 @@ public class MessageResolver {
      * @return a resolved message
      */
     public static String resolveMessage(String message, Map<String, String> values) {
-        Matcher matcher = VARIABLE_PATTERN.matcher(message);
-
-        StringBuffer buffer = new StringBuffer();
-        String value;
-        String token;
-        while (matcher.find()) {
-            token = matcher.group();
-
-            // remove leading ${ and trailing }
-            token = token.substring(2, token.length() - 1);
-
-            // get value from value map
-            value = values.get(token.toLowerCase());
-            if (value == null || value.isEmpty()) {
-                // replace value with UNKNOWN_VARIABLE_VALUE if value not defined
-                switch (token.toLowerCase()) {
-                case REASON_TOKEN:
-                    value = UNKNOWN_REASON_VALUE;
-                    break;
-                case OPTIONAL_REASON_TOKEN:
-                    value = "";
-                    break;
-                default:
-                    value = UNKNOWN_VARIABLE_VALUE;
-                }
-            }
-            matcher.appendReplacement(buffer, Matcher.quoteReplacement(value)); // put the value into message
-        }
-
-        // append the rest of the message
-        matcher.appendTail(buffer);
-        return buffer.toString();
+        return MessageTemplate.compile(message).resolve(values::get);
     }
 
     static String resolveMessage(String message, AuditLogable logable) {
         String returnValue = message;
         if (logable != null) {
-            Map<String, String> map = getAvailableValues(message, logable);
-            returnValue = resolveMessage(message, map);
+            returnValue = resolveMessage(MessageTemplate.compile(message), logable);
         }
         return returnValue;
     }
 
-    private static Set<String> resolvePlaceHolders(String message) {
-        Set<String> result = new HashSet<>();
-        Matcher matcher = VARIABLE_PATTERN.matcher(message);
+    /**
+     * Resolves a compiled message, taking the value of each of its variables from the custom values of the given
+     * event, or from the property of the event with the same name if there is no such custom value.
+     *
+     * @param template
+     *            the compiled message
+     * @param logable
+     *            the event
+     * @return a resolved message
+     */
+    public static String resolveMessage(MessageTemplate template, AuditLogable logable) {
+        Map<String, String> customValues = logable.getCustomValues();
+        return template.resolve(name -> customValues.containsKey(name)
+                ? customValues.get(name)
+                : getPropertyValue(logable, name));
+    }
 
-        String token;
-        while (matcher.find()) {
-            token = matcher.group();
+    /**
+     * @return the given value of the variable, or its default value if the given one is missing or empty
+     */
+    static String valueOrDefault(String variableName, String value) {
+        if (value != null && !value.isEmpty()) {
+            return value;
+        }
+        switch (variableName) {
+        case REASON_TOKEN:
+            return UNKNOWN_REASON_VALUE;
+        case OPTIONAL_REASON_TOKEN:
+            return "";
+        default:
+            return UNKNOWN_VARIABLE_VALUE;
+        }
+    }
 
-            // remove leading ${ and trailing }
-            token = token.substring(2, token.length() - 1);
-            result.add(token.toLowerCase());
+    private static String getPropertyValue(AuditLogable logable, String name) {
+        Method readMethod = READ_METHODS.get(logable.getClass()).get(name);
+        if (readMethod == null) {
+            return null;
+        }
+        try {
+            Object value = readMethod.invoke(logable);
+            return value != null ? value.toString() : null;
+        } catch (Exception e) {
+            log.warn("Unable to get value of property: '{}' for class {}: {}",
+                    name, logable.getClass().getName(), e.getMessage());
+            log.debug("Exception", e);
+            return null;
         }
-        return result;
     }
 
-    private static Map<String, String> getAvailableValues(String message, AuditLogable logable) {
-        Map<String, String> returnValue = new HashMap<>(logable.getCustomValues());
-        Set<String> attributes = resolvePlaceHolders(message);
-        if (attributes != null && attributes.size() > 0) {
-            TypeCompat.getPropertyValues(logable, attributes, returnValue);
+    private static Map<String, Method> getReadMethods(Class<?> type) {
+        try {
+            Map<String, Method> readMethods = new HashMap<>();
+            for (PropertyDescriptor pd : Introspector.getBeanInfo(type, Object.class).getPropertyDescriptors()) {
+                if (pd.getReadMethod() != null) {
+                    readMethods.put(pd.getName().toLowerCase(), pd.getReadMethod());
+                }
+            }
+            return Collections.unmodifiableMap(readMethods);
+        } catch (IntrospectionException e) {
+            throw new RuntimeException(e);
         }
-        return returnValue;
     }
 }
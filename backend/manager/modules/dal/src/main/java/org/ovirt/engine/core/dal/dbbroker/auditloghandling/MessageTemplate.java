@@ -0,0 +1,113 @@
+package org.ovirt.engine.core.dal.dbbroker.auditloghandling;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * A message parsed once into its literal text and the variables between it, i.e. ${<alphanumeric/>...}, so resolving
+ * it only concatenates the literals with the values of the variables.
+ *
+ * The names of the variables are kept lower cased, and every distinct variable is looked up once per resolution, no
+ * matter how many times it appears in the message.
+ */
+public final class MessageTemplate {
+
+    /**
+     * The literals around the variables, there is always one more literal than variables.
+     */
+    private final String[] literals;
+
+    /**
+     * The index in {@link #variableNames} of each variable of the message, in order of appearance.
+     */
+    private final int[] variables;
+
+    private final String[] variableNames;
+
+    private MessageTemplate(String[] literals, int[] variables, String[] variableNames) {
+        this.literals = literals;
+        this.variables = variables;
+        this.variableNames = variableNames;
+    }
+
+    public static MessageTemplate compile(String message) {
+        List<String> literals = new ArrayList<>();
+        List<Integer> variables = new ArrayList<>();
+        List<String> variableNames = new ArrayList<>();
+
+        int literalStart = 0;
+        int start = message.indexOf("${");
+        while (start >= 0) {
+            int end = start + 2;
+            while (end < message.length() && isWordCharacter(message.charAt(end))) {
+                ++end;
+            }
+            if (end < message.length() && message.charAt(end) == '}') {
+                literals.add(message.substring(literalStart, start));
+                String name = message.substring(start + 2, end).toLowerCase();
+                int index = variableNames.indexOf(name);
+                if (index < 0) {
+                    index = variableNames.size();
+                    variableNames.add(name);
+                }
+                variables.add(index);
+                literalStart = end + 1;
+                start = message.indexOf("${", literalStart);
+            } else {
+                start = message.indexOf("${", start + 1);
+            }
+        }
+        literals.add(message.substring(literalStart));
+
+        return new MessageTemplate(literals.toArray(new String[0]),
+                variables.stream().mapToInt(Integer::intValue).toArray(),
+                variableNames.toArray(new String[0]));
+    }
+
+    /**
+     * @return the lower cased names of the distinct variables of the message
+     */
+    public String[] getVariableNames() {
+        return variableNames.clone();
+    }
+
+    /**
+     * Replaces the variables of the message with their values.
+     *
+     * @param values
+     *            gets the value of a variable by its lower cased name, a missing or empty value is replaced with a
+     *            default one
+     * @return the resolved message
+     */
+    public String resolve(Function<String, String> values) {
+        if (variables.length == 0) {
+            return literals[0];
+        }
+
+        String[] resolvedValues = new String[variableNames.length];
+        int length = 0;
+        for (int i = 0; i < variableNames.length; ++i) {
+            resolvedValues[i] = MessageResolver.valueOrDefault(variableNames[i], values.apply(variableNames[i]));
+        }
+        for (String literal : literals) {
+            length += literal.length();
+        }
+        for (int variable : variables) {
+            length += resolvedValues[variable].length();
+        }
+
+        StringBuilder builder = new StringBuilder(length);
+        for (int i = 0; i < variables.length; ++i) {
+            builder.append(literals[i]).append(resolvedValues[variables[i]]);
+        }
+        return builder.append(literals[variables.length]).toString();
+    }
+
+    /**
+     * @return true if the character matches <code>\w</code>
+     */
+    private static boolean isWordCharacter(char c) {
+        return c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z' || c >= '0' && c <= '9' || c == '_';
+    }
+}
@@ -5,6 +5,7 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
+import javax.inject.Inject;
 import javax.inject.Named;
 import javax.inject.Singleton;
 
@@ -21,6 +22,8 @@ import org.ovirt.engine.core.common.network.SwitchType;
 import org.ovirt.engine.core.common.scheduling.OptimizationType;
 import org.ovirt.engine.core.compat.Guid;
 import org.ovirt.engine.core.dal.dbbroker.DbFacadeUtils;
+import org.ovirt.engine.core.dao.cache.EntityCacheManager;
+import org.ovirt.engine.core.dao.cache.VdsChangeTracker;
 import org.ovirt.engine.core.utils.SerializationFactory;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.jdbc.core.SingleColumnRowMapper;
@@ -34,9 +37,15 @@ import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 @Singleton
 public class ClusterDaoImpl extends BaseDao implements ClusterDao {
 
+    @Inject
+    private EntityCacheManager entityCacheManager;
+
+    @Inject
+    private VdsChangeTracker vdsChangeTracker;
+
     @Override
     public Cluster get(Guid id) {
-        return get(id, null, false);
+        return entityCacheManager.getCache(Cluster.class).get(id, clusterId -> get(clusterId, null, false));
     }
 
     @Override
@@ -130,11 +139,15 @@ public class ClusterDaoImpl extends BaseDao implements ClusterDao {
             cluster.setId(id);
         }
         getCallsHandler().executeModification("InsertCluster", getClusterParamSource(cluster));
+        entityCacheManager.getCache(Cluster.class).invalidate(id);
+        vdsChangeTracker.changedAll();
     }
 
     @Override
     public void update(Cluster cluster) {
         getCallsHandler().executeModification("UpdateCluster", getClusterParamSource(cluster));
+        entityCacheManager.getCache(Cluster.class).invalidate(cluster.getId());
+        vdsChangeTracker.changedAll();
     }
 
     @Override
@@ -143,6 +156,8 @@ public class ClusterDaoImpl extends BaseDao implements ClusterDao {
                 .addValue("cluster_id", id);
 
         getCallsHandler().executeModification("DeleteCluster", parameterSource);
+        entityCacheManager.getCache(Cluster.class).invalidate(id);
+        vdsChangeTracker.changedAll();
     }
 
     @Override
@@ -181,6 +196,8 @@ public class ClusterDaoImpl extends BaseDao implements ClusterDao {
                 .addValue("detect_emulated_machine", detectEmulatedMachine);
 
         getCallsHandler().executeModification("UpdateClusterEmulatedMachine", parameterSource);
+        entityCacheManager.getCache(Cluster.class).invalidate(clusterId);
+        vdsChangeTracker.changedAll();
     }
 
     @Override
@@ -2,11 +2,13 @@ package org.ovirt.engine.core.dao;
 
 import java.util.List;
 
+import javax.inject.Inject;
 import javax.inject.Named;
 import javax.inject.Singleton;
 
 import org.ovirt.engine.core.common.businessentities.aaa.DbGroup;
 import org.ovirt.engine.core.compat.Guid;
+import org.ovirt.engine.core.dao.cache.PermissionChangeTracker;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 
@@ -17,6 +19,9 @@ import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 @Singleton
 public class DbGroupDaoImpl extends BaseDao implements DbGroupDao {
 
+    @Inject
+    private PermissionChangeTracker permissionChangeTracker;
+
     @Override
     public DbGroup get(Guid id) {
         return getCallsHandler().executeRead("GetGroupById",
@@ -92,6 +97,7 @@ public class DbGroupDaoImpl extends BaseDao implements DbGroupDao {
             group.setId(Guid.newGuid());
         }
         insertOrUpdate(group, "InsertGroup");
+        permissionChangeTracker.allUserGroupsChanged();
     }
 
     @Override
@@ -115,6 +121,8 @@ public class DbGroupDaoImpl extends BaseDao implements DbGroupDao {
                 .addValue("id", id);
 
         getCallsHandler().executeModification("DeleteGroup", parameterSource);
+        permissionChangeTracker.adElementChanged(id);
+        permissionChangeTracker.allUserGroupsChanged();
     }
 
     private static final RowMapper<DbGroup> dbGroupRowMapper = (rs, rowNum) -> {
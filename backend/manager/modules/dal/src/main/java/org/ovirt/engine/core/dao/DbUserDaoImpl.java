@@ -2,6 +2,7 @@ package org.ovirt.engine.core.dao;
 
 import java.util.List;
 
+import javax.inject.Inject;
 import javax.inject.Named;
 import javax.inject.Singleton;
 
@@ -9,6 +10,7 @@ import org.apache.commons.lang.StringUtils;
 import org.ovirt.engine.core.common.businessentities.aaa.DbUser;
 import org.ovirt.engine.core.compat.Guid;
 import org.ovirt.engine.core.dal.dbbroker.CustomMapSqlParameterSource;
+import org.ovirt.engine.core.dao.cache.PermissionChangeTracker;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 import org.springframework.jdbc.core.simple.SimpleJdbcCall;
@@ -19,6 +21,10 @@ import org.springframework.jdbc.core.simple.SimpleJdbcCall;
 @Named
 @Singleton
 public class DbUserDaoImpl extends BaseDao implements DbUserDao {
+
+    @Inject
+    private PermissionChangeTracker permissionChangeTracker;
+
     private static final RowMapper<DbUser> dbUserRowMapper = (rs, rowNum) -> {
         DbUser entity = new DbUser();
         entity.setDepartment(rs.getString("department"));
@@ -167,6 +173,7 @@ public class DbUserDaoImpl extends BaseDao implements DbUserDao {
                 .addValue("user_id", id);
 
         getCallsHandler().executeModification("DeleteUser", parameterSource);
+        permissionChangeTracker.adElementChanged(id);
     }
 
     @Override
@@ -165,4 +165,18 @@ public interface DiskDao extends ReadDao<Disk, Guid>, SearchDao<Disk> {
      * @return the list of disks
      */
     public List<Disk> getAllFromDisksIncludingSnapshotsByDiskId(Guid id, Guid userID, boolean isFiltered);
+
+    /**
+     * Retrieves all disks for the specified disk ids in a single query, with optional filtering.
+     *
+     * @param ids
+     *            the disk ids
+     * @param userID
+     *            the ID of the user requesting the information
+     * @param isFiltered
+     *            Whether the results should be filtered according to the user's permissions
+
+     * @return the list of disks
+     */
+    public List<Disk> getAllFromDisksIncludingSnapshotsByDiskIds(Collection<Guid> ids, Guid userID, boolean isFiltered);
 }
@@ -154,6 +154,15 @@ public class DiskDaoImpl extends BaseDao implements DiskDao {
         return getCallsHandler().executeReadList("GetDiskAndSnapshotsByDiskId", diskRowMapper, parameterSource);
     }
 
+    @Override
+    public List<Disk> getAllFromDisksIncludingSnapshotsByDiskIds(Collection<Guid> ids, Guid userID,
+            boolean isFiltered) {
+        MapSqlParameterSource parameterSource = getCustomMapSqlParameterSource()
+                .addValue("disk_ids", createArrayOfUUIDs(ids)).addValue("user_id", userID)
+                .addValue("is_filtered", isFiltered);
+        return getCallsHandler().executeReadList("GetDisksAndSnapshotsByDiskIds", diskRowMapper, parameterSource);
+    }
+
     @Override
     public List<Disk> getAllWithQuery(String query) {
         return getJdbcTemplate().query(query, diskRowMapper);
@@ -1,13 +1,28 @@
 package org.ovirt.engine.core.dao;
 
 import java.util.Collection;
+import java.util.List;
 
 import org.ovirt.engine.core.common.businessentities.storage.DiskImageDynamic;
 import org.ovirt.engine.core.common.utils.Pair;
 import org.ovirt.engine.core.compat.Guid;
+import org.ovirt.engine.core.dal.dbbroker.MapSqlParameterMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 
 public interface DiskImageDynamicDao extends GenericDao<DiskImageDynamic, Guid>, MassOperationsDao<DiskImageDynamic, Guid> {
 
     public void updateAllDiskImageDynamicWithDiskIdByVmId(Collection<Pair<Guid, DiskImageDynamic>> diskImageDynamic);
 
+    /**
+     * Same as {@link #updateAllDiskImageDynamicWithDiskIdByVmId(Collection)}, with parameters that were created in
+     * advance by {@link #getBatchImageGroupMapper()}. The parameters are expected to be sorted by the disk id.
+     */
+    public void updateAllDiskImageDynamicParametersInBatch(List<MapSqlParameterSource> parameters);
+
+    /**
+     * @return the mapper converting a pair of VM id and disk image dynamic to the parameters of
+     *         {@link #updateAllDiskImageDynamicWithDiskIdByVmId(Collection)}
+     */
+    public MapSqlParameterMapper<Pair<Guid, DiskImageDynamic>> getBatchImageGroupMapper();
+
 }
@@ -64,6 +64,7 @@ public class DiskImageDynamicDaoImpl extends MassOperationsGenericDao<DiskImageD
         };
     }
 
+    @Override
     public MapSqlParameterMapper<Pair<Guid, DiskImageDynamic>> getBatchImageGroupMapper() {
         return entity -> {
             Guid vmId = entity.getFirst();
@@ -93,4 +94,12 @@ public class DiskImageDynamicDaoImpl extends MassOperationsGenericDao<DiskImageD
         getCallsHandler().executeStoredProcAsBatch("Updatedisk_image_dynamic_by_disk_id_and_vm_id",
                 sortDiskImageDynamicForUpdate(diskImageDynamicForVm), getBatchImageGroupMapper());
     }
+
+    @Override
+    public void updateAllDiskImageDynamicParametersInBatch(List<MapSqlParameterSource> parameters) {
+        if (parameters.isEmpty()) {
+            return;
+        }
+        getCallsHandler().executeStoredProcAsBatch("Updatedisk_image_dynamic_by_disk_id_and_vm_id", parameters);
+    }
 }
@@ -2,8 +2,11 @@ package org.ovirt.engine.core.dao;
 
 import java.io.Serializable;
 import java.util.Collection;
+import java.util.List;
 
 import org.ovirt.engine.core.common.businessentities.BusinessEntity;
+import org.ovirt.engine.core.dal.dbbroker.MapSqlParameterMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 
 /**
  * Data Access Object which supports mass operations for the given entity type.
@@ -49,6 +52,18 @@ public interface MassOperationsDao<T extends BusinessEntity<?>, ID extends Seria
      */
     void updateAllInBatch(Collection<T> entities);
 
+    /**
+     * Calls an update stored procedure multiple times in a batch, with parameters that were created in advance by
+     * {@link #getBatchMapper()}. The parameters are expected to be sorted, to prevent deadlocks.
+     */
+    void updateAllParametersInBatch(List<MapSqlParameterSource> parameters);
+
+    /**
+     * @return the mapper converting an entity to the parameters of the batched procedures. The parameters do not
+     *         reflect later changes of the entity, so they can be used to take a snapshot of it.
+     */
+    MapSqlParameterMapper<T> getBatchMapper();
+
     /**
      * Calls an insert stored procedure multiple times
      */
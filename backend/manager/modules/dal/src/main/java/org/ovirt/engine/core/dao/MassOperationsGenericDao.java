@@ -9,6 +9,7 @@ import java.util.List;
 import org.ovirt.engine.core.common.businessentities.BusinessEntity;
 import org.ovirt.engine.core.common.businessentities.comparators.BusinessEntityComparator;
 import org.ovirt.engine.core.dal.dbbroker.MapSqlParameterMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 
 /**
  * Implementation for the {@link MassOperationsDao} which provides a default
@@ -107,6 +108,15 @@ public abstract class MassOperationsGenericDao<T extends BusinessEntity<ID>, ID
         updateAllInBatch(getProcedureNameForUpdate(), entities, getBatchMapper());
     }
 
+    @Override
+    public void updateAllParametersInBatch(List<MapSqlParameterSource> parameters) {
+        if (parameters.isEmpty()) {
+            return;
+        }
+        getCallsHandler().executeStoredProcAsBatch(getProcedureNameForUpdate(), parameters);
+    }
+
+    @Override
     public MapSqlParameterMapper<T> getBatchMapper() {
         return this::createFullParametersMapper;
     }
@@ -180,6 +180,33 @@ public interface PermissionDao extends GenericDao<Permission, Guid> {
                                               VdcObjectType vdcObjectType,
                                               boolean ignoreEveryone);
 
+    /**
+     * Retrieves all the permissions, only their ids, ad elements, roles and objects are set, without the names shown
+     * with them.
+     *
+     * @return the list of permissions
+     */
+    List<Permission> getAllGrants();
+
+    /**
+     * Retrieves the permissions granted to the given user or group, set as by {@link #getAllGrants()}.
+     *
+     * @param adElementId
+     *            the user or group
+     * @return the list of permissions
+     */
+    List<Permission> getAllGrantsForAdElement(Guid adElementId);
+
+    /**
+     * Retrieves the ids of the given user, of the groups of all the sessions of the user that are known to the engine
+     * and of the Everyone group, the ids the permissions of the user are looked up by.
+     *
+     * @param userId
+     *            the user
+     * @return the list of ids
+     */
+    List<Guid> getUserAndGroupIds(Guid userId);
+
     /**
      * Removes all permissions for the given entity.
      *
@@ -3,6 +3,7 @@ package org.ovirt.engine.core.dao;
 import java.util.Collection;
 import java.util.List;
 
+import javax.inject.Inject;
 import javax.inject.Named;
 import javax.inject.Singleton;
 
@@ -13,6 +14,7 @@ import org.ovirt.engine.core.common.businessentities.RoleType;
 import org.ovirt.engine.core.common.config.Config;
 import org.ovirt.engine.core.common.config.ConfigValues;
 import org.ovirt.engine.core.compat.Guid;
+import org.ovirt.engine.core.dao.cache.PermissionChangeTracker;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 
@@ -22,6 +24,10 @@ import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 @Named
 @Singleton
 public class PermissionDaoImpl extends BaseDao implements PermissionDao {
+
+    @Inject
+    private PermissionChangeTracker permissionChangeTracker;
+
     @Override
     public Permission get(Guid id) {
         MapSqlParameterSource parameterSource = getCustomMapSqlParameterSource()
@@ -254,6 +260,7 @@ public class PermissionDaoImpl extends BaseDao implements PermissionDao {
                         permission.getObjectType().getValue());
 
         getCallsHandler().executeModification("InsertPermission", parameterSource);
+        permissionChangeTracker.adElementChanged(permission.getAdElementId());
     }
 
     @Override
@@ -262,6 +269,7 @@ public class PermissionDaoImpl extends BaseDao implements PermissionDao {
                 .addValue("id", id);
 
         getCallsHandler().executeModification("DeletePermission", parameterSource);
+        permissionChangeTracker.permissionRemoved(id);
     }
 
     @Override
@@ -269,6 +277,28 @@ public class PermissionDaoImpl extends BaseDao implements PermissionDao {
         MapSqlParameterSource parameterSource = getCustomMapSqlParameterSource()
                 .addValue("id", id);
         getCallsHandler().executeModification("DeletePermissionsByEntityId", parameterSource);
+        permissionChangeTracker.objectPermissionsRemoved(id);
+    }
+
+    @Override
+    public List<Permission> getAllGrants() {
+        return getCallsHandler().executeReadList("GetAllPermissionGrants",
+                permissionGrantRowMapper,
+                getCustomMapSqlParameterSource());
+    }
+
+    @Override
+    public List<Permission> getAllGrantsForAdElement(Guid adElementId) {
+        return getCallsHandler().executeReadList("GetPermissionGrantsByAdElementId",
+                permissionGrantRowMapper,
+                getCustomMapSqlParameterSource().addValue("ad_element_id", adElementId));
+    }
+
+    @Override
+    public List<Guid> getUserAndGroupIds(Guid userId) {
+        return getCallsHandler().executeReadList("GetUserAndGroupIdsById",
+                (rs, rowNum) -> getGuidDefaultEmpty(rs, "id"),
+                getCustomMapSqlParameterSource().addValue("user_id", userId));
     }
 
     @Override
@@ -299,4 +329,14 @@ public class PermissionDaoImpl extends BaseDao implements PermissionDao {
 
         return entity;
     };
+
+    private static final RowMapper<Permission> permissionGrantRowMapper = (rs, rowNum) -> {
+        Permission entity = new Permission();
+        entity.setAdElementId(getGuidDefaultEmpty(rs, "ad_element_id"));
+        entity.setId(getGuidDefaultEmpty(rs, "id"));
+        entity.setRoleId(getGuidDefaultEmpty(rs, "role_id"));
+        entity.setObjectId(getGuidDefaultEmpty(rs, "object_id"));
+        entity.setObjectType(VdcObjectType.forValue(rs.getInt("object_type_id")));
+        return entity;
+    };
 }
@@ -2,6 +2,7 @@ package org.ovirt.engine.core.dao;
 
 import java.util.List;
 
+import javax.inject.Inject;
 import javax.inject.Named;
 import javax.inject.Singleton;
 
@@ -11,6 +12,8 @@ import org.ovirt.engine.core.common.config.Config;
 import org.ovirt.engine.core.common.config.ConfigValues;
 import org.ovirt.engine.core.common.mode.ApplicationMode;
 import org.ovirt.engine.core.compat.Guid;
+import org.ovirt.engine.core.dao.cache.EntityCacheManager;
+import org.ovirt.engine.core.dao.cache.PermissionChangeTracker;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 
@@ -21,6 +24,12 @@ import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 @Singleton
 public class RoleDaoImpl extends BaseDao implements RoleDao {
 
+    @Inject
+    private EntityCacheManager entityCacheManager;
+
+    @Inject
+    private PermissionChangeTracker permissionChangeTracker;
+
     private static final RowMapper<Role> rolesRowMapper = (rs, rowNum) -> {
         Role entity = new Role();
         entity.setDescription(rs.getString("description"));
@@ -35,10 +44,12 @@ public class RoleDaoImpl extends BaseDao implements RoleDao {
 
     @Override
     public Role get(Guid id) {
-        MapSqlParameterSource parameterSource = getCustomMapSqlParameterSource()
-                .addValue("id", id);
+        return entityCacheManager.getCache(Role.class).get(id, roleId -> {
+            MapSqlParameterSource parameterSource = getCustomMapSqlParameterSource()
+                    .addValue("id", roleId);
 
-        return getCallsHandler().executeRead("GetRolsByid", rolesRowMapper, parameterSource);
+            return getCallsHandler().executeRead("GetRolsByid", rolesRowMapper, parameterSource);
+        });
     }
 
     @Override
@@ -95,6 +106,7 @@ public class RoleDaoImpl extends BaseDao implements RoleDao {
                 .addValue("app_mode", role.getAppMode().getValue());
 
         getCallsHandler().executeModification("InsertRole", parameterSource);
+        entityCacheManager.getCache(Role.class).invalidate(role.getId());
     }
 
     @Override
@@ -107,6 +119,7 @@ public class RoleDaoImpl extends BaseDao implements RoleDao {
                 .addValue("allows_viewing_children", role.allowsViewingChildren());
 
         getCallsHandler().executeModification("UpdateRole", parameterSource);
+        entityCacheManager.getCache(Role.class).invalidate(role.getId());
     }
 
     @Override
@@ -115,5 +128,7 @@ public class RoleDaoImpl extends BaseDao implements RoleDao {
                 .addValue("id", id);
 
         getCallsHandler().executeModification("DeleteRole", parameterSource);
+        entityCacheManager.getCache(Role.class).invalidate(id);
+        permissionChangeTracker.changed();
     }
 }
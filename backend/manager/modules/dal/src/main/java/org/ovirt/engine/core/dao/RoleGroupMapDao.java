@@ -30,6 +30,13 @@ public interface RoleGroupMapDao extends Dao {
      */
     List<RoleGroupMap> getAllForRole(Guid id);
 
+    /**
+     * Retrieves the mappings of all the roles.
+     *
+     * @return the list of mappings
+     */
+    List<RoleGroupMap> getAll();
+
     /**
      * Saves the specified map.
      *
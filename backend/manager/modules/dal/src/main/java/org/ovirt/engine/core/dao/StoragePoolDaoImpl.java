@@ -2,15 +2,19 @@ package org.ovirt.engine.core.dao;
 
 import java.util.List;
 
+import javax.inject.Inject;
 import javax.inject.Named;
 import javax.inject.Singleton;
 
 import org.ovirt.engine.core.common.businessentities.ActionGroup;
+import org.ovirt.engine.core.common.businessentities.Cluster;
 import org.ovirt.engine.core.common.businessentities.QuotaEnforcementTypeEnum;
 import org.ovirt.engine.core.common.businessentities.StorageFormatType;
 import org.ovirt.engine.core.common.businessentities.StoragePool;
 import org.ovirt.engine.core.common.businessentities.StoragePoolStatus;
 import org.ovirt.engine.core.compat.Guid;
+import org.ovirt.engine.core.dao.cache.EntityCacheManager;
+import org.ovirt.engine.core.dao.cache.VdsChangeTracker;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 
@@ -37,9 +41,15 @@ public class StoragePoolDaoImpl extends BaseDao implements StoragePoolDao {
         return entity;
     };
 
+    @Inject
+    private EntityCacheManager entityCacheManager;
+
+    @Inject
+    private VdsChangeTracker vdsChangeTracker;
+
     @Override
     public StoragePool get(Guid id) {
-        return get(id, null, false);
+        return entityCacheManager.getCache(StoragePool.class).get(id, poolId -> get(poolId, null, false));
     }
 
     @Override
@@ -131,6 +141,8 @@ public class StoragePoolDaoImpl extends BaseDao implements StoragePoolDao {
 
         getCallsHandler().executeModification("Insertstorage_pool",
                 parameterSource);
+        entityCacheManager.getCache(StoragePool.class).invalidate(pool.getId());
+        vdsChangeTracker.changedAll();
     }
 
     @Override
@@ -152,6 +164,7 @@ public class StoragePoolDaoImpl extends BaseDao implements StoragePoolDao {
                         pool.getQuotaEnforcementType().getValue());
 
         getCallsHandler().executeModification("Updatestorage_pool", parameterSource);
+        invalidate(pool.getId());
     }
 
     @Override
@@ -169,6 +182,7 @@ public class StoragePoolDaoImpl extends BaseDao implements StoragePoolDao {
                         pool.getQuotaEnforcementType().getValue());
 
         getCallsHandler().executeModification("Updatestorage_pool_partial", parameterSource);
+        invalidate(pool.getId());
     }
 
     @Override
@@ -177,7 +191,7 @@ public class StoragePoolDaoImpl extends BaseDao implements StoragePoolDao {
                 .addValue("id", id)
                 .addValue("status", status);
         getCallsHandler().executeModification("Updatestorage_pool_status", parameterSource);
-
+        invalidate(id);
     }
 
     @Override
@@ -186,6 +200,17 @@ public class StoragePoolDaoImpl extends BaseDao implements StoragePoolDao {
                 .addValue("id", id);
 
         getCallsHandler().executeModification("Deletestorage_pool", parameterSource);
+        invalidate(id);
+    }
+
+    /**
+     * The clusters and hosts show the name of their data center, the SPM status of the hosts follows the status of
+     * the data center and the clusters are removed together with it.
+     */
+    private void invalidate(Guid id) {
+        entityCacheManager.getCache(StoragePool.class).invalidate(id);
+        entityCacheManager.getCache(Cluster.class).invalidateAll();
+        vdsChangeTracker.changedAll();
     }
 
     @Override
@@ -206,7 +231,10 @@ public class StoragePoolDaoImpl extends BaseDao implements StoragePoolDao {
     public int increaseStoragePoolMasterVersion(Guid id) {
         MapSqlParameterSource parameterSource = getCustomMapSqlParameterSource()
                 .addValue("id", id);
-        return getCallsHandler().executeModificationReturnResult("IncreaseStoragePoolMasterVersion", parameterSource);
+        int masterVersion =
+                getCallsHandler().executeModificationReturnResult("IncreaseStoragePoolMasterVersion", parameterSource);
+        invalidate(id);
+        return masterVersion;
     }
 
     @Override
@@ -21,6 +21,7 @@ import org.ovirt.engine.core.common.businessentities.network.DnsResolverConfigur
 import org.ovirt.engine.core.common.utils.ObjectUtils;
 import org.ovirt.engine.core.compat.Guid;
 import org.ovirt.engine.core.compat.RpmVersion;
+import org.ovirt.engine.core.dao.cache.VdsChangeTracker;
 import org.ovirt.engine.core.dao.network.DnsResolverConfigurationDao;
 import org.ovirt.engine.core.utils.JsonHelper;
 import org.ovirt.engine.core.utils.serialization.json.JsonObjectDeserializer;
@@ -41,6 +42,9 @@ public class VdsDynamicDaoImpl extends MassOperationsGenericDao<VdsDynamic, Guid
     @Inject
     private DnsResolverConfigurationDao dnsResolverConfigurationDao;
 
+    @Inject
+    private VdsChangeTracker vdsChangeTracker;
+
     private static final Logger log = LoggerFactory.getLogger(VdsDynamicDaoImpl.class);
 
     public VdsDynamicDaoImpl() {
@@ -138,11 +142,13 @@ public class VdsDynamicDaoImpl extends MassOperationsGenericDao<VdsDynamic, Guid
     @Override
     public void save(VdsDynamic vds) {
         getCallsHandler().executeModification("InsertVdsDynamic", createFullParametersMapperForSave(vds));
+        vdsChangeTracker.changed(vds.getId());
     }
 
     @Override
     public void update(VdsDynamic vds) {
         getCallsHandler().executeModification("UpdateVdsDynamic", createFullParametersMapper(vds));
+        vdsChangeTracker.changed(vds.getId());
     }
 
     public void updateDnsResolverConfiguration(Guid vdsId, DnsResolverConfiguration reportedDnsResolverConfiguration) {
@@ -167,6 +173,7 @@ public class VdsDynamicDaoImpl extends MassOperationsGenericDao<VdsDynamic, Guid
                 .addValue("vds_id", id);
 
         getCallsHandler().executeModification("DeleteVdsDynamic", parameterSource);
+        vdsChangeTracker.changed(id);
     }
 
     @Override
@@ -179,6 +186,7 @@ public class VdsDynamicDaoImpl extends MassOperationsGenericDao<VdsDynamic, Guid
         MapSqlParameterSource parameterSource = getStatusSqlParameterSource(id, status);
 
         getCallsHandler().executeModification("UpdateVdsDynamicStatus", parameterSource);
+        vdsChangeTracker.changed(id);
     }
 
     @Override
@@ -188,6 +196,7 @@ public class VdsDynamicDaoImpl extends MassOperationsGenericDao<VdsDynamic, Guid
                 .addValue("maintenance_reason", host.getMaintenanceReason());
 
         getCallsHandler().executeModification("UpdateVdsDynamicStatusAndReasons", parameterSource);
+        vdsChangeTracker.changed(host.getId());
     }
 
     @Override
@@ -213,6 +222,7 @@ public class VdsDynamicDaoImpl extends MassOperationsGenericDao<VdsDynamic, Guid
                 .addValue("external_status", status);
 
         getCallsHandler().executeModification("UpdateHostExternalStatus", parameterSource);
+        vdsChangeTracker.changed(id);
     }
 
     @Override
@@ -222,6 +232,7 @@ public class VdsDynamicDaoImpl extends MassOperationsGenericDao<VdsDynamic, Guid
                 .addValue("net_config_dirty", netConfigDirty);
 
         getCallsHandler().executeModification("UpdateVdsDynamicNetConfigDirty", parameterSource);
+        vdsChangeTracker.changed(id);
     }
 
     @Override
@@ -232,7 +243,7 @@ public class VdsDynamicDaoImpl extends MassOperationsGenericDao<VdsDynamic, Guid
                 .addValue("controlled_by_pm_policy", controlledByPmPolicy);
 
         getCallsHandler().executeModification("UpdateVdsDynamicPowerManagementPolicyFlag", parameterSource);
-
+        vdsChangeTracker.changed(id);
     }
 
     private MapSqlParameterSource createFullParametersMapperForSave(VdsDynamic vds) {
@@ -345,6 +356,7 @@ public class VdsDynamicDaoImpl extends MassOperationsGenericDao<VdsDynamic, Guid
                 getCustomMapSqlParameterSource()
                         .addValue("vds_id", id)
                         .addValue("cpu_flags", cpuFlags));
+        vdsChangeTracker.changed(id);
     }
 
     @Override
@@ -362,5 +374,6 @@ public class VdsDynamicDaoImpl extends MassOperationsGenericDao<VdsDynamic, Guid
                 .addValue("is_update_available", updateAvailable);
 
         getCallsHandler().executeModification("UpdateVdsDynamicIsUpdateAvailable", parameterSource);
+        vdsChangeTracker.changed(id);
     }
 }
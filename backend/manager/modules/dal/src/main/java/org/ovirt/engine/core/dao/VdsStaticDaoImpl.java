@@ -3,6 +3,7 @@ package org.ovirt.engine.core.dao;
 import java.io.IOException;
 import java.util.List;
 
+import javax.inject.Inject;
 import javax.inject.Named;
 import javax.inject.Singleton;
 
@@ -14,6 +15,8 @@ import org.ovirt.engine.core.common.businessentities.VDSType;
 import org.ovirt.engine.core.common.businessentities.VdsStatic;
 import org.ovirt.engine.core.common.utils.pm.FenceProxySourceTypeHelper;
 import org.ovirt.engine.core.compat.Guid;
+import org.ovirt.engine.core.dao.cache.EntityCacheManager;
+import org.ovirt.engine.core.dao.cache.VdsChangeTracker;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.jdbc.core.SingleColumnRowMapper;
 import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
@@ -26,12 +29,19 @@ import org.springframework.jdbc.core.simple.SimpleJdbcCall;
 @Singleton
 public class VdsStaticDaoImpl extends BaseDao implements VdsStaticDao {
 
+    @Inject
+    private EntityCacheManager entityCacheManager;
+
+    @Inject
+    private VdsChangeTracker vdsChangeTracker;
+
     @Override
     public VdsStatic get(Guid id) {
-        return getCallsHandler().executeRead("GetVdsStaticByVdsId",
-                vdsStaticRowMapper,
-                getCustomMapSqlParameterSource()
-                        .addValue("vds_id", id));
+        return entityCacheManager.getCache(VdsStatic.class).get(id,
+                vdsId -> getCallsHandler().executeRead("GetVdsStaticByVdsId",
+                        vdsStaticRowMapper,
+                        getCustomMapSqlParameterSource()
+                                .addValue("vds_id", vdsId)));
     }
 
     @Override
@@ -67,6 +77,8 @@ public class VdsStaticDaoImpl extends BaseDao implements VdsStaticDao {
         }
         new SimpleJdbcCall(getJdbcTemplate()).withProcedureName("InsertVdsStatic")
                 .execute(getInsertOrUpdateParams(vds));
+        entityCacheManager.getCache(VdsStatic.class).invalidate(id);
+        vdsChangeTracker.changed(id);
     }
 
     /**
@@ -76,6 +88,8 @@ public class VdsStaticDaoImpl extends BaseDao implements VdsStaticDao {
     @Override
     public void update(VdsStatic vds) {
         getCallsHandler().executeModification("UpdateVdsStatic", getInsertOrUpdateParams(vds));
+        entityCacheManager.getCache(VdsStatic.class).invalidate(vds.getId());
+        vdsChangeTracker.changed(vds.getId());
     }
 
     private MapSqlParameterSource getInsertOrUpdateParams(final VdsStatic vds) {
@@ -113,6 +127,8 @@ public class VdsStaticDaoImpl extends BaseDao implements VdsStaticDao {
                 .addValue("vds_id", id);
 
         getCallsHandler().executeModification("DeleteVdsStatic", parameterSource);
+        entityCacheManager.getCache(VdsStatic.class).invalidate(id);
+        vdsChangeTracker.changed(id);
     }
 
     @Override
@@ -173,6 +189,8 @@ public class VdsStaticDaoImpl extends BaseDao implements VdsStaticDao {
                 getCustomMapSqlParameterSource()
                         .addValue("vds_id", vdsStaticId)
                         .addValue("last_stored_kernel_cmdline", lastStoredKernelCmdline));
+        entityCacheManager.getCache(VdsStatic.class).invalidate(vdsStaticId);
+        vdsChangeTracker.changed(vdsStaticId);
     }
 
     @Override
@@ -182,6 +200,8 @@ public class VdsStaticDaoImpl extends BaseDao implements VdsStaticDao {
                 getCustomMapSqlParameterSource()
                         .addValue("vds_id", vdsStaticId)
                         .addValue("reinstall_required", reinstallRequired));
+        entityCacheManager.getCache(VdsStatic.class).invalidate(vdsStaticId);
+        vdsChangeTracker.changed(vdsStaticId);
     }
 
     @Override
@@ -5,6 +5,7 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.List;
 
+import javax.inject.Inject;
 import javax.inject.Named;
 import javax.inject.Singleton;
 
@@ -13,6 +14,7 @@ import org.ovirt.engine.core.common.businessentities.HugePage;
 import org.ovirt.engine.core.common.businessentities.VdsStatistics;
 import org.ovirt.engine.core.compat.Guid;
 import org.ovirt.engine.core.dal.dbbroker.DbFacadeUtils;
+import org.ovirt.engine.core.dao.cache.VdsChangeTracker;
 import org.ovirt.engine.core.utils.JsonHelper;
 import org.ovirt.engine.core.utils.SerializationException;
 import org.ovirt.engine.core.utils.SerializationFactory;
@@ -31,6 +33,9 @@ public class VdsStatisticsDaoImpl extends BaseDao implements VdsStatisticsDao {
 
     private static final Logger log = LoggerFactory.getLogger(VdsStatisticsDaoImpl.class);
 
+    @Inject
+    private VdsChangeTracker vdsChangeTracker;
+
     private static class VdsStatisticsRowMapper implements RowMapper<VdsStatistics> {
 
         public static final VdsStatisticsRowMapper INSTANCE = new VdsStatisticsRowMapper();
@@ -122,6 +127,7 @@ public class VdsStatisticsDaoImpl extends BaseDao implements VdsStatisticsDao {
                 .addValue("hugepages", serializeHugePages(stats.getHugePages()));
 
         getCallsHandler().executeModification("InsertVdsStatistics", parameterSource);
+        vdsChangeTracker.changed(stats.getId());
     }
 
     private static String serializeHugePages(List<HugePage> hugePages) {
@@ -168,6 +174,7 @@ public class VdsStatisticsDaoImpl extends BaseDao implements VdsStatisticsDao {
                 .addValue("hugepages", serializeHugePages(stats.getHugePages()));
 
         getCallsHandler().executeModification("UpdateVdsStatistics", parameterSource);
+        vdsChangeTracker.changed(stats.getId());
     }
 
     @Override
@@ -176,6 +183,7 @@ public class VdsStatisticsDaoImpl extends BaseDao implements VdsStatisticsDao {
                 .addValue("vds_id", id);
 
         getCallsHandler().executeModification("DeleteVdsStatistics", parameterSource);
+        vdsChangeTracker.changed(id);
     }
 
     @Override
@@ -45,4 +45,11 @@ public interface VmGuestAgentInterfaceDao extends Dao {
      *            the VmGuestAgentInterface
      */
     void save(VmGuestAgentInterface vmGuestAgentInterface);
+
+    /**
+     * Persists the given VmGuestAgentInterfaces in a single batch
+     * @param vmGuestAgentInterfaces
+     *            the VmGuestAgentInterfaces
+     */
+    void saveAllInBatch(Collection<VmGuestAgentInterface> vmGuestAgentInterfaces);
 }
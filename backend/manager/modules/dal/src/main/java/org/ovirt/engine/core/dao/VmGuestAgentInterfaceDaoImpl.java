@@ -39,6 +39,16 @@ public class VmGuestAgentInterfaceDaoImpl extends BaseDao implements VmGuestAgen
                 createFullParametersMapper(vmGuestAgentInterface));
     }
 
+    @Override
+    public void saveAllInBatch(Collection<VmGuestAgentInterface> vmGuestAgentInterfaces) {
+        if (vmGuestAgentInterfaces.isEmpty()) {
+            return;
+        }
+        getCallsHandler().executeStoredProcAsBatch("InsertVmGuestAgentInterface",
+                vmGuestAgentInterfaces,
+                this::createFullParametersMapper);
+    }
+
     @Override
     public void removeAllForVms(Collection<Guid> vmIds) {
         getCallsHandler().executeModification("DeleteVmGuestAgentInterfacesByVmIds",
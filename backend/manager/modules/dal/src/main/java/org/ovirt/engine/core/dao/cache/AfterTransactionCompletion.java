@@ -0,0 +1,82 @@
+package org.ovirt.engine.core.dao.cache;
+
+import javax.transaction.Status;
+import javax.transaction.Synchronization;
+import javax.transaction.Transaction;
+
+import org.ovirt.engine.core.utils.transaction.TransactionSupport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Registers code to run after the current transaction completes, whether it is committed or rolled back. Both the
+ * Spring transaction synchronization used by the DAO tests and the JTA transaction of the engine are supported.
+ */
+final class AfterTransactionCompletion {
+
+    private static final Logger log = LoggerFactory.getLogger(AfterTransactionCompletion.class);
+
+    private AfterTransactionCompletion() {
+    }
+
+    /**
+     * Registers the code to the current transaction, nothing is done when there is no transaction or when the code
+     * can't be registered.
+     *
+     * @return true if the code was registered
+     */
+    static boolean register(Runnable code) {
+        if (registerToSpringTransaction(code)) {
+            return true;
+        }
+        try {
+            return registerToJtaTransaction(code);
+        } catch (Exception e) {
+            log.debug("Unable to register code to run after the current transaction completes: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * @return true if the code was registered to the active Spring transaction synchronization
+     */
+    static boolean registerToSpringTransaction(Runnable code) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return false;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+            @Override
+            public void afterCompletion(int status) {
+                code.run();
+            }
+        });
+        return true;
+    }
+
+    /**
+     * Registers the code to the current JTA transaction, nothing is done when there is no transaction.
+     *
+     * @return true if the code was registered
+     * @throws Exception
+     *             if the current transaction can't be examined or the code can't be registered to it
+     */
+    static boolean registerToJtaTransaction(Runnable code) throws Exception {
+        Transaction transaction = TransactionSupport.current();
+        if (transaction == null || transaction.getStatus() == Status.STATUS_NO_TRANSACTION) {
+            return false;
+        }
+        transaction.registerSynchronization(new Synchronization() {
+            @Override
+            public void beforeCompletion() {
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                code.run();
+            }
+        });
+        return true;
+    }
+}
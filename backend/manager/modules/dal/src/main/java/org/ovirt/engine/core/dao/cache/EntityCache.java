@@ -0,0 +1,197 @@
+package org.ovirt.engine.core.dao.cache;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+import org.ovirt.engine.core.compat.Guid;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Bounded, read-through cache of entities read by id.
+ *
+ * The cache holds private copies of the entities and returns a new copy on every hit, so the callers are free to
+ * modify what they get. An entity is cached only when it is read outside of a transaction: a transaction may see its
+ * own uncommitted changes which must not leak to others. The DAO has to call {@link #invalidate(Guid)} or
+ * {@link #invalidateAll()} on every modification, the entry is then dropped right away and once more when the
+ * modifying transaction completes. Changes done behind the back of the DAO are picked up when the entry expires.
+ *
+ * @param <T>
+ *            The type of the entity.
+ */
+public class EntityCache<T extends Serializable> {
+
+    private static final Logger log = LoggerFactory.getLogger(EntityCache.class);
+
+    private final String name;
+    private final EntityCacheManager manager;
+    private final Map<Guid, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    /**
+     * Incremented by every invalidation, an entity read before an invalidation is not cached after it.
+     */
+    private long generation;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    EntityCache(String name, EntityCacheManager manager) {
+        this.name = name;
+        this.manager = manager;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns a copy of the cached entity or loads it by the given loader.
+     *
+     * @param id
+     *            The id of the entity, the loader is called directly for {@code null}
+     * @param loader
+     *            Reads the entity from the database
+     * @return The entity, or {@code null} if not found.
+     */
+    public T get(Guid id, Function<Guid, T> loader) {
+        if (id == null || !manager.isCacheable()) {
+            return loader.apply(id);
+        }
+
+        Entry entry;
+        long readGeneration;
+        synchronized (entries) {
+            entry = entries.get(id);
+            readGeneration = generation;
+        }
+        if (entry != null && !entry.isExpired(manager.getTimeToLiveNanos())) {
+            T copy = deserialize(entry.serialized);
+            if (copy != null) {
+                hits.increment();
+                return copy;
+            }
+        }
+
+        misses.increment();
+        T entity = loader.apply(id);
+        if (entity != null) {
+            put(id, entity, readGeneration);
+        }
+        return entity;
+    }
+
+    /**
+     * Drops the entity with the given id, has to be called on every change of the entity.
+     */
+    public void invalidate(Guid id) {
+        invalidateNow(id);
+        manager.afterTransactionCompletion(() -> invalidateNow(id));
+    }
+
+    /**
+     * Drops all the entities, to be called on changes that can't be attributed to a single entity.
+     */
+    public void invalidateAll() {
+        invalidateAllNow();
+        manager.afterTransactionCompletion(this::invalidateAllNow);
+    }
+
+    public EntityCacheStatistics getStatistics() {
+        int size;
+        synchronized (entries) {
+            size = entries.size();
+        }
+        return new EntityCacheStatistics(name,
+                size,
+                hits.sum(),
+                misses.sum(),
+                evictions.sum(),
+                invalidations.sum());
+    }
+
+    public void resetStatistics() {
+        hits.reset();
+        misses.reset();
+        evictions.reset();
+        invalidations.reset();
+    }
+
+    void invalidateAllNow() {
+        synchronized (entries) {
+            ++generation;
+            entries.clear();
+        }
+        invalidations.increment();
+    }
+
+    private void invalidateNow(Guid id) {
+        synchronized (entries) {
+            ++generation;
+            entries.remove(id);
+        }
+        invalidations.increment();
+    }
+
+    private void put(Guid id, T entity, long readGeneration) {
+        byte[] serialized = serialize(id, entity);
+        if (serialized == null) {
+            return;
+        }
+
+        synchronized (entries) {
+            // The entity might have been changed while it was read
+            if (readGeneration != generation) {
+                return;
+            }
+            entries.put(id, new Entry(serialized));
+            if (entries.size() > manager.getMaxSize()) {
+                entries.remove(entries.keySet().iterator().next());
+                evictions.increment();
+            }
+        }
+    }
+
+    private byte[] serialize(Guid id, T entity) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(entity);
+        } catch (IOException e) {
+            log.debug("Entity '{}' can't be stored in cache '{}': {}", id, name, e.getMessage());
+            return null;
+        }
+        return bytes.toByteArray();
+    }
+
+    @SuppressWarnings("unchecked")
+    private T deserialize(byte[] serialized) {
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(serialized))) {
+            return (T) in.readObject();
+        } catch (IOException | ClassNotFoundException e) {
+            log.debug("Entity can't be read from cache '{}': {}", name, e.getMessage());
+            return null;
+        }
+    }
+
+    private static class Entry {
+        private final byte[] serialized;
+        private final long createdNanos = System.nanoTime();
+
+        private Entry(byte[] serialized) {
+            this.serialized = serialized;
+        }
+
+        private boolean isExpired(long timeToLiveNanos) {
+            return System.nanoTime() - createdNanos > timeToLiveNanos;
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package org.ovirt.engine.core.dao.cache;
+
+import java.io.Serializable;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.inject.Named;
+import javax.inject.Singleton;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.transaction.Status;
+import javax.transaction.Transaction;
+
+import org.ovirt.engine.core.common.config.Config;
+import org.ovirt.engine.core.common.config.ConfigValues;
+import org.ovirt.engine.core.utils.transaction.TransactionSupport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Creates the {@link EntityCache}s of the DAOs and holds their common settings and transaction handling.
+ *
+ * The caches are sized and expired according to {@link ConfigValues#EntityCacheMaxSize} and
+ * {@link ConfigValues#EntityCacheTimeToLiveInSeconds}, a time to live of zero disables the caching.
+ */
+@Named
+@Singleton
+public class EntityCacheManager implements EntityCacheManagerMXBean {
+
+    private static final Logger log = LoggerFactory.getLogger(EntityCacheManager.class);
+
+    private final Map<Class<?>, EntityCache<?>> caches = new ConcurrentHashMap<>();
+
+    private volatile boolean configured;
+    private int maxSize;
+    private long timeToLiveNanos;
+
+    private MBeanServer platformMBeanServer;
+    private ObjectName objectName;
+
+    @PostConstruct
+    public void registerInJMX() {
+        try {
+            objectName = new ObjectName("EntityCacheManager:type=" + this.getClass().getName());
+            platformMBeanServer = ManagementFactory.getPlatformMBeanServer();
+            platformMBeanServer.registerMBean(this, objectName);
+        } catch (Exception e) {
+            throw new IllegalStateException("Problem during registration of Monitoring into JMX:" + e);
+        }
+    }
+
+    @PreDestroy
+    public void unregisterFromJMX() {
+        try {
+            platformMBeanServer.unregisterMBean(this.objectName);
+        } catch (Exception e) {
+            throw new IllegalStateException("Problem during unregistration of Monitoring into JMX:" + e);
+        }
+    }
+
+    /**
+     * Gets the cache of the given entity type, the DAO of the entity reads through it and DAOs changing data that is
+     * part of the entity invalidate it.
+     */
+    @SuppressWarnings("unchecked")
+    public <T extends Serializable> EntityCache<T> getCache(Class<T> entityType) {
+        return (EntityCache<T>) caches.computeIfAbsent(entityType,
+                type -> new EntityCache<T>(type.getSimpleName(), this));
+    }
+
+    @Override
+    public List<EntityCacheStatistics> getCacheStatistics() {
+        return caches.values().stream()
+                .map(EntityCache::getStatistics)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public List<String> showCacheStatistics() {
+        return getCacheStatistics().stream()
+                .map(EntityCacheStatistics::toString)
+                .sorted()
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public void invalidateAll() {
+        caches.values().forEach(EntityCache::invalidateAllNow);
+    }
+
+    @Override
+    public void reset() {
+        caches.values().forEach(EntityCache::resetStatistics);
+    }
+
+    int getMaxSize() {
+        return maxSize;
+    }
+
+    long getTimeToLiveNanos() {
+        return timeToLiveNanos;
+    }
+
+    /**
+     * @return true if entities read now may be cached and cached entities may be returned, that is when caching is
+     *         enabled and there is no active transaction
+     */
+    boolean isCacheable() {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return false;
+        }
+        if (!configured) {
+            configure();
+        }
+        if (timeToLiveNanos <= 0) {
+            return false;
+        }
+        try {
+            Transaction transaction = TransactionSupport.current();
+            return transaction == null || transaction.getStatus() == Status.STATUS_NO_TRANSACTION;
+        } catch (Exception e) {
+            log.debug("Unable to check the current transaction, bypassing the entity caches: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Runs the given code after the current transaction completes, whether it is committed or rolled back.
+     * Nothing is done when there is no transaction.
+     */
+    void afterTransactionCompletion(Runnable code) {
+        if (AfterTransactionCompletion.registerToSpringTransaction(code)) {
+            return;
+        }
+        if (configured && timeToLiveNanos <= 0) {
+            return;
+        }
+        try {
+            AfterTransactionCompletion.registerToJtaTransaction(code);
+        } catch (Exception e) {
+            log.debug("Unable to register the entity cache invalidation, dropping all cached entities: {}",
+                    e.getMessage());
+            invalidateAll();
+        }
+    }
+
+    private synchronized void configure() {
+        if (configured) {
+            return;
+        }
+        maxSize = Config.<Integer> getValue(ConfigValues.EntityCacheMaxSize);
+        int timeToLive = Config.<Integer> getValue(ConfigValues.EntityCacheTimeToLiveInSeconds);
+        timeToLiveNanos = TimeUnit.SECONDS.toNanos(timeToLive);
+        configured = true;
+        log.info("Entity caches are {}, size: {}, time to live: {} seconds",
+                timeToLiveNanos > 0 ? "enabled" : "disabled",
+                maxSize,
+                timeToLive);
+    }
+}
@@ -0,0 +1,29 @@
+package org.ovirt.engine.core.dao.cache;
+
+import java.util.List;
+
+/**
+ * The following interface is used as interface for JMX bean
+ */
+public interface EntityCacheManagerMXBean {
+
+    /**
+     * The following method will return the statistics of all the entity caches
+     */
+    List<EntityCacheStatistics> getCacheStatistics();
+
+    /**
+     * The following method will return the statistics of all the entity caches in a human readable form
+     */
+    List<String> showCacheStatistics();
+
+    /**
+     * The following method will allow to drop all the cached entities via JMX console
+     */
+    void invalidateAll();
+
+    /**
+     * The following method will allow to reset all statistics via JMX console
+     */
+    void reset();
+}
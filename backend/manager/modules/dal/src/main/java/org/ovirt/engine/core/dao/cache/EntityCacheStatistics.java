@@ -0,0 +1,72 @@
+package org.ovirt.engine.core.dao.cache;
+
+import java.beans.ConstructorProperties;
+
+/**
+ * Point in time statistics of a single entity cache, as exposed through {@link EntityCacheManagerMXBean}.
+ */
+public class EntityCacheStatistics {
+
+    private final String name;
+    private final int size;
+    private final long hits;
+    private final long misses;
+    private final long evictions;
+    private final long invalidations;
+
+    @ConstructorProperties({ "name", "size", "hits", "misses", "evictions", "invalidations" })
+    public EntityCacheStatistics(String name, int size, long hits, long misses, long evictions, long invalidations) {
+        this.name = name;
+        this.size = size;
+        this.hits = hits;
+        this.misses = misses;
+        this.evictions = evictions;
+        this.invalidations = invalidations;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return number of currently cached entities
+     */
+    public int getSize() {
+        return size;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    /**
+     * @return number of reads that went to the database, reads within a transaction are not counted
+     */
+    public long getMisses() {
+        return misses;
+    }
+
+    /**
+     * @return number of entities dropped because the cache was full
+     */
+    public long getEvictions() {
+        return evictions;
+    }
+
+    public long getInvalidations() {
+        return invalidations;
+    }
+
+    @Override
+    public String toString() {
+        long reads = hits + misses;
+        return String.format("%s size: %d, hits: %d, misses: %d (hit ratio %.1f%%), evictions: %d, invalidations: %d",
+                name,
+                size,
+                hits,
+                misses,
+                reads == 0 ? 0.0 : 100.0 * hits / reads,
+                evictions,
+                invalidations);
+    }
+}
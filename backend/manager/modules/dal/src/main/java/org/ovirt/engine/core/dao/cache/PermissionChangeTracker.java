@@ -0,0 +1,270 @@
+package org.ovirt.engine.core.dao.cache;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.inject.Named;
+import javax.inject.Singleton;
+import javax.transaction.Transaction;
+
+import org.ovirt.engine.core.compat.Guid;
+import org.ovirt.engine.core.utils.transaction.TransactionSupport;
+
+/**
+ * Counts the changes of the permissions, of the action groups of the roles, of the users and groups permissions are
+ * granted to and of the groups of the users, so the holders of an in memory copy of them can tell whether their copy
+ * is still current, and which part of it they need to read again.
+ *
+ * The version is advanced right away and again when the transaction of the change completes, so a copy read while
+ * the transaction was running isn't taken as current once it is committed. Until then the transaction is reported to
+ * have uncommitted changes, which a copy read outside of it doesn't show.
+ */
+@Named
+@Singleton
+public class PermissionChangeTracker {
+
+    /**
+     * How many changes are remembered, a copy older than all of them has to be read again as a whole.
+     */
+    private static final int MAX_CHANGES = 10000;
+
+    private enum ChangeType {
+        AD_ELEMENT,
+        PERMISSION,
+        OBJECT,
+        ROLES,
+        USER_GROUPS,
+        ALL
+    }
+
+    private static class Change {
+        private final long version;
+        private final ChangeType type;
+        private final Guid id;
+
+        private Change(long version, ChangeType type, Guid id) {
+            this.version = version;
+            this.type = type;
+            this.id = id;
+        }
+    }
+
+    private final AtomicLong version = new AtomicLong();
+    private final Deque<Change> changes = new ArrayDeque<>();
+    private final Set<Transaction> transactionsWithChanges = ConcurrentHashMap.newKeySet();
+
+    public long getVersion() {
+        return version.get();
+    }
+
+    /**
+     * The permissions granted to the given user or group changed.
+     */
+    public void adElementChanged(Guid adElementId) {
+        changed(ChangeType.AD_ELEMENT, adElementId);
+    }
+
+    /**
+     * The permission with the given id was removed.
+     */
+    public void permissionRemoved(Guid permissionId) {
+        changed(ChangeType.PERMISSION, permissionId);
+    }
+
+    /**
+     * The permissions granted on the given object were removed.
+     */
+    public void objectPermissionsRemoved(Guid objectId) {
+        changed(ChangeType.OBJECT, objectId);
+    }
+
+    /**
+     * The action groups of the roles changed.
+     */
+    public void rolesChanged() {
+        changed(ChangeType.ROLES, null);
+    }
+
+    /**
+     * The groups of the given user changed, as a session of the user was opened or closed.
+     */
+    public void userGroupsChanged(Guid userId) {
+        changed(ChangeType.USER_GROUPS, userId);
+    }
+
+    /**
+     * The groups of any of the users may have changed, as all the sessions were closed or a group was added or
+     * removed.
+     */
+    public void allUserGroupsChanged() {
+        changed(ChangeType.USER_GROUPS, null);
+    }
+
+    /**
+     * Any of the permissions or roles may have changed.
+     */
+    public void changed() {
+        changed(ChangeType.ALL, null);
+    }
+
+    private void changed(ChangeType type, Guid id) {
+        append(type, id);
+        Transaction transaction = getCurrentTransaction();
+        boolean registered = AfterTransactionCompletion.register(() -> {
+            append(type, id);
+            if (transaction != null) {
+                transactionsWithChanges.remove(transaction);
+            }
+        });
+        if (registered && transaction != null) {
+            transactionsWithChanges.add(transaction);
+        }
+    }
+
+    private synchronized void append(ChangeType type, Guid id) {
+        changes.addLast(new Change(version.incrementAndGet(), type, id));
+        if (changes.size() > MAX_CHANGES) {
+            changes.removeFirst();
+        }
+    }
+
+    /**
+     * @return true if the current transaction made changes that aren't committed yet
+     */
+    public boolean hasUncommittedChanges() {
+        if (transactionsWithChanges.isEmpty()) {
+            return false;
+        }
+        Transaction transaction = getCurrentTransaction();
+        return transaction != null && transactionsWithChanges.contains(transaction);
+    }
+
+    private static Transaction getCurrentTransaction() {
+        try {
+            return TransactionSupport.current();
+        } catch (RuntimeException e) {
+            // No transaction manager, the changes are made by the DAO tests
+            return null;
+        }
+    }
+
+    /**
+     * @return the changes made after the given version, up to the version of the returned changes
+     */
+    public synchronized Changes getChangesSince(long fromVersion) {
+        Changes result = new Changes(version.get());
+        if (result.version == fromVersion) {
+            return result;
+        }
+        Change first = changes.peekFirst();
+        if (first == null || first.version > fromVersion + 1) {
+            result.allChanged = true;
+            return result;
+        }
+        for (Change change : changes) {
+            if (change.version <= fromVersion) {
+                continue;
+            }
+            switch (change.type) {
+            case AD_ELEMENT:
+                result.adElementIds.add(change.id);
+                break;
+            case PERMISSION:
+                result.permissionIds.add(change.id);
+                break;
+            case OBJECT:
+                result.objectIds.add(change.id);
+                break;
+            case ROLES:
+                result.rolesChanged = true;
+                break;
+            case USER_GROUPS:
+                if (change.id == null) {
+                    result.allUserGroupsChanged = true;
+                } else {
+                    result.userIdsWithChangedGroups.add(change.id);
+                }
+                break;
+            default:
+                result.allChanged = true;
+                break;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * The changes made between two versions.
+     */
+    public static class Changes {
+        private final long version;
+        private final Set<Guid> adElementIds = new HashSet<>();
+        private final Set<Guid> permissionIds = new HashSet<>();
+        private final Set<Guid> objectIds = new HashSet<>();
+        private final Set<Guid> userIdsWithChangedGroups = new HashSet<>();
+        private boolean rolesChanged;
+        private boolean allUserGroupsChanged;
+        private boolean allChanged;
+
+        private Changes(long version) {
+            this.version = version;
+        }
+
+        /**
+         * @return the version the changes lead to
+         */
+        public long getVersion() {
+            return version;
+        }
+
+        /**
+         * @return the users and groups whose permissions changed
+         */
+        public Set<Guid> getAdElementIds() {
+            return adElementIds;
+        }
+
+        /**
+         * @return the removed permissions
+         */
+        public Set<Guid> getPermissionIds() {
+            return permissionIds;
+        }
+
+        /**
+         * @return the objects whose permissions were removed
+         */
+        public Set<Guid> getObjectIds() {
+            return objectIds;
+        }
+
+        public boolean isRolesChanged() {
+            return rolesChanged;
+        }
+
+        /**
+         * @return the users whose groups changed
+         */
+        public Set<Guid> getUserIdsWithChangedGroups() {
+            return userIdsWithChangedGroups;
+        }
+
+        /**
+         * @return true if the groups of any of the users may have changed
+         */
+        public boolean isAllUserGroupsChanged() {
+            return allUserGroupsChanged;
+        }
+
+        /**
+         * @return true if anything may have changed, or if the changes are no longer known
+         */
+        public boolean isAllChanged() {
+            return allChanged;
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package org.ovirt.engine.core.dao.cache;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.ovirt.engine.core.compat.Guid;
+
+/**
+ * Counts the changes of the data that is part of the hosts, so the holders of an in memory copy of a host can tell
+ * whether the copy they read is still current without reading the host again.
+ *
+ * The DAOs changing the static, dynamic or statistics data of a host report it by {@link #changed(Guid)}, the DAOs
+ * changing data that is part of all the hosts, like their cluster or data center, report it by {@link #changedAll()}.
+ * The version of a host is advanced right away and again when the transaction of the change completes, so a copy read
+ * while the transaction was running isn't taken as current once it is committed.
+ *
+ * The owner of the in memory copy changes it in place and doesn't need its own changes to be reported, it makes them
+ * in {@link #runUntracked(Runnable)}.
+ */
+@Named
+@Singleton
+public class VdsChangeTracker {
+
+    private final Map<Guid, AtomicLong> versions = new ConcurrentHashMap<>();
+    private final AtomicLong sharedVersion = new AtomicLong();
+    private final ThreadLocal<Boolean> untracked = ThreadLocal.withInitial(() -> Boolean.FALSE);
+
+    /**
+     * @return the version of the given host, it changes whenever the data of the host is changed
+     */
+    public long getVersion(Guid vdsId) {
+        AtomicLong version = versions.get(vdsId);
+        return sharedVersion.get() + (version == null ? 0 : version.get());
+    }
+
+    /**
+     * Reports a change of the data of the given host.
+     */
+    public void changed(Guid vdsId) {
+        if (vdsId == null || untracked.get()) {
+            return;
+        }
+        AtomicLong version = versions.computeIfAbsent(vdsId, id -> new AtomicLong());
+        version.incrementAndGet();
+        AfterTransactionCompletion.register(version::incrementAndGet);
+    }
+
+    /**
+     * Reports a change of data that is part of all the hosts.
+     */
+    public void changedAll() {
+        sharedVersion.incrementAndGet();
+        AfterTransactionCompletion.register(sharedVersion::incrementAndGet);
+    }
+
+    /**
+     * Runs the given code without reporting the changes of hosts it makes.
+     */
+    public void runUntracked(Runnable code) {
+        if (untracked.get()) {
+            code.run();
+            return;
+        }
+        untracked.set(Boolean.TRUE);
+        try {
+            code.run();
+        } finally {
+            untracked.remove();
+        }
+    }
+}
@@ -4,6 +4,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
+import javax.inject.Inject;
 import javax.inject.Named;
 import javax.inject.Singleton;
 
@@ -13,6 +14,7 @@ import org.ovirt.engine.core.common.businessentities.gluster.PeerStatus;
 import org.ovirt.engine.core.common.utils.EnumUtils;
 import org.ovirt.engine.core.compat.Guid;
 import org.ovirt.engine.core.dao.DefaultGenericDao;
+import org.ovirt.engine.core.dao.cache.VdsChangeTracker;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 
@@ -20,6 +22,9 @@ import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 @Singleton
 public class GlusterServerDaoImpl extends DefaultGenericDao<GlusterServer, Guid> implements GlusterServerDao {
 
+    @Inject
+    private VdsChangeTracker vdsChangeTracker;
+
     private static final RowMapper<GlusterServer> glusterServerRowMapper = (rs, rowNum) -> {
         GlusterServer glusterServer = new GlusterServer();
         glusterServer.setId(getGuidDefaultEmpty(rs, "server_id"));
@@ -52,10 +57,30 @@ public class GlusterServerDaoImpl extends DefaultGenericDao<GlusterServer, Guid>
                 getCustomMapSqlParameterSource().addValue("gluster_server_uuid", glusterServerUuid));
     }
 
+    @Override
+    public void save(GlusterServer entity) {
+        super.save(entity);
+        vdsChangeTracker.changed(entity.getId());
+    }
+
+    @Override
+    public void update(GlusterServer entity) {
+        super.update(entity);
+        vdsChangeTracker.changed(entity.getId());
+    }
+
+    @Override
+    public void remove(Guid id) {
+        super.remove(id);
+        vdsChangeTracker.changed(id);
+    }
+
     @Override
     public void removeByGlusterServerUuid(Guid glusterServerUuid) {
         getCallsHandler().executeModification("DeleteGlusterServerByGlusterServerUUID",
                 getCustomMapSqlParameterSource().addValue("gluster_server_uuid", glusterServerUuid));
+        // The host of the removed peer isn't known here
+        vdsChangeTracker.changedAll();
     }
 
     @Override
@@ -94,5 +119,6 @@ public class GlusterServerDaoImpl extends DefaultGenericDao<GlusterServer, Guid>
         getCallsHandler().executeModification("UpdateGlusterServerPeerStatus",
                 getCustomMapSqlParameterSource().addValue("server_id", serverId)
                         .addValue("peer_status", EnumUtils.nameOrNull(peerStatus)));
+        vdsChangeTracker.changed(serverId);
     }
 }
@@ -20,8 +20,10 @@ import org.ovirt.engine.core.common.businessentities.network.Network;
 import org.ovirt.engine.core.common.businessentities.network.NetworkCluster;
 import org.ovirt.engine.core.common.businessentities.network.NetworkStatus;
 import org.ovirt.engine.core.common.businessentities.network.ProviderNetwork;
+import org.ovirt.engine.core.common.businessentities.network.VnicProfile;
 import org.ovirt.engine.core.compat.Guid;
 import org.ovirt.engine.core.dao.DefaultGenericDao;
+import org.ovirt.engine.core.dao.cache.EntityCacheManager;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.jdbc.core.SingleColumnRowMapper;
 import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
@@ -33,6 +35,9 @@ public class NetworkDaoImpl extends DefaultGenericDao<Network, Guid> implements
     @Inject
     private DnsResolverConfigurationDao dnsResolverConfigurationDao;
 
+    @Inject
+    private EntityCacheManager entityCacheManager;
+
     private NetworkClusterRowMapper networkClusterRowMapper;
 
     private NetworkRowMapper networkRowMapper;
@@ -51,7 +56,7 @@ public class NetworkDaoImpl extends DefaultGenericDao<Network, Guid> implements
 
     @Override
     public Network get(Guid networkId) {
-        return get(networkId, null, false);
+        return entityCacheManager.getCache(Network.class).get(networkId, id -> get(id, null, false));
     }
 
     @Override
@@ -196,6 +201,7 @@ public class NetworkDaoImpl extends DefaultGenericDao<Network, Guid> implements
             dnsResolverConfigurationDao.save(dnsResolverConfiguration);
         }
         super.save(entity);
+        entityCacheManager.getCache(Network.class).invalidate(entity.getId());
     }
 
     @Override
@@ -211,12 +217,16 @@ public class NetworkDaoImpl extends DefaultGenericDao<Network, Guid> implements
             }
         }
         super.update(entity);
+        entityCacheManager.getCache(Network.class).invalidate(entity.getId());
     }
 
     @Override
     public void remove(Guid guid) {
         dnsResolverConfigurationDao.removeByNetworkId(guid);
         super.remove(guid);
+        entityCacheManager.getCache(Network.class).invalidate(guid);
+        // The vNIC profiles of the network are removed together with it
+        entityCacheManager.getCache(VnicProfile.class).invalidateAll();
     }
 
     @Override
@@ -1,6 +1,7 @@
 package org.ovirt.engine.core.dao.network;
 
 import java.util.List;
+import java.util.function.BiConsumer;
 
 import org.ovirt.engine.core.common.businessentities.network.VmNic;
 import org.ovirt.engine.core.compat.Guid;
@@ -59,6 +60,16 @@ public interface VmNicDao extends GenericDao<VmNic, Guid> {
      */
     List<String> getAllMacsByClusterId(Guid clusterId);
 
+    /**
+     * Reads the MAC addresses of the Vms in all the Clusters using the given MAC pool, one by one.
+     *
+     * @param macPoolId
+     *            ID of the MAC pool
+     * @param consumer
+     *            gets the ID of the Vm and the MAC address of each of its VmNetworkInterfaces
+     */
+    void forEachVmMacByMacPoolId(Guid macPoolId, BiConsumer<Guid, String> consumer);
+
     /**
      * Retrieves the plugged VmNetworkInterfaces that have the given MAC address
      *
@@ -3,6 +3,7 @@ package org.ovirt.engine.core.dao.network;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.List;
+import java.util.function.BiConsumer;
 
 import javax.inject.Named;
 import javax.inject.Singleton;
@@ -68,6 +69,13 @@ public class VmNicDaoImpl extends DefaultGenericDao<VmNic, Guid> implements VmNi
                 getCustomMapSqlParameterSource().addValue("cluster_id", clusterId));
     }
 
+    @Override
+    public void forEachVmMacByMacPoolId(Guid macPoolId, BiConsumer<Guid, String> consumer) {
+        getCallsHandler().executeReadEach("GetVmInterfacesByMacPoolId",
+                rs -> consumer.accept(getGuid(rs, "vm_guid"), rs.getString("mac_addr")),
+                getCustomMapSqlParameterSource().addValue("mac_pool_id", macPoolId));
+    }
+
     @Override
     public List<VmNic> getPluggedForMac(String macAddress) {
         return getCallsHandler().executeReadList("GetPluggedVmInterfacesByMac",
@@ -5,12 +5,14 @@ import java.sql.SQLException;
 import java.util.LinkedHashMap;
 import java.util.List;
 
+import javax.inject.Inject;
 import javax.inject.Named;
 import javax.inject.Singleton;
 
 import org.ovirt.engine.core.common.businessentities.network.VnicProfile;
 import org.ovirt.engine.core.compat.Guid;
 import org.ovirt.engine.core.dao.DefaultGenericDao;
+import org.ovirt.engine.core.dao.cache.EntityCacheManager;
 import org.ovirt.engine.core.utils.SerializationFactory;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
@@ -19,10 +21,36 @@ import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 @Singleton
 public class VnicProfileDaoImpl extends DefaultGenericDao<VnicProfile, Guid> implements VnicProfileDao {
 
+    @Inject
+    private EntityCacheManager entityCacheManager;
+
     public VnicProfileDaoImpl() {
         super("VnicProfile");
     }
 
+    @Override
+    public VnicProfile get(Guid id) {
+        return entityCacheManager.getCache(VnicProfile.class).get(id, super::get);
+    }
+
+    @Override
+    public void save(VnicProfile profile) {
+        super.save(profile);
+        entityCacheManager.getCache(VnicProfile.class).invalidate(profile.getId());
+    }
+
+    @Override
+    public void update(VnicProfile profile) {
+        super.update(profile);
+        entityCacheManager.getCache(VnicProfile.class).invalidate(profile.getId());
+    }
+
+    @Override
+    public void remove(Guid id) {
+        super.remove(id);
+        entityCacheManager.getCache(VnicProfile.class).invalidate(id);
+    }
+
     @Override
     public List<VnicProfile> getAllForNetwork(Guid networkId) {
         return getCallsHandler().executeReadList("GetVnicProfilesByNetworkId",
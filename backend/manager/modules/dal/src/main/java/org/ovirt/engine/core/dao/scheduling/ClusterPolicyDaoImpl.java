@@ -12,12 +12,14 @@ import javax.inject.Named;
 import javax.inject.Singleton;
 import javax.validation.constraints.NotNull;
 
+import org.ovirt.engine.core.common.businessentities.Cluster;
 import org.ovirt.engine.core.common.scheduling.ClusterPolicy;
 import org.ovirt.engine.core.common.scheduling.PolicyUnit;
 import org.ovirt.engine.core.common.scheduling.PolicyUnitType;
 import org.ovirt.engine.core.common.utils.Pair;
 import org.ovirt.engine.core.compat.Guid;
 import org.ovirt.engine.core.dao.DefaultGenericDao;
+import org.ovirt.engine.core.dao.cache.EntityCacheManager;
 import org.ovirt.engine.core.utils.SerializationFactory;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
@@ -29,6 +31,9 @@ public class ClusterPolicyDaoImpl extends DefaultGenericDao<ClusterPolicy, Guid>
     @Inject
     private PolicyUnitDao policyUnitDao;
 
+    @Inject
+    private EntityCacheManager entityCacheManager;
+
     public ClusterPolicyDaoImpl() {
         super("ClusterPolicy");
     }
@@ -51,6 +56,8 @@ public class ClusterPolicyDaoImpl extends DefaultGenericDao<ClusterPolicy, Guid>
         if (clusterPolicyUnits != null) {
             clusterPolicyUnits.forEach(this::saveClusterPolicyUnit);
         }
+        // The clusters show the name of their policy
+        entityCacheManager.getCache(Cluster.class).invalidateAll();
     }
 
     @Override
@@ -0,0 +1,208 @@
+package org.ovirt.engine.core.dal.dbbroker.auditloghandling;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.stream.Stream;
+
+import javax.transaction.TransactionManager;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Answers;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.ovirt.engine.core.common.AuditLogSeverity;
+import org.ovirt.engine.core.common.AuditLogType;
+import org.ovirt.engine.core.common.businessentities.AuditLog;
+import org.ovirt.engine.core.common.config.ConfigValues;
+import org.ovirt.engine.core.dao.AuditLogDao;
+import org.ovirt.engine.core.utils.InjectedMock;
+import org.ovirt.engine.core.utils.InjectorExtension;
+import org.ovirt.engine.core.utils.MockConfigDescriptor;
+import org.ovirt.engine.core.utils.MockConfigExtension;
+import org.ovirt.engine.core.utils.MockedConfig;
+import org.ovirt.engine.core.utils.threadpool.ThreadPoolUtil;
+
+@ExtendWith({MockitoExtension.class, InjectorExtension.class, MockConfigExtension.class})
+public class AuditLogWriterTest {
+
+    private static final int QUEUE_CAPACITY = 2;
+
+    @Mock
+    private AuditLogDao auditLogDao;
+
+    @Mock(answer = Answers.RETURNS_DEEP_STUBS)
+    @InjectedMock
+    public TransactionManager transactionManager;
+
+    /**
+     * Never runs the background writer, the tests run it by themselves.
+     */
+    @Mock
+    private ExecutorService executorService;
+
+    @InjectMocks
+    private AuditLogWriter auditLogWriter;
+
+    private ExecutorService origExecutorService;
+
+    public static Stream<MockConfigDescriptor<?>> mockConfiguration() {
+        return asyncConfiguration("CallerWrites");
+    }
+
+    public static Stream<MockConfigDescriptor<?>> dropConfiguration() {
+        return asyncConfiguration("DropNormal");
+    }
+
+    public static Stream<MockConfigDescriptor<?>> syncConfiguration() {
+        return Stream.of(MockConfigDescriptor.of(ConfigValues.AuditLogAsyncWriteEnabled, false));
+    }
+
+    private static Stream<MockConfigDescriptor<?>> asyncConfiguration(String queueFullPolicy) {
+        return Stream.of(MockConfigDescriptor.of(ConfigValues.AuditLogAsyncWriteEnabled, true),
+                MockConfigDescriptor.of(ConfigValues.AuditLogAsyncQueueCapacity, QUEUE_CAPACITY),
+                MockConfigDescriptor.of(ConfigValues.AuditLogAsyncBatchSize, 10),
+                MockConfigDescriptor.of(ConfigValues.AuditLogAsyncFlushIntervalInMillis, 1),
+                MockConfigDescriptor.of(ConfigValues.AuditLogAsyncQueueFullPolicy, queueFullPolicy));
+    }
+
+    @BeforeEach
+    public void setUp() {
+        origExecutorService = ThreadPoolUtil.getExecutorService();
+        ThreadPoolUtil.setExecutorService(executorService);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        ThreadPoolUtil.setExecutorService(origExecutorService);
+    }
+
+    @Test
+    @MockedConfig("syncConfiguration")
+    public void eventIsWrittenRightAwayWhenDisabled() {
+        AuditLog event = event("message", AuditLogSeverity.NORMAL);
+
+        auditLogWriter.write(event);
+
+        verify(auditLogDao).save(event);
+        verify(executorService, never()).submit(any(Runnable.class));
+    }
+
+    @Test
+    public void queuedEventsAreWrittenInBatch() {
+        AuditLog event1 = event("message1", AuditLogSeverity.NORMAL);
+        AuditLog event2 = event("message2", AuditLogSeverity.WARNING);
+
+        auditLogWriter.write(event1);
+        auditLogWriter.write(event2);
+        verify(auditLogDao, never()).saveAllInBatch(anyCollection());
+        assertEquals(2, auditLogWriter.getQueuedEvents());
+
+        auditLogWriter.writeQueued();
+
+        verify(auditLogDao).saveAllInBatch(Arrays.asList(event1, event2));
+        verify(auditLogDao, never()).save(any());
+        assertEquals(2, auditLogWriter.getWrittenEvents());
+        assertEquals(1, auditLogWriter.getWrittenBatches());
+        assertEquals(0, auditLogWriter.getQueuedEvents());
+    }
+
+    @Test
+    public void identicalQueuedEventsAreCoalesced() {
+        auditLogWriter.write(event("message", AuditLogSeverity.NORMAL));
+        auditLogWriter.write(event("message", AuditLogSeverity.NORMAL));
+
+        assertEquals(1, auditLogWriter.getQueuedEvents());
+        assertEquals(1, auditLogWriter.getCoalescedEvents());
+
+        auditLogWriter.writeQueued();
+        auditLogWriter.write(event("message", AuditLogSeverity.NORMAL));
+
+        assertEquals(1, auditLogWriter.getQueuedEvents());
+        assertEquals(1, auditLogWriter.getCoalescedEvents());
+    }
+
+    @Test
+    public void alertIsWrittenRightAway() {
+        AuditLog alert = event("message", AuditLogSeverity.ALERT);
+
+        auditLogWriter.write(alert);
+
+        verify(auditLogDao).save(alert);
+        assertEquals(0, auditLogWriter.getQueuedEvents());
+    }
+
+    @Test
+    public void callerWritesEventWhenQueueIsFull() {
+        fillQueue();
+        AuditLog event = event("message", AuditLogSeverity.NORMAL);
+
+        auditLogWriter.write(event);
+
+        verify(auditLogDao).save(event);
+        assertEquals(1, auditLogWriter.getEventsWrittenByCallers());
+        assertEquals(0, auditLogWriter.getDroppedEvents());
+    }
+
+    @Test
+    @MockedConfig("dropConfiguration")
+    public void normalEventIsDroppedWhenQueueIsFull() {
+        fillQueue();
+        AuditLog normal = event("normal", AuditLogSeverity.NORMAL);
+        AuditLog error = event("error", AuditLogSeverity.ERROR);
+
+        auditLogWriter.write(normal);
+        auditLogWriter.write(error);
+
+        verify(auditLogDao, never()).save(normal);
+        verify(auditLogDao).save(error);
+        assertEquals(1, auditLogWriter.getDroppedEvents());
+        assertEquals(1, auditLogWriter.getEventsWrittenByCallers());
+    }
+
+    @Test
+    public void failedBatchIsWrittenEventByEvent() {
+        AuditLog event1 = event("message1", AuditLogSeverity.NORMAL);
+        AuditLog event2 = event("message2", AuditLogSeverity.NORMAL);
+        doThrow(new RuntimeException()).when(auditLogDao).saveAllInBatch(anyCollection());
+        doAnswer(invocation -> {
+            if (invocation.getArgument(0) == event2) {
+                throw new RuntimeException();
+            }
+            return null;
+        }).when(auditLogDao).save(any());
+
+        auditLogWriter.write(event1);
+        auditLogWriter.write(event2);
+        auditLogWriter.writeQueued();
+
+        verify(auditLogDao, times(2)).save(any());
+        assertEquals(1, auditLogWriter.getWrittenEvents());
+        assertEquals(1, auditLogWriter.getFailedEvents());
+    }
+
+    private void fillQueue() {
+        for (int i = 0; i < QUEUE_CAPACITY; ++i) {
+            auditLogWriter.write(event("queued" + i, AuditLogSeverity.NORMAL));
+        }
+        assertEquals(QUEUE_CAPACITY, auditLogWriter.getQueuedEvents());
+    }
+
+    private static AuditLog event(String message, AuditLogSeverity severity) {
+        AuditLog event = new AuditLog(AuditLogType.UNASSIGNED, severity);
+        event.setMessage(message);
+        return event;
+    }
+}
@@ -65,4 +65,16 @@ public class MessageResolverTest {
         String resolvedMessage = MessageResolver.resolveMessage(message, logable);
         assertEquals(expectedResolved, resolvedMessage);
     }
+
+    @Test
+    public void testResolveCustomValueBeforeProperty() {
+        final MessageTemplate template = MessageTemplate.compile("Host ${VdsName} moved to ${status}");
+
+        AuditLogableBase logable = mock(AuditLogableBase.class, RETURNS_DEFAULTS);
+        when(logable.getVdsName()).thenReturn("TestVDS");
+        when(logable.getCustomValues()).thenReturn(Collections.singletonMap("vdsname", "CustomVDS"));
+
+        String resolvedMessage = MessageResolver.resolveMessage(template, logable);
+        assertEquals("Host CustomVDS moved to " + MessageResolver.UNKNOWN_VARIABLE_VALUE, resolvedMessage);
+    }
 }
@@ -0,0 +1,60 @@
+package org.ovirt.engine.core.dal.dbbroker.auditloghandling;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+public class MessageTemplateTest {
+
+    @Test
+    public void messageWithoutVariablesIsKept() {
+        MessageTemplate template = MessageTemplate.compile("No variables here, $ { } ${ } ${a-b} ${");
+
+        assertEquals(0, template.getVariableNames().length);
+        assertEquals("No variables here, $ { } ${ } ${a-b} ${", template.resolve(name -> "x"));
+    }
+
+    @Test
+    public void variablesAreReplacedInPlace() {
+        MessageTemplate template = MessageTemplate.compile("${First}${second} and ${$${third_3}}");
+        Map<String, String> values = new HashMap<>();
+        values.put("first", "1");
+        values.put("second", "2");
+        values.put("third_3", "3");
+
+        assertEquals("12 and ${$3}", template.resolve(values::get));
+    }
+
+    @Test
+    public void repeatedVariableIsLookedUpOnce() {
+        MessageTemplate template = MessageTemplate.compile("${vdsName} is ${VdsName}, not ${vmName}");
+        List<String> lookups = new ArrayList<>();
+
+        String resolved = template.resolve(name -> {
+            lookups.add(name);
+            return name;
+        });
+
+        assertEquals("vdsname is vdsname, not vmname", resolved);
+        assertArrayEquals(new String[] { "vdsname", "vmname" }, template.getVariableNames());
+        assertEquals(2, lookups.size());
+    }
+
+    @Test
+    public void missingValuesAreReplacedWithDefaults() {
+        MessageTemplate template = MessageTemplate.compile("${vdsName}:${Reason}:${optionalReason}:${empty}");
+        Map<String, String> values = Collections.singletonMap("empty", "");
+
+        assertEquals(MessageResolver.UNKNOWN_VARIABLE_VALUE + ":"
+                + MessageResolver.valueOrDefault("reason", null) + "::"
+                + MessageResolver.UNKNOWN_VARIABLE_VALUE,
+                template.resolve(values::get));
+    }
+}
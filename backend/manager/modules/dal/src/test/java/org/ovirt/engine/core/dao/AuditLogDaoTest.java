@@ -7,6 +7,7 @@ import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.text.SimpleDateFormat;
+import java.util.Arrays;
 import java.util.Date;
 import java.util.List;
 
@@ -271,6 +272,20 @@ public class AuditLogDaoTest extends BaseDaoTestCase<AuditLogDao> {
         assertEquals(newAuditLog, result);
     }
 
+    @Test
+    public void testSaveAllInBatch() {
+        AuditLog otherAuditLog = new AuditLog(AuditLogType.IRS_DISK_SPACE_LOW, AuditLogSeverity.WARNING);
+        otherAuditLog.setLogTime(newAuditLog.getLogTime());
+        otherAuditLog.setMessage("Warning, Low disk space.");
+
+        dao.saveAllInBatch(Arrays.asList(newAuditLog, otherAuditLog));
+
+        List<AuditLog> result = dao.getAll(null, false);
+        assertEquals(TOTAL_COUNT + 2, result.size());
+        assertTrue(result.stream().anyMatch(a -> newAuditLog.getMessage().equals(a.getMessage())));
+        assertTrue(result.stream().anyMatch(a -> otherAuditLog.getMessage().equals(a.getMessage())));
+    }
+
     @Test
     public void testSaveExternalEvent() {
         AuditLog newExternalEvent = new AuditLog();
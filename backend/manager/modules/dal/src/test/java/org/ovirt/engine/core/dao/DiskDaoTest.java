@@ -295,4 +295,21 @@ public class DiskDaoTest extends BaseReadDaoTestCase<Guid, Disk, DiskDao> {
                 dao.getAllFromDisksIncludingSnapshotsByDiskId(FixturesTool.IMAGE_GROUP_ID, UNPRIVILEGED_USER_ID, true);
         assertEquals(0, result.size(), "wrong number of returned disks");
     }
+
+    @Test
+    public void testGetAllFromDisksIncludingSnapshotsByDiskIds() {
+        List<Disk> result = dao.getAllFromDisksIncludingSnapshotsByDiskIds(
+                Arrays.asList(FixturesTool.IMAGE_GROUP_ID, FixturesTool.LUN_DISK_ID), null, false);
+        assertEquals(4, result.stream().filter(disk -> FixturesTool.IMAGE_GROUP_ID.equals(disk.getId())).count(),
+                "wrong number of returned images");
+        assertEquals(1, result.stream().filter(disk -> FixturesTool.LUN_DISK_ID.equals(disk.getId())).count(),
+                "wrong number of returned LUN disks");
+    }
+
+    @Test
+    public void testGetAllFromDisksIncludingSnapshotsByDiskIdsForUnPrivilegedUserWithFilter() {
+        List<Disk> result = dao.getAllFromDisksIncludingSnapshotsByDiskIds(
+                Collections.singletonList(FixturesTool.IMAGE_GROUP_ID), UNPRIVILEGED_USER_ID, true);
+        assertEquals(0, result.size(), "wrong number of returned disks");
+    }
 }
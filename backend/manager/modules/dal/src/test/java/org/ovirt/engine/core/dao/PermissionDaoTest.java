@@ -7,17 +7,21 @@ import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Stream;
 
+import javax.inject.Inject;
+
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.ovirt.engine.core.common.VdcObjectType;
 import org.ovirt.engine.core.common.businessentities.ActionGroup;
+import org.ovirt.engine.core.common.businessentities.EngineSession;
 import org.ovirt.engine.core.common.businessentities.Permission;
 import org.ovirt.engine.core.common.config.ConfigValues;
 import org.ovirt.engine.core.common.mode.ApplicationMode;
@@ -43,9 +47,15 @@ public class PermissionDaoTest extends BaseDaoTestCase<PermissionDao> {
     private static final Guid USER_ENTITY_ID = new Guid("9bf7c640-b620-456f-a550-0348f366544a");
     private static final Guid ROLE_ENTITY_ID = new Guid("119caae6-5c1b-4a82-9858-dd9e5d2e1400");
 
+    private static final Guid EXISTING_GROUP_ID = new Guid("b399944a-81ab-4ec5-8266-e19ba7c3c9d1");
+    private static final Guid EVERYONE_ID = new Guid("eee00000-0000-0000-0000-123456789eee");
+
     private static final Guid DIRECTORY_ELEMENT_ID_WITH_BASIC_PERMISSIONS =
             new Guid("88D4301A-17AF-496C-A793-584640853D4B");
 
+    @Inject
+    private EngineSessionDao engineSessionDao;
+
     private Permission new_permissions;
 
     @BeforeEach
@@ -78,6 +88,60 @@ public class PermissionDaoTest extends BaseDaoTestCase<PermissionDao> {
         assertEquals(EXISTING_PERMISSION_ID, result.getId());
     }
 
+    /**
+     * Ensures that the grants of all the permissions are retrieved.
+     */
+    @Test
+    public void testGetAllGrants() {
+        Permission existing = dao.get(EXISTING_PERMISSION_ID);
+
+        Permission result = dao.getAllGrants().stream()
+                .filter(permission -> EXISTING_PERMISSION_ID.equals(permission.getId()))
+                .findFirst()
+                .orElse(null);
+
+        assertNotNull(result);
+        assertEquals(existing.getAdElementId(), result.getAdElementId());
+        assertEquals(existing.getRoleId(), result.getRoleId());
+        assertEquals(existing.getObjectId(), result.getObjectId());
+        assertEquals(existing.getObjectType(), result.getObjectType());
+    }
+
+    /**
+     * Ensures that only the grants of the permissions of the given user or group are retrieved.
+     */
+    @Test
+    public void testGetAllGrantsForAdElement() {
+        Permission existing = dao.get(EXISTING_PERMISSION_ID);
+
+        List<Permission> result = dao.getAllGrantsForAdElement(existing.getAdElementId());
+
+        assertFalse(result.isEmpty());
+        assertTrue(result.stream()
+                .allMatch(permission -> existing.getAdElementId().equals(permission.getAdElementId())));
+        assertTrue(result.stream().anyMatch(permission -> EXISTING_PERMISSION_ID.equals(permission.getId())));
+    }
+
+    /**
+     * Ensures that the groups of all the sessions of the user are retrieved, if they are known to the engine.
+     */
+    @Test
+    public void testGetUserAndGroupIds() {
+        EngineSession session = new EngineSession();
+        session.setEngineSessionId(Guid.newGuid().toString());
+        session.setUserId(USER_ENTITY_ID);
+        session.setGroupIds(Arrays.asList(EXISTING_GROUP_ID, Guid.newGuid()));
+        session.setRoleIds(Collections.emptyList());
+        session.setAuthzName("");
+        session.setUserName("");
+        engineSessionDao.save(session);
+
+        List<Guid> result = dao.getUserAndGroupIds(USER_ENTITY_ID);
+
+        assertEquals(new HashSet<>(Arrays.asList(USER_ENTITY_ID, EXISTING_GROUP_ID, EVERYONE_ID)),
+                new HashSet<>(result));
+    }
+
     /**
      * Ensures that a null object is returned when the role is invalid.
      */
@@ -0,0 +1,72 @@
+package org.ovirt.engine.core.dao;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import javax.inject.Inject;
+
+import org.junit.jupiter.api.Test;
+import org.ovirt.engine.core.compat.Guid;
+import org.ovirt.engine.core.dal.dbbroker.CustomMapSqlParameterSource;
+import org.ovirt.engine.core.dal.dbbroker.DbEngineDialect;
+import org.ovirt.engine.core.dal.dbbroker.SimpleJdbcCallsHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+
+public class ReadProcedureCallTest extends BaseDaoTestCase<TagDao> {
+    private static final Guid EXISTING_TAG_ID = new Guid("d3ec3e01-ca89-48e1-8b43-a9b38f873b0c");
+
+    private static final RowMapper<Guid> ID_MAPPER = (rs, rowNum) -> new Guid(rs.getString("tag_id"));
+    private static final RowMapper<String> NAME_MAPPER = (rs, rowNum) -> rs.getString("tag_name");
+
+    @Inject
+    private DbEngineDialect dbEngineDialect;
+
+    @Inject
+    private SimpleJdbcCallsHandler jdbcCallsHandler;
+
+    private MapSqlParameterSource getParamsSource(Guid tagId) {
+        return new CustomMapSqlParameterSource(dbEngineDialect).addValue("tag_id", tagId);
+    }
+
+    @Test
+    public void testReadWithDifferentMappers() {
+        Guid id = jdbcCallsHandler.executeRead("GettagsBytag_id", ID_MAPPER, getParamsSource(EXISTING_TAG_ID));
+        String name = jdbcCallsHandler.executeRead("GettagsBytag_id", NAME_MAPPER, getParamsSource(EXISTING_TAG_ID));
+
+        assertEquals(EXISTING_TAG_ID, id);
+        assertEquals(dao.get(EXISTING_TAG_ID).getTagName(), name);
+    }
+
+    @Test
+    public void testConcurrentReadsKeepTheirMappers() {
+        String expectedName = dao.get(EXISTING_TAG_ID).getTagName();
+
+        assertTrue(IntStream.range(0, 100).parallel().allMatch(i -> {
+            if (i % 2 == 0) {
+                return EXISTING_TAG_ID.equals(
+                        jdbcCallsHandler.executeRead("GettagsBytag_id", ID_MAPPER, getParamsSource(EXISTING_TAG_ID)));
+            }
+            return expectedName.equals(
+                    jdbcCallsHandler.executeRead("GettagsBytag_id", NAME_MAPPER, getParamsSource(EXISTING_TAG_ID)));
+        }));
+    }
+
+    @Test
+    public void testReadWithoutParameters() {
+        List<String> names = jdbcCallsHandler.executeReadList("GetAllFromtags",
+                NAME_MAPPER,
+                new CustomMapSqlParameterSource(dbEngineDialect));
+
+        assertEquals(dao.getAll().size(), names.size());
+    }
+
+    @Test
+    public void testReadNullParameter() {
+        assertNull(jdbcCallsHandler.executeRead("GettagsBytag_id", ID_MAPPER, getParamsSource(null)));
+    }
+}
@@ -63,6 +63,17 @@ public class RoleGroupMapDaoTest extends BaseDaoTestCase<RoleGroupMapDao> {
         }
     }
 
+    /**
+     * Ensures the mappings of all the roles are returned.
+     */
+    @Test
+    public void testGetAll() {
+        List<RoleGroupMap> result = dao.getAll();
+
+        assertTrue(result.contains(existingRoleGroupMap));
+        assertTrue(result.containsAll(dao.getAllForRole(FixturesTool.ROLE_ID)));
+    }
+
     /**
      * Ensures saving such a mapping works as expected.
      */
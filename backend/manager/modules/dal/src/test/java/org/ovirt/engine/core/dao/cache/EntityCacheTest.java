@@ -0,0 +1,123 @@
+package org.ovirt.engine.core.dao.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.mockito.Mockito.when;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.ovirt.engine.core.common.businessentities.Role;
+import org.ovirt.engine.core.compat.Guid;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+public class EntityCacheTest {
+
+    @Mock
+    private EntityCacheManager manager;
+
+    private EntityCache<Role> cache;
+
+    private final AtomicInteger loads = new AtomicInteger();
+    private final Function<Guid, Role> loader = id -> {
+        loads.incrementAndGet();
+        Role role = new Role();
+        role.setId(id);
+        role.setName("role" + loads.get());
+        return role;
+    };
+
+    private final Guid role1 = Guid.newGuid();
+    private final Guid role2 = Guid.newGuid();
+
+    @BeforeEach
+    public void setup() {
+        when(manager.isCacheable()).thenReturn(true);
+        when(manager.getMaxSize()).thenReturn(10);
+        when(manager.getTimeToLiveNanos()).thenReturn(TimeUnit.MINUTES.toNanos(1));
+        cache = new EntityCache<>("Role", manager);
+    }
+
+    @Test
+    public void shouldReadOnlyOnce() {
+        Role first = cache.get(role1, loader);
+        Role second = cache.get(role1, loader);
+
+        assertEquals(1, loads.get());
+        assertEquals(first, second);
+        assertNotSame(first, second);
+        assertEquals(1, cache.getStatistics().getHits());
+        assertEquals(1, cache.getStatistics().getMisses());
+    }
+
+    @Test
+    public void shouldNotLeakChangesOfReturnedEntities() {
+        cache.get(role1, loader).setName("changed");
+
+        assertEquals("role1", cache.get(role1, loader).getName());
+    }
+
+    @Test
+    public void shouldReadAgainAfterInvalidation() {
+        cache.get(role1, loader);
+        cache.invalidate(role1);
+
+        assertEquals("role2", cache.get(role1, loader).getName());
+    }
+
+    @Test
+    public void shouldNotCacheEntityReadBeforeInvalidation() {
+        cache.get(role1, id -> {
+            Role role = loader.apply(id);
+            // Simulates a change committed while the entity was being read
+            cache.invalidate(role2);
+            return role;
+        });
+        cache.get(role1, loader);
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    public void shouldBypassCacheWhenNotCacheable() {
+        when(manager.isCacheable()).thenReturn(false);
+
+        cache.get(role1, loader);
+        cache.get(role1, loader);
+
+        assertEquals(2, loads.get());
+        assertEquals(0, cache.getStatistics().getSize());
+    }
+
+    @Test
+    public void shouldReadAgainAfterExpiration() {
+        when(manager.getTimeToLiveNanos()).thenReturn(-1L);
+
+        cache.get(role1, loader);
+        cache.get(role1, loader);
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    public void shouldEvictLeastRecentlyUsed() {
+        when(manager.getMaxSize()).thenReturn(1);
+
+        cache.get(role1, loader);
+        cache.get(role2, loader);
+        cache.get(role1, loader);
+
+        assertEquals(3, loads.get());
+        assertEquals(2, cache.getStatistics().getEvictions());
+        assertEquals(1, cache.getStatistics().getSize());
+    }
+}
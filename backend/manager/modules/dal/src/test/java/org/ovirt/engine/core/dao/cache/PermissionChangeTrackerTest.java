@@ -0,0 +1,106 @@
+package org.ovirt.engine.core.dao.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Collections;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.ovirt.engine.core.compat.Guid;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+public class PermissionChangeTrackerTest {
+
+    private final PermissionChangeTracker tracker = new PermissionChangeTracker();
+
+    private final Guid userId = Guid.newGuid();
+    private final Guid permissionId = Guid.newGuid();
+    private final Guid objectId = Guid.newGuid();
+
+    @AfterEach
+    public void clearSynchronization() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    public void shouldReportChangesSinceVersion() {
+        tracker.rolesChanged();
+        long version = tracker.getVersion();
+
+        tracker.adElementChanged(userId);
+        tracker.permissionRemoved(permissionId);
+        tracker.objectPermissionsRemoved(objectId);
+
+        PermissionChangeTracker.Changes changes = tracker.getChangesSince(version);
+        assertEquals(tracker.getVersion(), changes.getVersion());
+        assertEquals(Collections.singleton(userId), changes.getAdElementIds());
+        assertEquals(Collections.singleton(permissionId), changes.getPermissionIds());
+        assertEquals(Collections.singleton(objectId), changes.getObjectIds());
+        assertFalse(changes.isRolesChanged());
+        assertFalse(changes.isAllChanged());
+    }
+
+    @Test
+    public void shouldReportNoChangesForCurrentVersion() {
+        tracker.adElementChanged(userId);
+
+        PermissionChangeTracker.Changes changes = tracker.getChangesSince(tracker.getVersion());
+        assertTrue(changes.getAdElementIds().isEmpty());
+        assertFalse(changes.isAllChanged());
+    }
+
+    @Test
+    public void shouldReportChangedGroupsOfUsers() {
+        long version = tracker.getVersion();
+
+        tracker.userGroupsChanged(userId);
+
+        PermissionChangeTracker.Changes changes = tracker.getChangesSince(version);
+        assertEquals(Collections.singleton(userId), changes.getUserIdsWithChangedGroups());
+        assertFalse(changes.isAllUserGroupsChanged());
+        assertTrue(changes.getAdElementIds().isEmpty());
+
+        tracker.allUserGroupsChanged();
+
+        changes = tracker.getChangesSince(version);
+        assertTrue(changes.isAllUserGroupsChanged());
+        assertFalse(changes.isAllChanged());
+    }
+
+    @Test
+    public void shouldReportAllChanged() {
+        long version = tracker.getVersion();
+
+        tracker.changed();
+
+        assertTrue(tracker.getChangesSince(version).isAllChanged());
+    }
+
+    @Test
+    public void shouldReportAllChangedWhenChangesAreForgotten() {
+        long version = tracker.getVersion();
+
+        for (int i = 0; i <= 10000; i++) {
+            tracker.adElementChanged(userId);
+        }
+
+        assertTrue(tracker.getChangesSince(version).isAllChanged());
+    }
+
+    @Test
+    public void shouldReportChangeAgainWhenTransactionCompletes() {
+        TransactionSynchronizationManager.initSynchronization();
+        tracker.adElementChanged(userId);
+        long versionInTransaction = tracker.getVersion();
+
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+
+        assertEquals(Collections.singleton(userId), tracker.getChangesSince(versionInTransaction).getAdElementIds());
+    }
+}
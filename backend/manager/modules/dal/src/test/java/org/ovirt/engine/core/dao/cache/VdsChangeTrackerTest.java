@@ -0,0 +1,68 @@
+package org.ovirt.engine.core.dao.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.ovirt.engine.core.compat.Guid;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+public class VdsChangeTrackerTest {
+
+    private final VdsChangeTracker tracker = new VdsChangeTracker();
+
+    private final Guid host1 = Guid.newGuid();
+    private final Guid host2 = Guid.newGuid();
+
+    @AfterEach
+    public void clearSynchronization() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    public void shouldChangeVersionOfChangedHostOnly() {
+        long version1 = tracker.getVersion(host1);
+        long version2 = tracker.getVersion(host2);
+
+        tracker.changed(host1);
+
+        assertNotEquals(version1, tracker.getVersion(host1));
+        assertEquals(version2, tracker.getVersion(host2));
+    }
+
+    @Test
+    public void shouldChangeVersionOfAllHosts() {
+        long version1 = tracker.getVersion(host1);
+        long version2 = tracker.getVersion(host2);
+
+        tracker.changedAll();
+
+        assertNotEquals(version1, tracker.getVersion(host1));
+        assertNotEquals(version2, tracker.getVersion(host2));
+    }
+
+    @Test
+    public void shouldNotChangeVersionOfUntrackedChange() {
+        long version = tracker.getVersion(host1);
+
+        tracker.runUntracked(() -> tracker.changed(host1));
+
+        assertEquals(version, tracker.getVersion(host1));
+    }
+
+    @Test
+    public void shouldChangeVersionAgainWhenTransactionCompletes() {
+        TransactionSynchronizationManager.initSynchronization();
+        tracker.changed(host1);
+        long versionInTransaction = tracker.getVersion(host1);
+
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+
+        assertNotEquals(versionInTransaction, tracker.getVersion(host1));
+    }
+}
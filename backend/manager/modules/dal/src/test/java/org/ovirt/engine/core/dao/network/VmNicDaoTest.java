@@ -1,18 +1,26 @@
 package org.ovirt.engine.core.dao.network;
 
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
 
+import java.util.ArrayList;
 import java.util.List;
 
+import javax.inject.Inject;
+
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.ovirt.engine.core.common.businessentities.Cluster;
 import org.ovirt.engine.core.common.businessentities.network.VmNic;
 import org.ovirt.engine.core.compat.Guid;
 import org.ovirt.engine.core.dao.BaseGenericDaoTestCase;
+import org.ovirt.engine.core.dao.ClusterDao;
 import org.ovirt.engine.core.dao.FixturesTool;
 import org.ovirt.engine.core.utils.RandomUtils;
 
@@ -20,6 +28,9 @@ public class VmNicDaoTest extends BaseGenericDaoTestCase<Guid, VmNic, VmNicDao>
     private static final Guid TEMPLATE_ID = FixturesTool.VM_TEMPLATE_RHEL5;
     private static final Guid VM_ID = FixturesTool.VM_RHEL5_POOL_57;
 
+    @Inject
+    private ClusterDao clusterDao;
+
     private VmNic existingTemplateNic;
 
     @BeforeEach
@@ -102,6 +113,28 @@ public class VmNicDaoTest extends BaseGenericDaoTestCase<Guid, VmNic, VmNicDao>
         assertEquals(FixturesTool.MAC_ADDRESS, result.get(0));
     }
 
+    @Test
+    public void testForEachVmMacByMacPoolId() {
+        List<String> expected = new ArrayList<>();
+        for (Cluster cluster : clusterDao.getAllClustersByMacPoolId(FixturesTool.DEFAULT_MAC_POOL_ID)) {
+            expected.addAll(dao.getAllMacsByClusterId(cluster.getId()));
+        }
+
+        List<String> result = new ArrayList<>();
+        dao.forEachVmMacByMacPoolId(FixturesTool.DEFAULT_MAC_POOL_ID, (vmId, mac) -> {
+            assertNotNull(vmId);
+            result.add(mac);
+        });
+
+        assertFalse(result.isEmpty());
+        assertThat(result, containsInAnyOrder(expected.toArray()));
+    }
+
+    @Test
+    public void testForEachVmMacByNotUsedMacPoolId() {
+        dao.forEachVmMacByMacPoolId(FixturesTool.NOT_USED_MAC_POOL_ID, (vmId, mac) -> fail());
+    }
+
     @Test
     public void testGetPluggedForMac() {
         List<VmNic> result = dao.getPluggedForMac(FixturesTool.MAC_ADDRESS);
@@ -0,0 +1,113 @@
+package org.ovirt.engine.benchmarks;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.ovirt.engine.core.bll.scheduling.SchedulingManager;
+import org.ovirt.engine.core.bll.scheduling.arem.AffinityRulesEnforcer;
+import org.ovirt.engine.core.common.businessentities.Cluster;
+import org.ovirt.engine.core.common.businessentities.VM;
+import org.ovirt.engine.core.common.scheduling.AffinityGroup;
+import org.ovirt.engine.core.common.scheduling.EntityAffinityRule;
+import org.ovirt.engine.core.compat.Guid;
+import org.ovirt.engine.core.dao.scheduling.AffinityGroupDao;
+
+/**
+ * <p> Benchmarks a single affinity rules enforcement pass, {@link AffinityRulesEnforcer#chooseNextVmToMigrate}.</p>
+ * <p> The running VMs of the synthetic cluster are split into affinity groups of <b>groupSize</b> VMs.
+ * Even groups are positive and soft, odd groups are negative and enforcing. The VMs are spread over the
+ * hosts round robin, so most positive groups are violated and the enforcer has to validate candidates
+ * using {@link SchedulingManager#canSchedule}.</p>
+ *
+ * @see SchedulingBenchmarkEnvironment
+ */
+@BenchmarkMode(Mode.AverageTime)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class AffinityRulesEnforcerBenchmark {
+
+    @Benchmark
+    public void chooseNextVmToMigrate(BenchmarkState state, Blackhole blackhole) {
+        blackhole.consume(state.enforcer.chooseNextVmToMigrate(state.cluster));
+    }
+
+    @State(Scope.Benchmark)
+    public static class BenchmarkState {
+
+        @Param({ "10", "100", "500", "2000" })
+        private int hostCount;
+
+        @Param({ "1000", "10000", "50000" })
+        private int vmCount;
+
+        @Param({ "10" })
+        private int groupSize;
+
+        private SchedulingBenchmarkEnvironment environment;
+        private AffinityRulesEnforcer enforcer;
+        private Cluster cluster;
+
+        @Setup(Level.Trial)
+        public void setup() throws ReflectiveOperationException {
+            environment = new SchedulingBenchmarkEnvironment(hostCount, vmCount);
+            environment.getSchedulingManager();
+            cluster = environment.getCluster();
+
+            List<AffinityGroup> groups = new ArrayList<>();
+            Map<Guid, List<AffinityGroup>> groupsByVm = new HashMap<>();
+            List<VM> vms = environment.getRunningVms();
+            for (int start = 0; start + groupSize <= vms.size(); start += groupSize) {
+                AffinityGroup group = createGroup(groups.size(), vms.subList(start, start + groupSize));
+                groups.add(group);
+                group.getVmIds().forEach(id -> groupsByVm.computeIfAbsent(id, k -> new ArrayList<>()).add(group));
+            }
+
+            AffinityGroupDao affinityGroupDao = environment.get(AffinityGroupDao.class);
+            when(affinityGroupDao.getAllAffinityGroupsByClusterId(any())).thenReturn(groups);
+            when(affinityGroupDao.getAllAffinityGroupsByVmId(any())).thenAnswer(
+                    invocation -> groupsByVm.getOrDefault(invocation.getArgument(0), Collections.emptyList()));
+
+            enforcer = environment.inject(new AffinityRulesEnforcer());
+        }
+
+        @TearDown(Level.Trial)
+        public void teardown() {
+            environment.shutdown();
+        }
+
+        private AffinityGroup createGroup(int index, List<VM> vms) {
+            boolean positive = index % 2 == 0;
+            AffinityGroup group = new AffinityGroup();
+            group.setId(Guid.newGuid());
+            group.setName("group-" + index);
+            group.setClusterId(cluster.getId());
+            group.setVmAffinityRule(positive ? EntityAffinityRule.POSITIVE : EntityAffinityRule.NEGATIVE);
+            group.setVmEnforcing(!positive);
+            List<Guid> vmIds = new ArrayList<>(vms.size());
+            vms.forEach(vm -> vmIds.add(vm.getId()));
+            group.setVmIds(vmIds);
+            return group;
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package org.ovirt.engine.benchmarks;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.ovirt.engine.core.common.AuditLogType;
+import org.ovirt.engine.core.compat.backendcompat.TypeCompat;
+import org.ovirt.engine.core.dal.dbbroker.auditloghandling.AuditLogableImpl;
+import org.ovirt.engine.core.dal.dbbroker.auditloghandling.MessageBundler;
+import org.ovirt.engine.core.dal.dbbroker.auditloghandling.MessageResolver;
+import org.ovirt.engine.core.dal.dbbroker.auditloghandling.MessageTemplate;
+
+/**
+ * <p> Benchmarks resolving the message of an audit log event.</p>
+ * <p> <b>compiled</b> resolves the template of the event type compiled by {@link MessageBundler}, <b>regex</b>
+ * resolves the message the way it was done before the templates, matching the variables with a regular expression
+ * twice and reading all the requested properties into a map.</p>
+ * <p> Run a subset, for example: {@code java -jar benchmarks.jar AuditLogMessageBenchmark -p type=VDS_DETECTED}</p>
+ *
+ * @see MessageTemplate
+ */
+@BenchmarkMode(Mode.AverageTime)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class AuditLogMessageBenchmark {
+
+    private static final Pattern VARIABLE_PATTERN = Pattern.compile("\\$\\{\\w*\\}");
+
+    @Benchmark
+    public void compiled(BenchmarkState state, Blackhole blackhole) {
+        blackhole.consume(MessageResolver.resolveMessage(MessageBundler.getTemplateOrNull(state.type), state.logable));
+    }
+
+    @Benchmark
+    public void regex(BenchmarkState state, Blackhole blackhole) {
+        String message = MessageBundler.getMessageOrNull(state.type);
+        Map<String, String> values = new HashMap<>(state.logable.getCustomValues());
+        Set<String> variables = new HashSet<>();
+        Matcher matcher = VARIABLE_PATTERN.matcher(message);
+        while (matcher.find()) {
+            variables.add(matcher.group().substring(2, matcher.group().length() - 1).toLowerCase());
+        }
+        TypeCompat.getPropertyValues(state.logable, variables, values);
+        blackhole.consume(replaceVariables(message, values));
+    }
+
+    private static String replaceVariables(String message, Map<String, String> values) {
+        Matcher matcher = VARIABLE_PATTERN.matcher(message);
+        StringBuffer buffer = new StringBuffer();
+        while (matcher.find()) {
+            String value = values.get(matcher.group().substring(2, matcher.group().length() - 1).toLowerCase());
+            matcher.appendReplacement(buffer, Matcher.quoteReplacement(value != null ? value : "<UNKNOWN>"));
+        }
+        matcher.appendTail(buffer);
+        return buffer.toString();
+    }
+
+    @State(Scope.Benchmark)
+    public static class BenchmarkState {
+
+        @Param({ "USER_RUN_VM", "VDS_DETECTED", "VM_MIGRATION_DONE" })
+        private AuditLogType type;
+
+        private AuditLogableImpl logable;
+
+        @Setup(Level.Trial)
+        public void setup() {
+            logable = new AuditLogableImpl();
+            logable.setVmName("vm-0001");
+            logable.setVdsName("host-0001");
+            logable.addCustomValue("HostStatus", "Up");
+            logable.addCustomValue("DestinationVdsName", "host-0002");
+            logable.addCustomValue("Duration", "12 seconds");
+            logable.addCustomValue("TotalDuration", "14 seconds");
+        }
+    }
+}
@@ -0,0 +1,435 @@
+package org.ovirt.engine.benchmarks;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+
+import javax.inject.Inject;
+
+import org.ovirt.engine.core.bll.scheduling.InternalClusterPolicies;
+import org.ovirt.engine.core.bll.scheduling.InternalPolicyUnits;
+import org.ovirt.engine.core.bll.scheduling.PolicyUnitImpl;
+import org.ovirt.engine.core.bll.scheduling.SchedulingManager;
+import org.ovirt.engine.core.bll.scheduling.SlaValidator;
+import org.ovirt.engine.core.bll.scheduling.metrics.SchedulingMetrics;
+import org.ovirt.engine.core.bll.scheduling.pending.PendingResourceManager;
+import org.ovirt.engine.core.bll.utils.VmOverheadCalculatorImpl;
+import org.ovirt.engine.core.common.businessentities.Cluster;
+import org.ovirt.engine.core.common.businessentities.MigrationSupport;
+import org.ovirt.engine.core.common.businessentities.VDS;
+import org.ovirt.engine.core.common.businessentities.VDSStatus;
+import org.ovirt.engine.core.common.businessentities.VM;
+import org.ovirt.engine.core.common.businessentities.VMStatus;
+import org.ovirt.engine.core.common.config.Config;
+import org.ovirt.engine.core.common.config.ConfigValues;
+import org.ovirt.engine.core.common.config.IConfigUtilsInterface;
+import org.ovirt.engine.core.common.config.TypeConverterAttribute;
+import org.ovirt.engine.core.common.scheduling.ClusterPolicy;
+import org.ovirt.engine.core.common.scheduling.VmOverheadCalculator;
+import org.ovirt.engine.core.compat.Guid;
+import org.ovirt.engine.core.compat.Version;
+import org.ovirt.engine.core.dao.VmDao;
+import org.ovirt.engine.core.utils.threadpool.ThreadPoolUtil;
+import org.ovirt.engine.core.vdsbroker.ClusterHostsSnapshotManager;
+
+/**
+ * <p> Synthetic, database-less environment shared by the scheduling benchmarks.</p>
+ * <p> It builds a single cluster with the requested number of hosts and running VMs, wires the
+ * {@link SchedulingManager} and all the internal policy units together the same way CDI would,<br/>
+ * and replaces the database and the host managers with Mockito mocks. The {@link VmDao} mock serves the
+ * generated running VMs. The hosts are published to the
+ * in-memory {@link ClusterHostsSnapshotManager}, so the scheduler reads them the way it does in the engine.</p>
+ * <p> The generated data is deterministic (fixed random seed), so results of different runs are comparable.</p>
+ */
+public class SchedulingBenchmarkEnvironment {
+
+    private static final long SEED = 42L;
+
+    private static final String EMULATED_MACHINES = "pc-i440fx-rhel7.3.0,pc-i440fx-rhel7.5.0,pc-q35-rhel7.5.0";
+    private static final String CPU_FLAGS = "fpu,vme,de,pse,tsc,msr,pae,mce,cx8,apic,sep,mtrr,pge,mca,cmov,"
+            + "pat,pse36,clflush,mmx,fxsr,sse,sse2,ss,ht,syscall,nx,pdpe1gb,rdtscp,lm,constant_tsc,"
+            + "nopl,xtopology,pni,pclmulqdq,ssse3,fma,cx16,pcid,sse4_1,sse4_2,x2apic,movbe,popcnt,aes,"
+            + "xsave,avx,f16c,rdrand,hypervisor,lahf_lm,abm,fsgsbase,bmi1,avx2,smep,bmi2,erms,invpcid,"
+            + "model_Haswell-noTSX,model_Nehalem,model_Conroe,model_Penryn,model_Westmere,model_SandyBridge";
+
+    private final Map<Class<?>, Object> instances = new HashMap<>();
+    private final Random random = new Random(SEED);
+
+    private final Cluster cluster;
+    private final List<VDS> hosts;
+    private final List<VM> runningVms;
+
+    private PendingResourceManager pendingResourceManager;
+    private SchedulingManager schedulingManager;
+    private ExecutorService executor;
+    private Map<Guid, PolicyUnitImpl> policyUnits;
+
+    /**
+     * @param hostCount number of hosts in the cluster, all of them are Up
+     * @param vmCount number of VMs already running in the cluster, spread evenly over the hosts
+     */
+    public SchedulingBenchmarkEnvironment(int hostCount, int vmCount) {
+        this(hostCount, vmCount, Collections.emptyMap());
+    }
+
+    /**
+     * @param hostCount number of hosts in the cluster, all of them are Up
+     * @param vmCount number of VMs already running in the cluster, spread evenly over the hosts
+     * @param configOverrides configuration values that take precedence over the benchmark defaults
+     */
+    public SchedulingBenchmarkEnvironment(int hostCount, int vmCount, Map<ConfigValues, String> configOverrides) {
+        Config.setConfigUtils(new BenchmarkConfigUtils(configOverrides));
+
+        cluster = createCluster();
+        hosts = new ArrayList<>(hostCount);
+        for (int i = 0; i < hostCount; i++) {
+            hosts.add(createHost(i));
+        }
+
+        runningVms = new ArrayList<>(vmCount);
+        for (int i = 0; i < vmCount; i++) {
+            VDS host = hosts.get(i % hostCount);
+            VM vm = createVm("running-" + i);
+            vm.setStatus(VMStatus.Up);
+            vm.setRunOnVds(host.getId());
+            host.setVmActive(host.getVmActive() + 1);
+            host.setVmCount(host.getVmCount() + 1);
+            host.setVmsCoresCount(host.getVmsCoresCount() + vm.getNumOfCpus());
+            host.setMemCommited(host.getMemCommited() + vm.getVmMemSizeMb());
+            runningVms.add(vm);
+        }
+
+        Map<Guid, VM> vmsById = runningVms.stream().collect(Collectors.toMap(VM::getId, vm -> vm));
+        VmDao vmDao = get(VmDao.class);
+        when(vmDao.getAllRunningByCluster(any())).thenReturn(runningVms);
+        when(vmDao.getVmsByIds(anyList())).thenAnswer(invocation -> {
+            List<Guid> ids = invocation.getArgument(0);
+            return ids.stream().map(vmsById::get).filter(Objects::nonNull).collect(Collectors.toList());
+        });
+    }
+
+    /**
+     * Register a real object that is injected instead of a mock into every field of its type.
+     */
+    public <T> T register(Class<? super T> type, T instance) {
+        instances.put(type, instance);
+        return instance;
+    }
+
+    /**
+     * @return the instance injected for the given type, a mock unless something else was registered
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(Class<T> type) {
+        return (T) instances.computeIfAbsent(type, t -> mock(t));
+    }
+
+    /**
+     * Fill all the {@link Inject} annotated fields of the object, including the inherited ones.
+     */
+    public <T> T inject(T object) {
+        for (Class<?> type = object.getClass(); type != Object.class; type = type.getSuperclass()) {
+            for (Field field : type.getDeclaredFields()) {
+                if (field.isAnnotationPresent(Inject.class)) {
+                    setField(object, field, get(field.getType()));
+                }
+            }
+        }
+        return object;
+    }
+
+    /**
+     * Build the scheduling manager, the policy units and the cluster host snapshot, the same steps
+     * {@code SchedulingManager.init()} does, without the database, the external scheduler and the
+     * periodic jobs. The result is cached.
+     */
+    public SchedulingManager getSchedulingManager() throws ReflectiveOperationException {
+        if (schedulingManager != null) {
+            return schedulingManager;
+        }
+
+        VmOverheadCalculator vmOverheadCalculator = register(VmOverheadCalculator.class,
+                inject(new VmOverheadCalculatorImpl()));
+        SlaValidator slaValidator = new SlaValidator();
+        slaValidator.setVmOverheadCalculator(vmOverheadCalculator);
+        register(SlaValidator.class, slaValidator);
+
+        register(SchedulingMetrics.class, new SchedulingMetrics());
+        ClusterHostsSnapshotManager snapshotManager =
+                register(ClusterHostsSnapshotManager.class, new ClusterHostsSnapshotManager());
+        hosts.forEach(snapshotManager::publish);
+
+        Constructor<SchedulingManager> constructor = SchedulingManager.class.getDeclaredConstructor();
+        constructor.setAccessible(true);
+        schedulingManager = register(SchedulingManager.class, inject(constructor.newInstance()));
+
+        pendingResourceManager = new PendingResourceManager();
+        setField(schedulingManager, "pendingResourceManager", pendingResourceManager);
+
+        policyUnits = getPolicyUnitsMap(schedulingManager);
+        for (Class<? extends PolicyUnitImpl> unitType : InternalPolicyUnits.getList()) {
+            PolicyUnitImpl unit = inject(InternalPolicyUnits.instantiate(unitType, pendingResourceManager));
+            policyUnits.put(unit.getPolicyUnit().getId(), unit);
+        }
+        getPolicyMap(schedulingManager).putAll(InternalClusterPolicies.getClusterPolicies());
+
+        int parallelThreads = Config.<Integer>getValue(ConfigValues.SchedulerParallelEvaluationThreads);
+        if (parallelThreads > 0) {
+            executor = Executors.newFixedThreadPool(parallelThreads);
+            ThreadPoolUtil.setExecutorService(executor);
+        }
+        Method initializeParallelEvaluation =
+                SchedulingManager.class.getDeclaredMethod("initializeParallelEvaluation");
+        initializeParallelEvaluation.setAccessible(true);
+        initializeParallelEvaluation.invoke(schedulingManager);
+
+        return schedulingManager;
+    }
+
+    /**
+     * @param className simple class name of the unit, the unit names are shared by filters and weights
+     * @return the policy unit instance registered in the scheduling manager
+     */
+    public PolicyUnitImpl getPolicyUnit(String className) throws ReflectiveOperationException {
+        getSchedulingManager();
+        return policyUnits.values().stream()
+                .filter(unit -> unit.getClass().getSimpleName().equals(className))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Unknown policy unit: " + className));
+    }
+
+    public PendingResourceManager getPendingResourceManager() throws ReflectiveOperationException {
+        getSchedulingManager();
+        return pendingResourceManager;
+    }
+
+    /**
+     * Stop the threads used by the parallel evaluation of the policy units, stands for the engine thread pool.
+     */
+    public void shutdown() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    public Cluster getCluster() {
+        return cluster;
+    }
+
+    public List<VDS> getHosts() {
+        return hosts;
+    }
+
+    public List<VM> getRunningVms() {
+        return runningVms;
+    }
+
+    /**
+     * @return a new VM that is not running yet and belongs to the benchmark cluster
+     */
+    public VM createVm(String name) {
+        VM vm = new VM();
+        vm.setId(Guid.newGuid());
+        vm.setName(name);
+        vm.setClusterId(cluster.getId());
+        vm.setVmtGuid(Guid.Empty);
+        vm.setClusterCompatibilityVersion(cluster.getCompatibilityVersion());
+        vm.setStatus(VMStatus.Down);
+        vm.setMigrationSupport(MigrationSupport.MIGRATABLE);
+        vm.setNumOfSockets(1 + random.nextInt(2));
+        vm.setCpuPerSocket(1 + random.nextInt(4));
+        vm.setThreadsPerCpu(1);
+        vm.setVmMemSizeMb(1024 * (1 + random.nextInt(8)));
+        vm.setMinAllocatedMem(vm.getVmMemSizeMb());
+        vm.setUsageCpuPercent(random.nextInt(50));
+        return vm;
+    }
+
+    private Cluster createCluster() {
+        Cluster cluster = new Cluster();
+        cluster.setId(Guid.newGuid());
+        cluster.setName("benchmark-cluster");
+        cluster.setCompatibilityVersion(Version.getLast());
+        cluster.setCpuName("Intel Haswell-noTSX Family");
+        cluster.setMaxVdsMemoryOverCommit(150);
+        cluster.setCountThreadsAsCores(false);
+        cluster.setClusterPolicyProperties(new HashMap<>());
+        ClusterPolicy defaultPolicy = InternalClusterPolicies.getClusterPolicies().values().stream()
+                .filter(ClusterPolicy::isDefaultPolicy)
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException("No default cluster policy"));
+        cluster.setClusterPolicyId(defaultPolicy.getId());
+        return cluster;
+    }
+
+    private VDS createHost(int index) {
+        VDS host = new VDS();
+        host.setId(Guid.newGuid());
+        host.setVdsName("host-" + index);
+        host.setHostName("host-" + index + ".example.com");
+        host.setClusterId(cluster.getId());
+        host.setClusterCompatibilityVersion(cluster.getCompatibilityVersion());
+        host.setStatus(VDSStatus.Up);
+        host.setSupportedClusterLevels(Version.getLast().toString());
+        host.setSupportedEmulatedMachines(EMULATED_MACHINES);
+        host.setCpuFlags(CPU_FLAGS);
+        host.setKvmEnabled(true);
+        host.setCpuSockets(2);
+        host.setCpuCores(16 + 8 * random.nextInt(3));
+        host.setCpuThreads(host.getCpuCores() * 2);
+        host.setCountThreadsAsCores(false);
+        host.setPhysicalMemMb(65536 * (1 + random.nextInt(4)));
+        host.setMemCommited(0);
+        host.setMemAvailable((long) host.getPhysicalMemMb());
+        host.setMemFree((long) host.getPhysicalMemMb());
+        host.setMaxVdsMemoryOverCommit(cluster.getMaxVdsMemoryOverCommit());
+        host.setReservedMem(321);
+        host.setGuestOverhead(65);
+        host.setSwapTotal(8192L);
+        host.setSwapFree(8192L);
+        host.setUsageCpuPercent(random.nextInt(100));
+        host.setUsageMemPercent(random.nextInt(100));
+        host.setCpuLoad(random.nextDouble() * 100);
+        host.setVmActive(0);
+        host.setVmCount(0);
+        host.setVmsCoresCount(0);
+        host.setHighlyAvailableScore(0);
+        return host;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<Guid, PolicyUnitImpl> getPolicyUnitsMap(SchedulingManager schedulingManager)
+            throws ReflectiveOperationException {
+        return (Map<Guid, PolicyUnitImpl>) getField(schedulingManager, "policyUnits");
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<Guid, ClusterPolicy> getPolicyMap(SchedulingManager schedulingManager)
+            throws ReflectiveOperationException {
+        return (Map<Guid, ClusterPolicy>) getField(schedulingManager, "policyMap");
+    }
+
+    private static Object getField(Object object, String name) throws ReflectiveOperationException {
+        Field field = object.getClass().getDeclaredField(name);
+        field.setAccessible(true);
+        return field.get(object);
+    }
+
+    private static void setField(Object object, String name, Object value) throws ReflectiveOperationException {
+        setField(object, object.getClass().getDeclaredField(name), value);
+    }
+
+    private static void setField(Object object, Field field, Object value) {
+        try {
+            field.setAccessible(true);
+            field.set(object, value);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("Can not inject " + field, e);
+        }
+    }
+
+    /**
+     * Configuration backed by a map, any value that is not set explicitly gets
+     * a neutral default of the type declared by {@link TypeConverterAttribute}.
+     */
+    private static class BenchmarkConfigUtils implements IConfigUtilsInterface {
+
+        private final Map<ConfigValues, String> values = new HashMap<>();
+
+        private BenchmarkConfigUtils(Map<ConfigValues, String> overrides) {
+            values.put(ConfigValues.MaxSchedulerWeight, "1000");
+            values.put(ConfigValues.SchedulerAllowOverBooking, "false");
+            values.put(ConfigValues.SchedulerOverBookingThreshold, "10");
+            values.put(ConfigValues.SpeedOptimizationSchedulingThreshold, "10");
+            values.put(ConfigValues.VcpuConsumptionPercentage, "10");
+            values.put(ConfigValues.SpmVCpuConsumption, "1");
+            values.put(ConfigValues.CpuOverCommitDurationMinutes, "2");
+            values.put(ConfigValues.UtilizationThresholdInPercent, "80");
+            values.put(ConfigValues.HighUtilizationForEvenlyDistribute, "80");
+            values.put(ConfigValues.LowUtilizationForEvenlyDistribute, "0");
+            values.put(ConfigValues.HighUtilizationForPowerSave, "80");
+            values.put(ConfigValues.LowUtilizationForPowerSave, "20");
+            values.put(ConfigValues.HighUtilizationForScheduling, "90");
+            values.put(ConfigValues.HighVmCountForEvenGuestDistribute, "10");
+            values.put(ConfigValues.MigrationThresholdForEvenGuestDistribute, "5");
+            values.put(ConfigValues.SpmVmGraceForEvenGuestDistribute, "5");
+            values.put(ConfigValues.OverUtilizationForHaReservation, "200");
+            values.put(ConfigValues.ScaleDownForHaReservation, "1");
+            values.put(ConfigValues.EnableSwapCheck, "true");
+            values.put(ConfigValues.BlockMigrationOnSwapUsagePercentage, "0");
+            values.put(ConfigValues.OnlyRequiredNetworksMandatoryForVdsSelection, "false");
+            values.put(ConfigValues.SchedulerParallelEvaluationThreads, "0");
+            values.put(ConfigValues.SchedulerParallelEvaluationMinHosts, "50");
+            values.putAll(overrides);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> T getValue(ConfigValues configValue, String version) {
+            return (T) convert(configValue, values.get(configValue));
+        }
+
+        @Override
+        public void refresh() {
+        }
+
+        @Override
+        public <T> Map<String, T> getValuesForAllVersions(ConfigValues configValue) {
+            Map<String, T> result = new HashMap<>();
+            for (Version version : Version.ALL) {
+                result.put(version.getValue(), getValue(configValue, version.getValue()));
+            }
+            return result;
+        }
+
+        @Override
+        public boolean valueExists(ConfigValues configValue, String version) {
+            return true;
+        }
+
+        private static Object convert(ConfigValues configValue, String value) {
+            Class<?> type = getType(configValue);
+            if (type == Integer.class) {
+                return value == null ? 0 : Integer.valueOf(value);
+            } else if (type == Long.class) {
+                return value == null ? 0L : Long.valueOf(value);
+            } else if (type == Double.class) {
+                return value == null ? 0.0 : Double.valueOf(value);
+            } else if (type == Boolean.class) {
+                return Boolean.valueOf(value);
+            } else if (type == String.class) {
+                return value == null ? "" : value;
+            } else if (type == List.class) {
+                return Collections.emptyList();
+            } else if (type == Map.class) {
+                return Collections.emptyMap();
+            }
+            return null;
+        }
+
+        private static Class<?> getType(ConfigValues configValue) {
+            try {
+                TypeConverterAttribute attribute = ConfigValues.class.getField(configValue.name())
+                        .getAnnotation(TypeConverterAttribute.class);
+                return attribute == null ? String.class : attribute.value();
+            } catch (NoSuchFieldException e) {
+                return String.class;
+            }
+        }
+    }
+}
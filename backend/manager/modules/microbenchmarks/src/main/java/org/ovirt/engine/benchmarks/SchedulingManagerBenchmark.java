@@ -0,0 +1,120 @@
+package org.ovirt.engine.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.ovirt.engine.core.bll.scheduling.NonWaitingDelayer;
+import org.ovirt.engine.core.bll.scheduling.RunVmDelayer;
+import org.ovirt.engine.core.bll.scheduling.SchedulingManager;
+import org.ovirt.engine.core.bll.scheduling.pending.PendingResourceManager;
+import org.ovirt.engine.core.common.businessentities.Cluster;
+import org.ovirt.engine.core.common.businessentities.VM;
+import org.ovirt.engine.core.common.config.ConfigValues;
+
+/**
+ * <p> Benchmarks the complete scheduling pass of {@link SchedulingManager} using the default cluster policy.</p>
+ * <p> <b>schedule</b> and <b>scheduleBatch</b> measure placing new VMs, including reading the hosts
+ * snapshot, running all filters and weight units and registering the pending resources.<br/>
+ * The pending resources are released right after each placement, so every invocation sees the same
+ * cluster. <b>canSchedule</b> measures the filtering only, as used by validations and by the
+ * affinity rules enforcement.</p>
+ * <p> The <b>parallelThreads</b> parameter maps to {@code SchedulerParallelEvaluationThreads}, 0 keeps the
+ * sequential evaluation.</p>
+ *
+ * @see SchedulingBenchmarkEnvironment
+ */
+@BenchmarkMode(Mode.AverageTime)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class SchedulingManagerBenchmark {
+
+    private static final int BATCH_SIZE = 10;
+
+    @Benchmark
+    public void schedule(BenchmarkState state, Blackhole blackhole) {
+        blackhole.consume(state.schedulingManager.schedule(state.cluster,
+                state.vm,
+                Collections.emptyList(),
+                Collections.emptyList(),
+                Collections.emptyList(),
+                new ArrayList<>(),
+                state.runVmDelayer,
+                "benchmark"));
+        state.pendingResourceManager.clearVm(state.vm);
+    }
+
+    @Benchmark
+    public void scheduleBatch(BenchmarkState state, Blackhole blackhole) {
+        blackhole.consume(state.schedulingManager.scheduleBatch(state.cluster, state.batch, "benchmark"));
+        state.batch.forEach(state.pendingResourceManager::clearVm);
+    }
+
+    @Benchmark
+    public void canSchedule(BenchmarkState state, Blackhole blackhole) {
+        blackhole.consume(state.schedulingManager.canSchedule(state.cluster,
+                state.vm,
+                Collections.emptyList(),
+                Collections.emptyList(),
+                new ArrayList<>()));
+    }
+
+    @State(Scope.Benchmark)
+    public static class BenchmarkState {
+
+        @Param({ "10", "100", "500", "2000" })
+        private int hostCount;
+
+        @Param({ "1000", "10000", "50000" })
+        private int vmCount;
+
+        @Param({ "0", "4" })
+        private int parallelThreads;
+
+        private final RunVmDelayer runVmDelayer = new NonWaitingDelayer();
+        private SchedulingBenchmarkEnvironment environment;
+        private SchedulingManager schedulingManager;
+        private PendingResourceManager pendingResourceManager;
+        private Cluster cluster;
+        private VM vm;
+        private List<VM> batch;
+
+        @Setup(Level.Trial)
+        public void setup() throws ReflectiveOperationException {
+            Map<ConfigValues, String> config = new EnumMap<>(ConfigValues.class);
+            config.put(ConfigValues.SchedulerParallelEvaluationThreads, String.valueOf(parallelThreads));
+            environment = new SchedulingBenchmarkEnvironment(hostCount, vmCount, config);
+
+            schedulingManager = environment.getSchedulingManager();
+            pendingResourceManager = environment.getPendingResourceManager();
+            cluster = environment.getCluster();
+            vm = environment.createVm("scheduled");
+            batch = new ArrayList<>(BATCH_SIZE);
+            for (int i = 0; i < BATCH_SIZE; i++) {
+                batch.add(environment.createVm("batch-" + i));
+            }
+        }
+
+        @TearDown(Level.Trial)
+        public void teardown() {
+            environment.shutdown();
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package org.ovirt.engine.benchmarks;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.ovirt.engine.core.bll.scheduling.PolicyUnitImpl;
+import org.ovirt.engine.core.common.businessentities.Cluster;
+import org.ovirt.engine.core.common.businessentities.VDS;
+import org.ovirt.engine.core.common.businessentities.VM;
+import org.ovirt.engine.core.common.scheduling.PerHostMessages;
+import org.ovirt.engine.core.common.scheduling.PolicyUnitType;
+
+/**
+ * <p> Benchmarks a single internal scheduling policy unit in isolation.</p>
+ * <p> The unit is chosen by its class name, filters are measured using <b>filter</b> and weight units
+ * using <b>score</b>. The synthetic cluster is described by the number of hosts and running VMs,<br/>
+ * see {@link SchedulingBenchmarkEnvironment}. The host list handed to the unit is a fresh copy for every
+ * invocation, as the scheduler does it, so units that modify the list do not influence the next call.</p>
+ * <p> Run a subset, for example: {@code java -jar benchmarks.jar SchedulingPolicyUnitsBenchmark -p hostCount=500}</p>
+ *
+ * @see PolicyUnitImpl
+ */
+@BenchmarkMode(Mode.AverageTime)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SchedulingPolicyUnitsBenchmark {
+
+    @Benchmark
+    public void evaluate(BenchmarkState state, Blackhole blackhole) {
+        List<VDS> hosts = new ArrayList<>(state.hosts);
+        if (state.filter) {
+            blackhole.consume(state.unit.filter(state.cluster, hosts, state.vm, state.parameters, new PerHostMessages()));
+        } else {
+            blackhole.consume(state.unit.score(state.cluster, hosts, state.vm, state.parameters));
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class BenchmarkState {
+
+        @Param({ "CPUPolicyUnit",
+                "CpuLevelFilterPolicyUnit",
+                "CpuOverloadPolicyUnit",
+                "MemoryPolicyUnit",
+                "SwapFilterPolicyUnit",
+                "NumaPolicyUnit",
+                "HugePagesFilterPolicyUnit",
+                "NetworkPolicyUnit",
+                "VmAffinityFilterPolicyUnit",
+                "EvenDistributionCPUWeightPolicyUnit",
+                "EvenDistributionMemoryWeightPolicyUnit",
+                "EvenGuestDistributionWeightPolicyUnit",
+                "PowerSavingCPUWeightPolicyUnit",
+                "HaReservationWeightPolicyUnit",
+                "VmAffinityWeightPolicyUnit" })
+        private String unitName;
+
+        @Param({ "10", "100", "500", "2000" })
+        private int hostCount;
+
+        @Param({ "1000", "10000", "50000" })
+        private int vmCount;
+
+        private PolicyUnitImpl unit;
+        private boolean filter;
+        private Cluster cluster;
+        private List<VDS> hosts;
+        private VM vm;
+        private Map<String, String> parameters;
+
+        @Setup(Level.Trial)
+        public void setup() throws ReflectiveOperationException {
+            SchedulingBenchmarkEnvironment environment = new SchedulingBenchmarkEnvironment(hostCount, vmCount);
+            unit = environment.getPolicyUnit(unitName);
+            filter = unit.getPolicyUnit().getPolicyUnitType() == PolicyUnitType.FILTER;
+            cluster = environment.getCluster();
+            hosts = environment.getHosts();
+            vm = environment.createVm("scheduled");
+            parameters = new HashMap<>(cluster.getClusterPolicyProperties());
+        }
+    }
+}
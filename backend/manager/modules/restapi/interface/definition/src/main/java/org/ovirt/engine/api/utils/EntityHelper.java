@@ -1,5 +1,6 @@
 package org.ovirt.engine.api.utils;
 
+import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.util.Collection;
 
@@ -38,4 +39,24 @@ public class EntityHelper {
         //should never happen
         throw new IllegalStateException("Collection-type entity does not contian a method which returns a list");
     }
+
+    /**
+     * For 'collection' type entities, this method returns the field in the
+     * entity which holds the list of entities, for example: for a 'Vms' entity,
+     * this method will return the 'vms' field.
+     *
+     * Note: This method relies on the same assumption as {@link #getCollectionGetter(BaseResources)},
+     * collection type entities have only one field which holds a collection.
+     */
+    public static Field getCollectionField(BaseResources entity) {
+        for (Class<?> type = entity.getClass(); type != BaseResources.class; type = type.getSuperclass()) {
+            for (Field field : type.getDeclaredFields()) {
+                if (Collection.class.isAssignableFrom(field.getType())) {
+                    return field;
+                }
+            }
+        }
+        //should never happen
+        throw new IllegalStateException("Collection-type entity does not contain a field which holds a list");
+    }
 }
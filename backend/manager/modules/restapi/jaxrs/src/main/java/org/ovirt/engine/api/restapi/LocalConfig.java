@@ -39,6 +39,7 @@ public class LocalConfig {
     private static final String DEFAULT_VERSION = "ENGINE_API_DEFAULT_VERSION";
     private static final String FILTER_BY_DEFAULT = "ENGINE_API_FILTER_BY_DEFAULT";
     private static final String EXPLORER_DIRECTORY = "ENGINE_API_EXPLORER_DIRECTORY";
+    private static final String STREAM_COLLECTIONS = "ENGINE_API_STREAM_COLLECTIONS";
 
     // Reference to the engine local configuration, as that is what is used to actually read the configuration:
     private EngineLocalConfig config;
@@ -103,6 +104,14 @@ public class LocalConfig {
         return config.getBoolean(FILTER_BY_DEFAULT);
     }
 
+    /**
+     * Returns a boolean that indicates if the items of large collections, like virtual machines or events, should be
+     * mapped one at a time while the response is written, instead of all of them before the response is written.
+     */
+    public boolean getStreamCollections() {
+        return config.getBoolean(STREAM_COLLECTIONS, Boolean.FALSE);
+    }
+
     /**
      * Returns the absolute path name of the directory that contains the API explorer application.
      */
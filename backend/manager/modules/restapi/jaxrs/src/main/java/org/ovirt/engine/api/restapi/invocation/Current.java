@@ -80,6 +80,11 @@ public class Current {
      */
     private BackendLocal backend;
 
+    /**
+     * Indicates if the items of the collections returned by this request may be mapped while the response is written.
+     */
+    private boolean streamCollections;
+
     /**
      * Returns the request version of the API.
      */
@@ -238,4 +243,16 @@ public class Current {
     public BackendLocal getBackend() {
         return backend;
     }
+
+    /**
+     * Returns a boolean that indicates if the items of the collections returned by this request may be mapped while
+     * the response is written.
+     */
+    public boolean isStreamCollections() {
+        return streamCollections;
+    }
+
+    public void setStreamCollections(boolean streamCollections) {
+        this.streamCollections = streamCollections;
+    }
 }
@@ -31,6 +31,7 @@ import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
 import org.apache.commons.lang.StringUtils;
+import org.ovirt.engine.api.restapi.LocalConfig;
 import org.ovirt.engine.core.common.businessentities.aaa.DbUser;
 import org.ovirt.engine.core.common.config.ConfigCommon;
 import org.ovirt.engine.core.common.config.ConfigValues;
@@ -108,6 +109,7 @@ public class CurrentFilter implements Filter {
         current.setPrefix(getPrefix(request));
         current.setPath(getPath(request));
         current.setBackend(backend);
+        current.setStreamCollections(LocalConfig.getInstance().getStreamCollections());
         String correlationId = getCorrelationId(request);
         current.getParameters().put(CORRELATION_ID_PARAM, correlationId);
         response.setHeader(CORRELATION_ID_HEADER, correlationId);
@@ -3,19 +3,24 @@ package org.ovirt.engine.api.restapi.resource;
 import static java.util.stream.Collectors.toList;
 import static java.util.stream.Collectors.toSet;
 
+import java.lang.reflect.Field;
 import java.net.URI;
+import java.util.AbstractList;
 import java.util.List;
 import java.util.Set;
+import java.util.function.Function;
 
 import javax.ws.rs.core.Response;
 
 import org.ovirt.engine.api.model.ActionableResource;
 import org.ovirt.engine.api.model.BaseResource;
+import org.ovirt.engine.api.model.BaseResources;
 import org.ovirt.engine.api.model.CreationStatus;
 import org.ovirt.engine.api.restapi.util.ExpectationHelper;
 import org.ovirt.engine.api.restapi.util.LinkHelper;
 import org.ovirt.engine.api.restapi.util.ParametersHelper;
 import org.ovirt.engine.api.restapi.util.QueryHelper;
+import org.ovirt.engine.api.utils.EntityHelper;
 import org.ovirt.engine.core.common.action.ActionParametersBase;
 import org.ovirt.engine.core.common.action.ActionReturnValue;
 import org.ovirt.engine.core.common.action.ActionType;
@@ -33,6 +38,7 @@ public abstract class AbstractBackendCollectionResource<R extends BaseResource,
     private static final String BLOCKING_EXPECTATION = "201-created";
     private static final String CREATION_STATUS_REL = "creation_status";
     public static final String FROM_CONSTRAINT_PARAMETER = "from";
+    public static final String AFTER_CONSTRAINT_PARAMETER = "after";
     public static final String CASE_SENSITIVE_CONSTRAINT_PARAMETER = "case_sensitive";
     private static final Logger log = LoggerFactory.getLogger(AbstractBackendCollectionResource.class);
 
@@ -55,11 +61,15 @@ public abstract class AbstractBackendCollectionResource<R extends BaseResource,
         boolean caseSensitive = ParametersHelper.getBooleanParameter(httpHeaders, uriInfo, CASE_SENSITIVE_CONSTRAINT_PARAMETER, true, false);
         int from = ParametersHelper.getIntegerParameter(httpHeaders, uriInfo, FROM_CONSTRAINT_PARAMETER, -1, -1);
         int max = ParametersHelper.getIntegerParameter(httpHeaders, uriInfo, MAX, Integer.MAX_VALUE, Integer.MAX_VALUE);
+        String after = ParametersHelper.getParameter(httpHeaders, uriInfo, AFTER_CONSTRAINT_PARAMETER);
 
         searchParams.setCaseSensitive(caseSensitive);
         if (from != -1) {
             searchParams.setSearchFrom(from);
         }
+        if (after != null && !after.isEmpty()) {
+            searchParams.setSearchAfter(after);
+        }
         searchParams.setMaxCount(max);
         return searchParams;
     }
@@ -127,6 +137,63 @@ public abstract class AbstractBackendCollectionResource<R extends BaseResource,
         return id;
     }
 
+    /**
+     * Indicates if the items of the collection returned by this resource can be mapped only when the response is
+     * written, see {@link #setStreamedItems(BaseResources, List, Function)}. This isn't possible when the links of the
+     * items are followed, as the link follower modifies the mapped items.
+     */
+    protected boolean isStreamable() {
+        return getCurrent().isStreamCollections()
+                && ParametersHelper.getParameter(httpHeaders, uriInfo, FOLLOW) == null;
+    }
+
+    /**
+     * Sets the items of the given collection to a view of the given backend entities that maps an entity every time it
+     * is accessed. When the collection is written as the response the entities are mapped one at a time, while the
+     * response is being written, so the whole mapped collection is never held in memory and the response starts
+     * before all the entities are mapped.
+     *
+     * @param collection the collection whose items should be set
+     * @param entities the backend entities, the list shouldn't be modified afterwards
+     * @param mapper maps a backend entity to the complete model, including its links
+     * @return the given collection
+     */
+    protected <C extends BaseResources> C setStreamedItems(C collection, List<Q> entities, Function<Q, R> mapper) {
+        Field field = EntityHelper.getCollectionField(collection);
+        try {
+            field.setAccessible(true);
+            field.set(collection, new MappedList<>(entities, mapper));
+        } catch (IllegalAccessException exception) {
+            throw new IllegalStateException("Can't set the items of collection \""
+                    + collection.getClass().getSimpleName() + "\".", exception);
+        }
+        return collection;
+    }
+
+    /**
+     * A read only list of models that are mapped from the backend entities on every access, nothing but the backend
+     * entities is kept by the list.
+     */
+    private static class MappedList<Q, R> extends AbstractList<R> {
+        private final List<Q> entities;
+        private final Function<Q, R> mapper;
+
+        private MappedList(List<Q> entities, Function<Q, R> mapper) {
+            this.entities = entities;
+            this.mapper = mapper;
+        }
+
+        @Override
+        public R get(int index) {
+            return mapper.apply(entities.get(index));
+        }
+
+        @Override
+        public int size() {
+            return entities.size();
+        }
+    }
+
     protected final <T> Response performCreate(ActionType task,
             ActionParametersBase taskParams,
             IResolver<T, Q> entityResolver,
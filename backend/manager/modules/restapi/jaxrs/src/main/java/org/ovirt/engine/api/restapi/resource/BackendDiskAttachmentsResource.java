@@ -222,7 +222,11 @@ public class BackendDiskAttachmentsResource
         return getEntity(org.ovirt.engine.core.common.businessentities.StorageDomain.class, QueryType.GetStorageDomainById, new IdQueryParameters(id), id.toString());
     }
 
-    private DiskAttachments mapCollection(List<DiskVmElement> entities) {
+    /**
+     * Maps the given disk VM elements of the VM the same way as {@link #list()} does, used also when the disk VM
+     * elements of several VMs were fetched at once.
+     */
+    DiskAttachments mapCollection(List<DiskVmElement> entities) {
         DiskAttachments collection = new DiskAttachments();
         for (org.ovirt.engine.core.common.businessentities.storage.DiskVmElement entity : entities) {
             collection.getDiskAttachments().add(addLinks(populate(map(entity), entity)));
@@ -186,6 +186,13 @@ public class BackendDiskResource
         return performGet(QueryType.GetDiskAndSnapshotsByDiskId, new IdQueryParameters(guid));
     }
 
+    /**
+     * Maps the given disk the same way as {@link #get()} does, used also when several disks were fetched at once.
+     */
+    Disk mapEntity(org.ovirt.engine.core.common.businessentities.storage.Disk entity) {
+        return addLinks(populate(map(entity, null), entity));
+    }
+
     @Override
     protected Disk doPopulate(Disk model, org.ovirt.engine.core.common.businessentities.storage.Disk entity) {
         // Populate the references to the VMs that are using this disk:
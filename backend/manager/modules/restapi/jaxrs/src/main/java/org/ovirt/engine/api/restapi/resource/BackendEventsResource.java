@@ -35,6 +35,9 @@ public class BackendEventsResource
 
     private Events mapCollection(List<AuditLog> entities) {
         Events collection = new Events();
+        if (isStreamable()) {
+            return setStreamedItems(collection, entities, entity -> addLinks(map(entity)));
+        }
         for (AuditLog entity : entities) {
             collection.getEvents().add(addLinks(map(entity)));
         }
@@ -28,11 +28,19 @@ public class BackendVmNicsResource extends AbstractBackendNicsResource implement
 
     @Override
     public Nics list() {
-        Nics nics = new Nics();
         List<VmNetworkInterface> entities = getBackendCollection(
             QueryType.GetVmInterfacesByVmId,
             new IdQueryParameters(vmId)
         );
+        return mapCollection(entities);
+    }
+
+    /**
+     * Maps the given interfaces of the VM the same way as {@link #list()} does, used also when the interfaces of
+     * several VMs were fetched at once.
+     */
+    Nics mapCollection(List<VmNetworkInterface> entities) {
+        Nics nics = new Nics();
         for (VmNetworkInterface entity : entities) {
             Nic nic = populate(map(entity), entity);
             nics.getNics().add(addLinks(nic));
@@ -17,6 +17,7 @@ limitations under the License.
 package org.ovirt.engine.api.restapi.resource;
 
 import java.util.Collection;
+import java.util.Collections;
 import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -32,6 +33,7 @@ import javax.ws.rs.WebApplicationException;
 import javax.ws.rs.core.Response;
 
 import org.ovirt.engine.api.common.util.DetailHelper;
+import org.ovirt.engine.api.model.ActionableResource;
 import org.ovirt.engine.api.model.Configuration;
 import org.ovirt.engine.api.model.ConfigurationType;
 import org.ovirt.engine.api.model.Disk;
@@ -51,6 +53,7 @@ import org.ovirt.engine.api.model.Vms;
 import org.ovirt.engine.api.resource.VmResource;
 import org.ovirt.engine.api.resource.VmsResource;
 import org.ovirt.engine.api.restapi.logging.Messages;
+import org.ovirt.engine.api.restapi.resource.utils.LinksTreeNode;
 import org.ovirt.engine.api.restapi.types.DiskMapper;
 import org.ovirt.engine.api.restapi.types.RngDeviceMapper;
 import org.ovirt.engine.api.restapi.types.VmMapper;
@@ -76,8 +79,10 @@ import org.ovirt.engine.core.common.businessentities.VmPayload;
 import org.ovirt.engine.core.common.businessentities.VmRngDevice;
 import org.ovirt.engine.core.common.businessentities.VmStatic;
 import org.ovirt.engine.core.common.businessentities.VmTemplate;
+import org.ovirt.engine.core.common.businessentities.network.VmNetworkInterface;
 import org.ovirt.engine.core.common.businessentities.storage.BaseDisk;
 import org.ovirt.engine.core.common.businessentities.storage.DiskImage;
+import org.ovirt.engine.core.common.businessentities.storage.DiskVmElement;
 import org.ovirt.engine.core.common.interfaces.SearchType;
 import org.ovirt.engine.core.common.osinfo.OsRepository;
 import org.ovirt.engine.core.common.queries.GetFilteredAndSortedParameters;
@@ -103,6 +108,9 @@ public class BackendVmsResource extends
 
     public static final String CLONE = "clone";
     public static final String CLONE_PERMISSIONS = "clone_permissions";
+    private static final String NICS = "nics";
+    private static final String DISK_ATTACHMENTS = "disk_attachments";
+    private static final String DISK_ATTACHMENTS_DISK = "disk_attachments.disk";
 
     public BackendVmsResource() {
         super(Vm.class, org.ovirt.engine.core.common.businessentities.VM.class);
@@ -604,6 +612,97 @@ public class BackendVmsResource extends
         vm.setStatistics(statistics);
     }
 
+    @Override
+    public void follow(ActionableResource entity, LinksTreeNode linksTree) {
+        if (!(entity instanceof Vms)) {
+            return;
+        }
+        List<Vm> vms = ((Vms) entity).getVms();
+        if (linksTree.pathExists(NICS)) {
+            followNics(vms);
+            linksTree.markAsFollowed(NICS);
+        }
+        if (linksTree.pathExists(DISK_ATTACHMENTS)) {
+            followDiskAttachments(vms);
+            linksTree.markAsFollowed(DISK_ATTACHMENTS);
+            if (linksTree.pathExists(DISK_ATTACHMENTS_DISK)) {
+                followDisks(vms);
+                linksTree.markAsFollowed(DISK_ATTACHMENTS_DISK);
+            }
+        }
+    }
+
+    /**
+     * Fetches the NICs of all the given VMs by a single query instead of a query per VM, the NICs are set to the VMs
+     * exactly as if their "nics" link was followed.
+     */
+    private void followNics(List<Vm> vms) {
+        IdsQueryParameters params = new IdsQueryParameters();
+        params.setId(vms.stream().map(vm -> asGuid(vm.getId())).collect(Collectors.toList()));
+        Map<Guid, List<VmNetworkInterface>> interfacesByVm =
+                getBackendCollection(VmNetworkInterface.class, QueryType.GetVmInterfacesByVmIds, params)
+                        .stream()
+                        .collect(Collectors.groupingBy(VmNetworkInterface::getVmId));
+        for (Vm vm : vms) {
+            Guid vmId = asGuid(vm.getId());
+            BackendVmNicsResource nicsResource = inject(new BackendVmNicsResource(vmId));
+            vm.setNics(nicsResource.mapCollection(interfacesByVm.getOrDefault(vmId, Collections.emptyList())));
+        }
+    }
+
+    /**
+     * Fetches the disk attachments of all the given VMs by a single query, the attachments are set to the VMs
+     * exactly as if their "disk_attachments" link was followed.
+     */
+    private void followDiskAttachments(List<Vm> vms) {
+        IdsQueryParameters params = new IdsQueryParameters();
+        params.setId(vms.stream().map(vm -> asGuid(vm.getId())).collect(Collectors.toList()));
+        Map<Guid, List<DiskVmElement>> diskVmElementsByVm =
+                getBackendCollection(DiskVmElement.class, QueryType.GetDiskVmElementsByVmIds, params)
+                        .stream()
+                        .collect(Collectors.groupingBy(dve -> dve.getId().getVmId()));
+        for (Vm vm : vms) {
+            Guid vmId = asGuid(vm.getId());
+            BackendDiskAttachmentsResource attachmentsResource = inject(new BackendDiskAttachmentsResource(vmId));
+            vm.setDiskAttachments(attachmentsResource.mapCollection(
+                    diskVmElementsByVm.getOrDefault(vmId, Collections.emptyList())));
+        }
+    }
+
+    /**
+     * Fetches the disks of all the disk attachments of the given VMs by a single query, the disks are set to the
+     * attachments exactly as if their "disk" link was followed. A disk that can not be read anymore is left as
+     * referenced by the attachment.
+     */
+    private void followDisks(List<Vm> vms) {
+        List<DiskAttachment> attachments = vms.stream()
+                .filter(Vm::isSetDiskAttachments)
+                .flatMap(vm -> vm.getDiskAttachments().getDiskAttachments().stream())
+                .filter(attachment -> attachment.isSetDisk() && attachment.getDisk().isSetId())
+                .collect(Collectors.toList());
+        if (attachments.isEmpty()) {
+            return;
+        }
+        IdsQueryParameters params = new IdsQueryParameters();
+        params.setId(attachments.stream()
+                .map(attachment -> asGuid(attachment.getDisk().getId()))
+                .distinct()
+                .collect(Collectors.toList()));
+        Map<Guid, org.ovirt.engine.core.common.businessentities.storage.Disk> disksById =
+                Entities.businessEntitiesById(getBackendCollection(
+                        org.ovirt.engine.core.common.businessentities.storage.Disk.class,
+                        QueryType.GetDisksAndSnapshotsByDiskIds,
+                        params));
+        for (DiskAttachment attachment : attachments) {
+            org.ovirt.engine.core.common.businessentities.storage.Disk entity =
+                    disksById.get(asGuid(attachment.getDisk().getId()));
+            if (entity != null) {
+                BackendDiskResource diskResource = inject(new BackendDiskResource(attachment.getDisk().getId()));
+                attachment.setDisk(diskResource.mapEntity(entity));
+            }
+        }
+    }
+
     protected Vms mapCollection(List<org.ovirt.engine.core.common.businessentities.VM> entities) {
         Set<String> details = DetailHelper.getDetails(httpHeaders, uriInfo);
         boolean includeData = details.contains(DetailHelper.MAIN);
@@ -630,11 +729,18 @@ public class BackendVmsResource extends
             Map<Guid, List<GraphicsDevice>> vmsGraphicsDevices =
                     DisplayHelper.getGraphicsDevicesForMultipleEntities(this, vmIds);
 
-            for (org.ovirt.engine.core.common.businessentities.VM entity : entities) {
+            Function<org.ovirt.engine.core.common.businessentities.VM, Vm> mapper = entity -> {
                 Vm vm = map(entity);
                 DisplayHelper.adjustDisplayData(this, vm, vmsGraphicsDevices, false);
                 removeRestrictedInfo(vm);
-                collection.getVms().add(addLinks(populate(vm, entity)));
+                return addLinks(populate(vm, entity));
+            };
+            if (isStreamable()) {
+                setStreamedItems(collection, entities, mapper);
+            } else {
+                for (org.ovirt.engine.core.common.businessentities.VM entity : entities) {
+                    collection.getVms().add(mapper.apply(entity));
+                }
             }
         }
         if (includeSize) {
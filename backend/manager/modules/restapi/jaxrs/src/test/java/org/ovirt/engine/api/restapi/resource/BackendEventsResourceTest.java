@@ -5,6 +5,9 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Date;
 import java.util.List;
 
@@ -16,7 +19,9 @@ import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
 import org.ovirt.engine.api.model.Action;
 import org.ovirt.engine.api.model.Event;
+import org.ovirt.engine.api.model.Events;
 import org.ovirt.engine.api.model.LogSeverity;
+import org.ovirt.engine.api.restapi.invocation.CurrentManager;
 import org.ovirt.engine.core.common.AuditLogSeverity;
 import org.ovirt.engine.core.common.AuditLogType;
 import org.ovirt.engine.core.common.action.ActionParametersBase;
@@ -103,6 +108,36 @@ public class BackendEventsResourceTest extends AbstractBackendCollectionResource
         verifyCollection(getCollection());
     }
 
+    @Test
+    public void testListStreamed() throws Exception {
+        UriInfo uriInfo = setUpUriExpectations(null);
+        CurrentManager.get().setStreamCollections(true);
+
+        setUpQueryExpectations("");
+        collection.setUriInfo(uriInfo);
+        verifyCollection(getCollection());
+    }
+
+    @Test
+    public void testStreamedItemsAreMappedWhenReached() {
+        List<AuditLog> entities = Arrays.asList(getEntity(0), getEntity(1), getEntity(2));
+        List<Integer> mapped = new ArrayList<>();
+        Events events = collection.setStreamedItems(new Events(), entities, entity -> {
+            int index = entities.indexOf(entity);
+            mapped.add(index);
+            return getModel(index);
+        });
+        assertTrue(mapped.isEmpty());
+
+        // Reaching an item maps just that item, the following ones are mapped only when they are reached too
+        List<Event> items = events.getEvents();
+        verifyModel(items.get(0), 0);
+        assertEquals(Collections.singletonList(0), mapped);
+        verifyModel(items.get(1), 1);
+        verifyModel(items.get(2), 2);
+        assertEquals(Arrays.asList(0, 1, 2), mapped);
+    }
+
     @Test
     public void testUndelete() {
 
@@ -20,4 +20,15 @@ public class LinksTreeNodeTest {
         linksTree.markAsFollowed("tags");
         assertTrue(linksTree.getChild("tags").get().isFollowed());
     }
+
+    @Test
+    public void testPathExists() {
+        LinkFollower linkFollower = new LinkFollower();
+        LinksTreeNode linksTree = linkFollower.createLinksTree(Vm.class, "disk_attachments.disk,tags");
+        assertTrue(linksTree.pathExists("disk_attachments"));
+        assertTrue(linksTree.pathExists("disk_attachments.disk"));
+        assertFalse(linksTree.pathExists("disk_attachments.template"));
+        assertFalse(linksTree.pathExists("tags.disk"));
+        assertFalse(linksTree.pathExists("nics"));
+    }
 }
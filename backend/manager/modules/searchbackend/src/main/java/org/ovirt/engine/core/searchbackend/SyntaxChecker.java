@@ -43,6 +43,8 @@ public class SyntaxChecker implements ISyntaxChecker {
 
     private final Regex firstDQRegexp;
     private final Regex nonSpaceRegexp;
+    private final Regex numericKeyRegexp;
+    private final Regex uuidKeyRegexp;
     private SqlInjectionChecker sqlInjectionChecker;
 
     public SyntaxChecker() {
@@ -59,6 +61,8 @@ public class SyntaxChecker implements ISyntaxChecker {
 
         firstDQRegexp = new Regex("^\\s*\"$");
         nonSpaceRegexp = new Regex("^\\S+$");
+        numericKeyRegexp = new Regex("^[0-9]+$");
+        uuidKeyRegexp = new Regex("^[0-9a-fA-F]{8}(-[0-9a-fA-F]{4}){3}-[0-9a-fA-F]{12}$");
 
         stateMap = new HashMap<>();
         stateMap.put(SyntaxObjectType.BEGIN, new SyntaxObjectType[] { SyntaxObjectType.SEARCH_OBJECT });
@@ -877,6 +881,20 @@ public class SyntaxChecker implements ISyntaxChecker {
                 whereBuilder.add("not deleted");
             }
 
+            // keyset paging continues right after the primary key of the last entity of the previous page
+            boolean keysetPaging = syntax.getSearchAfter() != null;
+            if (keysetPaging) {
+                // the keyset pages have an order and a page of their own, these would be silently ignored
+                if (!"".equals(sortByPhrase) || !"".equals(pageNumber)) {
+                    throw new IllegalArgumentException("Search after a primary key can not be combined with "
+                            + "'sortby' or 'page'");
+                }
+                whereBuilder.add(StringFormat.format("%1$s.%2$s > %3$s",
+                        searchObjectAC.getRelatedTableName(searchObjStr, useTags),
+                        searchObjectAC.getPrimeryKeyName(searchObjStr),
+                        getKeyLiteral(syntax.getSearchAfter())));
+            }
+
             // adding WHERE if required and All implicit AND
             StringBuilder wherePhrase = new StringBuilder();
             if (whereBuilder.size() > 0) {
@@ -891,22 +909,29 @@ public class SyntaxChecker implements ISyntaxChecker {
                 }
             }
 
-            // adding the sorting part if required
-            if ("".equals(sortByPhrase)) {
-                sortByPhrase = " ORDER BY " + searchObjectAC.getDefaultSort(searchObjStr);
-            }
-            // adding the paging phrase
-            String pagePhrase = getPagePhrase(syntax, pageNumber);
             String primeryKey = searchObjectAC.getPrimeryKeyName(searchObjStr);
             String tableName = searchObjectAC.getRelatedTableName(searchObjStr, useTags);
             boolean usingDistinct = searchObjectAC.isUsingDistinct(searchObjStr);
-
-            // adding a secondary default sort by entity name
             StringBuilder sortExpr = new StringBuilder();
-            sortExpr.append(sortByPhrase);
-            if (!sortByPhrase.contains(searchObjectAC.getDefaultSort(searchObjStr))) {
-                sortExpr.append(",");
-                sortExpr.append(searchObjectAC.getDefaultSort(searchObjStr));
+            String pagePhrase;
+            if (keysetPaging) {
+                // the keyset pages follow the order of the primary key, each of them is the first page after its key
+                sortExpr.append(" ORDER BY ").append(primeryKey).append(" ASC");
+                pagePhrase = getPagePhrase(syntax, "1");
+            } else {
+                // adding the sorting part if required
+                if ("".equals(sortByPhrase)) {
+                    sortByPhrase = " ORDER BY " + searchObjectAC.getDefaultSort(searchObjStr);
+                }
+                // adding the paging phrase
+                pagePhrase = getPagePhrase(syntax, pageNumber);
+
+                // adding a secondary default sort by entity name
+                sortExpr.append(sortByPhrase);
+                if (!sortByPhrase.contains(searchObjectAC.getDefaultSort(searchObjStr))) {
+                    sortExpr.append(",");
+                    sortExpr.append(searchObjectAC.getDefaultSort(searchObjStr));
+                }
             }
 
             // TODO: The database configuration PostgresSearchTemplate has an extra closing braces. Hence our
@@ -956,6 +981,20 @@ public class SyntaxChecker implements ISyntaxChecker {
         }
     }
 
+    /**
+     * The primary keys of the search objects are either numbers or UUIDs, anything else is refused as the value is
+     * placed in the query as is.
+     */
+    private String getKeyLiteral(String key) {
+        if (numericKeyRegexp.isMatch(key)) {
+            return key;
+        }
+        if (uuidKeyRegexp.isMatch(key)) {
+            return "'" + key + "'";
+        }
+        throw new IllegalArgumentException("Illegal primary key to search after: " + key);
+    }
+
     protected String getPagePhrase(SyntaxContainer syntax, String pageNumber) {
         String result = "";
         Integer page = IntegerCompat.tryParse(pageNumber);
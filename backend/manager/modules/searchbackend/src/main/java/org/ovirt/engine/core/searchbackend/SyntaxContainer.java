@@ -18,6 +18,7 @@ public class SyntaxContainer implements Iterable<SyntaxObject> {
     private final int[] errorPos = new int[2];
     private int privateMaxCount;
     private long searchFrom = 0;
+    private String searchAfter;
     private boolean caseSensitive=true;
 
     /**
@@ -50,6 +51,17 @@ public class SyntaxContainer implements Iterable<SyntaxObject> {
         searchFrom = value;
     }
 
+    /**
+     * @return the primary key after which the keyset page starts, {@code null} when paging by page numbers
+     */
+    public String getSearchAfter() {
+        return searchAfter;
+    }
+
+    public void setSearchAfter(String value) {
+        searchAfter = value;
+    }
+
     public boolean getvalid() {
         return valid;
     }
@@ -2,6 +2,7 @@ package org.ovirt.engine.core.searchbackend;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
@@ -499,11 +500,46 @@ public class SyntaxCheckerTest {
                 "SELECT * FROM (SELECT * FROM vms WHERE ( vm_guid IN (SELECT distinct vms_with_tags.vm_guid FROM  vms_with_tags   WHERE  vms_with_tags.tag_name IN ('tag1','all') ))  ORDER BY vm_name ASC ) as T1 OFFSET (1 -1) LIMIT 0");
     }
 
+    @Test
+    public void testVmsSearchAfter() {
+        testValidSql("Vms: name=a*",
+                "0b8f5b43-9a4c-4a39-a0d5-3e4c5d1f2a11",
+                "SELECT * FROM ((SELECT  vms.* FROM  vms   WHERE  vms.vm_name LIKE a%  AND vms.vm_guid > '0b8f5b43-9a4c-4a39-a0d5-3e4c5d1f2a11')  ORDER BY vm_guid ASC) as T1 OFFSET (1 -1) LIMIT 0");
+        testValidSql("Vms: storage.name = 111",
+                "0b8f5b43-9a4c-4a39-a0d5-3e4c5d1f2a11",
+                "SELECT * FROM (SELECT * FROM vms WHERE ( vm_guid IN (SELECT distinct vms_with_tags.vm_guid FROM  vms_with_tags   LEFT OUTER JOIN storage_domains_with_hosts_view ON vms_with_tags.storage_id=storage_domains_with_hosts_view.id    WHERE  storage_domains_with_hosts_view.storage_name LIKE 111  AND vms_with_tags.vm_guid > '0b8f5b43-9a4c-4a39-a0d5-3e4c5d1f2a11'))  ORDER BY vm_guid ASC) as T1 OFFSET (1 -1) LIMIT 0");
+    }
+
+    @Test
+    public void testEventsSearchAfter() {
+        testValidSql("Events: severity=error",
+                "1234",
+                "SELECT * FROM ((SELECT  audit_log.* FROM  audit_log   WHERE  audit_log.severity = '2'  AND not deleted AND audit_log.audit_log_id > 1234)  ORDER BY audit_log_id ASC) as T1 OFFSET (1 -1) LIMIT 0");
+    }
+
+    @Test
+    public void testSearchAfterWithSortOrPage() {
+        assertThrows(IllegalArgumentException.class,
+                () -> testValidSql("Vms: sortby cpu_usage desc", "0b8f5b43-9a4c-4a39-a0d5-3e4c5d1f2a11", ""));
+        assertThrows(IllegalArgumentException.class,
+                () -> testValidSql("Vms: name=a* page 3", "0b8f5b43-9a4c-4a39-a0d5-3e4c5d1f2a11", ""));
+    }
+
+    @Test
+    public void testIllegalSearchAfter() {
+        assertThrows(IllegalArgumentException.class, () -> testValidSql("Vms:", "1; drop table vms", ""));
+    }
+
     private void testValidSql(String dynamicQuery, String exepctedSQLResult) {
+        testValidSql(dynamicQuery, null, exepctedSQLResult);
+    }
+
+    private void testValidSql(String dynamicQuery, String searchAfter, String exepctedSQLResult) {
         SyntaxChecker chkr = new SyntaxChecker();
         ISyntaxChecker curSyntaxChecker = SyntaxCheckerFactory.createBackendSyntaxChecker("foo");
         SyntaxContainer res = curSyntaxChecker.analyzeSyntaxState(dynamicQuery, true);
         assertTrue(res.getvalid(), "Invalid syntax: " + dynamicQuery);
+        res.setSearchAfter(searchAfter);
         String query = chkr.generateQueryFromSyntaxContainer(res, true);
         assertEquals(exepctedSQLResult, query);
     }
@@ -23,10 +23,10 @@ public class MacAddressRangeUtils {
     private MacAddressRangeUtils() {
     }
 
-    public static List<String> macAddressesToStrings(List<Long> macAddresses) {
-        final List<String> result = new ArrayList<>(macAddresses.size());
+    public static List<String> macAddressesToStrings(long[] macAddresses) {
+        final List<String> result = new ArrayList<>(macAddresses.length);
 
-        for (Long macAddress : macAddresses) {
+        for (long macAddress : macAddresses) {
             result.add(macToString(macAddress));
         }
 
@@ -0,0 +1,166 @@
+package org.ovirt.engine.core.utils.archivers.tar;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Tar archive written entry by entry to memory while it is small, and to a temporary file once it grows beyond the
+ * given threshold. This keeps the heap needed to build an archive bounded, no matter how many entries it has.
+ *
+ * Once finished the archive can be read any number of times, its length is known before it is read. The temporary
+ * file is removed when the archive is closed.
+ */
+public class SpooledTar implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(SpooledTar.class);
+
+    private final SpoolOutputStream spool;
+    private final TarArchiveOutputStream tarArchiveOutputStream;
+    private boolean finished;
+
+    /**
+     * @param threshold
+     *            the maximal number of bytes kept in memory
+     * @param prefix
+     *            the prefix of the name of the temporary file
+     */
+    public SpooledTar(int threshold, String prefix) {
+        spool = new SpoolOutputStream(threshold, prefix);
+        tarArchiveOutputStream = new TarArchiveOutputStream(spool);
+    }
+
+    public void addTarEntry(byte[] data, String name) throws IOException {
+        if (finished) {
+            throw new IllegalStateException("Entry '" + name + "' can't be added to a finished archive");
+        }
+        TarArchiveEntry entry = new TarArchiveEntry(name);
+        entry.setSize(data.length);
+        tarArchiveOutputStream.putArchiveEntry(entry);
+        tarArchiveOutputStream.write(data);
+        tarArchiveOutputStream.closeArchiveEntry();
+    }
+
+    /**
+     * Writes the end of the archive, no entries can be added afterwards.
+     */
+    public void finish() throws IOException {
+        if (!finished) {
+            tarArchiveOutputStream.close();
+            finished = true;
+        }
+    }
+
+    /**
+     * @return the length of the finished archive in bytes
+     */
+    public long getLength() {
+        checkFinished();
+        return spool.length;
+    }
+
+    /**
+     * @return true if the archive was written to a temporary file
+     */
+    public boolean isSpooledToFile() {
+        return spool.file != null;
+    }
+
+    /**
+     * Opens a new stream reading the finished archive from its beginning, the caller has to close it.
+     */
+    public InputStream openInputStream() throws IOException {
+        checkFinished();
+        if (spool.file != null) {
+            return new BufferedInputStream(new FileInputStream(spool.file));
+        }
+        return new ByteArrayInputStream(spool.memory.toByteArray());
+    }
+
+    @Override
+    public void close() {
+        try {
+            finish();
+        } catch (IOException e) {
+            log.debug("Failed to finish tar archive: {}", e.getMessage());
+        }
+        if (spool.file != null && !spool.file.delete()) {
+            log.error("Cannot delete '{}'", spool.file.getAbsolutePath());
+        }
+    }
+
+    private void checkFinished() {
+        if (!finished) {
+            throw new IllegalStateException("The archive isn't finished");
+        }
+    }
+
+    /**
+     * Keeps the written bytes in memory up to the threshold, then moves them to a temporary file and writes the rest
+     * there.
+     */
+    private static class SpoolOutputStream extends OutputStream {
+        private final int threshold;
+        private final String prefix;
+        private ByteArrayOutputStream memory = new ByteArrayOutputStream();
+        private File file;
+        private OutputStream fileOutputStream;
+        private long length;
+
+        private SpoolOutputStream(int threshold, String prefix) {
+            this.threshold = threshold;
+            this.prefix = prefix;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[] { (byte) b }, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (fileOutputStream == null && length + len > threshold) {
+                spoolToFile();
+            }
+            if (fileOutputStream != null) {
+                fileOutputStream.write(b, off, len);
+            } else {
+                memory.write(b, off, len);
+            }
+            length += len;
+        }
+
+        @Override
+        public void flush() throws IOException {
+            if (fileOutputStream != null) {
+                fileOutputStream.flush();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (fileOutputStream != null) {
+                fileOutputStream.close();
+            }
+        }
+
+        private void spoolToFile() throws IOException {
+            file = File.createTempFile(prefix, ".tar");
+            fileOutputStream = new BufferedOutputStream(new FileOutputStream(file));
+            memory.writeTo(fileOutputStream);
+            memory = null;
+        }
+    }
+}
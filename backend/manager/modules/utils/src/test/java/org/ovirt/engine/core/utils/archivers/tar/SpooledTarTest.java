@@ -0,0 +1,92 @@
+package org.ovirt.engine.core.utils.archivers.tar;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+public class SpooledTarTest {
+
+    private static final int THRESHOLD = 4096;
+
+    @Test
+    public void smallArchiveStaysInMemory() throws Exception {
+        try (SpooledTar tar = new SpooledTar(THRESHOLD, "test")) {
+            tar.addTarEntry("content".getBytes(), "file.txt");
+            tar.finish();
+
+            assertFalse(tar.isSpooledToFile());
+            assertEntries(tar, 1);
+        }
+    }
+
+    @Test
+    public void largeArchiveIsSpooledToFile() throws Exception {
+        try (SpooledTar tar = new SpooledTar(THRESHOLD, "test")) {
+            for (int i = 0; i < 10; ++i) {
+                tar.addTarEntry(content(i), "file" + i + ".txt");
+            }
+            tar.finish();
+
+            assertTrue(tar.isSpooledToFile());
+            assertEntries(tar, 10);
+        }
+    }
+
+    @Test
+    public void archiveCanBeReadRepeatedly() throws Exception {
+        try (SpooledTar tar = new SpooledTar(THRESHOLD, "test")) {
+            for (int i = 0; i < 10; ++i) {
+                tar.addTarEntry(content(i), "file" + i + ".txt");
+            }
+            tar.finish();
+
+            assertArrayEquals(read(tar), read(tar));
+            assertEquals(tar.getLength(), read(tar).length);
+        }
+    }
+
+    @Test
+    public void unfinishedArchiveCantBeRead() throws Exception {
+        try (SpooledTar tar = new SpooledTar(THRESHOLD, "test")) {
+            tar.addTarEntry("content".getBytes(), "file.txt");
+
+            assertThrows(IllegalStateException.class, tar::openInputStream);
+        }
+    }
+
+    private static byte[] content(int index) {
+        byte[] content = new byte[1000];
+        Arrays.fill(content, (byte) ('a' + index));
+        return content;
+    }
+
+    private static byte[] read(SpooledTar tar) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (InputStream in = tar.openInputStream()) {
+            byte[] buffer = new byte[1024];
+            int count;
+            while ((count = in.read(buffer)) != -1) {
+                bytes.write(buffer, 0, count);
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    private static void assertEntries(SpooledTar tar, int count) throws IOException {
+        try (TarInMemoryExport export = new TarInMemoryExport(tar.openInputStream())) {
+            Map<String, ByteBuffer> entries = export.unTar();
+            assertEquals(count, entries.size());
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package org.ovirt.engine.core.vdsbroker;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.ovirt.engine.core.common.businessentities.VDS;
+import org.ovirt.engine.core.common.businessentities.VDSStatus;
+import org.ovirt.engine.core.compat.Guid;
+
+/**
+ * Immutable, versioned view of the hosts that belong to a single cluster.
+ *
+ * Every host is kept as a copy nobody else refers to, and each reader gets its own
+ * copy of it, so readers are free to mutate the VDS objects (the scheduler does that
+ * with pending resources and running VM load).
+ */
+public final class ClusterHostsSnapshot {
+
+    private static final ClusterHostsSnapshot EMPTY = new ClusterHostsSnapshot(0, Collections.emptyMap());
+
+    private final long version;
+    private final Map<Guid, VDS> hosts;
+
+    private ClusterHostsSnapshot(long version, Map<Guid, VDS> hosts) {
+        this.version = version;
+        this.hosts = hosts;
+    }
+
+    static ClusterHostsSnapshot empty() {
+        return EMPTY;
+    }
+
+    /**
+     * @param vds a copy of the host the snapshot takes over, it must not be changed afterwards
+     * @return a new snapshot with the given version, where the host is added or replaced
+     */
+    ClusterHostsSnapshot withHost(long newVersion, VDS vds) {
+        Map<Guid, VDS> newHosts = new HashMap<>(hosts);
+        newHosts.put(vds.getId(), vds);
+        return new ClusterHostsSnapshot(newVersion, Collections.unmodifiableMap(newHosts));
+    }
+
+    /**
+     * @return a new snapshot with the given version, where the host is missing
+     */
+    ClusterHostsSnapshot withoutHost(long newVersion, Guid hostId) {
+        if (!hosts.containsKey(hostId)) {
+            return this;
+        }
+        Map<Guid, VDS> newHosts = new HashMap<>(hosts);
+        newHosts.remove(hostId);
+        return new ClusterHostsSnapshot(newVersion, Collections.unmodifiableMap(newHosts));
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public int size() {
+        return hosts.size();
+    }
+
+    public boolean isEmpty() {
+        return hosts.isEmpty();
+    }
+
+    /**
+     * @return a private copy of the host, null if the host is not part of the snapshot
+     */
+    public VDS getHost(Guid hostId) {
+        VDS vds = hosts.get(hostId);
+        return vds == null ? null : new VDS(vds);
+    }
+
+    /**
+     * Returns private copies of all the hosts in the requested status.
+     *
+     * @param status the status the hosts must be in
+     * @return a list of VDS objects the caller owns
+     */
+    public List<VDS> getHostsWithStatus(VDSStatus status) {
+        List<VDS> result = new ArrayList<>();
+        for (VDS vds : hosts.values()) {
+            if (vds.getStatus() == status) {
+                result.add(new VDS(vds));
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,84 @@
+package org.ovirt.engine.core.vdsbroker;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.inject.Singleton;
+
+import org.ovirt.engine.core.common.businessentities.VDS;
+import org.ovirt.engine.core.compat.Guid;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Keeps an incrementally updated, in-memory {@link ClusterHostsSnapshot} for every cluster.
+ *
+ * The snapshots are fed by {@link VdsManager} whenever its cached host changes (periodic refresh,
+ * dynamic and statistics updates and pending resource changes), so readers such as the scheduler
+ * can get the current host state without a database round trip.
+ */
+@Singleton
+public class ClusterHostsSnapshotManager {
+
+    private static final Logger log = LoggerFactory.getLogger(ClusterHostsSnapshotManager.class);
+
+    private final AtomicLong versionCounter = new AtomicLong();
+    private final Map<Guid, ClusterHostsSnapshot> snapshots = new ConcurrentHashMap<>();
+    private final Map<Guid, Guid> hostToCluster = new ConcurrentHashMap<>();
+
+    /**
+     * Publish the current state of a host. A host that changed its cluster is moved
+     * to the snapshot of the new cluster.
+     *
+     * The host is copied field by field, so the caller must hold the lock its writers hold. A failure is logged and
+     * the previous state is kept until the next update, it never reaches the caller.
+     *
+     * @param vds the current host state; it is copied, later changes to it are not visible
+     */
+    public void publish(VDS vds) {
+        if (vds == null || vds.getClusterId() == null) {
+            return;
+        }
+
+        try {
+            VDS copy = new VDS(vds);
+            synchronized (this) {
+                Guid previousCluster = hostToCluster.put(copy.getId(), copy.getClusterId());
+                if (previousCluster != null && !previousCluster.equals(copy.getClusterId())) {
+                    removeFromCluster(previousCluster, copy.getId());
+                }
+                snapshots.compute(copy.getClusterId(),
+                        (clusterId, snapshot) -> (snapshot == null ? ClusterHostsSnapshot.empty() : snapshot)
+                                .withHost(versionCounter.incrementAndGet(), copy));
+            }
+        } catch (RuntimeException e) {
+            log.warn("Failed to publish the state of host '{}': {}", vds.getId(), e.getMessage());
+            log.debug("Exception", e);
+        }
+    }
+
+    /**
+     * Remove the host from all snapshots.
+     */
+    public void remove(Guid hostId) {
+        synchronized (this) {
+            Guid clusterId = hostToCluster.remove(hostId);
+            if (clusterId != null) {
+                removeFromCluster(clusterId, hostId);
+            }
+        }
+    }
+
+    /**
+     * @return the current snapshot of the cluster, an empty snapshot if no host of the cluster is known
+     */
+    public ClusterHostsSnapshot getSnapshot(Guid clusterId) {
+        return snapshots.getOrDefault(clusterId, ClusterHostsSnapshot.empty());
+    }
+
+    private void removeFromCluster(Guid clusterId, Guid hostId) {
+        snapshots.computeIfPresent(clusterId,
+                (id, snapshot) -> snapshot.withoutHost(versionCounter.incrementAndGet(), hostId));
+    }
+}
@@ -49,7 +49,6 @@ import org.ovirt.engine.core.dal.dbbroker.auditloghandling.AuditLogable;
 import org.ovirt.engine.core.dal.dbbroker.auditloghandling.AuditLogableImpl;
 import org.ovirt.engine.core.dao.VdsDao;
 import org.ovirt.engine.core.dao.VmDynamicDao;
-import org.ovirt.engine.core.dao.network.VmNetworkStatisticsDao;
 import org.ovirt.engine.core.di.Injector;
 import org.ovirt.engine.core.utils.ReflectionUtils;
 import org.ovirt.engine.core.utils.threadpool.ThreadPools;
@@ -90,9 +89,6 @@ public class ResourceManager implements BackendService {
     @Inject
     private VmDynamicDao vmDynamicDao;
 
-    @Inject
-    private VmNetworkStatisticsDao vmNetworkStatisticsDao;
-
     @Inject
     Instance<VdsCommandExecutor> commandExecutor;
 
@@ -252,12 +248,13 @@ public class ResourceManager implements BackendService {
 
     private void storeVm(VM vm) {
         vmDynamicDao.update(vm.getDynamicData());
-        getVmManager(vm.getId()).update(vm.getStatisticsData());
+        VmManager vmManager = getVmManager(vm.getId());
+        vmManager.update(vm.getStatisticsData());
         List<VmNetworkInterface> interfaces = vm.getInterfaces();
         if (interfaces != null) {
             for (VmNetworkInterface ifc : interfaces) {
                 VmNetworkStatistics stats = ifc.getStatistics();
-                vmNetworkStatisticsDao.update(stats);
+                vmManager.update(stats);
             }
         }
     }
@@ -54,6 +54,7 @@ import org.ovirt.engine.core.dao.VdsNumaNodeDao;
 import org.ovirt.engine.core.dao.VdsStatisticsDao;
 import org.ovirt.engine.core.dao.VmDynamicDao;
 import org.ovirt.engine.core.dao.VmStaticDao;
+import org.ovirt.engine.core.dao.cache.VdsChangeTracker;
 import org.ovirt.engine.core.dao.network.InterfaceDao;
 import org.ovirt.engine.core.dao.network.NetworkDao;
 import org.ovirt.engine.core.di.Injector;
@@ -115,6 +116,9 @@ public class VdsManager {
     @Inject
     private VdsStatisticsDao vdsStatisticsDao;
 
+    @Inject
+    private VdsChangeTracker vdsChangeTracker;
+
     @Inject
     private VdsNumaNodeDao vdsNumaNodeDao;
 
@@ -130,6 +134,9 @@ public class VdsManager {
     @Inject
     private HostNetworkTopologyPersister hostNetworkTopologyPersister;
 
+    @Inject
+    private ClusterHostsSnapshotManager clusterHostsSnapshotManager;
+
     @Inject
     private Instance<IrsProxyManager> irsProxyManager;
     private final AtomicInteger failedToRunVmAttempts;
@@ -137,6 +144,8 @@ public class VdsManager {
     private final Guid vdsId;
     private final VdsMonitor vdsMonitor = new VdsMonitor();
     private VDS cachedVds;
+    private long cachedVdsVersion;
+    private long cachedVdsReadTime;
     private long lastUpdate;
     private long updateStartTime;
     private long nextMaintenanceAttemptTime;
@@ -183,6 +192,7 @@ public class VdsManager {
         handlePreviousStatus();
         handleSecureSetup();
         initVdsBroker();
+        publishCachedVds();
     }
 
     public void handleSecureSetup() {
@@ -260,7 +270,7 @@ public class VdsManager {
             try {
                 setIsSetNonOperationalExecuted(false);
                 synchronized (this) {
-                    refreshCachedVds();
+                    refreshCachedVdsIfNeeded();
                     if (cachedVds == null) {
                         log.error("VdsManager::refreshVdsRunTimeInfo - onTimer is NULL for '{}'",
                                 getVdsId());
@@ -368,9 +378,47 @@ public class VdsManager {
         }
     }
 
+    /**
+     * The cached host is kept current in place by the monitoring and by the changes made through this manager, so it
+     * is read again only when others changed it through the DAOs, or when
+     * {@link ConfigValues#VdsReloadIntervalInSeconds} elapsed since it was read to pick up changes made behind the back
+     * of the DAOs.
+     */
+    private void refreshCachedVdsIfNeeded() {
+        long reloadInterval =
+                TimeUnit.SECONDS.toNanos(Config.<Integer> getValue(ConfigValues.VdsReloadIntervalInSeconds));
+        // Whether a hosted engine host runs the engine vm depends on the vms, whose writes aren't tracked
+        if (cachedVds == null
+                || cachedVds.isHostedEngineDeployed()
+                || cachedVdsVersion != vdsChangeTracker.getVersion(getVdsId())
+                || System.nanoTime() - cachedVdsReadTime >= reloadInterval) {
+            refreshCachedVds();
+        } else {
+            setMonitoringNeeded();
+        }
+    }
+
     private void refreshCachedVds() {
+        // taken before reading, so a change made while reading causes another read on the next refresh
+        cachedVdsVersion = vdsChangeTracker.getVersion(getVdsId());
+        cachedVdsReadTime = System.nanoTime();
         cachedVds = vdsDao.get(getVdsId());
         setMonitoringNeeded();
+        publishCachedVds();
+    }
+
+    /**
+     * Make the current state of the cached host visible to the in-memory cluster snapshots. The host is copied under
+     * the lock of this manager, which the monitoring and the host commands hold while changing it.
+     */
+    private void publishCachedVds() {
+        synchronized (this) {
+            if (cachedVds == null) {
+                clusterHostsSnapshotManager.remove(getVdsId());
+            } else {
+                clusterHostsSnapshotManager.publish(cachedVds);
+            }
+        }
     }
 
     /**
@@ -432,7 +480,7 @@ public class VdsManager {
     private void handleVdsRecoveringException(VDSRecoveringException ex) {
         if (cachedVds.getStatus() != VDSStatus.Initializing && cachedVds.getStatus() != VDSStatus.NonOperational) {
             setStatus(VDSStatus.Initializing, cachedVds);
-            vdsDynamicDao.updateStatus(cachedVds.getId(), VDSStatus.Initializing);
+            vdsChangeTracker.runUntracked(() -> vdsDynamicDao.updateStatus(cachedVds.getId(), VDSStatus.Initializing));
             AuditLogable logable = createAuditLogableForHost(cachedVds);
             logable.addCustomValue("ErrorMessage", ex.getMessage());
             logable.updateCallStackFromThrowable(ex);
@@ -477,27 +525,44 @@ public class VdsManager {
      * Save dynamic data to cache and DB.
      */
     public void updateDynamicData(VdsDynamic dynamicData) {
-        vdsDynamicDao.updateIfNeeded(dynamicData);
-        cachedVds.setDynamicData(dynamicData);
+        if (cachedVds != null && dynamicData == cachedVds.getDynamicData()) {
+            vdsChangeTracker.runUntracked(() -> vdsDynamicDao.updateIfNeeded(dynamicData));
+        } else {
+            // Read by the caller rather than the cached one, the write is tracked so the whole host is read again
+            vdsDynamicDao.updateIfNeeded(dynamicData);
+        }
+        if (cachedVds != null) {
+            cachedVds.setDynamicData(dynamicData);
+        }
+        publishCachedVds();
     }
 
     public void updatePartialDynamicData(NonOperationalReason nonOperationalReason, String maintenanceReason) {
         cachedVds.getDynamicData().setNonOperationalReason(nonOperationalReason);
         cachedVds.getDynamicData().setMaintenanceReason(maintenanceReason);
-        vdsDynamicDao.updateStatusAndReasons(cachedVds.getDynamicData());
+        vdsChangeTracker.runUntracked(() -> vdsDynamicDao.updateStatusAndReasons(cachedVds.getDynamicData()));
+        publishCachedVds();
     }
 
     public void updateUpdateAvailable(boolean updatesAvailable) {
         cachedVds.getDynamicData().setUpdateAvailable(updatesAvailable);
-        vdsDynamicDao.updateUpdateAvailable(cachedVds.getId(), updatesAvailable);
+        vdsChangeTracker.runUntracked(() -> vdsDynamicDao.updateUpdateAvailable(cachedVds.getId(), updatesAvailable));
+        publishCachedVds();
     }
 
     /**
      * Save statistics data to cache and DB.
      */
     public void updateStatisticsData(VdsStatistics statisticsData) {
-        vdsStatisticsDao.update(statisticsData);
-        cachedVds.setStatisticsData(statisticsData);
+        if (cachedVds != null && statisticsData == cachedVds.getStatisticsData()) {
+            vdsChangeTracker.runUntracked(() -> vdsStatisticsDao.update(statisticsData));
+        } else {
+            vdsStatisticsDao.update(statisticsData);
+        }
+        if (cachedVds != null) {
+            cachedVds.setStatisticsData(statisticsData);
+        }
+        publishCachedVds();
     }
 
     /**
@@ -732,6 +797,10 @@ public class VdsManager {
             default:
                 break;
             }
+
+            if (this.cachedVds != null) {
+                publishCachedVds();
+            }
         }
     }
 
@@ -1015,6 +1084,7 @@ public class VdsManager {
         vmsRefresher.stopMonitoring();
         hostRefresher.stop();
         vdsProxy.close();
+        clusterHostsSnapshotManager.remove(getVdsId());
     }
 
     /**
@@ -27,6 +27,7 @@ import org.ovirt.engine.core.dao.VmStaticDao;
 import org.ovirt.engine.core.dao.VmStatisticsDao;
 import org.ovirt.engine.core.dao.network.VmNetworkStatisticsDao;
 import org.ovirt.engine.core.vdsbroker.monitoring.VdsmVm;
+import org.ovirt.engine.core.vdsbroker.monitoring.VmStatisticsWriteBehind;
 
 public class VmManager {
 
@@ -74,6 +75,8 @@ public class VmManager {
     @Inject
     private VmNetworkStatisticsDao vmNetworkStatisticsDao;
     @Inject
+    private VmStatisticsWriteBehind statisticsWriteBehind;
+    @Inject
     private VmStaticDao vmStaticDao;
     @Inject
     private ClusterDao clusterDao;
@@ -143,12 +146,18 @@ public class VmManager {
         vmDynamicDao.update(dynamic);
     }
 
+    /**
+     * Writes the statistics right away, the statistics of the VM and its devices queued by the monitoring are
+     * dropped first so they do not overwrite them later.
+     */
     public void update(VmStatistics statistics) {
+        statisticsWriteBehind.discard(vmId);
         vmStatisticsDao.update(statistics);
         setStatistics(statistics);
     }
 
     public void update(VmNetworkStatistics networkStatistics) {
+        statisticsWriteBehind.discard(networkStatistics.getVmId());
         vmNetworkStatisticsDao.update(networkStatistics);
     }
 
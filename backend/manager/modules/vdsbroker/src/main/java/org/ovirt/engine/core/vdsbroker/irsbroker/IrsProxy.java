@@ -15,8 +15,10 @@ import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.stream.Collectors;
 
@@ -225,7 +227,7 @@ public class IrsProxy {
                 storagePoolRefreshTime,
                 TimeUnit.SECONDS);
         domainRecoverOnHostJob =
-                schedulerService.scheduleWithFixedDelay(this::hostsStorageConnectionsAndPoolMetadataRefresh,
+                schedulerService.scheduleWithFixedDelay(this::submitHostsStorageConnectionsAndPoolMetadataRefresh,
                         Config.<Long>getValue(ConfigValues.HostStorageConnectionAndPoolRefreshTimeInSeconds),
                         storagePoolRefreshTime,
                         TimeUnit.SECONDS);
@@ -1145,46 +1147,116 @@ public class IrsProxy {
     private final Map<Guid, Guid> vdsHandeledReportsOnUnseenDomains = new ConcurrentHashMap<>();
         private final Map<Guid, ScheduledFuture> timersMap = new HashMap<>();
 
+    /**
+     * The latest domain monitoring report of every host that is waiting to be processed.
+     */
+    private final Map<Guid, HostDomainsReport> pendingDomainsReports = new ConcurrentHashMap<>();
+    private final AtomicBoolean domainsReportsProcessingScheduled = new AtomicBoolean();
+    /**
+     * The number of times every host was cleared from the cache. A report queued before its host was cleared is
+     * dropped instead of being applied, the cache is updated and the host cleared while holding this map's monitor.
+     */
+    private final Map<Guid, Long> vdsClearGenerations = new HashMap<>();
+    private final AtomicBoolean hostsRefreshRunning = new AtomicBoolean();
+
+    /**
+     * Queues the domain monitoring report of the given host. The reports of all the hosts that arrive within the
+     * aggregation interval are processed together, against a single snapshot of the pool and its domains statuses.
+     */
     public void updateVdsDomainsData(VDS vds,
                                      final ArrayList<VDSDomainsData> data) {
         if (!shouldProcessVdsDomainReport(vds)) {
             return;
         }
 
-        StoragePool storagePool =
-                storagePoolDao.get(storagePoolId);
-        if (storagePool != null
-                && (storagePool.getStatus() == StoragePoolStatus.Up
-                || storagePool.getStatus() == StoragePoolStatus.NonResponsive)) {
-
-            Guid vdsId = vds.getId();
-            String vdsName = vds.getName();
+        pendingDomainsReports.put(vds.getId(), new HostDomainsReport(vds, data, getClearGeneration(vds.getId())));
+        long aggregationInterval =
+                Config.<Long> getValue(ConfigValues.StorageDomainReportsAggregationIntervalInMillis);
+        if (aggregationInterval <= 0) {
+            processDomainsReports();
+        } else if (domainsReportsProcessingScheduled.compareAndSet(false, true)) {
             try {
-                Set<Guid> monitoredDomains = new HashSet<>();
-                for (VDSDomainsData tempData : data) {
-                    monitoredDomains.add(tempData.getDomainId());
-                }
+                schedulerService.schedule(this::processDomainsReports, aggregationInterval, TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException ex) {
+                domainsReportsProcessingScheduled.set(false);
+                log.warn("Failed to schedule the processing of the domains reports of pool '{}', processing them now",
+                        storagePoolId);
+                processDomainsReports();
+            }
+        }
+    }
 
-                Map<Guid, DomainMonitoringResult> domainsProblematicReportInfo = Collections.emptyMap();
+    private long getClearGeneration(Guid vdsId) {
+        synchronized (vdsClearGenerations) {
+            return vdsClearGenerations.getOrDefault(vdsId, 0L);
+        }
+    }
 
-                if (StoragePoolDomainHelper.vdsDomainsActiveMonitoringStatus.contains(vds.getStatus())) {
-                    domainsProblematicReportInfo =
-                            handleMonitoredDomainsForHost(vdsId,
-                                    vdsName,
-                                    data,
-                                    monitoredDomains);
-                }
+    private boolean isClearedSince(HostDomainsReport report) {
+        return report.clearGeneration != getClearGeneration(report.vdsId);
+    }
 
-                Set<Guid> domainsInMaintenance = Collections.emptySet();
-                if (StoragePoolDomainHelper.vdsDomainsMaintenanceMonitoringStatus.contains(vds.getStatus())) {
-                    domainsInMaintenance = handleDomainsInMaintenanceForHost(monitoredDomains);
-                }
+    private void processDomainsReports() {
+        // Reset before draining, so a report queued from now on schedules another run
+        domainsReportsProcessingScheduled.set(false);
+        List<HostDomainsReport> reports = new ArrayList<>();
+        for (Guid vdsId : pendingDomainsReports.keySet()) {
+            HostDomainsReport report = pendingDomainsReports.remove(vdsId);
+            if (report != null) {
+                reports.add(report);
+            }
+        }
+        if (reports.isEmpty() || _disposed) {
+            return;
+        }
 
-                updateDomainInProblem(vdsId, vdsName, domainsProblematicReportInfo, domainsInMaintenance);
-            } catch (RuntimeException ex) {
-                log.error("error in updateVdsDomainsData: {}", ex.getMessage());
-                log.debug("Exception", ex);
+        try {
+            StoragePool storagePool = storagePoolDao.get(storagePoolId);
+            if (storagePool == null
+                    || (storagePool.getStatus() != StoragePoolStatus.Up
+                    && storagePool.getStatus() != StoragePoolStatus.NonResponsive)) {
+                return;
             }
+
+            PoolDomainsSnapshot poolDomains = new PoolDomainsSnapshot();
+            List<HostDomainsReport> analyzedReports = new ArrayList<>(reports.size());
+            for (HostDomainsReport report : reports) {
+                if (isClearedSince(report)) {
+                    continue;
+                }
+                try {
+                    analyzeHostDomainsReport(report, poolDomains);
+                    analyzedReports.add(report);
+                } catch (RuntimeException ex) {
+                    log.error("error in updateVdsDomainsData: {}", ex.getMessage());
+                    log.debug("Exception", ex);
+                }
+            }
+
+            updateDomainInProblem(analyzedReports);
+        } catch (RuntimeException ex) {
+            log.error("error in updateVdsDomainsData: {}", ex.getMessage());
+            log.debug("Exception", ex);
+        }
+    }
+
+    private void analyzeHostDomainsReport(HostDomainsReport report, PoolDomainsSnapshot poolDomains) {
+        Set<Guid> monitoredDomains = new HashSet<>();
+        for (VDSDomainsData tempData : report.data) {
+            monitoredDomains.add(tempData.getDomainId());
+        }
+
+        if (StoragePoolDomainHelper.vdsDomainsActiveMonitoringStatus.contains(report.vdsStatus)) {
+            report.problematicDomains =
+                    handleMonitoredDomainsForHost(report.vdsId,
+                            report.vdsName,
+                            report.data,
+                            monitoredDomains,
+                            poolDomains);
+        }
+
+        if (StoragePoolDomainHelper.vdsDomainsMaintenanceMonitoringStatus.contains(report.vdsStatus)) {
+            report.domainsInMaintenance = handleDomainsInMaintenanceForHost(monitoredDomains, poolDomains);
         }
     }
 
@@ -1204,15 +1276,10 @@ public class IrsProxy {
      * @return domains that are not monitored by the host and are in
      * @link StorageDomainStatus#Maintenance or @link StorageDomainStatus#PreparingForMaintenance.
      */
-    private Set<Guid> handleDomainsInMaintenanceForHost(Collection<Guid> monitoredDomains) {
+    private Set<Guid> handleDomainsInMaintenanceForHost(Collection<Guid> monitoredDomains,
+            PoolDomainsSnapshot poolDomains) {
         Set<Guid>  domainsInMaintenance = new HashSet<>();
-        Set<Guid> maintInPool = new HashSet<>(
-                storageDomainStaticDao.getAllIds(
-                        storagePoolId, StorageDomainStatus.Maintenance));
-        maintInPool.addAll(storageDomainStaticDao.getAllIds(
-                storagePoolId, StorageDomainStatus.PreparingForMaintenance));
-
-        for (Guid tempDomainId : maintInPool) {
+        for (Guid tempDomainId : poolDomains.maintenanceDomains) {
             if (!monitoredDomains.contains(tempDomainId)) {
                 domainsInMaintenance.add(tempDomainId);
             }
@@ -1227,17 +1294,12 @@ public class IrsProxy {
      * the host reporting is problematic for.
      */
     private Map<Guid, DomainMonitoringResult> handleMonitoredDomainsForHost(final Guid vdsId, final String vdsName,
-            final ArrayList<VDSDomainsData> data, Collection<Guid> monitoredDomains) {
+            final ArrayList<VDSDomainsData> data, Collection<Guid> monitoredDomains, PoolDomainsSnapshot poolDomains) {
         Map<Guid, DomainMonitoringResult> domainsProblematicReportInfo = new HashMap<>();
-        // build a list of all domains in pool
-        // which are in status Active or Unknown
-        Set<Guid> activeDomainsInPool = new HashSet<>(
-                storageDomainStaticDao.getAllIds(
-                        storagePoolId, StorageDomainStatus.Active));
-        Set<Guid> unknownDomainsInPool = new HashSet<>(storageDomainStaticDao.getAllIds(
-                storagePoolId, StorageDomainStatus.Unknown));
-        Set<Guid> inActiveDomainsInPool =
-                new HashSet<>(storageDomainStaticDao.getAllIds(storagePoolId, StorageDomainStatus.Inactive));
+        // all domains in pool which are in status Active or Unknown
+        Set<Guid> activeDomainsInPool = poolDomains.activeDomains;
+        Set<Guid> unknownDomainsInPool = poolDomains.unknownDomains;
+        Set<Guid> inActiveDomainsInPool = poolDomains.inactiveDomains;
 
         // build a list of all the domains in
         // pool (activeDomainsInPool and unknownDomainsInPool) that are not
@@ -1262,7 +1324,7 @@ public class IrsProxy {
         // and are contained in the Active or
         // Unknown domains in pool
         for (VDSDomainsData tempData : data) {
-            StorageDomainStatic storageDomain = storageDomainStaticDao.get(tempData.getDomainId());
+            StorageDomainStatic storageDomain = poolDomains.getStorageDomain(tempData.getDomainId());
             if (activeDomainsInPool.contains(tempData.getDomainId()) || unknownDomainsInPool.contains(tempData.getDomainId())) {
                 DomainMonitoringResult domainMonitoringResult = analyzeDomainReport(tempData, false);
                 if (domainMonitoringResult.invalidAndActual()) {
@@ -1280,6 +1342,9 @@ public class IrsProxy {
                         storagePoolIsoMapDao.get(new StoragePoolIsoMapId(tempData.getDomainId(), storagePoolId));
                 map.setStatus(StorageDomainStatus.Active);
                 storagePoolIsoMapDao.update(map);
+                // The following reports of the same run should see the domain as active
+                inActiveDomainsInPool.remove(tempData.getDomainId());
+                activeDomainsInPool.add(tempData.getDomainId());
 
                 if (storageDomain.getStorageType().isBlockDomain()) {
                     storageDomainsToSync.add(storageDomain.getId());
@@ -1295,18 +1360,75 @@ public class IrsProxy {
         return domainsProblematicReportInfo;
     }
 
-    private void updateDomainInProblem(final Guid vdsId, final String vdsName, final Map<Guid, DomainMonitoringResult> domainsInProblem,
-                                       final Set<Guid> domainsInMaintenance) {
-        getEventQueue().submitEventSync(new Event(storagePoolId,
-                null, vdsId, EventType.DOMAINMONITORING, ""),
+    private void updateDomainInProblem(final List<HostDomainsReport> reports) {
+        if (reports.isEmpty()) {
+            return;
+        }
+        // Not waiting for the event, this may run on a scheduler thread
+        getEventQueue().submitEventAsync(new Event(storagePoolId,
+                null, null, EventType.DOMAINMONITORING, ""),
                 () -> {
                     EventResult result = new EventResult(true, EventType.DOMAINMONITORING);
-                    updateProblematicVdsData(vdsId, vdsName, domainsInProblem);
-                    updateMaintenanceVdsData(vdsId, vdsName, domainsInMaintenance);
+                    synchronized (vdsClearGenerations) {
+                        for (HostDomainsReport report : reports) {
+                            if (isClearedSince(report)) {
+                                log.debug("Dropping the domains report of host '{}', it was cleared from the cache",
+                                        report.vdsName);
+                                continue;
+                            }
+                            updateProblematicVdsData(report.vdsId, report.vdsName, report.problematicDomains);
+                            updateMaintenanceVdsData(report.vdsId, report.vdsName, report.domainsInMaintenance);
+                        }
+                    }
                     return result;
                 });
     }
 
+    /**
+     * The domain monitoring report of a single host, along with the outcome of its analysis.
+     */
+    private static class HostDomainsReport {
+        private final Guid vdsId;
+        private final String vdsName;
+        private final VDSStatus vdsStatus;
+        private final ArrayList<VDSDomainsData> data;
+        private final long clearGeneration;
+        private Map<Guid, DomainMonitoringResult> problematicDomains = Collections.emptyMap();
+        private Set<Guid> domainsInMaintenance = Collections.emptySet();
+
+        private HostDomainsReport(VDS vds, ArrayList<VDSDomainsData> data, long clearGeneration) {
+            vdsId = vds.getId();
+            vdsName = vds.getName();
+            vdsStatus = vds.getStatus();
+            this.data = data;
+            this.clearGeneration = clearGeneration;
+        }
+    }
+
+    /**
+     * The statuses of the pool domains, loaded once for all the host reports processed together.
+     */
+    private class PoolDomainsSnapshot {
+        private final Set<Guid> activeDomains =
+                new HashSet<>(storageDomainStaticDao.getAllIds(storagePoolId, StorageDomainStatus.Active));
+        private final Set<Guid> unknownDomains =
+                new HashSet<>(storageDomainStaticDao.getAllIds(storagePoolId, StorageDomainStatus.Unknown));
+        private final Set<Guid> inactiveDomains =
+                new HashSet<>(storageDomainStaticDao.getAllIds(storagePoolId, StorageDomainStatus.Inactive));
+        private final Set<Guid> maintenanceDomains = new HashSet<>();
+        private final Map<Guid, StorageDomainStatic> storageDomains = new HashMap<>();
+
+        private PoolDomainsSnapshot() {
+            maintenanceDomains.addAll(storageDomainStaticDao.getAllIds(storagePoolId, StorageDomainStatus.Maintenance));
+            maintenanceDomains.addAll(
+                    storageDomainStaticDao.getAllIds(storagePoolId, StorageDomainStatus.PreparingForMaintenance));
+        }
+
+        private StorageDomainStatic getStorageDomain(Guid domainId) {
+            return storageDomains.computeIfAbsent(domainId, storageDomainStaticDao::get);
+        }
+    }
+
     private void logDelayedDomain(String vdsName, String domainName, double delay) {
         AuditLogable logable = new AuditLogableImpl();
         logable.setVdsName(vdsName);
@@ -1557,6 +1679,27 @@ public class IrsProxy {
         return reportsToHandle;
     }
 
+    /**
+     * The refresh waits for the pool event queue, so it is run on the engine thread pool rather than on the scheduler
+     * thread. A refresh that is still running when the next one is due makes that one skipped.
+     */
+    private void submitHostsStorageConnectionsAndPoolMetadataRefresh() {
+        if (!hostsRefreshRunning.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            ThreadPoolUtil.execute(() -> {
+                try {
+                    hostsStorageConnectionsAndPoolMetadataRefresh();
+                } finally {
+                    hostsRefreshRunning.set(false);
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            hostsRefreshRunning.set(false);
+        }
+    }
+
     @OnTimerMethodAnnotation("hostsStorageConnectionsAndPoolMetadataRefresh")
     public void hostsStorageConnectionsAndPoolMetadataRefresh() {
         Map<Guid, Guid> reportsToHandle = procceedReportsThreatmenet();
@@ -1838,7 +1981,12 @@ public class IrsProxy {
         log.info("Clearing cache of pool: '{}' for problematic entities of VDS: '{}'.",
                 storagePoolId, vdsName);
 
-        clearDomainFromCache(null, Arrays.asList(vdsId));
+        synchronized (vdsClearGenerations) {
+            vdsClearGenerations.merge(vdsId, 1L, Long::sum);
+            pendingDomainsReports.remove(vdsId);
+
+            clearDomainFromCache(null, Arrays.asList(vdsId));
+        }
     }
 
     private boolean _disposed;
@@ -34,8 +34,8 @@ public class EventVmStatsRefresher extends VmStatsRefresher {
     @SuppressWarnings("deprecation")
     public EventVmStatsRefresher(VdsManager manager, ResourceManager resourceManager) {
         super(manager);
-        // we still want to fetch GetAllVmStats as we did before
-        allVmStatsOnlyRefresher = Injector.injectMembers(new PollVmStatsRefresher(vdsManager));
+        // we still want to fetch GetAllVmStats, less often and for fewer VMs while the events flow
+        allVmStatsOnlyRefresher = Injector.injectMembers(new PollVmStatsRefresher(vdsManager, true));
         this.resourceManager = resourceManager;
     }
 
@@ -60,6 +60,8 @@ public class EventVmStatsRefresher extends VmStatsRefresher {
                     if (!vms.isEmpty()) {
                         getVmsMonitoring().perform(vms, fetchTime, vdsManager, false);
                         processDevices(vms.stream().map(Pair::getSecond), fetchTime);
+                        allVmStatsOnlyRefresher.vmsReportedByEvents(
+                                vms.stream().map(vm -> vm.getSecond().getId()).collect(Collectors.toList()));
                     }
                 } finally {
                     subscription.request(1);
@@ -113,6 +115,7 @@ public class EventVmStatsRefresher extends VmStatsRefresher {
             @Override
             public void onError(Throwable t) {
                 // communication issue is delivered as a message so we need to request for more
+                allVmStatsOnlyRefresher.eventsFailed();
                 subscription.request(1);
             }
 
@@ -1,8 +1,13 @@
 package org.ovirt.engine.core.vdsbroker.monitoring;
 
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import javax.enterprise.concurrent.ManagedScheduledExecutorService;
@@ -14,12 +19,22 @@ import org.ovirt.engine.core.common.businessentities.VmDynamic;
 import org.ovirt.engine.core.common.config.Config;
 import org.ovirt.engine.core.common.config.ConfigValues;
 import org.ovirt.engine.core.common.utils.Pair;
+import org.ovirt.engine.core.compat.Guid;
 import org.ovirt.engine.core.utils.threadpool.ThreadPools;
 import org.ovirt.engine.core.utils.timer.OnTimerMethodAnnotation;
 import org.ovirt.engine.core.vdsbroker.VdsManager;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * Polls the statistics of all the VMs of the host.
+ *
+ * When the status events of the VMs are monitored too, the poll leaves out of the analysis the VMs the events reported
+ * since the previous poll, yet never in two polls in a row, and the poll interval is doubled after every poll showing
+ * the events keep up with the VMs, up to {@link ConfigValues#VmsPollMaxIntervalWithEventsInSeconds}. A status change
+ * the events missed, a failure of the events or of the poll, or a host that isn't up bring the poll back to its
+ * regular interval.
+ */
 public class PollVmStatsRefresher extends VmStatsRefresher {
 
     private static final Logger log = LoggerFactory.getLogger(PollVmStatsRefresher.class);
@@ -30,23 +45,45 @@ public class PollVmStatsRefresher extends VmStatsRefresher {
     @ThreadPools(ThreadPools.ThreadPoolType.EngineScheduledThreadPool)
     private ManagedScheduledExecutorService schedulerService;
     private ScheduledFuture vmsMonitoringJob;
+    private boolean stopped;
+
+    private final boolean eventsMonitored;
+    private volatile Set<Guid> vmsReportedByEvents = ConcurrentHashMap.newKeySet();
+    private volatile boolean eventsFailed;
+    private Set<Guid> vmsLeftOutOfPreviousPoll = Collections.emptySet();
+    private boolean eventsKeptUp;
+    private long pollInterval = getRegularPollInterval();
 
     public PollVmStatsRefresher(VdsManager vdsManager) {
+        this(vdsManager, false);
+    }
+
+    /**
+     * @param eventsMonitored
+     *            whether the status events of the VMs of the host are monitored too, and reported to this refresher
+     */
+    public PollVmStatsRefresher(VdsManager vdsManager, boolean eventsMonitored) {
         super(vdsManager);
+        this.eventsMonitored = eventsMonitored;
     }
 
     @OnTimerMethodAnnotation("poll")
     public void poll() {
+        eventsKeptUp = false;
         if (isMonitoringNeeded(vdsManager.getStatus())) {
+            Set<Guid> reportedByEvents = takeVmsReportedByEvents();
             VmsListFetcher fetcher = new VmsStatisticsFetcher(vdsManager);
 
             long fetchTime = System.nanoTime();
             if (fetcher.fetch()) {
-                getVmsMonitoring().perform(fetcher.getChangedVms(), fetchTime, vdsManager, true);
-                Stream<VdsmVm> vdsmVmsToMonitor = filterVmsToDevicesMonitoring(fetcher.getChangedVms());
+                List<Pair<VmDynamic, VdsmVm>> vmsToAnalyze =
+                        filterVmsReportedByEvents(fetcher.getChangedVms(), reportedByEvents);
+                getVmsMonitoring().perform(vmsToAnalyze, fetchTime, vdsManager, true);
+                Stream<VdsmVm> vdsmVmsToMonitor = filterVmsToDevicesMonitoring(vmsToAnalyze);
                 processDevices(vdsmVmsToMonitor, fetchTime);
             } else {
                 log.info("Failed to fetch vms info for host '{}' - skipping VMs monitoring.", vdsManager.getVdsName());
+                eventsKeptUp = false;
             }
         }
     }
@@ -58,16 +95,75 @@ public class PollVmStatsRefresher extends VmStatsRefresher {
                 .map(Pair::getSecond);
     }
 
+    /**
+     * Reports VMs whose status events were processed.
+     */
+    public void vmsReportedByEvents(Collection<Guid> vmIds) {
+        vmsReportedByEvents.addAll(vmIds);
+    }
+
+    /**
+     * Reports a failure to receive the status events of the VMs.
+     */
+    public void eventsFailed() {
+        eventsFailed = true;
+    }
+
+    /* visible for testing only */
+    Set<Guid> takeVmsReportedByEvents() {
+        Set<Guid> reportedByEvents = vmsReportedByEvents;
+        vmsReportedByEvents = ConcurrentHashMap.newKeySet();
+        eventsKeptUp = isHybridPolling() && !eventsFailed;
+        eventsFailed = false;
+        return reportedByEvents;
+    }
+
+    /**
+     * Leaves out the VMs the events reported since the previous poll, and finds whether the events missed a status
+     * change of a VM.
+     */
+    /* visible for testing only */
+    List<Pair<VmDynamic, VdsmVm>> filterVmsReportedByEvents(List<Pair<VmDynamic, VdsmVm>> polledVms,
+            Set<Guid> reportedByEvents) {
+        if (!isHybridPolling()) {
+            return polledVms;
+        }
+        Set<Guid> leftOut = polledVms.stream()
+                .filter(vm -> canBeLeftOut(vm, reportedByEvents))
+                .map(vm -> vm.getFirst().getId())
+                .collect(Collectors.toSet());
+        if (polledVms.stream().anyMatch(vm -> isStatusChangeMissed(vm, reportedByEvents))) {
+            log.debug("The events of host '{}' missed a VM status change, polling at the regular interval",
+                    vdsManager.getVdsName());
+            eventsKeptUp = false;
+        }
+        vmsLeftOutOfPreviousPoll = leftOut;
+        return leftOut.isEmpty() ? polledVms : polledVms.stream()
+                .filter(vm -> vm.getFirst() == null || !leftOut.contains(vm.getFirst().getId()))
+                .collect(Collectors.toList());
+    }
+
+    private boolean canBeLeftOut(Pair<VmDynamic, VdsmVm> vm, Set<Guid> reportedByEvents) {
+        VmDynamic dbVm = vm.getFirst();
+        return dbVm != null && vm.getSecond() != null
+                && reportedByEvents.contains(dbVm.getId())
+                && !vmsLeftOutOfPreviousPoll.contains(dbVm.getId())
+                && dbVm.getStatus() == vm.getSecond().getVmDynamic().getStatus();
+    }
+
+    private static boolean isStatusChangeMissed(Pair<VmDynamic, VdsmVm> vm, Set<Guid> reportedByEvents) {
+        VmDynamic dbVm = vm.getFirst();
+        return dbVm != null && vm.getSecond() != null
+                && !reportedByEvents.contains(dbVm.getId())
+                && dbVm.getStatus() != vm.getSecond().getVmDynamic().getStatus();
+    }
+
     public void startMonitoring() {
-        vmsMonitoringJob =
-                schedulerService.scheduleWithFixedDelay(
-                        this::poll,
-                        VMS_REFRESH_RATE * NUMBER_VMS_REFRESHES_BEFORE_SAVE,
-                        VMS_REFRESH_RATE * NUMBER_VMS_REFRESHES_BEFORE_SAVE,
-                        TimeUnit.MILLISECONDS);
+        scheduleNextPoll(getRegularPollInterval());
     }
 
-    public void stopMonitoring() {
+    public synchronized void stopMonitoring() {
+        stopped = true;
         try {
             vmsMonitoringJob.cancel(true);
         } catch (Throwable t) {
@@ -75,6 +171,43 @@ public class PollVmStatsRefresher extends VmStatsRefresher {
         }
     }
 
+    private void pollAndScheduleNext() {
+        try {
+            poll();
+        } finally {
+            scheduleNextPoll(nextPollInterval());
+        }
+    }
+
+    private synchronized void scheduleNextPoll(long interval) {
+        if (!stopped) {
+            vmsMonitoringJob = schedulerService.schedule(this::pollAndScheduleNext, interval, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /* visible for testing only */
+    long nextPollInterval() {
+        if (eventsKeptUp && vdsManager.getStatus() == VDSStatus.Up) {
+            pollInterval = Math.max(getRegularPollInterval(), Math.min(pollInterval * 2, getMaxPollInterval()));
+        } else {
+            pollInterval = getRegularPollInterval();
+        }
+        return pollInterval;
+    }
+
+    private boolean isHybridPolling() {
+        return eventsMonitored && getMaxPollInterval() > 0;
+    }
+
+    private static long getRegularPollInterval() {
+        return VMS_REFRESH_RATE * NUMBER_VMS_REFRESHES_BEFORE_SAVE;
+    }
+
+    private static long getMaxPollInterval() {
+        return TimeUnit.SECONDS.toMillis(
+                Config.<Integer> getValue(ConfigValues.VmsPollMaxIntervalWithEventsInSeconds));
+    }
+
     /* visible for testing only */
     boolean isMonitoringNeeded(VDSStatus status) {
         switch (status) {
@@ -69,6 +69,8 @@ public class VmAnalyzer {
     private final VdsmVm vdsmVm;
 
     private VmDynamic vmDynamicToSave;
+    /** the database columns of the VM dynamic data as it was read from the database, null if unknown */
+    private Map<String, Object> dbVmParameters;
     private boolean movedToDown;
     private boolean rerun;
     private boolean poweringUp;
@@ -435,6 +437,18 @@ public class VmAnalyzer {
         return vmDynamicToSave;
     }
 
+    void setDbVmParameters(Map<String, Object> dbVmParameters) {
+        this.dbVmParameters = dbVmParameters;
+    }
+
+    /**
+     * @param parameters the database columns of {@link #getVmDynamicToSave()}
+     * @return false when saving the VM dynamic data would not change its row in the database
+     */
+    public boolean isVmDynamicChanged(Map<String, Object> parameters) {
+        return dbVmParameters == null || !dbVmParameters.equals(parameters);
+    }
+
     public List<VmNetworkStatistics> getVmNetworkStatistics() {
         return ifaces != null ?
                 ifaces.stream().map(VmNetworkInterface::getStatistics).collect(Collectors.toList())
@@ -46,7 +46,7 @@ public class VmAnalyzerFactory {
         VmDynamic dbVmOnMonitoredHost = monitoredVm.getFirst();
         VmDynamic dbVm = dbVmOnMonitoredHost != null ? dbVmOnMonitoredHost : vmDynamicDao.get(vdsmVm.getVmDynamic().getId());
 
-        return new VmAnalyzer(
+        VmAnalyzer vmAnalyzer = new VmAnalyzer(
                 dbVm,
                 vdsmVm,
                 updateStatistics,
@@ -55,6 +55,11 @@ public class VmAnalyzerFactory {
                 resourceManager,
                 vdsDynamicDao,
                 vmNetworkInterfaceDao);
+        if (dbVm != null) {
+            // taken before the analysis updates the VM, so it reflects what is stored in the database
+            vmAnalyzer.setDbVmParameters(vmDynamicDao.getBatchMapper().map(dbVm).getValues());
+        }
+        return vmAnalyzer;
     }
 
 }
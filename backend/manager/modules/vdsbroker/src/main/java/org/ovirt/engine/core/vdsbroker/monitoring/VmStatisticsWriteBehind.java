@@ -0,0 +1,336 @@
+package org.ovirt.engine.core.vdsbroker.monitoring;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.enterprise.concurrent.ManagedScheduledExecutorService;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import org.apache.commons.lang.exception.ExceptionUtils;
+import org.ovirt.engine.core.common.businessentities.VmStatistics;
+import org.ovirt.engine.core.common.businessentities.network.VmNetworkStatistics;
+import org.ovirt.engine.core.common.businessentities.storage.DiskImageDynamic;
+import org.ovirt.engine.core.common.config.Config;
+import org.ovirt.engine.core.common.config.ConfigValues;
+import org.ovirt.engine.core.common.utils.Pair;
+import org.ovirt.engine.core.compat.Guid;
+import org.ovirt.engine.core.dao.DiskImageDynamicDao;
+import org.ovirt.engine.core.dao.VmStatisticsDao;
+import org.ovirt.engine.core.dao.network.VmNetworkStatisticsDao;
+import org.ovirt.engine.core.utils.threadpool.ThreadPools;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+
+/**
+ * Write-behind stage for the VM statistics reported by the monitoring of all the hosts.
+ *
+ * Instead of writing the statistics of every host in separate batches on every poll, the rows are converted to
+ * stored procedure parameters right away (so later changes of the entities do not leak in) and kept per row until
+ * the next flush. A newer row of the same VM, interface or disk replaces the queued one and a row whose stable values
+ * equal the ones written last time is not written again. The values changing on every poll even for an idle VM are
+ * not compared: the elapsed time of the VM and the sample time of the interfaces are left out and the CPU times are
+ * compared in whole percents. So these values do not become stale forever, an unchanged row is written anyway once
+ * the written one is older than {@link #UNCHANGED_ROW_MAX_AGE}.
+ *
+ * Each flush writes all the hosts at once, in one batch per table. When the periodic flush is disabled,
+ * {@link VmsMonitoring} flushes the rows of the VMs of the host right after queuing them, so only the skipping of
+ * unchanged rows applies and the hosts do not wait for each other.
+ *
+ * The interfaces and disks reported for a VM replace the ones reported last time, so the rows of unplugged devices
+ * are forgotten. Statistics written directly to the database, bypassing this stage, have to {@link #discard(Guid)}
+ * the rows of the VM first, otherwise an older queued row could overwrite them.
+ *
+ * The VM dynamic data is not handled here, it is used for decisions of the engine and has to be written right away.
+ */
+@Singleton
+public class VmStatisticsWriteBehind {
+
+    private static final Logger log = LoggerFactory.getLogger(VmStatisticsWriteBehind.class);
+
+    static final long UNCHANGED_ROW_MAX_AGE = TimeUnit.MINUTES.toMillis(5);
+
+    @Inject
+    private VmStatisticsDao vmStatisticsDao;
+    @Inject
+    private VmNetworkStatisticsDao vmNetworkStatisticsDao;
+    @Inject
+    private DiskImageDynamicDao diskImageDynamicDao;
+    @Inject
+    @ThreadPools(ThreadPools.ThreadPoolType.EngineScheduledThreadPool)
+    private ManagedScheduledExecutorService executor;
+
+    private final RowsBuffer<Guid> vmStatistics = new RowsBuffer<>(Comparator.<Guid> naturalOrder(),
+            VmStatisticsWriteBehind::getStableVmStatisticsValues);
+    private final RowsBuffer<Guid> vmNetworkStatistics = new RowsBuffer<>(Comparator.<Guid> naturalOrder(),
+            VmStatisticsWriteBehind::getStableVmNetworkStatisticsValues);
+    private final RowsBuffer<Pair<Guid, Guid>> diskImageDynamics = new RowsBuffer<>(
+            Comparator.<Pair<Guid, Guid>, Guid> comparing(Pair::getSecond).thenComparing(Pair::getFirst),
+            MapSqlParameterSource::getValues);
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private boolean enabled;
+
+    @PostConstruct
+    private void init() {
+        long interval = Config.<Integer> getValue(ConfigValues.VmStatisticsWriteBehindIntervalInSeconds);
+        enabled = interval > 0;
+        if (enabled) {
+            executor.scheduleWithFixedDelay(this::flush, interval, interval, TimeUnit.SECONDS);
+        }
+    }
+
+    @PreDestroy
+    private void shutdown() {
+        flush();
+    }
+
+    /**
+     * @return true when the statistics are written periodically, false when they have to be flushed with every
+     *         host poll
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void addVmStatistics(Collection<VmStatistics> statistics) {
+        statistics.forEach(stats -> vmStatistics.add(stats.getId(),
+                Collections.singletonMap(stats.getId(), vmStatisticsDao.getBatchMapper().map(stats))));
+    }
+
+    /**
+     * @param statistics the statistics of all the network interfaces of each VM, the other interfaces of the VM
+     *                   reported before are forgotten
+     */
+    public void addVmNetworkStatistics(Map<Guid, ? extends Collection<VmNetworkStatistics>> statistics) {
+        statistics.forEach((vmId, vmStatistics) -> {
+            Map<Guid, MapSqlParameterSource> rows = new HashMap<>();
+            vmStatistics.forEach(stats -> rows.put(stats.getId(), vmNetworkStatisticsDao.getBatchMapper().map(stats)));
+            vmNetworkStatistics.add(vmId, rows);
+        });
+    }
+
+    /**
+     * @param diskImageDynamics the dynamic data of all the disks of each VM, the other disks of the VM reported
+     *                          before are forgotten
+     */
+    public void addDiskImageDynamics(Map<Guid, ? extends Collection<Pair<Guid, DiskImageDynamic>>> diskImageDynamics) {
+        diskImageDynamics.forEach((vmId, vmDiskImageDynamics) -> {
+            Map<Pair<Guid, Guid>, MapSqlParameterSource> rows = new HashMap<>();
+            vmDiskImageDynamics.forEach(pair -> rows.put(new Pair<>(vmId, pair.getSecond().getId()),
+                    diskImageDynamicDao.getBatchImageGroupMapper().map(pair)));
+            this.diskImageDynamics.add(vmId, rows);
+        });
+    }
+
+    /**
+     * Drops the queued rows of the VM and forgets what was written for it. Waits for the flushes in progress, so
+     * nothing queued before can be written after the statistics of the VM are written directly.
+     */
+    public void discard(Guid vmId) {
+        lock.writeLock().lock();
+        try {
+            vmStatistics.removeVm(vmId);
+            vmNetworkStatistics.removeVm(vmId);
+            diskImageDynamics.removeVm(vmId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Writes all the queued rows which changed since they were written last time.
+     */
+    public void flush() {
+        lock.writeLock().lock();
+        try {
+            long now = currentTimeMillis();
+            vmStatistics.flush(vmStatistics.getQueuedKeys(), vmStatisticsDao::updateAllParametersInBatch, now);
+            vmNetworkStatistics.flush(vmNetworkStatistics.getQueuedKeys(),
+                    vmNetworkStatisticsDao::updateAllParametersInBatch, now);
+            diskImageDynamics.flush(diskImageDynamics.getQueuedKeys(),
+                    diskImageDynamicDao::updateAllDiskImageDynamicParametersInBatch, now);
+        } catch (Throwable t) {
+            log.error("Failed to write the VM statistics: {}", ExceptionUtils.getRootCauseMessage(t));
+            log.debug("Exception", t);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Writes the queued rows of the given VMs which changed since they were written last time. Used by the
+     * monitoring of a host when the periodic flush is disabled, the flushes of different hosts run concurrently.
+     */
+    public void flush(Collection<Guid> vmIds) {
+        lock.readLock().lock();
+        try {
+            long now = currentTimeMillis();
+            vmStatistics.flush(vmStatistics.getReportedKeys(vmIds), vmStatisticsDao::updateAllParametersInBatch, now);
+            vmNetworkStatistics.flush(vmNetworkStatistics.getReportedKeys(vmIds),
+                    vmNetworkStatisticsDao::updateAllParametersInBatch, now);
+            diskImageDynamics.flush(diskImageDynamics.getReportedKeys(vmIds),
+                    diskImageDynamicDao::updateAllDiskImageDynamicParametersInBatch, now);
+        } catch (Throwable t) {
+            log.error("Failed to write the VM statistics: {}", ExceptionUtils.getRootCauseMessage(t));
+            log.debug("Exception", t);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    long currentTimeMillis() {
+        return System.currentTimeMillis();
+    }
+
+    private static Map<String, Object> getStableVmStatisticsValues(MapSqlParameterSource parameters) {
+        Map<String, Object> values = new HashMap<>(parameters.getValues());
+        values.remove("elapsed_time");
+        values.computeIfPresent("cpu_sys", (column, value) -> Math.round((Double) value));
+        values.computeIfPresent("cpu_user", (column, value) -> Math.round((Double) value));
+        return values;
+    }
+
+    private static Map<String, Object> getStableVmNetworkStatisticsValues(MapSqlParameterSource parameters) {
+        Map<String, Object> values = new HashMap<>(parameters.getValues());
+        values.remove("sample_time");
+        return values;
+    }
+
+    /**
+     * Rows of a single table, keyed by the row identity.
+     * Rows are queued by the monitoring threads, the comparison with the written rows is done only by the flush.
+     * The keys last reported for each VM are the only ones queued or written for it, so they also serve as the
+     * index of the rows of the VM.
+     */
+    private static class RowsBuffer<K> {
+        private final Comparator<K> order;
+        private final Function<MapSqlParameterSource, Map<String, Object>> stableValues;
+        private final Map<K, Row> queued = new ConcurrentHashMap<>();
+        private final Map<K, Row> written = new ConcurrentHashMap<>();
+        private final Map<Guid, Set<K>> reportedKeys = new ConcurrentHashMap<>();
+
+        private RowsBuffer(Comparator<K> order, Function<MapSqlParameterSource, Map<String, Object>> stableValues) {
+            this.order = order;
+            this.stableValues = stableValues;
+        }
+
+        private void add(Guid vmId, Map<K, MapSqlParameterSource> rows) {
+            rows.forEach((key, parameters) ->
+                    queued.put(key, new Row(vmId, parameters, stableValues.apply(parameters))));
+            Set<K> previousKeys = reportedKeys.put(vmId, new HashSet<>(rows.keySet()));
+            if (previousKeys != null) {
+                for (K key : previousKeys) {
+                    if (!rows.containsKey(key)) {
+                        queued.remove(key);
+                        written.remove(key);
+                    }
+                }
+            }
+        }
+
+        private List<K> getQueuedKeys() {
+            return new ArrayList<>(queued.keySet());
+        }
+
+        private List<K> getReportedKeys(Collection<Guid> vmIds) {
+            List<K> keys = new ArrayList<>();
+            for (Guid vmId : vmIds) {
+                keys.addAll(reportedKeys.getOrDefault(vmId, Collections.emptySet()));
+            }
+            return keys;
+        }
+
+        private void flush(List<K> keys, Consumer<List<MapSqlParameterSource>> writer, long now) {
+            // To overcome possible deadlocks, the rows are written in a stable order
+            keys.sort(order);
+
+            List<K> changedKeys = new ArrayList<>();
+            List<Row> changedRows = new ArrayList<>();
+            for (K key : keys) {
+                Row row = queued.remove(key);
+                if (row != null && !row.hasSameValues(written.get(key), now)) {
+                    changedKeys.add(key);
+                    changedRows.add(row);
+                }
+            }
+            if (changedRows.isEmpty()) {
+                return;
+            }
+
+            try {
+                List<MapSqlParameterSource> parameters = new ArrayList<>(changedRows.size());
+                changedRows.forEach(row -> parameters.add(row.parameters));
+                writer.accept(parameters);
+            } catch (RuntimeException e) {
+                // Keep the rows for the next flush, unless newer ones were queued in the meantime
+                for (int i = 0; i < changedKeys.size(); ++i) {
+                    if (isReported(changedRows.get(i).vmId, changedKeys.get(i))) {
+                        queued.putIfAbsent(changedKeys.get(i), changedRows.get(i));
+                    }
+                }
+                throw e;
+            }
+
+            for (int i = 0; i < changedKeys.size(); ++i) {
+                K key = changedKeys.get(i);
+                Row row = changedRows.get(i);
+                // The device could be reported as gone while the row was being written
+                if (isReported(row.vmId, key)) {
+                    row.writtenAt = now;
+                    written.put(key, row);
+                }
+            }
+        }
+
+        private boolean isReported(Guid vmId, K key) {
+            return reportedKeys.getOrDefault(vmId, Collections.emptySet()).contains(key);
+        }
+
+        private void removeVm(Guid vmId) {
+            Set<K> keys = reportedKeys.remove(vmId);
+            if (keys != null) {
+                for (K key : keys) {
+                    queued.remove(key);
+                    written.remove(key);
+                }
+            }
+        }
+    }
+
+    private static class Row {
+        private final Guid vmId;
+        private final MapSqlParameterSource parameters;
+        private final Map<String, Object> stableValues;
+        private volatile long writtenAt;
+
+        private Row(Guid vmId, MapSqlParameterSource parameters, Map<String, Object> stableValues) {
+            this.vmId = vmId;
+            this.parameters = parameters;
+            this.stableValues = stableValues;
+        }
+
+        private boolean hasSameValues(Row written, long now) {
+            return written != null
+                    && now - written.writtenAt < UNCHANGED_ROW_MAX_AGE
+                    && stableValues.equals(written.stableValues);
+        }
+    }
+}
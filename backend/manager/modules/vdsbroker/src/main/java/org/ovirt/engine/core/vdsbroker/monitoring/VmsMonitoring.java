@@ -4,33 +4,38 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.stream.Collectors;
 
+import javax.enterprise.event.Event;
 import javax.inject.Inject;
 import javax.inject.Singleton;
 
 import org.ovirt.engine.core.common.businessentities.IVdsEventListener;
 import org.ovirt.engine.core.common.businessentities.VmDynamic;
 import org.ovirt.engine.core.common.businessentities.VmStatistics;
+import org.ovirt.engine.core.common.businessentities.network.VmNetworkStatistics;
+import org.ovirt.engine.core.common.businessentities.storage.DiskImageDynamic;
+import org.ovirt.engine.core.common.qualifiers.VmsPlacementChanged;
 import org.ovirt.engine.core.common.utils.Pair;
 import org.ovirt.engine.core.compat.Guid;
 import org.ovirt.engine.core.compat.TransactionScopeOption;
+import org.ovirt.engine.core.dal.dbbroker.MapSqlParameterMapper;
 import org.ovirt.engine.core.dal.dbbroker.auditloghandling.AuditLogDirector;
-import org.ovirt.engine.core.dao.DiskImageDynamicDao;
 import org.ovirt.engine.core.dao.VdsDynamicDao;
 import org.ovirt.engine.core.dao.VmDynamicDao;
 import org.ovirt.engine.core.dao.VmGuestAgentInterfaceDao;
-import org.ovirt.engine.core.dao.VmStatisticsDao;
 import org.ovirt.engine.core.dao.network.VmNetworkInterfaceDao;
-import org.ovirt.engine.core.dao.network.VmNetworkStatisticsDao;
 import org.ovirt.engine.core.utils.transaction.TransactionSupport;
 import org.ovirt.engine.core.vdsbroker.ResourceManager;
 import org.ovirt.engine.core.vdsbroker.VdsManager;
 import org.ovirt.engine.core.vdsbroker.VmManager;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 
 /**
  * invoke all Vm analyzers in hand and iterate over their report
@@ -51,21 +56,22 @@ public class VmsMonitoring {
     @Inject
     private VmJobsMonitoring vmJobsMonitoring;
 
-    @Inject
-    private DiskImageDynamicDao diskImageDynamicDao;
     @Inject
     private VmDynamicDao vmDynamicDao;
     @Inject
-    private VmNetworkStatisticsDao vmNetworkStatisticsDao;
-    @Inject
-    private VmStatisticsDao vmStatisticsDao;
-    @Inject
     private VmGuestAgentInterfaceDao vmGuestAgentInterfaceDao;
     @Inject
     private VmNetworkInterfaceDao vmNetworkInterfaceDao;
     @Inject
     private VdsDynamicDao vdsDynamicDao;
 
+    @Inject
+    private VmStatisticsWriteBehind statisticsWriteBehind;
+
+    @Inject
+    @VmsPlacementChanged
+    private Event<Map<Guid, Guid>> vmsPlacementChangedEvent;
+
     private static final Logger log = LoggerFactory.getLogger(VmsMonitoring.class);
 
     /**
@@ -95,6 +101,7 @@ public class VmsMonitoring {
             // It is important to add the unmanaged VMs before flushing the dynamic data into the database
             addUnmanagedVms(vmAnalyzers, vdsManager.getVdsId());
             flush(vmAnalyzers);
+            firePlacementChanges(vmAnalyzers);
             postFlush(vmAnalyzers, vdsManager);
             vdsManager.vmsMonitoringInitFinished();
         } catch (RuntimeException ex) {
@@ -280,33 +287,65 @@ public class VmsMonitoring {
                 vmIdsWithGuestAgentDownAndBalloonInfalted);
     }
 
+    /**
+     * Notify the interested parties (e.g. affinity rules enforcement) about the current
+     * host of every VM whose dynamic data was just saved
+     */
+    private void firePlacementChanges(List<VmAnalyzer> vmAnalyzers) {
+        Map<Guid, Guid> placements = new HashMap<>();
+        for (VmAnalyzer vmAnalyzer : vmAnalyzers) {
+            VmDynamic vmDynamic = vmAnalyzer.getVmDynamicToSave();
+            if (vmDynamic != null) {
+                placements.put(vmDynamic.getId(), vmDynamic.getRunOnVds());
+            }
+        }
+
+        if (!placements.isEmpty()) {
+            vmsPlacementChangedEvent.fire(placements);
+        }
+    }
+
     private void flush(List<VmAnalyzer> vmAnalyzers) {
         saveVmDynamic(vmAnalyzers);
         saveVmStatistics(vmAnalyzers);
         saveVmInterfaceStatistics(vmAnalyzers);
         saveVmDiskImageStatistics(vmAnalyzers);
+        if (!statisticsWriteBehind.isEnabled()) {
+            // unchanged statistics are still skipped, but the rest of this host is written on every poll
+            statisticsWriteBehind.flush(vmAnalyzers.stream().map(VmAnalyzer::getVmId).collect(Collectors.toList()));
+        }
         saveVmGuestAgentNetworkDevices(vmAnalyzers);
     }
 
     private void saveVmDiskImageStatistics(List<VmAnalyzer> vmAnalyzers) {
-        diskImageDynamicDao.updateAllDiskImageDynamicWithDiskIdByVmId(vmAnalyzers.stream()
-                .map(VmAnalyzer::getVmDiskImageDynamicToSave)
-                .flatMap(Collection::stream)
-                .collect(Collectors.toList()));
+        // The disks are reported with the VM statistics, so a VM with statistics and without disks has none now
+        Map<Guid, Collection<Pair<Guid, DiskImageDynamic>>> diskImageDynamics = vmAnalyzers.stream()
+                .filter(vmAnalyzer -> vmAnalyzer.getVmStatisticsToSave() != null)
+                .collect(Collectors.toMap(VmAnalyzer::getVmId, VmAnalyzer::getVmDiskImageDynamicToSave));
+        statisticsWriteBehind.addDiskImageDynamics(diskImageDynamics);
     }
 
     private void saveVmDynamic(List<VmAnalyzer> vmAnalyzers) {
-        vmDynamicDao.updateAllInBatch(vmAnalyzers.stream()
-                .map(VmAnalyzer::getVmDynamicToSave)
-                .filter(Objects::nonNull)
-                .collect(Collectors.toList()));
+        MapSqlParameterMapper<VmDynamic> mapper = vmDynamicDao.getBatchMapper();
+        // the analyzers are sorted by the VM id, which prevents deadlocks as with the entity based batch update
+        List<MapSqlParameterSource> changedVms = new ArrayList<>();
+        for (VmAnalyzer vmAnalyzer : vmAnalyzers) {
+            VmDynamic vmDynamic = vmAnalyzer.getVmDynamicToSave();
+            if (vmDynamic != null) {
+                MapSqlParameterSource parameters = mapper.map(vmDynamic);
+                if (vmAnalyzer.isVmDynamicChanged(parameters.getValues())) {
+                    changedVms.add(parameters);
+                }
+            }
+        }
+        vmDynamicDao.updateAllParametersInBatch(changedVms);
     }
 
     private void saveVmInterfaceStatistics(List<VmAnalyzer> vmAnalyzers) {
-        vmNetworkStatisticsDao.updateAllInBatch(vmAnalyzers.stream()
-                .map(VmAnalyzer::getVmNetworkStatistics)
-                .flatMap(List::stream)
-                .collect(Collectors.toList()));
+        Map<Guid, List<VmNetworkStatistics>> statistics = vmAnalyzers.stream()
+                .filter(vmAnalyzer -> vmAnalyzer.getVmStatisticsToSave() != null)
+                .collect(Collectors.toMap(VmAnalyzer::getVmId, VmAnalyzer::getVmNetworkStatistics));
+        statisticsWriteBehind.addVmNetworkStatistics(statistics);
     }
 
     private void saveVmStatistics(List<VmAnalyzer> vmAnalyzers) {
@@ -314,7 +353,7 @@ public class VmsMonitoring {
                 .map(VmAnalyzer::getVmStatisticsToSave)
                 .filter(Objects::nonNull)
                 .collect(Collectors.toList());
-        vmStatisticsDao.updateAllInBatch(statistics);
+        statisticsWriteBehind.addVmStatistics(statistics);
         statistics.forEach(stats -> getVmManager(stats.getId()).setStatistics(stats));
     }
 
@@ -341,11 +380,10 @@ public class VmsMonitoring {
                     .map(VmAnalyzer::getVmId)
                     .collect(Collectors.toList());
             vmGuestAgentInterfaceDao.removeAllForVms(vmIds);
-
-            analyzersWithChangeGuestAgentNics.stream()
-                .map(VmAnalyzer::getVmGuestAgentNics)
-                .flatMap(List::stream)
-                .forEach(nic -> vmGuestAgentInterfaceDao.save(nic));
+            vmGuestAgentInterfaceDao.saveAllInBatch(analyzersWithChangeGuestAgentNics.stream()
+                    .map(VmAnalyzer::getVmGuestAgentNics)
+                    .flatMap(List::stream)
+                    .collect(Collectors.toList()));
             return null;
         });
     }
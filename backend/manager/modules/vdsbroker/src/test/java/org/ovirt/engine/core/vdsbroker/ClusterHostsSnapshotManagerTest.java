@@ -0,0 +1,115 @@
+package org.ovirt.engine.core.vdsbroker;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.ovirt.engine.core.common.businessentities.VDS;
+import org.ovirt.engine.core.common.businessentities.VDSStatus;
+import org.ovirt.engine.core.compat.Guid;
+
+public class ClusterHostsSnapshotManagerTest {
+
+    private ClusterHostsSnapshotManager snapshotManager;
+    private Guid clusterId;
+
+    @BeforeEach
+    public void setUp() {
+        snapshotManager = new ClusterHostsSnapshotManager();
+        clusterId = Guid.newGuid();
+    }
+
+    @Test
+    public void testUnknownClusterIsEmpty() {
+        assertTrue(snapshotManager.getSnapshot(Guid.newGuid()).isEmpty());
+    }
+
+    @Test
+    public void testPublishedHostsAreFilteredByStatus() {
+        snapshotManager.publish(createHost(clusterId, VDSStatus.Up));
+        snapshotManager.publish(createHost(clusterId, VDSStatus.Maintenance));
+
+        ClusterHostsSnapshot snapshot = snapshotManager.getSnapshot(clusterId);
+        assertEquals(2, snapshot.size());
+        assertEquals(1, snapshot.getHostsWithStatus(VDSStatus.Up).size());
+    }
+
+    @Test
+    public void testReadersGetPrivateCopies() {
+        VDS host = createHost(clusterId, VDSStatus.Up);
+        host.setPendingVcpusCount(2);
+        snapshotManager.publish(host);
+
+        ClusterHostsSnapshot snapshot = snapshotManager.getSnapshot(clusterId);
+        VDS copy = snapshot.getHostsWithStatus(VDSStatus.Up).get(0);
+        assertNotSame(host, copy);
+        copy.setPendingVcpusCount(10);
+
+        host.setPendingVcpusCount(5);
+        List<VDS> hosts = snapshot.getHostsWithStatus(VDSStatus.Up);
+        assertEquals(2, hosts.get(0).getPendingVcpusCount().intValue());
+    }
+
+    @Test
+    public void testVersionGrowsWithUpdates() {
+        VDS host = createHost(clusterId, VDSStatus.Up);
+        snapshotManager.publish(host);
+        long version = snapshotManager.getSnapshot(clusterId).getVersion();
+
+        host.setStatus(VDSStatus.NonResponsive);
+        snapshotManager.publish(host);
+
+        ClusterHostsSnapshot snapshot = snapshotManager.getSnapshot(clusterId);
+        assertTrue(snapshot.getVersion() > version);
+        assertTrue(snapshot.getHostsWithStatus(VDSStatus.Up).isEmpty());
+    }
+
+    @Test
+    public void testHostMovedToAnotherCluster() {
+        VDS host = createHost(clusterId, VDSStatus.Up);
+        snapshotManager.publish(host);
+
+        Guid otherClusterId = Guid.newGuid();
+        host.setClusterId(otherClusterId);
+        snapshotManager.publish(host);
+
+        assertTrue(snapshotManager.getSnapshot(clusterId).isEmpty());
+        assertEquals(1, snapshotManager.getSnapshot(otherClusterId).size());
+    }
+
+    @Test
+    public void testFailedPublishKeepsPreviousState() {
+        VDS host = createHost(clusterId, VDSStatus.Up);
+        snapshotManager.publish(host);
+        long version = snapshotManager.getSnapshot(clusterId).getVersion();
+
+        // A host without its dynamic data can't be copied
+        host.setDynamicData(null);
+        snapshotManager.publish(host);
+
+        ClusterHostsSnapshot snapshot = snapshotManager.getSnapshot(clusterId);
+        assertEquals(version, snapshot.getVersion());
+        assertEquals(1, snapshot.getHostsWithStatus(VDSStatus.Up).size());
+    }
+
+    @Test
+    public void testRemove() {
+        VDS host = createHost(clusterId, VDSStatus.Up);
+        snapshotManager.publish(host);
+        snapshotManager.remove(host.getId());
+
+        assertTrue(snapshotManager.getSnapshot(clusterId).isEmpty());
+    }
+
+    private static VDS createHost(Guid clusterId, VDSStatus status) {
+        VDS host = new VDS();
+        host.setId(Guid.newGuid());
+        host.setClusterId(clusterId);
+        host.setStatus(status);
+        return host;
+    }
+}
@@ -0,0 +1,174 @@
+package org.ovirt.engine.core.vdsbroker.irsbroker;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.concurrent.Callable;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import javax.enterprise.concurrent.ManagedScheduledExecutorService;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.ovirt.engine.core.common.businessentities.StorageDomainStatus;
+import org.ovirt.engine.core.common.businessentities.StoragePool;
+import org.ovirt.engine.core.common.businessentities.StoragePoolStatus;
+import org.ovirt.engine.core.common.businessentities.VDS;
+import org.ovirt.engine.core.common.businessentities.VDSDomainsData;
+import org.ovirt.engine.core.common.businessentities.VDSStatus;
+import org.ovirt.engine.core.common.config.ConfigValues;
+import org.ovirt.engine.core.common.eventqueue.EventQueue;
+import org.ovirt.engine.core.common.eventqueue.EventResult;
+import org.ovirt.engine.core.compat.Guid;
+import org.ovirt.engine.core.dao.StorageDomainStaticDao;
+import org.ovirt.engine.core.dao.StoragePoolDao;
+import org.ovirt.engine.core.utils.MockConfigDescriptor;
+import org.ovirt.engine.core.utils.MockConfigExtension;
+
+@ExtendWith({MockitoExtension.class, MockConfigExtension.class})
+@MockitoSettings(strictness = Strictness.LENIENT)
+public class IrsProxyTest {
+
+    private static final Guid POOL_ID = Guid.newGuid();
+    private static final Guid DOMAIN_ID = Guid.newGuid();
+    private static final long AGGREGATION_INTERVAL = 1000L;
+
+    public static Stream<MockConfigDescriptor<?>> mockConfiguration() {
+        return Stream.of(
+                MockConfigDescriptor.of(ConfigValues.StorageDomainReportsAggregationIntervalInMillis,
+                        AGGREGATION_INTERVAL),
+                MockConfigDescriptor.of(ConfigValues.StorageDomainFailureTimeoutInMinutes, 5L));
+    }
+
+    @Mock
+    private StoragePoolDao storagePoolDao;
+    @Mock
+    private StorageDomainStaticDao storageDomainStaticDao;
+    @Mock
+    private EventQueue eventQueue;
+    @Mock
+    private ManagedScheduledExecutorService schedulerService;
+
+    @InjectMocks
+    private IrsProxy irsProxy = new IrsProxy(POOL_ID);
+
+    @BeforeEach
+    public void setUp() {
+        StoragePool pool = new StoragePool();
+        pool.setId(POOL_ID);
+        pool.setStatus(StoragePoolStatus.Up);
+        when(storagePoolDao.get(POOL_ID)).thenReturn(pool);
+        when(storageDomainStaticDao.getAllIds(POOL_ID, StorageDomainStatus.Active))
+                .thenReturn(Collections.singletonList(DOMAIN_ID));
+    }
+
+    @Test
+    public void reportsArrivingWithinTheIntervalAreProcessedTogether() throws Exception {
+        VDS host1 = createHost();
+        VDS host2 = createHost();
+        irsProxy.updateVdsDomainsData(host1, noDomains());
+        irsProxy.updateVdsDomainsData(host2, noDomains());
+        irsProxy.updateVdsDomainsData(host1, noDomains());
+
+        runScheduledProcessing();
+        verify(storagePoolDao).get(POOL_ID);
+        verify(storageDomainStaticDao).getAllIds(POOL_ID, StorageDomainStatus.Active);
+
+        runSubmittedEvent();
+        // The domain is added once to the domains in problem and the second host is added to it
+        verifyDomainFailureTimers(1);
+    }
+
+    @Test
+    public void reportOfHostClearedBeforeTheEventRunsIsDropped() throws Exception {
+        VDS host = createHost();
+        irsProxy.updateVdsDomainsData(host, noDomains());
+        runScheduledProcessing();
+
+        irsProxy.clearVdsFromCache(host.getId(), host.getName());
+        runSubmittedEvent();
+
+        verifyDomainFailureTimers(0);
+    }
+
+    @Test
+    public void reportOfHostClearedDuringTheProcessingIsDropped() throws Exception {
+        VDS host = createHost();
+        irsProxy.updateVdsDomainsData(host, noDomains());
+        when(storagePoolDao.get(POOL_ID)).thenAnswer(invocation -> {
+            irsProxy.clearVdsFromCache(host.getId(), host.getName());
+            StoragePool pool = new StoragePool();
+            pool.setStatus(StoragePoolStatus.Up);
+            return pool;
+        });
+
+        runScheduledProcessing();
+
+        verify(eventQueue, never()).submitEventAsync(any(), any());
+    }
+
+    @Test
+    public void reportsAreProcessedRightAwayWhenTheSchedulerRejectsThem() throws Exception {
+        doThrow(new RejectedExecutionException()).when(schedulerService)
+                .schedule(any(Runnable.class), eq(AGGREGATION_INTERVAL), eq(TimeUnit.MILLISECONDS));
+
+        irsProxy.updateVdsDomainsData(createHost(), noDomains());
+        verify(eventQueue).submitEventAsync(any(), any());
+
+        // A rejected run doesn't prevent scheduling the next one
+        irsProxy.updateVdsDomainsData(createHost(), noDomains());
+        verify(schedulerService, times(2))
+                .schedule(any(Runnable.class), eq(AGGREGATION_INTERVAL), eq(TimeUnit.MILLISECONDS));
+        verify(eventQueue, times(2)).submitEventAsync(any(), any());
+    }
+
+    private void runScheduledProcessing() {
+        ArgumentCaptor<Runnable> captor = ArgumentCaptor.forClass(Runnable.class);
+        verify(schedulerService).schedule(captor.capture(), eq(AGGREGATION_INTERVAL), eq(TimeUnit.MILLISECONDS));
+        captor.getValue().run();
+    }
+
+    @SuppressWarnings("unchecked")
+    private void runSubmittedEvent() throws Exception {
+        ArgumentCaptor<Callable<EventResult>> captor = ArgumentCaptor.forClass(Callable.class);
+        verify(eventQueue).submitEventAsync(any(), captor.capture());
+        captor.getValue().call();
+    }
+
+    private void verifyDomainFailureTimers(int count) {
+        verify(schedulerService, times(count)).schedule(any(Runnable.class), anyLong(), eq(TimeUnit.MINUTES));
+    }
+
+    private static VDS createHost() {
+        VDS host = new VDS();
+        host.setId(Guid.newGuid());
+        host.setVdsName("host-" + host.getId());
+        host.setStatus(VDSStatus.Up);
+        host.setClusterSupportsVirtService(true);
+        return host;
+    }
+
+    /**
+     * A report without any domain, the active domain of the pool is considered not reported by the host.
+     */
+    private static ArrayList<VDSDomainsData> noDomains() {
+        return new ArrayList<>();
+    }
+}
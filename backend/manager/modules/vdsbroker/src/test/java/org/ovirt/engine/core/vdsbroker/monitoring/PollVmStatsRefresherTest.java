@@ -2,6 +2,7 @@ package org.ovirt.engine.core.vdsbroker.monitoring;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.when;
 import static org.mockito.MockitoAnnotations.initMocks;
 import static org.ovirt.engine.core.common.businessentities.VDSStatus.Connecting;
 import static org.ovirt.engine.core.common.businessentities.VDSStatus.Down;
@@ -20,16 +21,24 @@ import static org.ovirt.engine.core.common.businessentities.VDSStatus.Reboot;
 import static org.ovirt.engine.core.common.businessentities.VDSStatus.Unassigned;
 import static org.ovirt.engine.core.common.businessentities.VDSStatus.Up;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import java.util.stream.Stream;
 
 import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
 import org.mockito.Mock;
 import org.ovirt.engine.core.common.businessentities.VDSStatus;
+import org.ovirt.engine.core.common.businessentities.VMStatus;
+import org.ovirt.engine.core.common.businessentities.VmDynamic;
 import org.ovirt.engine.core.common.config.ConfigValues;
+import org.ovirt.engine.core.common.utils.Pair;
+import org.ovirt.engine.core.compat.Guid;
 import org.ovirt.engine.core.utils.MockConfigDescriptor;
 import org.ovirt.engine.core.utils.MockConfigExtension;
 import org.ovirt.engine.core.vdsbroker.VdsManager;
@@ -38,6 +47,7 @@ import org.ovirt.engine.core.vdsbroker.VdsManager;
 public class PollVmStatsRefresherTest {
 
     private PollVmStatsRefresher underTest;
+    private PollVmStatsRefresher hybridRefresher;
 
     @Mock
     private VdsManager vdsManager;
@@ -45,7 +55,8 @@ public class PollVmStatsRefresherTest {
     public static Stream<MockConfigDescriptor<?>> mockConfiguration() {
         return Stream.of(
                 MockConfigDescriptor.of(ConfigValues.VdsRefreshRate, 2L),
-                MockConfigDescriptor.of(ConfigValues.NumberVmRefreshesBeforeSave, 1)
+                MockConfigDescriptor.of(ConfigValues.NumberVmRefreshesBeforeSave, 1),
+                MockConfigDescriptor.of(ConfigValues.VmsPollMaxIntervalWithEventsInSeconds, 10)
         );
     }
 
@@ -75,6 +86,8 @@ public class PollVmStatsRefresherTest {
     public void setup() {
         initMocks(this);
         underTest = spy(new PollVmStatsRefresher(vdsManager));
+        hybridRefresher = new PollVmStatsRefresher(vdsManager, true);
+        when(vdsManager.getStatus()).thenReturn(Up);
     }
 
     @ParameterizedTest
@@ -83,4 +96,90 @@ public class PollVmStatsRefresherTest {
         assertEquals(underTest.isMonitoringNeeded(status), monitoringNeeded);
     }
 
+    @Test
+    public void vmsReportedByEventsAreLeftOut() {
+        Pair<VmDynamic, VdsmVm> reported = polledVm(VMStatus.Up, VMStatus.Up);
+        Pair<VmDynamic, VdsmVm> notReported = polledVm(VMStatus.Up, VMStatus.Up);
+        Pair<VmDynamic, VdsmVm> reportedAndGone = new Pair<>(polledVm(VMStatus.Up, VMStatus.Up).getFirst(), null);
+        hybridRefresher.vmsReportedByEvents(
+                Arrays.asList(reported.getFirst().getId(), reportedAndGone.getFirst().getId()));
+
+        assertEquals(Arrays.asList(notReported, reportedAndGone),
+                poll(hybridRefresher, reported, notReported, reportedAndGone));
+    }
+
+    @Test
+    public void vmIsNotLeftOutOfTwoPollsInARow() {
+        Pair<VmDynamic, VdsmVm> vm = polledVm(VMStatus.Up, VMStatus.Up);
+        hybridRefresher.vmsReportedByEvents(Collections.singleton(vm.getFirst().getId()));
+        assertEquals(Collections.emptyList(), poll(hybridRefresher, vm));
+
+        hybridRefresher.vmsReportedByEvents(Collections.singleton(vm.getFirst().getId()));
+        assertEquals(Collections.singletonList(vm), poll(hybridRefresher, vm));
+    }
+
+    @Test
+    public void vmsReportedByEventsAreAnalyzedWithoutEvents() {
+        Pair<VmDynamic, VdsmVm> vm = polledVm(VMStatus.Up, VMStatus.Up);
+        underTest.vmsReportedByEvents(Collections.singleton(vm.getFirst().getId()));
+
+        assertEquals(Collections.singletonList(vm), poll(underTest, vm));
+        assertEquals(2000, underTest.nextPollInterval());
+    }
+
+    @Test
+    public void pollIntervalGrowsWhileEventsKeepUp() {
+        Pair<VmDynamic, VdsmVm> vm = polledVm(VMStatus.Up, VMStatus.Up);
+
+        poll(hybridRefresher, vm);
+        assertEquals(4000, hybridRefresher.nextPollInterval());
+        poll(hybridRefresher, vm);
+        assertEquals(8000, hybridRefresher.nextPollInterval());
+        poll(hybridRefresher, vm);
+        assertEquals(10000, hybridRefresher.nextPollInterval());
+    }
+
+    @Test
+    public void pollIntervalIsResetWhenEventsMissStatusChange() {
+        poll(hybridRefresher, polledVm(VMStatus.Up, VMStatus.Up));
+        assertEquals(4000, hybridRefresher.nextPollInterval());
+
+        poll(hybridRefresher, polledVm(VMStatus.Up, VMStatus.Paused));
+        assertEquals(2000, hybridRefresher.nextPollInterval());
+    }
+
+    @Test
+    public void pollIntervalIsResetWhenEventsFail() {
+        poll(hybridRefresher, polledVm(VMStatus.Up, VMStatus.Up));
+        assertEquals(4000, hybridRefresher.nextPollInterval());
+
+        hybridRefresher.eventsFailed();
+        poll(hybridRefresher, polledVm(VMStatus.Up, VMStatus.Up));
+        assertEquals(2000, hybridRefresher.nextPollInterval());
+    }
+
+    @Test
+    public void pollIntervalIsResetWhenHostIsNotUp() {
+        poll(hybridRefresher, polledVm(VMStatus.Up, VMStatus.Up));
+        when(vdsManager.getStatus()).thenReturn(NonResponsive);
+
+        assertEquals(2000, hybridRefresher.nextPollInterval());
+    }
+
+    @SafeVarargs
+    private static List<Pair<VmDynamic, VdsmVm>> poll(PollVmStatsRefresher refresher,
+            Pair<VmDynamic, VdsmVm>... polledVms) {
+        return refresher.filterVmsReportedByEvents(Arrays.asList(polledVms), refresher.takeVmsReportedByEvents());
+    }
+
+    private static Pair<VmDynamic, VdsmVm> polledVm(VMStatus dbStatus, VMStatus vdsmStatus) {
+        Guid vmId = Guid.newGuid();
+        VmDynamic dbVm = new VmDynamic();
+        dbVm.setId(vmId);
+        dbVm.setStatus(dbStatus);
+        VmDynamic vdsmVmDynamic = new VmDynamic();
+        vdsmVmDynamic.setId(vmId);
+        vdsmVmDynamic.setStatus(vdsmStatus);
+        return new Pair<>(dbVm, new VdsmVm(null).setVmDynamic(vdsmVmDynamic));
+    }
 }
@@ -0,0 +1,306 @@
+package org.ovirt.engine.core.vdsbroker.monitoring;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.ovirt.engine.core.common.businessentities.VmStatistics;
+import org.ovirt.engine.core.common.businessentities.network.VmNetworkStatistics;
+import org.ovirt.engine.core.compat.Guid;
+import org.ovirt.engine.core.dao.DiskImageDynamicDao;
+import org.ovirt.engine.core.dao.VmStatisticsDao;
+import org.ovirt.engine.core.dao.network.VmNetworkStatisticsDao;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+public class VmStatisticsWriteBehindTest {
+
+    @Mock
+    private VmStatisticsDao vmStatisticsDao;
+    @Mock
+    private VmNetworkStatisticsDao vmNetworkStatisticsDao;
+    @Mock
+    private DiskImageDynamicDao diskImageDynamicDao;
+
+    @Captor
+    private ArgumentCaptor<List<MapSqlParameterSource>> parametersCaptor;
+
+    @Spy
+    @InjectMocks
+    private VmStatisticsWriteBehind writeBehind;
+
+    private final Guid vm1 = Guid.newGuid();
+    private final Guid vm2 = Guid.newGuid();
+
+    @BeforeEach
+    public void setup() {
+        when(vmStatisticsDao.getBatchMapper()).thenReturn(stats -> new MapSqlParameterSource()
+                .addValue("vm_guid", stats.getId())
+                .addValue("cpu_sys", stats.getCpuSys())
+                .addValue("cpu_user", stats.getCpuUser())
+                .addValue("elapsed_time", stats.getElapsedTime())
+                .addValue("usage_mem_percent", stats.getUsageMemPercent()));
+        when(vmNetworkStatisticsDao.getBatchMapper()).thenReturn(stats -> new MapSqlParameterSource()
+                .addValue("id", stats.getId())
+                .addValue("vm_id", stats.getVmId())
+                .addValue("rx_total", stats.getReceivedBytes())
+                .addValue("sample_time", stats.getSampleTime()));
+        doReturn(0L).when(writeBehind).currentTimeMillis();
+    }
+
+    @Test
+    public void shouldNotWriteSecondPollOfIdleVm() {
+        writeBehind.addVmStatistics(Collections.singletonList(createIdleStatistics(vm1, 100.0, 0.13)));
+        writeBehind.flush();
+
+        // Only the elapsed time and the negligible CPU usage changed since the previous poll
+        writeBehind.addVmStatistics(Collections.singletonList(createIdleStatistics(vm1, 115.0, 0.21)));
+        writeBehind.flush();
+
+        verify(vmStatisticsDao, times(1)).updateAllParametersInBatch(any());
+    }
+
+    @Test
+    public void shouldWriteChangedStableValuesOfIdleVm() {
+        writeBehind.addVmStatistics(Collections.singletonList(createIdleStatistics(vm1, 100.0, 0.13)));
+        writeBehind.flush();
+
+        VmStatistics stats = createIdleStatistics(vm1, 115.0, 0.21);
+        stats.setUsageMemPercent(30);
+        writeBehind.addVmStatistics(Collections.singletonList(stats));
+        writeBehind.flush();
+
+        verify(vmStatisticsDao, times(2)).updateAllParametersInBatch(parametersCaptor.capture());
+        assertThat(parametersCaptor.getValue())
+                .extracting(parameters -> parameters.getValue("elapsed_time"))
+                .containsExactly(115.0);
+    }
+
+    @Test
+    public void shouldWriteUnchangedRowOnceTheWrittenOneIsOld() {
+        writeBehind.addVmStatistics(Collections.singletonList(createIdleStatistics(vm1, 100.0, 0.13)));
+        writeBehind.flush();
+
+        doReturn(VmStatisticsWriteBehind.UNCHANGED_ROW_MAX_AGE - 1).when(writeBehind).currentTimeMillis();
+        writeBehind.addVmStatistics(Collections.singletonList(createIdleStatistics(vm1, 400.0, 0.13)));
+        writeBehind.flush();
+        verify(vmStatisticsDao, times(1)).updateAllParametersInBatch(any());
+
+        doReturn(VmStatisticsWriteBehind.UNCHANGED_ROW_MAX_AGE).when(writeBehind).currentTimeMillis();
+        writeBehind.addVmStatistics(Collections.singletonList(createIdleStatistics(vm1, 400.0, 0.13)));
+        writeBehind.flush();
+        verify(vmStatisticsDao, times(2)).updateAllParametersInBatch(any());
+    }
+
+    @Test
+    public void shouldNotWriteInterfaceOfIdleVmAgainForNewSampleTime() {
+        Guid nic1 = Guid.newGuid();
+        VmNetworkStatistics stats = createNetworkStatistics(vm1, nic1);
+        stats.setSampleTime(100.0);
+        writeBehind.addVmNetworkStatistics(Collections.singletonMap(vm1, Collections.singletonList(stats)));
+        writeBehind.flush();
+
+        stats = createNetworkStatistics(vm1, nic1);
+        stats.setSampleTime(115.0);
+        writeBehind.addVmNetworkStatistics(Collections.singletonMap(vm1, Collections.singletonList(stats)));
+        writeBehind.flush();
+
+        verify(vmNetworkStatisticsDao, times(1)).updateAllParametersInBatch(any());
+    }
+
+    @Test
+    public void shouldWriteOnlyTheLatestRow() {
+        VmStatistics stats = createStatistics(vm1, 10.0);
+        writeBehind.addVmStatistics(Collections.singletonList(stats));
+        // The monitoring keeps updating the same instance, the queued row must not change
+        stats.setCpuUser(20.0);
+        writeBehind.addVmStatistics(Collections.singletonList(createStatistics(vm2, 30.0)));
+        writeBehind.addVmStatistics(Collections.singletonList(createStatistics(vm2, 40.0)));
+
+        writeBehind.flush();
+
+        verify(vmStatisticsDao).updateAllParametersInBatch(parametersCaptor.capture());
+        assertThat(parametersCaptor.getValue()).hasSize(2);
+        assertThat(parametersCaptor.getValue())
+                .extracting(parameters -> parameters.getValue("cpu_user"))
+                .containsOnly(10.0, 40.0);
+    }
+
+    @Test
+    public void shouldSkipUnchangedRows() {
+        writeBehind.addVmStatistics(Arrays.asList(createStatistics(vm1, 10.0), createStatistics(vm2, 10.0)));
+        writeBehind.flush();
+
+        writeBehind.addVmStatistics(Arrays.asList(createStatistics(vm1, 10.0), createStatistics(vm2, 20.0)));
+        writeBehind.flush();
+
+        verify(vmStatisticsDao, times(2)).updateAllParametersInBatch(parametersCaptor.capture());
+        assertThat(parametersCaptor.getValue())
+                .extracting(parameters -> parameters.getValue("vm_guid"))
+                .containsExactly(vm2);
+    }
+
+    @Test
+    public void shouldNotWriteWhenNothingChanged() {
+        writeBehind.flush();
+        verify(vmStatisticsDao, never()).updateAllParametersInBatch(any());
+    }
+
+    @Test
+    public void shouldRetryFailedRows() {
+        doThrow(new DataAccessResourceFailureException("database is down"))
+                .doNothing()
+                .when(vmStatisticsDao).updateAllParametersInBatch(any());
+
+        writeBehind.addVmStatistics(Collections.singletonList(createStatistics(vm1, 10.0)));
+        writeBehind.flush();
+        writeBehind.flush();
+
+        verify(vmStatisticsDao, times(2)).updateAllParametersInBatch(parametersCaptor.capture());
+        assertThat(parametersCaptor.getValue()).hasSize(1);
+    }
+
+    @Test
+    public void shouldKeepRowsOfOtherVmsWhenDiscarding() {
+        writeBehind.addVmStatistics(Arrays.asList(createStatistics(vm1, 10.0), createStatistics(vm2, 20.0)));
+        writeBehind.discard(vm1);
+        writeBehind.flush();
+
+        verify(vmStatisticsDao).updateAllParametersInBatch(parametersCaptor.capture());
+        assertThat(parametersCaptor.getValue())
+                .extracting(parameters -> parameters.getValue("vm_guid"))
+                .containsExactly(vm2);
+    }
+
+    @Test
+    public void shouldNotRetryRowsOfInterfacesUnpluggedDuringFailedFlush() {
+        Guid nic1 = Guid.newGuid();
+        doAnswer(invocation -> {
+            writeBehind.addVmNetworkStatistics(Collections.singletonMap(vm1, Collections.emptyList()));
+            throw new DataAccessResourceFailureException("database is down");
+        }).doNothing().when(vmNetworkStatisticsDao).updateAllParametersInBatch(any());
+
+        writeBehind.addVmNetworkStatistics(Collections.singletonMap(vm1,
+                Collections.singletonList(createNetworkStatistics(vm1, nic1))));
+        writeBehind.flush();
+        writeBehind.flush();
+
+        verify(vmNetworkStatisticsDao, times(1)).updateAllParametersInBatch(any());
+    }
+
+    @Test
+    public void shouldWriteOnlyRowsOfFlushedVms() {
+        writeBehind.addVmStatistics(Arrays.asList(createStatistics(vm1, 10.0), createStatistics(vm2, 20.0)));
+        writeBehind.flush(Collections.singletonList(vm1));
+
+        verify(vmStatisticsDao).updateAllParametersInBatch(parametersCaptor.capture());
+        assertThat(parametersCaptor.getValue())
+                .extracting(parameters -> parameters.getValue("vm_guid"))
+                .containsExactly(vm1);
+
+        writeBehind.flush(Collections.singletonList(vm2));
+
+        verify(vmStatisticsDao, times(2)).updateAllParametersInBatch(parametersCaptor.capture());
+        assertThat(parametersCaptor.getValue())
+                .extracting(parameters -> parameters.getValue("vm_guid"))
+                .containsExactly(vm2);
+    }
+
+    @Test
+    public void shouldNotWriteDiscardedRows() {
+        writeBehind.addVmStatistics(Collections.singletonList(createStatistics(vm1, 10.0)));
+        writeBehind.discard(vm1);
+        writeBehind.flush();
+
+        verify(vmStatisticsDao, never()).updateAllParametersInBatch(any());
+    }
+
+    @Test
+    public void shouldWriteRowOfDiscardedVmAgain() {
+        writeBehind.addVmStatistics(Collections.singletonList(createStatistics(vm1, 10.0)));
+        writeBehind.flush();
+        // The statistics were written directly in the meantime, the same row is not in the database anymore
+        writeBehind.discard(vm1);
+        writeBehind.addVmStatistics(Collections.singletonList(createStatistics(vm1, 10.0)));
+        writeBehind.flush();
+
+        verify(vmStatisticsDao, times(2)).updateAllParametersInBatch(any());
+    }
+
+    @Test
+    public void shouldForgetUnpluggedInterfaces() {
+        Guid nic1 = Guid.newGuid();
+        Guid nic2 = Guid.newGuid();
+        writeBehind.addVmNetworkStatistics(Collections.singletonMap(vm1,
+                Arrays.asList(createNetworkStatistics(vm1, nic1), createNetworkStatistics(vm1, nic2))));
+        writeBehind.flush();
+
+        writeBehind.addVmNetworkStatistics(Collections.singletonMap(vm1,
+                Collections.singletonList(createNetworkStatistics(vm1, nic1))));
+        writeBehind.flush();
+
+        writeBehind.addVmNetworkStatistics(Collections.singletonMap(vm1,
+                Arrays.asList(createNetworkStatistics(vm1, nic1), createNetworkStatistics(vm1, nic2))));
+        writeBehind.flush();
+
+        verify(vmNetworkStatisticsDao, times(2)).updateAllParametersInBatch(parametersCaptor.capture());
+        assertThat(parametersCaptor.getValue())
+                .extracting(parameters -> parameters.getValue("id"))
+                .containsExactly(nic2);
+    }
+
+    @Test
+    public void shouldNotWriteRowsOfUnpluggedInterfaces() {
+        Guid nic1 = Guid.newGuid();
+        writeBehind.addVmNetworkStatistics(Collections.singletonMap(vm1,
+                Collections.singletonList(createNetworkStatistics(vm1, nic1))));
+        writeBehind.addVmNetworkStatistics(Collections.singletonMap(vm1, Collections.emptyList()));
+        writeBehind.flush();
+
+        verify(vmNetworkStatisticsDao, never()).updateAllParametersInBatch(any());
+    }
+
+    private VmNetworkStatistics createNetworkStatistics(Guid vmId, Guid interfaceId) {
+        VmNetworkStatistics statistics = new VmNetworkStatistics();
+        statistics.setId(interfaceId);
+        statistics.setVmId(vmId);
+        return statistics;
+    }
+
+    private VmStatistics createIdleStatistics(Guid vmId, double elapsedTime, double cpuUser) {
+        VmStatistics statistics = createStatistics(vmId, cpuUser);
+        statistics.setCpuSys(cpuUser);
+        statistics.setElapsedTime(elapsedTime);
+        statistics.setUsageMemPercent(20);
+        return statistics;
+    }
+
+    private VmStatistics createStatistics(Guid vmId, double cpuUser) {
+        VmStatistics statistics = new VmStatistics(vmId);
+        statistics.setCpuUser(cpuUser);
+        return statistics;
+    }
+}
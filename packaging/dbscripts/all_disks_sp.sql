@@ -271,3 +271,27 @@ BEGIN
             );
 END;$PROCEDURE$
 LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION GetDisksAndSnapshotsByDiskIds (
+    v_disk_ids UUID[],
+    v_user_id UUID,
+    v_is_filtered BOOLEAN
+    )
+RETURNS SETOF all_disks_including_snapshots STABLE AS $PROCEDURE$
+BEGIN
+    RETURN QUERY
+
+    SELECT *
+    FROM all_disks_including_snapshots
+    WHERE image_group_id = ANY(v_disk_ids)
+        AND (
+            NOT v_is_filtered
+            OR EXISTS (
+                SELECT 1
+                FROM user_disk_permissions_view
+                WHERE user_id = v_user_id
+                    AND entity_id = all_disks_including_snapshots.image_group_id
+                )
+            );
+END;$PROCEDURE$
+LANGUAGE plpgsql;
@@ -63,6 +63,40 @@ BEGIN
 END;$PROCEDURE$
 LANGUAGE plpgsql;
 
+CREATE OR REPLACE FUNCTION GetAllPermissionGrants ()
+RETURNS SETOF permissions STABLE
+AS $PROCEDURE$
+BEGIN
+    RETURN QUERY
+
+    SELECT *
+    FROM permissions;
+END;$PROCEDURE$
+LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION GetPermissionGrantsByAdElementId (v_ad_element_id UUID)
+RETURNS SETOF permissions STABLE
+AS $PROCEDURE$
+BEGIN
+    RETURN QUERY
+
+    SELECT *
+    FROM permissions
+    WHERE ad_element_id = v_ad_element_id;
+END;$PROCEDURE$
+LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION GetUserAndGroupIdsById (v_user_id UUID)
+RETURNS SETOF idUuidType STABLE
+AS $PROCEDURE$
+BEGIN
+    RETURN QUERY
+
+    SELECT *
+    FROM getUserAndGroupsById(v_user_id);
+END;$PROCEDURE$
+LANGUAGE plpgsql;
+
 CREATE OR REPLACE FUNCTION get_user_permissions_for_domain (
     v_name VARCHAR(255),
     v_domain VARCHAR(255)
@@ -567,6 +601,16 @@ BEGIN
 END; $procedure$
 LANGUAGE plpgsql;
 
+CREATE OR REPLACE FUNCTION GetAllFromRolesGroups()
+RETURNS SETOF roles_groups STABLE
+   AS $procedure$
+BEGIN
+    RETURN QUERY SELECT *
+    FROM roles_groups;
+
+END; $procedure$
+LANGUAGE plpgsql;
+
 
 
 
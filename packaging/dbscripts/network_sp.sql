@@ -985,6 +985,21 @@ BEGIN
 END;$PROCEDURE$
 LANGUAGE plpgsql;
 
+CREATE OR REPLACE FUNCTION GetVmInterfacesByMacPoolId (v_mac_pool_id UUID)
+RETURNS SETOF vm_interface STABLE AS $PROCEDURE$
+BEGIN
+    RETURN QUERY
+
+    SELECT vm_interface.*
+    FROM vm_interface
+    INNER JOIN vm_static
+        ON vm_static.vm_guid = vm_interface.vm_guid
+    INNER JOIN cluster
+        ON cluster.cluster_id = vm_static.cluster_id
+    WHERE cluster.mac_pool_id = v_mac_pool_id;
+END;$PROCEDURE$
+LANGUAGE plpgsql;
+
 ----------------------------------------------------------------
 -- VM Interface View
 ----------------------------------------------------------------
@@ -1045,6 +1060,30 @@ BEGIN
 END;$PROCEDURE$
 LANGUAGE plpgsql;
 
+CREATE OR REPLACE FUNCTION GetVmNetworkInterfaceViewByVmIds (
+    v_vm_ids UUID[],
+    v_user_id UUID,
+    v_is_filtered BOOLEAN
+    )
+RETURNS SETOF vm_interface_view STABLE AS $PROCEDURE$
+BEGIN
+    RETURN QUERY
+
+    SELECT *
+    FROM vm_interface_view
+    WHERE vm_guid = ANY(v_vm_ids)
+        AND (
+            NOT v_is_filtered
+            OR EXISTS (
+                SELECT 1
+                FROM user_vm_permissions_view
+                WHERE user_id = v_user_id
+                    AND entity_id = vm_interface_view.vm_guid
+                )
+            );
+END;$PROCEDURE$
+LANGUAGE plpgsql;
+
 CREATE OR REPLACE FUNCTION GetVmNetworkInterfaceToMonitorByVmId (v_vm_id UUID)
 RETURNS SETOF vm_interface_monitoring_view STABLE AS $PROCEDURE$
 BEGIN
@@ -50,6 +50,7 @@ select fn_db_add_config_value('AffinityRulesEnforcementManagerRegularInterval',
 select fn_db_add_config_value('AgentAppName','ovirt-guest-agent-common,ovirt-guest-agent','general');
 select fn_db_add_config_value('AllowClusterWithVirtGlusterEnabled','true','general');
 select fn_db_add_config_value('ApplicationMode','255','general');
+select fn_db_add_config_value('AsyncCommandCallbacksMaxConcurrency','4','general');
 select fn_db_add_config_value('AsyncCommandPollingLoopInSeconds','1','general');
 select fn_db_add_config_value('AsyncCommandPollingRateInSeconds','10','general');
 select fn_db_add_config_value('AsyncTaskPollingRate','10','general');
@@ -394,6 +395,18 @@ select fn_db_add_config_value('NicDHCPDelayGraceInMS','60','general');
 select fn_db_add_config_value('NumberOfFailedRunsOnVds','3','general');
 select fn_db_add_config_value('NumberOfUSBSlots','4','general');
 select fn_db_add_config_value('NumberVmRefreshesBeforeSave','5','general');
+select fn_db_add_config_value('VmStatisticsWriteBehindIntervalInSeconds','15','general');
+select fn_db_add_config_value('VmsPollMaxIntervalWithEventsInSeconds','60','general');
+select fn_db_add_config_value('PermissionChecksMode','InMemory','general');
+select fn_db_add_config_value('AuditLogAsyncWriteEnabled','false','general');
+select fn_db_add_config_value('AuditLogAsyncQueueCapacity','10000','general');
+select fn_db_add_config_value('AuditLogAsyncBatchSize','200','general');
+select fn_db_add_config_value('AuditLogAsyncFlushIntervalInMillis','500','general');
+select fn_db_add_config_value('AuditLogAsyncQueueFullPolicy','CallerWrites','general');
+select fn_db_add_config_value('QuotaCacheReconcileIntervalInMinutes','60','general');
+select fn_db_add_config_value('EntityCacheMaxSize','1000','general');
+select fn_db_add_config_value('EntityCacheTimeToLiveInSeconds','60','general');
+select fn_db_add_config_value('SearchQueryCacheMaxSize','1000','general');
 select fn_db_add_config_value('NumberVdsRefreshesBeforeTryToStartUnknownVms','10','general');
 select fn_db_add_config_value('NumberVdsRefreshesBeforeRetryToStartUnknownVms','100','general');
 select fn_db_add_config_value('EnableMACAntiSpoofingFilterRules','true', 'general');
@@ -401,6 +414,8 @@ select fn_db_add_config_value('MaxSchedulerWeight','1000','general');
 select fn_db_add_config_value('SpeedOptimizationSchedulingThreshold','10','general');
 select fn_db_add_config_value('SchedulerAllowOverBooking','false','general');
 select fn_db_add_config_value('SchedulerOverBookingThreshold','10','general');
+select fn_db_add_config_value('SchedulerParallelEvaluationThreads','0','general');
+select fn_db_add_config_value('SchedulerParallelEvaluationMinHosts','50','general');
 select fn_db_add_config_value('UploadFileMaxTimeInMinutes','5','general');
 select fn_db_add_config_value('RetrieveDataMaxTimeInMinutes','5','general');
 select fn_db_add_config_value('StorageDomainOvfStoreCount','2','general');
@@ -416,6 +431,7 @@ select fn_db_add_config_value('oVirtISOsRepositoryPath','/usr/share/ovirt-node-i
 select fn_db_add_config_value('oVirtUpgradeScriptName','/usr/share/vdsm-reg/vdsm-upgrade','general');
 select fn_db_add_config_value('oVirtUploadPath','/data/updates/ovirt-node-image.iso','general');
 select fn_db_add_config_value('OvfUpdateIntervalInMinutes','60','general');
+select fn_db_add_config_value('OvfGenerationThreads','4','general');
 select fn_db_add_config_value('OvfItemsCountPerUpdate','100','general');
 select fn_db_add_config_value('PayloadSize','8192','general');
 -- Power management health check
@@ -467,6 +483,7 @@ select fn_db_add_config_value('StorageDomainFailureTimeoutInMinutes','5','genera
 select fn_db_add_config_value('StorageDomainNameSizeLimit','50','general');
 select fn_db_add_config_value('StoragePoolNameSizeLimit','40','general');
 select fn_db_add_config_value('StoragePoolNonOperationalResetTimeoutInMin','3','general');
+select fn_db_add_config_value('StorageDomainReportsAggregationIntervalInMillis','1000','general');
 select fn_db_add_config_value('StoragePoolRefreshTimeInSeconds','10','general');
 select fn_db_add_config_value('HostStorageConnectionAndPoolRefreshTimeInSeconds','30','general');
 select fn_db_add_config_value('SucceededJobCleanupTimeInMinutes','10','general');
@@ -512,6 +529,7 @@ select fn_db_add_config_value('VdsLocalDisksCriticallyLowFreeSpace','100','gener
 select fn_db_add_config_value('VdsLocalDisksLowFreeSpace','500','general');
 select fn_db_add_config_value('VdsRecoveryTimeoutInMinutes','3','general');
 select fn_db_add_config_value('VdsRefreshRate','2','general');
+select fn_db_add_config_value('VdsReloadIntervalInSeconds','60','general');
 select fn_db_add_config_value('vdsRetries','0','general');
 select fn_db_add_config_value('vdsTimeout','180','general');
 --Handling Virtual Machine Domain Name